@@ -58,6 +58,7 @@ dependencies {
     implementation(libs.navigation.ui)
     implementation(libs.places)
     implementation(libs.play.services.nearby)
+    implementation(libs.work.runtime)
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
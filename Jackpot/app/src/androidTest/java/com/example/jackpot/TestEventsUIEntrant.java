@@ -231,7 +231,7 @@ public class TestEventsUIEntrant {
         
         for (int i = 0; i < 3; i++) {
             User dummyUser = new User("dummy-id-" + i, "Dummy " + i, User.Role.ENTRANT, "", "", "", "", "", null, null);
-            testEvent.getWaitingList().add(dummyUser);
+            testEvent.moveTo(dummyUser, Event.Status.WAITING);
         }
         Tasks.await(db.collection("events").document(eventId).set(testEvent));
         testEventIds.add(eventId);
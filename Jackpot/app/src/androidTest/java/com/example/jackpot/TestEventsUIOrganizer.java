@@ -55,7 +55,6 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertNull;
 
 /**
  * Instrumented tests for UI flows related to the Organizer user role.
@@ -129,7 +128,7 @@ public class TestEventsUIOrganizer {
         for (int i = 0; i < 5; i++) {
             String dummyId = "dummy-" + i + UUID.randomUUID().toString();
             User dummyUser = new User(dummyId, "Dummy User " + i, User.Role.ENTRANT, "", "", "", "", "", null, null);
-            testEvent.getWaitingList().add(dummyUser);
+            testEvent.moveTo(dummyUser, Event.Status.WAITING);
         }
 
         testEvent.drawEvent(); // Move 2 users from waiting to invited
@@ -329,7 +328,8 @@ public class TestEventsUIOrganizer {
         assertNotNull("Created event could not be deserialized.", createdEvent);
 
         assertNotNull("Waiting list should not be null.", createdEvent.getWaitingList());
-        assertNull("Waiting list capacity should be null when not set.", createdEvent.getWaitingList().getCapacity());
+        assertEquals("Waiting list limit should be 0 (no limit) when not set.", 0, createdEvent.getWaitingListLimit());
+        assertEquals("Waiting list capacity should be 0 (no limit) when not set.", 0, (int) createdEvent.getWaitingList().getCapacity());
     }
 
     /**
@@ -508,14 +508,13 @@ public class TestEventsUIOrganizer {
         for (int i = 0; i < 3; i++) {
             String dummyId = "dummy-" + i + UUID.randomUUID().toString();
             User dummyUser = new User(dummyId, "Dummy User " + i, User.Role.ENTRANT, "", "", "", "", "", null, null);
-            testEvent.getWaitingList().add(dummyUser);
+            testEvent.moveTo(dummyUser, Event.Status.WAITING);
         }
         testEvent.drawEvent(); // Initial draw, moves 2 to invited, leaves 1 on waiting
 
         // Simulate one invited user cancelling
         User cancelledUser = testEvent.getInvitedList().getUsers().get(0);
-        testEvent.getInvitedList().remove(cancelledUser);
-        testEvent.getCancelledList().add(cancelledUser);
+        testEvent.moveToCancelled(cancelledUser);
 
         Tasks.await(db.collection("events").document(eventId).set(testEvent));
         testEventIds.add(eventId);
@@ -0,0 +1,437 @@
+package com.example.jackpot.loadtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.jackpot.AdmissionShards;
+import com.example.jackpot.Device;
+import com.example.jackpot.DrawJob;
+import com.example.jackpot.Entrant;
+import com.example.jackpot.Event;
+import com.example.jackpot.FDatabase;
+import com.example.jackpot.User;
+import com.example.jackpot.UserList;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.MemoryCacheSettings;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Load test for concurrent joins, leaves, draws and notifications against the local
+ * Firestore emulator. Drives the same FDatabase / DrawJob entry points the join, leave, draw
+ * and notify buttons use from many concurrent clients, then reads the event back and reports
+ * throughput, p50/p99 latency, lost updates and capacity violations.
+ *
+ * Skipped unless an emulator host is given. Start the emulator on the host with
+ *   firebase emulators:start --only firestore
+ * and run only this class (the emulator must be configured before any other test touches Firestore):
+ *   ./gradlew :app:connectedDebugAndroidTest
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.example.jackpot.loadtest.FirestoreLoadTest
+ *     -Pandroid.testInstrumentationRunnerArguments.firestoreEmulatorHost=10.0.2.2
+ *
+ * Optional arguments: firestoreEmulatorPort (8080), loadTestEntrants (1000),
+ * loadTestClients (32), loadTestCapacity (50), loadTestShards (0; above 0 runs the sharded
+ * admission path instead), loadTestStrict (false; fail on lost updates or capacity violations
+ * instead of only reporting them).
+ * 10.0.2.2 is the Android emulator's alias for the host's loopback, so no traffic leaves the machine.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class FirestoreLoadTest {
+    private static final String TAG = "FirestoreLoadTest";
+    private static final long OP_TIMEOUT_SECONDS = 60;
+
+    private enum Outcome { OK, REJECTED, FAILED }
+
+    private static Bundle args;
+    private static FirebaseFirestore db;
+    private static FDatabase fDatabase;
+    private static final List<String> seededUserIds = new ArrayList<>();
+    private static final List<String> seededEventIds = new ArrayList<>();
+
+    private final Map<String, Boolean> expectedOnEvent = new ConcurrentHashMap<>();
+
+    /**
+     * Points the default Firestore instance at the emulator, or skips the class if no host is given.
+     */
+    @BeforeClass
+    public static void connectToEmulator() {
+        args = InstrumentationRegistry.getArguments();
+        String host = args.getString("firestoreEmulatorHost");
+        assumeTrue("firestoreEmulatorHost not set; skipping load test", host != null);
+
+        db = FirebaseFirestore.getInstance();
+        db.useEmulator(host, intArg("firestoreEmulatorPort", 8080));
+        // Memory cache only, so every client read goes to the emulator
+        db.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setLocalCacheSettings(MemoryCacheSettings.newBuilder().build())
+                .build());
+        fDatabase = FDatabase.getInstance();
+    }
+
+    /**
+     * Deletes the documents seeded by this run.
+     */
+    @AfterClass
+    public static void deleteSeededData() throws Exception {
+        if (db == null) {
+            return;
+        }
+        List<String> paths = new ArrayList<>();
+        for (String id : seededUserIds) paths.add("users/" + id);
+        for (String id : seededEventIds) paths.add("events/" + id);
+        for (int start = 0; start < paths.size(); start += FDatabase.MAX_BATCH_WRITES) {
+            WriteBatch batch = db.batch();
+            for (String path : paths.subList(start, Math.min(start + FDatabase.MAX_BATCH_WRITES, paths.size()))) {
+                batch.delete(db.document(path));
+            }
+            Tasks.await(batch.commit(), OP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Join storm on a newly opened event, then leaves and late joins racing an organizer draw
+     * and waiting-list broadcasts.
+     */
+    @Test
+    public void concurrentJoinLeaveDrawAndNotify() throws Exception {
+        int entrantCount = intArg("loadTestEntrants", 1000);
+        int clients = intArg("loadTestClients", 32);
+        int capacity = intArg("loadTestCapacity", 50);
+        int shards = intArg("loadTestShards", 0);
+        int waitingLimit = entrantCount * 3 / 4;
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+
+        List<Entrant> entrants = seedEntrants(runId, entrantCount);
+        String eventId = seedEvent(runId, capacity, waitingLimit, shards);
+
+        LatencyRecorder joins = new LatencyRecorder("join");
+        LatencyRecorder leaves = new LatencyRecorder("leave");
+        LatencyRecorder draws = new LatencyRecorder("draw");
+        LatencyRecorder notifies = new LatencyRecorder("notify");
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+
+        // Phase 1: the first two thirds of entrants join as soon as the event opens
+        int stormSize = entrantCount * 2 / 3;
+        long phaseOneStart = System.nanoTime();
+        List<Future<?>> pending = new ArrayList<>();
+        for (Entrant entrant : entrants.subList(0, stormSize)) {
+            pending.add(pool.submit(() -> join(eventId, entrant, joins)));
+        }
+        awaitAll(pending);
+        long phaseOneNanos = System.nanoTime() - phaseOneStart;
+        String joinStorm = joins.report(phaseOneNanos);
+
+        // Phase 2: a tenth leave and the rest join while the organizer draws and notifies
+        LatencyRecorder lateJoins = new LatencyRecorder("join");
+        long phaseTwoStart = System.nanoTime();
+        pending.clear();
+        List<Entrant> joined = new ArrayList<>();
+        for (Entrant entrant : entrants.subList(0, stormSize)) {
+            if (Boolean.TRUE.equals(expectedOnEvent.get(entrant.getId()))) joined.add(entrant);
+        }
+        for (Entrant entrant : joined.subList(0, joined.size() / 10)) {
+            pending.add(pool.submit(() -> leave(eventId, entrant, leaves)));
+        }
+        for (Entrant entrant : entrants.subList(stormSize, entrantCount)) {
+            pending.add(pool.submit(() -> join(eventId, entrant, lateJoins)));
+        }
+        pending.add(pool.submit(() -> draw(eventId, runId, draws)));
+        for (int i = 0; i < 10; i++) {
+            pending.add(pool.submit(() -> notifyWaitingList(eventId, notifies)));
+        }
+        awaitAll(pending);
+        long phaseTwoNanos = System.nanoTime() - phaseTwoStart;
+        pool.shutdown();
+
+        // Read back and compare with what every client was told succeeded
+        Event result = Tasks.await(db.collection("events").document(eventId).get(),
+                OP_TIMEOUT_SECONDS, TimeUnit.SECONDS).toObject(Event.class);
+        List<String> waiting = shards > 0 ? shardedWaitingIds(eventId) : ids(result.getWaitingList());
+        List<String> invited = ids(result.getInvitedList());
+        Set<String> present = new HashSet<>(waiting);
+        present.addAll(invited);
+
+        int lostJoins = 0;
+        int lostLeaves = 0;
+        for (Map.Entry<String, Boolean> expected : expectedOnEvent.entrySet()) {
+            if (expected.getValue() && !present.contains(expected.getKey())) lostJoins++;
+            if (!expected.getValue() && waiting.contains(expected.getKey())) lostLeaves++;
+        }
+        int violations = 0;
+        if (waitingLimit > 0 && waiting.size() > waitingLimit) violations++;
+        if (invited.size() > capacity) violations++;
+        int duplicates = (waiting.size() + invited.size()) - present.size();
+        if (duplicates > 0) violations++;
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("entrants=%d clients=%d capacity=%d waitingLimit=%d shards=%d",
+                entrantCount, clients, capacity, waitingLimit, shards));
+        report.add("phase 1 (join storm): " + joinStorm);
+        report.add("phase 2: " + lateJoins.report(phaseTwoNanos));
+        report.add("phase 2: " + leaves.report(phaseTwoNanos));
+        report.add("phase 2: " + draws.report(phaseTwoNanos));
+        report.add("phase 2: " + notifies.report(phaseTwoNanos));
+        report.add(String.format("final waiting=%d invited=%d", waiting.size(), invited.size()));
+        report.add(String.format("lost updates: joins=%d leaves=%d", lostJoins, lostLeaves));
+        report.add(String.format("capacity violations=%d (duplicate entries=%d)", violations, duplicates));
+        publish(report);
+
+        if (Boolean.parseBoolean(args.getString("loadTestStrict", "false"))) {
+            assertEquals("lost joins", 0, lostJoins);
+            assertEquals("lost leaves", 0, lostLeaves);
+            assertEquals("capacity violations", 0, violations);
+        }
+    }
+
+    private List<Entrant> seedEntrants(String runId, int count) throws Exception {
+        List<Entrant> entrants = new ArrayList<>();
+        for (int start = 0; start < count; start += FDatabase.MAX_BATCH_WRITES) {
+            WriteBatch batch = db.batch();
+            for (int i = start; i < Math.min(start + FDatabase.MAX_BATCH_WRITES, count); i++) {
+                String id = "load-" + runId + "-user-" + i;
+                Entrant entrant = new Entrant(id, "Load Entrant " + i, User.Role.ENTRANT,
+                        id + "@example.com", "", "", "", "", new Device(), new GeoPoint(53.5, -113.5));
+                batch.set(db.collection("users").document(id), entrant);
+                entrants.add(entrant);
+                seededUserIds.add(id);
+            }
+            Tasks.await(batch.commit(), OP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        return entrants;
+    }
+
+    private String seedEvent(String runId, int capacity, int waitingLimit, int shards) throws Exception {
+        String eventId = "load-" + runId + "-event";
+        Date now = new Date();
+        Event event = new Event(eventId, "load-" + runId + "-organizer", "Load Test Event", "", "",
+                new UserList(waitingLimit), new UserList(capacity), new UserList(capacity), new UserList(capacity),
+                "Edmonton", new Date(now.getTime() + TimeUnit.DAYS.toMillis(7)), 53.5461, -113.4938, 0.0,
+                capacity, now, new Date(now.getTime() + TimeUnit.DAYS.toMillis(1)), "", "", false, "Party");
+        event.setAdmissionShards(shards);
+        Tasks.await(db.collection("events").document(eventId).set(event), OP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        seededEventIds.add(eventId);
+        return eventId;
+    }
+
+    /**
+     * Same path as the join buttons: the event as the screen loaded it, then either the
+     * sharded join or an update of just this entrant's membership.
+     */
+    private void join(String eventId, Entrant entrant, LatencyRecorder recorder) {
+        long start = System.nanoTime();
+        CompletableFuture<Outcome> done = new CompletableFuture<>();
+        fDatabase.getEventById(eventId, new FDatabase.EventCallback() {
+            @Override
+            public void onSuccess(Event event) {
+                Runnable joined = () -> expectedOnEvent.put(entrant.getId(), true);
+                if (event.getAdmissionShards() > 0) {
+                    fDatabase.joinWaitingListSharded(event, entrant, new FDatabase.StatusCallback() {
+                        @Override
+                        public void onSuccess() {
+                            joined.run();
+                            done.complete(Outcome.OK);
+                        }
+
+                        @Override
+                        public void onFailure(String error) {
+                            // A full waiting list turns the entrant away, like the unsharded path
+                            done.complete("Waiting list is full".equals(error) ? Outcome.REJECTED : Outcome.FAILED);
+                        }
+                    });
+                    return;
+                }
+                try {
+                    entrant.joinWaitingList(event);
+                } catch (IllegalStateException | IllegalArgumentException e) {
+                    done.complete(Outcome.REJECTED);
+                    return;
+                }
+                fDatabase.updateEventFields(eventId,
+                        event.membershipFields(Collections.singletonList(entrant.getId())),
+                        completeWith(done, () -> {
+                            fDatabase.recordEventMembership(entrant.getId(), eventId);
+                            joined.run();
+                        }));
+            }
+
+            @Override
+            public void onFailure(String error) {
+                done.complete(Outcome.FAILED);
+            }
+        });
+        record(recorder, start, done);
+    }
+
+    /** Same path as the leave buttons; see {@link #join}. */
+    private void leave(String eventId, Entrant entrant, LatencyRecorder recorder) {
+        long start = System.nanoTime();
+        CompletableFuture<Outcome> done = new CompletableFuture<>();
+        fDatabase.getEventById(eventId, new FDatabase.EventCallback() {
+            @Override
+            public void onSuccess(Event event) {
+                Runnable left = () -> expectedOnEvent.put(entrant.getId(), false);
+                if (event.getAdmissionShards() > 0) {
+                    fDatabase.leaveWaitingListSharded(eventId, entrant.getId(), completeWith(done, left));
+                    return;
+                }
+                Event.ChangeSet change = event.removeAll(
+                        Collections.singletonList(entrant.getId()), Event.Status.WAITING);
+                if (change.isEmpty()) {
+                    // Already drawn off the waiting list
+                    done.complete(Outcome.REJECTED);
+                    return;
+                }
+                fDatabase.updateEventFields(eventId, change.getUpdateFields(), completeWith(done, left));
+            }
+
+            @Override
+            public void onFailure(String error) {
+                done.complete(Outcome.FAILED);
+            }
+        });
+        record(recorder, start, done);
+    }
+
+    private void draw(String eventId, String runId, LatencyRecorder recorder) {
+        long start = System.nanoTime();
+        try {
+            new DrawJob(eventId, "load-" + runId).run();
+            recorder.success(System.nanoTime() - start);
+        } catch (Exception e) {
+            Log.e(TAG, "Draw failed", e);
+            recorder.failure();
+        }
+    }
+
+    private void notifyWaitingList(String eventId, LatencyRecorder recorder) {
+        long start = System.nanoTime();
+        CompletableFuture<Outcome> done = new CompletableFuture<>();
+        fDatabase.getEventById(eventId, new FDatabase.EventCallback() {
+            @Override
+            public void onSuccess(Event event) {
+                fDatabase.sendBroadcast(event, "waitingList", "Event", "Load test update",
+                        completeWith(done, () -> { }));
+            }
+
+            @Override
+            public void onFailure(String error) {
+                done.complete(Outcome.FAILED);
+            }
+        });
+        record(recorder, start, done);
+    }
+
+    private static FDatabase.StatusCallback completeWith(CompletableFuture<Outcome> done, Runnable onSuccess) {
+        return new FDatabase.StatusCallback() {
+            @Override
+            public void onSuccess() {
+                onSuccess.run();
+                done.complete(Outcome.OK);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e(TAG, "Write failed: " + error);
+                done.complete(Outcome.FAILED);
+            }
+        };
+    }
+
+    private static void record(LatencyRecorder recorder, long start, CompletableFuture<Outcome> done) {
+        Outcome outcome;
+        try {
+            outcome = done.get(OP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            outcome = Outcome.FAILED;
+        } catch (Exception e) {
+            Thread.currentThread().interrupt();
+            outcome = Outcome.FAILED;
+        }
+        switch (outcome) {
+            case OK:
+                recorder.success(System.nanoTime() - start);
+                break;
+            case REJECTED:
+                recorder.rejection();
+                break;
+            default:
+                recorder.failure();
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws Exception {
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static List<String> shardedWaitingIds(String eventId) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (DocumentSnapshot doc : Tasks.await(db.collection("events").document(eventId)
+                .collection(AdmissionShards.ENTRANTS)
+                .whereEqualTo("status", AdmissionShards.STATUS_WAITING).get(),
+                OP_TIMEOUT_SECONDS, TimeUnit.SECONDS).getDocuments()) {
+            ids.add(doc.getId());
+        }
+        return ids;
+    }
+
+    private static List<String> ids(UserList list) {
+        List<String> ids = new ArrayList<>();
+        if (list != null && list.getUsers() != null) {
+            for (User user : list.getUsers()) {
+                ids.add(user.getId());
+            }
+        }
+        return ids;
+    }
+
+    /** Logs the report and sends it as instrumentation status so headless runs print it. */
+    private static void publish(List<String> lines) {
+        Bundle status = new Bundle();
+        StringBuilder text = new StringBuilder("\n");
+        for (String line : lines) {
+            Log.i(TAG, line);
+            text.append(line).append('\n');
+        }
+        status.putString("stream", text.toString());
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, status);
+    }
+
+    private static int intArg(String key, int fallback) {
+        String value = args.getString(key);
+        return value != null ? Integer.parseInt(value) : fallback;
+    }
+}
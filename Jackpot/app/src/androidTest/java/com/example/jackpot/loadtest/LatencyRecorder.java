@@ -0,0 +1,82 @@
+package com.example.jackpot.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Thread-safe latency and outcome counter for one kind of load-test operation.
+ */
+public class LatencyRecorder {
+    private final String name;
+    private final List<Long> latenciesNanos = new ArrayList<>();
+    private int failures = 0;
+    private int rejections = 0;
+
+    /**
+     * Creates a recorder.
+     * @param name Operation name used in the report, e.g. "join".
+     */
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a completed operation.
+     * @param nanos Time from request to completion.
+     */
+    public synchronized void success(long nanos) {
+        latenciesNanos.add(nanos);
+    }
+
+    /**
+     * Records an operation that failed (e.g. a Firestore error or timeout).
+     */
+    public synchronized void failure() {
+        failures++;
+    }
+
+    /**
+     * Records an operation the domain model refused (e.g. waiting list full).
+     */
+    public synchronized void rejection() {
+        rejections++;
+    }
+
+    /**
+     * @return Number of successful operations.
+     */
+    public synchronized int count() {
+        return latenciesNanos.size();
+    }
+
+    /**
+     * Latency at a percentile, using the nearest-rank method.
+     * @param percentile Percentile between 0 and 100.
+     * @return Latency in milliseconds, or 0 if nothing was recorded.
+     */
+    public synchronized double percentileMillis(double percentile) {
+        if (latenciesNanos.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(latenciesNanos);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1)) / 1_000_000.0;
+    }
+
+    /**
+     * Formats one report line.
+     * @param wallNanos Wall-clock duration of the phase, used for throughput.
+     * @return The report line.
+     */
+    public synchronized String report(long wallNanos) {
+        double seconds = wallNanos / 1_000_000_000.0;
+        double throughput = seconds > 0 ? count() / seconds : 0;
+        return String.format(Locale.US,
+                "%-8s ok=%d rejected=%d failed=%d throughput=%.1f/s p50=%.1fms p99=%.1fms",
+                name, count(), rejections, failures, throughput,
+                percentileMillis(50), percentileMillis(99));
+    }
+}
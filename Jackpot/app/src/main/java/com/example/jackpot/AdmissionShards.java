@@ -0,0 +1,137 @@
+package com.example.jackpot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * CMPUT 301 – Event Lottery App (“Jackpot”)
+ * File: AdmissionShards.java
+ *
+ * Purpose/Role:
+ *   Capacity and shard-selection rules for sharded waiting-list admission.
+ *
+ * Design Notes:
+ *   - A hot event keeps its waiting list in events/{eventId}/entrants/{userId} instead of
+ *     the event document, and counts it in events/{eventId}/admissionShards/{0..N-1}.
+ *     Firestore sustains about one write per second per document, so N shards accept
+ *     roughly N times as many joins as the single event document.
+ *   - Sharding is opt-in per event. The organizer's waiting list and entrant map read the
+ *     entrant documents after the event's own waiting list, and count it from the shard
+ *     counters. Notify-all reaches sharded entrants through the status on their profiles.
+ *   - The waiting-list limit is split into a fixed quota per shard. A join only lands in a
+ *     shard below its quota, so the limit is never exceeded; a join whose shards are full
+ *     looks for any shard with room before it is rejected, so the list still fills.
+ *   - Pure Java so the rules can be unit tested; FDatabase and DrawJob do the Firestore work.
+ */
+
+/**
+ * Static helpers for sharded waiting-list admission.
+ */
+public final class AdmissionShards {
+    /** Shards used for events that qualify for sharded admission. */
+    public static final int DEFAULT_SHARDS = 32;
+    /** High-demand events with a waiting-list limit below this keep it on the event document. */
+    public static final int SHARDING_THRESHOLD = 200;
+    /** Random shards a join tries before reading every shard to find room. */
+    public static final int MAX_PROBES = 3;
+    /** Quota of a shard when the waiting list has no limit. */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+    /** Subcollection of an event holding one document per sharded entrant, keyed by user ID. */
+    public static final String ENTRANTS = "entrants";
+    /** Subcollection of an event holding the shard counters, keyed 0 to N-1. */
+    public static final String SHARDS = "admissionShards";
+    /** Status of an entrant document still on the waiting list. */
+    public static final String STATUS_WAITING = "waiting";
+    /** Status of an entrant document moved to the invited list by a draw. */
+    public static final String STATUS_INVITED = "invited";
+
+    private AdmissionShards() {}
+
+    /**
+     * Chooses how many shards a new event uses.
+     * @param waitingListLimit The event's waiting-list limit; 0 or less means no limit
+     * @param highDemand Whether the organizer asked for sharded admission
+     * @return {@link #DEFAULT_SHARDS} for high-demand events with no limit or a large one,
+     *         or 0 to keep the waiting list on the event document
+     */
+    public static int shardCountFor(int waitingListLimit, boolean highDemand) {
+        if (!highDemand) {
+            return 0;
+        }
+        return waitingListLimit <= 0 || waitingListLimit >= SHARDING_THRESHOLD ? DEFAULT_SHARDS : 0;
+    }
+
+    /**
+     * Gets one shard's share of the waiting-list limit. Shares differ by at most one and add up to the limit.
+     * @param waitingListLimit The event's waiting-list limit; null, 0 or less means no limit
+     * @param shards The number of shards
+     * @param shard The shard, from 0 to shards - 1
+     * @return The most entrants the shard may hold, or {@link #UNLIMITED}
+     */
+    public static long shardLimit(Integer waitingListLimit, int shards, int shard) {
+        if (shards <= 0 || shard < 0 || shard >= shards) {
+            throw new IllegalArgumentException("Shard " + shard + " out of range for " + shards + " shards");
+        }
+        if (waitingListLimit == null || waitingListLimit <= 0) {
+            return UNLIMITED;
+        }
+        return waitingListLimit / shards + (shard < waitingListLimit % shards ? 1 : 0);
+    }
+
+    /**
+     * Picks distinct random shards for a join to try, so concurrent joins spread across shards.
+     * @param shards The number of shards
+     * @param probes How many shards to pick
+     * @param random The source of randomness
+     * @return Up to {@code probes} distinct shard numbers
+     */
+    public static List<Integer> probeOrder(int shards, int probes, Random random) {
+        List<Integer> all = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            all.add(i);
+        }
+        Collections.shuffle(all, random);
+        return new ArrayList<>(all.subList(0, Math.min(probes, shards)));
+    }
+
+    /**
+     * Picks a random shard that still has room.
+     * @param counts The number of entrants in each shard
+     * @param limits The quota of each shard
+     * @param random The source of randomness
+     * @return A shard below its quota, or -1 if every shard is full
+     */
+    public static int pickShardWithRoom(long[] counts, long[] limits, Random random) {
+        List<Integer> open = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] < limits[i]) {
+                open.add(i);
+            }
+        }
+        return open.isEmpty() ? -1 : open.get(random.nextInt(open.size()));
+    }
+
+    /**
+     * Picks the entrants a draw invites. The winners depend only on the entrants and the
+     * random source, not on the order the entrants were read in.
+     * @param waitingIds IDs of everyone on the waiting list
+     * @param spots How many entrants to invite
+     * @param random The source of randomness; draws pass an unseeded SecureRandom so the
+     *               winners cannot be predicted
+     * @return The invited IDs; everyone if there are no more entrants than spots
+     */
+    public static List<String> pickWinners(List<String> waitingIds, int spots, Random random) {
+        List<String> sorted = new ArrayList<>(waitingIds);
+        Collections.sort(sorted);
+        if (spots <= 0) {
+            return new ArrayList<>();
+        }
+        if (sorted.size() <= spots) {
+            return sorted;
+        }
+        Collections.shuffle(sorted, random);
+        return new ArrayList<>(sorted.subList(0, spots));
+    }
+}
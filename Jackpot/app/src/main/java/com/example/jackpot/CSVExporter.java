@@ -9,9 +9,11 @@ import android.widget.Toast;
 
 import androidx.core.content.FileProvider;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
@@ -99,57 +101,9 @@ public class CSVExporter {
      */
     private static void writeAttendeesToCSV(File csvFile, Event event, List<User> attendees)
             throws IOException {
-        FileWriter writer = new FileWriter(csvFile);
-
-        try {
-            // Write event information header
-            writer.append("Event Name:,").append(escapeCsvValue(event.getName())).append("\n");
-
-            if (event.getDate() != null) {
-                SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d, yyyy", Locale.US);
-                writer.append("Event Date:,").append(dateFormat.format(event.getDate())).append("\n");
-            }
-
-            if (event.getLocation() != null) {
-                writer.append("Location:,").append(escapeCsvValue(event.getLocation())).append("\n");
-            }
-
-            writer.append("Total Attendees:,").append(String.valueOf(attendees.size())).append("\n");
-            writer.append("\n");
-
-            // Write column headers
-            writer.append("Name,Email,Phone\n");
-
-            // Write attendee data
-            for (User user : attendees) {
-                writer.append(escapeCsvValue(user.getName())).append(",");
-                writer.append(escapeCsvValue(user.getEmail())).append(",");
-                writer.append(escapeCsvValue(user.getPhone())).append("\n");
-            }
-
-        } finally {
-            writer.flush();
-            writer.close();
-        }
-    }
-
-    /**
-     * Escapes special characters in CSV values.
-     *
-     * @param value The value to escape
-     * @return The escaped value
-     */
-    private static String escapeCsvValue(String value) {
-        if (value == null) {
-            return "";
+        try (Writer writer = new BufferedWriter(new FileWriter(csvFile))) {
+            CsvWriter.writeAttendees(writer, event, attendees);
         }
-
-        // If value contains comma, quote, or newline, wrap in quotes and escape quotes
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        }
-
-        return value;
     }
 
     /**
@@ -0,0 +1,72 @@
+package com.example.jackpot;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Formats event attendee lists as CSV. Has no Android dependencies, so the
+ * formatting can be tested and benchmarked on a plain JVM; {@link CSVExporter}
+ * handles files and sharing.
+ */
+public class CsvWriter {
+
+    private CsvWriter() {}
+
+    /**
+     * Writes the event header and one row per attendee.
+     *
+     * @param writer The writer to append to; not closed
+     * @param event The event information
+     * @param attendees The list of attendees
+     * @throws IOException If writing fails
+     */
+    public static void writeAttendees(Writer writer, Event event, List<User> attendees)
+            throws IOException {
+        // Write event information header
+        writer.append("Event Name:,").append(escapeCsvValue(event.getName())).append("\n");
+
+        if (event.getDate() != null) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d, yyyy", Locale.US);
+            writer.append("Event Date:,").append(dateFormat.format(event.getDate())).append("\n");
+        }
+
+        if (event.getLocation() != null) {
+            writer.append("Location:,").append(escapeCsvValue(event.getLocation())).append("\n");
+        }
+
+        writer.append("Total Attendees:,").append(String.valueOf(attendees.size())).append("\n");
+        writer.append("\n");
+
+        // Write column headers
+        writer.append("Name,Email,Phone\n");
+
+        // Write attendee data
+        for (User user : attendees) {
+            writer.append(escapeCsvValue(user.getName())).append(",");
+            writer.append(escapeCsvValue(user.getEmail())).append(",");
+            writer.append(escapeCsvValue(user.getPhone())).append("\n");
+        }
+    }
+
+    /**
+     * Escapes special characters in CSV values.
+     *
+     * @param value The value to escape
+     * @return The escaped value
+     */
+    public static String escapeCsvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        // If value contains comma, quote, or newline, wrap in quotes and escape quotes
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+
+        return value;
+    }
+}
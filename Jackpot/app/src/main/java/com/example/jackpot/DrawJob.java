@@ -0,0 +1,318 @@
+package com.example.jackpot;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/*
+ * CMPUT 301 – Event Lottery App (“Jackpot”)
+ * File: DrawJob.java
+ *
+ * Purpose/Role:
+ *   Runs one lottery draw and sends its notifications as a sequence of resumable steps.
+ *
+ * Design Notes:
+ *   - Progress is kept in a checkpoint document at events/{eventId}/draws/{drawId}.
+ *   - Step 1 draws and commits the winners' memberships together with the checkpoint in one
+ *     transaction, so a draw is either fully recorded or not at all. The winners are drawn
+ *     with an unseeded SecureRandom so they cannot be worked out from the draw ID; later
+ *     steps only read them back from the checkpoint. It only fills the seats
+ *     left, so a scheduled draw after a manual one (their draw IDs differ) never over-invites. Events with sharded
+ *     admission draw from their entrants subcollection across all shards instead.
+ *   - Step 2 writes "selected" notifications in batches, skipping entrants who opted out of
+ *     notifications; each batch also advances the checkpoint, so a restart continues after
+ *     the last committed batch.
+ *   - Step 3 sends one "not selected" broadcast and marks the draw done.
+ *   - Notification and broadcast IDs are derived from the draw ID, so repeating a step
+ *     overwrites the same documents instead of creating duplicates.
+ *   - Blocks on Firestore tasks; only call run() from a background thread.
+ */
+
+/**
+ * A resumable, idempotent lottery draw for one event.
+ */
+public class DrawJob {
+    private static final String TAG = "DrawJob";
+    /**
+     * Entrants notified per batch; each costs a read of their profile for the opt-out flag,
+     * a notification and a status on their profile, and one extra write advances the checkpoint.
+     */
+    static final int NOTIFY_BATCH_SIZE = 200;
+    static final String STATUS_NOTIFYING = "notifying";
+    static final String STATUS_DONE = "done";
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final String eventId;
+    private final String drawId;
+
+    /**
+     * Creates a draw job.
+     * @param eventId The ID of the event to draw.
+     * @param drawId A unique ID for this draw; reuse it to resume the same draw.
+     */
+    public DrawJob(String eventId, String drawId) {
+        this.eventId = eventId;
+        this.drawId = drawId;
+    }
+
+    /**
+     * Runs the draw, or resumes it from its checkpoint.
+     * @return The number of entrants invited by this draw.
+     * @throws ExecutionException If a Firestore step fails; the cause is the Firestore error.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public int run() throws ExecutionException, InterruptedException {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference checkpointRef = eventRef.collection("draws").document(drawId);
+
+        drawOnce(eventRef, checkpointRef);
+
+        DocumentSnapshot checkpoint = Tasks.await(checkpointRef.get());
+        @SuppressWarnings("unchecked")
+        List<String> invitedIds = (List<String>) checkpoint.get("invitedIds");
+        if (invitedIds == null) {
+            invitedIds = new ArrayList<>();
+        }
+        if (STATUS_DONE.equals(checkpoint.getString("status"))) {
+            Log.d(TAG, "Draw " + drawId + " already finished");
+            return invitedIds.size();
+        }
+
+        String eventName = checkpoint.getString("eventName");
+        String organizerId = checkpoint.getString("organizerID");
+        String organizerName = organizerId != null
+                ? Tasks.await(FDatabase.getInstance().lookupOrganizerName(organizerId))
+                : null;
+
+        notifySelected(checkpointRef, checkpoint, invitedIds, eventName, organizerId, organizerName);
+        broadcastNotSelected(eventRef, checkpointRef, checkpoint, eventName, organizerId, organizerName);
+
+        Log.d(TAG, "Draw " + drawId + " for " + eventId + " finished, invited " + invitedIds.size());
+        return invitedIds.size();
+    }
+
+    /**
+     * Step 1: draws entrants and stores the new lists and the checkpoint atomically.
+     * Does nothing if the checkpoint already exists.
+     */
+    private void drawOnce(DocumentReference eventRef, DocumentReference checkpointRef)
+            throws ExecutionException, InterruptedException {
+        // Transactions cannot run queries, so find a sharded waiting list first;
+        // the transaction re-reads each winner before inviting them
+        List<String> shardedWaitingIds = new ArrayList<>();
+        Long shards = Tasks.await(eventRef.get()).getLong("admissionShards");
+        if (shards != null && shards > 0) {
+            for (DocumentSnapshot doc : Tasks.await(eventRef.collection(AdmissionShards.ENTRANTS)
+                    .whereEqualTo("status", AdmissionShards.STATUS_WAITING).get()).getDocuments()) {
+                shardedWaitingIds.add(doc.getId());
+            }
+        }
+
+        Tasks.await(db.runTransaction(transaction -> {
+            if (transaction.get(checkpointRef).exists()) {
+                return null;
+            }
+            DocumentSnapshot stored = transaction.get(eventRef);
+            Event event = stored.toObject(Event.class);
+            if (event == null) {
+                throw new FirebaseFirestoreException("Event " + eventId + " not found",
+                        FirebaseFirestoreException.Code.NOT_FOUND);
+            }
+
+            // A retried transaction may pick different entrants; only the committed one counts
+            Random random = new SecureRandom();
+            List<String> invitedIds = new ArrayList<>();
+            if (event.getAdmissionShards() > 0) {
+                invitedIds = drawSharded(transaction, eventRef, event, shardedWaitingIds, random);
+            } else {
+                for (User user : event.drawEvent(random)) {
+                    invitedIds.add(user.getId());
+                }
+            }
+            // Only the winners' memberships change; the counters are recounted from the
+            // stored memberships so this write also corrects any that drifted
+            Map<String, Object> fields = event.membershipFields(invitedIds);
+            Map<String, Object> counters = Event.counterFields(stored.getData(), fields);
+            fields.putAll(counters);
+            if (!fields.isEmpty()) {
+                transaction.update(eventRef, FDatabase.forUpdate(fields));
+            }
+            int notSelected;
+            if (invitedIds.isEmpty()) {
+                // Every seat was already filled, e.g. by a manual draw before registration
+                // closed; the waiting list heard "not selected" from that draw
+                notSelected = 0;
+            } else if (event.getAdmissionShards() > 0) {
+                notSelected = shardedWaitingIds.size() - invitedIds.size();
+            } else {
+                notSelected = ((Number) counters.get(Event.Status.WAITING.getCountField())).intValue();
+            }
+
+            Map<String, Object> checkpoint = new HashMap<>();
+            checkpoint.put("drawId", drawId);
+            checkpoint.put("eventName", event.getName());
+            checkpoint.put("organizerID", event.getCreatedBy());
+            checkpoint.put("invitedIds", invitedIds);
+            checkpoint.put("notSelectedCount", notSelected);
+            checkpoint.put("notifiedCount", 0);
+            checkpoint.put("broadcastSent", false);
+            checkpoint.put("status", STATUS_NOTIFYING);
+            checkpoint.put("createdAt", FieldValue.serverTimestamp());
+            transaction.set(checkpointRef, checkpoint);
+            return null;
+        }));
+    }
+
+    /**
+     * Draws from a sharded waiting list inside the step 1 transaction. Winners are added to
+     * the event as invited and their entrant documents marked invited, and their places
+     * are released from the shard counters. Each winner costs one read and one write.
+     * @return The IDs of the entrants invited; winners who left since the query are skipped
+     */
+    private List<String> drawSharded(Transaction transaction, DocumentReference eventRef, Event event,
+                                     List<String> waitingIds, Random random)
+            throws FirebaseFirestoreException {
+        List<String> winners = AdmissionShards.pickWinners(waitingIds, event.remainingSeats(), random);
+
+        // All reads must come before the first write
+        Map<String, DocumentSnapshot> snapshots = new HashMap<>();
+        for (String userId : winners) {
+            snapshots.put(userId, transaction.get(eventRef.collection(AdmissionShards.ENTRANTS).document(userId)));
+        }
+
+        List<String> invitedIds = new ArrayList<>();
+        Map<Long, Integer> releasedByShard = new HashMap<>();
+        for (String userId : winners) {
+            DocumentSnapshot entrantDoc = snapshots.get(userId);
+            User user = entrantDoc.exists() && AdmissionShards.STATUS_WAITING.equals(entrantDoc.getString("status"))
+                    ? entrantDoc.get("user", User.class) : null;
+            if (user == null) {
+                continue;
+            }
+            event.moveTo(user, Event.Status.INVITED);
+            transaction.update(entrantDoc.getReference(), "status", AdmissionShards.STATUS_INVITED);
+            Long shard = entrantDoc.getLong("shard");
+            if (shard != null) {
+                Integer released = releasedByShard.get(shard);
+                releasedByShard.put(shard, (released == null ? 0 : released) + 1);
+            }
+            invitedIds.add(userId);
+        }
+        for (Map.Entry<Long, Integer> entry : releasedByShard.entrySet()) {
+            transaction.update(eventRef.collection(AdmissionShards.SHARDS).document(String.valueOf(entry.getKey())),
+                    "count", FieldValue.increment(-entry.getValue()));
+        }
+        return invitedIds;
+    }
+
+    /**
+     * Step 2: writes a notification to each invited entrant and records them as invited on
+     * their profile, one checkpointed batch at a time.
+     */
+    private void notifySelected(DocumentReference checkpointRef, DocumentSnapshot checkpoint,
+                                List<String> invitedIds, String eventName, String organizerId,
+                                String organizerName) throws ExecutionException, InterruptedException {
+        Long notified = checkpoint.getLong("notifiedCount");
+        int start = notified != null ? notified.intValue() : 0;
+
+        while (start < invitedIds.size()) {
+            int end = Math.min(start + NOTIFY_BATCH_SIZE, invitedIds.size());
+            List<String> recipientIds = invitedIds.subList(start, end);
+            Set<String> optedOut = optedOut(recipientIds);
+            WriteBatch batch = db.batch();
+            for (String recipientId : recipientIds) {
+                // Lets the inbox check broadcast audiences without reading the event
+                batch.set(db.collection("users").document(recipientId),
+                        FDatabase.memberStatusUpdate(eventId, Event.Status.INVITED.getField()), SetOptions.merge());
+                if (optedOut.contains(recipientId)) {
+                    continue;
+                }
+                String notificationId = drawId + "_" + recipientId;
+                Map<String, Object> notificationDoc = new HashMap<>();
+                notificationDoc.put("notificationID", notificationId);
+                notificationDoc.put("recipientID", recipientId);
+                notificationDoc.put("eventID", eventId);
+                notificationDoc.put("eventName", eventName);
+                notificationDoc.put("notifType", "Event");
+                notificationDoc.put("payload", "Status: You're selected!");
+                notificationDoc.put("organizerID", organizerId);
+                notificationDoc.put("organizerName", organizerName);
+                notificationDoc.put("viewedByEntrant", false);
+                notificationDoc.put("sentAt", FieldValue.serverTimestamp());
+                batch.set(db.collection("notifications").document(notificationId), notificationDoc);
+            }
+            batch.update(checkpointRef, "notifiedCount", end);
+            Tasks.await(batch.commit());
+            Log.d(TAG, "Draw " + drawId + " notified " + end + "/" + invitedIds.size());
+            start = end;
+        }
+    }
+
+    /**
+     * Finds the entrants among the given users who opted out of notifications, with the same
+     * rule as {@link FDatabase#addNotification}.
+     * @param userIds The users to check
+     * @return The IDs of those who opted out
+     */
+    private Set<String> optedOut(List<String> userIds) throws ExecutionException, InterruptedException {
+        Set<String> optedOut = new HashSet<>();
+        for (int i = 0; i < userIds.size(); i += FDatabase.MAX_WHERE_IN) {
+            List<String> chunk = new ArrayList<>(userIds.subList(i, Math.min(i + FDatabase.MAX_WHERE_IN, userIds.size())));
+            for (DocumentSnapshot doc : Tasks.await(db.collection("users")
+                    .whereIn(FieldPath.documentId(), chunk).get()).getDocuments()) {
+                Object role = doc.get("role");
+                if (role != null && "ENTRANT".equals(role.toString())
+                        && Boolean.TRUE.equals(doc.getBoolean("notificationsOptOut"))) {
+                    optedOut.add(doc.getId());
+                }
+            }
+        }
+        return optedOut;
+    }
+
+    /**
+     * Step 3: sends one broadcast to everyone left on the waiting list and marks the draw done.
+     */
+    private void broadcastNotSelected(DocumentReference eventRef, DocumentReference checkpointRef,
+                                      DocumentSnapshot checkpoint, String eventName, String organizerId,
+                                      String organizerName) throws ExecutionException, InterruptedException {
+        WriteBatch batch = db.batch();
+        Long notSelected = checkpoint.getLong("notSelectedCount");
+        if (!Boolean.TRUE.equals(checkpoint.getBoolean("broadcastSent"))
+                && notSelected != null && notSelected > 0) {
+            DocumentReference broadcastRef = eventRef.collection("broadcasts").document(drawId);
+            Map<String, Object> broadcastDoc = new HashMap<>();
+            broadcastDoc.put("notificationID", broadcastRef.getId());
+            broadcastDoc.put("eventID", eventId);
+            broadcastDoc.put("eventName", eventName);
+            broadcastDoc.put("organizerID", organizerId);
+            broadcastDoc.put("organizerName", organizerName);
+            broadcastDoc.put("notifType", "Event");
+            broadcastDoc.put("payload", "Status: Not selected");
+            broadcastDoc.put("audience", "waitingList");
+            broadcastDoc.put("sentAt", FieldValue.serverTimestamp());
+            batch.set(broadcastRef, broadcastDoc);
+        }
+        batch.update(checkpointRef, "broadcastSent", true, "status", STATUS_DONE);
+        Tasks.await(batch.commit());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.jackpot;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LotteryService} that queues draws as {@link DrawWorker} jobs.
+ * There is at most one queued or running draw per event for manual draws, and one
+ * scheduled draw per event at its registration close time.
+ */
+public class DrawScheduler implements LotteryService {
+    private static final String TAG = "DrawScheduler";
+    private static final String WORK_PREFIX = "draw-";
+    private static final String SCHEDULED_PREFIX = "scheduled-draw-";
+
+    private final WorkManager workManager;
+
+    /**
+     * Creates a scheduler.
+     * @param context Any context; the application context is used.
+     */
+    public DrawScheduler(Context context) {
+        this.workManager = WorkManager.getInstance(context.getApplicationContext());
+    }
+
+    /**
+     * Queues a draw for an event to run as soon as the device is online.
+     * Does nothing if a draw for the event is already queued or running.
+     * @param eventId The ID of the event to draw.
+     */
+    @Override
+    public void requestDraw(String eventId) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        workManager.enqueueUniqueWork(WORK_PREFIX + eventId, ExistingWorkPolicy.KEEP,
+                buildRequest(eventId, UUID.randomUUID().toString(), constraints, 0));
+    }
+
+    /**
+     * Schedules the draw for an event to run once registration closes, replacing any
+     * earlier schedule so changed dates take effect. The draw waits for an unmetered
+     * network and a battery that is not low. Cancels the schedule if there is no close time.
+     * @param eventId The ID of the event.
+     * @param regCloseAt When registration closes, or null to cancel.
+     */
+    public void scheduleDraw(String eventId, @Nullable Date regCloseAt) {
+        if (eventId == null || eventId.isEmpty()) {
+            return;
+        }
+        String workName = SCHEDULED_PREFIX + eventId;
+        if (regCloseAt == null) {
+            workManager.cancelUniqueWork(workName);
+            return;
+        }
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresBatteryNotLow(true)
+                .build();
+        long delayMs = Math.max(0, regCloseAt.getTime() - System.currentTimeMillis());
+        // Derived from the close time: re-scheduling an unchanged date resumes the same draw
+        // instead of starting a second one
+        String drawId = "close-" + regCloseAt.getTime();
+        workManager.enqueueUniqueWork(workName, ExistingWorkPolicy.REPLACE,
+                buildRequest(eventId, drawId, constraints, delayMs));
+        Log.d(TAG, "Scheduled draw for " + eventId + " in " + delayMs + " ms");
+    }
+
+    /**
+     * Cancels the scheduled draw for an event, e.g. when it is deleted.
+     * @param eventId The ID of the event.
+     */
+    public void cancelScheduledDraw(String eventId) {
+        workManager.cancelUniqueWork(SCHEDULED_PREFIX + eventId);
+    }
+
+    /**
+     * Schedules draws for every event an organizer owns whose registration has not closed yet.
+     * Events that already closed are left alone so finished draws are not repeated.
+     * @param organizerId The ID of the organizer.
+     */
+    public void scheduleOwnedEvents(String organizerId) {
+        FDatabase.getInstance().queryEventsByCreator(organizerId, new FDatabase.DataCallback<Event>() {
+            @Override
+            public void onSuccess(ArrayList<Event> data) {
+                Date now = new Date();
+                for (Event event : data) {
+                    if (event.getRegCloseAt() != null && event.getRegCloseAt().after(now)) {
+                        scheduleDraw(event.getEventId(), event.getRegCloseAt());
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Failed to load events to schedule draws", e);
+            }
+        });
+    }
+
+    /**
+     * Builds a draw request. The draw ID stays the same across retries,
+     * which is what lets an interrupted draw resume from its checkpoint.
+     */
+    private OneTimeWorkRequest buildRequest(String eventId, String drawId, Constraints constraints,
+                                            long delayMs) {
+        Data input = new Data.Builder()
+                .putString(DrawWorker.KEY_EVENT_ID, eventId)
+                .putString(DrawWorker.KEY_DRAW_ID, drawId)
+                .build();
+        return new OneTimeWorkRequest.Builder(DrawWorker.class)
+                .setInputData(input)
+                .setConstraints(constraints)
+                .setInitialDelay(delayMs, TimeUnit.MILLISECONDS)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.jackpot;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Background worker that runs a {@link DrawJob}. WorkManager keeps the work across
+ * process death and retries it with the same input, so an interrupted draw resumes
+ * from its checkpoint.
+ */
+public class DrawWorker extends Worker {
+    private static final String TAG = "DrawWorker";
+    static final String KEY_EVENT_ID = "eventId";
+    static final String KEY_DRAW_ID = "drawId";
+    static final String KEY_INVITED_COUNT = "invitedCount";
+    private static final int MAX_ATTEMPTS = 10;
+
+    /**
+     * Creates the worker. Called by WorkManager.
+     * @param context The application context.
+     * @param params Parameters for this run, including the event and draw IDs.
+     */
+    public DrawWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String eventId = getInputData().getString(KEY_EVENT_ID);
+        String drawId = getInputData().getString(KEY_DRAW_ID);
+        if (eventId == null || drawId == null) {
+            Log.e(TAG, "Missing event or draw ID");
+            return Result.failure();
+        }
+
+        try {
+            int invited = new DrawJob(eventId, drawId).run();
+            return Result.success(new Data.Builder().putInt(KEY_INVITED_COUNT, invited).build());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FirebaseFirestoreException
+                    && ((FirebaseFirestoreException) cause).getCode() == FirebaseFirestoreException.Code.NOT_FOUND) {
+                Log.e(TAG, "Event " + eventId + " no longer exists", cause);
+                return Result.failure();
+            }
+            if (getRunAttemptCount() + 1 >= MAX_ATTEMPTS) {
+                Log.e(TAG, "Giving up on draw " + drawId + " for " + eventId, cause);
+                return Result.failure();
+            }
+            Log.e(TAG, "Draw " + drawId + " for " + eventId + " failed, will retry", cause);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+}
@@ -37,6 +37,7 @@ public class Entrant extends User {
     /**
      * Allows the entrant to join the waiting list for a given event.
      * Throws an exception if the entrant is already on the list.
+     * If the event requires geolocation, the entrant's current location is recorded on the event.
      *
      * @param event The event whose waiting list is to be joined.
      * @throws NullPointerException If the provided event is null.
@@ -53,6 +54,11 @@ public class Entrant extends User {
             throw new IllegalArgumentException("Event already has entrant");
         }
         event.addEntrantWaitingList(this);
+        // (0,0) means location sharing is turned off
+        if (event.isGeoRequired() && geoPoint != null
+                && (geoPoint.getLatitude() != 0.0 || geoPoint.getLongitude() != 0.0)) {
+            event.recordJoinLocation(id, geoPoint.getLatitude(), geoPoint.getLongitude());
+        }
     }
 
     /**
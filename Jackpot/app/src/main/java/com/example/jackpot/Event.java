@@ -3,16 +3,31 @@ import android.util.Log;
 
 import com.example.jackpot.ui.image.Image;
 import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Exclude;
+import com.google.firebase.firestore.PropertyName;
 
 import java.io.Serializable;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -24,14 +39,13 @@ public class Event implements Serializable {
     private String name;
     private String description;
     private String criteria;
-    private UserList waitingList;
-    private UserList joinedList;
-    private UserList invitedList;
-    private UserList cancelledList;
+    private Map<String, Membership> memberships = new LinkedHashMap<>();
+    private int waitingListLimit;
     private String location;
     private Date date;
     private Double lat;
     private Double lng;
+    private String geohash;
 //    private com.google.android.libraries.places.api.model.Money price;
     private Double price;
     private int capacity;
@@ -39,9 +53,121 @@ public class Event implements Serializable {
     private Date regCloseAt;
     private String posterUri;
     private String qrCodeId;
+    private String qrCodeImage;
 //    private GeoPolicy geoPolicy;
     private boolean geoRequired;
     private String category;
+    private int admissionShards;
+    // Derived from memberships on demand and kept until the next change to that status
+    private transient EnumMap<Status, UserList> views;
+    private transient EnumMap<Status, Integer> counts;
+    // Lists and locations set in the pre-membership format, merged into memberships on first use
+    private EnumMap<Status, UserList> legacyLists;
+    private Map<String, JoinLocation> legacyLocations;
+    private boolean legacyFromDocument;
+    private boolean membershipsLoaded;
+    private boolean migrationPending;
+    // Counters as read from the document; counts start from these instead of the memberships
+    private EnumMap<Status, Integer> storedCounts;
+    // Field values as last read from or sent to Firestore, and the entrants changed since
+    private transient Map<String, Object> persisted;
+    private transient Set<String> changedMembers;
+
+    /** Event field holding the memberships map. */
+    public static final String MEMBERSHIPS = "memberships";
+    /**
+     * User field mapping each event id to the name of the list the user is on there, or null
+     * once they are off the event, so the inbox need not read the events themselves.
+     */
+    public static final String MEMBER_STATUSES = "eventStatuses";
+    /**
+     * User field mapping each event id to when the user moved to the list in
+     * {@link #MEMBER_STATUSES}, so the inbox can hide broadcasts sent to that list before they were on it.
+     */
+    public static final String MEMBER_SINCE = "eventStatusSince";
+    /** Event field holding join locations before they moved into memberships. */
+    private static final String LEGACY_JOIN_LOCATIONS = "joinLocations";
+    // When an entrant is on several stored lists, the first of these wins
+    private static final Status[] LEGACY_PRECEDENCE = {
+            Status.JOINED, Status.INVITED, Status.WAITING, Status.CANCELLED
+    };
+
+    /**
+     * The lists an entrant can be on, with the name each list had as an event field.
+     * The names are still used to address broadcasts.
+     */
+    public enum Status {
+        WAITING("waitingList", "waitingCount"),
+        INVITED("invitedList", "invitedCount"),
+        JOINED("joinedList", "joinedCount"),
+        CANCELLED("cancelledList", "cancelledCount");
+
+        private final String field;
+        private final String countField;
+
+        Status(String field, String countField) {
+            this.field = field;
+            this.countField = countField;
+        }
+
+        /**
+         * @return The name of the list, e.g. "waitingList".
+         */
+        public String getField() {
+            return field;
+        }
+
+        /**
+         * @return The event field counting the entrants with this status, e.g. "waitingCount".
+         */
+        public String getCountField() {
+            return countField;
+        }
+    }
+
+    /**
+     * The result of a bulk change to memberships: who moved, and the membership fields
+     * that changed, ready to pass to {@link FDatabase#updateEventFields}.
+     * The fields are built when first asked for.
+     */
+    public static final class ChangeSet {
+        private final Event event;
+        private final List<User> moved;
+        private final List<String> movedIds;
+        private Map<String, Object> updateFields;
+
+        ChangeSet(Event event, List<User> moved, List<String> movedIds) {
+            this.event = event;
+            this.moved = Collections.unmodifiableList(moved);
+            this.movedIds = movedIds;
+        }
+
+        /**
+         * @return The entrants moved or removed, in the order given.
+         */
+        public List<User> getMoved() {
+            return moved;
+        }
+
+        /**
+         * @return The changed fields keyed by field path; a null value deletes the field.
+         *         Empty if nothing moved.
+         */
+        public Map<String, Object> getUpdateFields() {
+            if (updateFields == null) {
+                updateFields = Collections.unmodifiableMap(movedIds.isEmpty()
+                        ? new HashMap<>() : event.membershipFields(movedIds));
+            }
+            return updateFields;
+        }
+
+        /**
+         * @return True if no entrant moved.
+         */
+        public boolean isEmpty() {
+            return moved.isEmpty();
+        }
+    }
 
     /**
      * Empty constructor for firebase.
@@ -81,10 +207,10 @@ public class Event implements Serializable {
         this.name = name;
         this.description = description;
         this.criteria = criteria;
-        this.waitingList = waitingList;
-        this.joinedList = joinedList;
-        this.invitedList = invitedList;
-        this.cancelledList = cancelledList;
+        setWaitingList(waitingList);
+        setJoinedList(joinedList);
+        setInvitedList(invitedList);
+        setCancelledList(cancelledList);
         this.location = location;
         this.date = date;
         this.lat = lat;
@@ -190,71 +316,203 @@ public class Event implements Serializable {
     }
 
     /**
-     * Gets the waiting list of the event.
+     * Gets who is on which list, keyed by user id. This is what Firestore stores.
+     *
+     * @return The memberships of the event, oldest status change first. Read-only.
+     */
+    public Map<String, Membership> getMemberships() {
+        return Collections.unmodifiableMap(memberships());
+    }
+
+    /**
+     * Sets the memberships of the event. Lists stored in the older format on the same
+     * document are then ignored.
+     *
+     * @param memberships The memberships to set, keyed by user id.
+     */
+    public void setMemberships(Map<String, Membership> memberships) {
+        List<Map.Entry<String, Membership>> entries = new ArrayList<>();
+        if (memberships != null) {
+            for (Map.Entry<String, Membership> entry : memberships.entrySet()) {
+                Membership membership = entry.getValue();
+                if (membership != null && membership.getUser() != null && membership.getStatus() != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        // Firestore returns maps unordered, so restore the list order from the timestamps
+        Collections.sort(entries, Comparator
+                .comparing((Map.Entry<String, Membership> entry) -> entry.getValue().getSince(),
+                        Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Map.Entry::getKey));
+        if (changedMembers != null) {
+            changedMembers.addAll(this.memberships.keySet());
+            // Replaced wholesale, so any stored counters no longer describe them
+            storedCounts = null;
+        }
+        this.memberships = new LinkedHashMap<>();
+        for (Map.Entry<String, Membership> entry : entries) {
+            this.memberships.put(entry.getKey(), entry.getValue());
+            memberChanged(entry.getKey());
+        }
+        membershipsLoaded = true;
+        counts = null;
+        views = null;
+    }
+
+    /**
+     * Gets the most entrants the waiting list may hold.
+     *
+     * @return The waiting-list limit, or 0 for no limit.
+     */
+    public int getWaitingListLimit() {
+        return waitingListLimit;
+    }
+
+    /**
+     * Sets the most entrants the waiting list may hold.
      *
-     * @return The waiting list of the event.
+     * @param waitingListLimit The waiting-list limit, or 0 for no limit.
      */
+    public void setWaitingListLimit(int waitingListLimit) {
+        this.waitingListLimit = waitingListLimit;
+    }
+
+    /**
+     * Gets the waiting list of the event. The list is derived from the memberships and
+     * must not be changed; use the methods of this class to move entrants.
+     *
+     * @return The waiting list of the event, with the waiting-list limit as its capacity.
+     */
+    @Exclude
     public UserList getWaitingList() {
-        return waitingList;
+        return view(Status.WAITING);
     }
 
     /**
-     * Sets the waiting list of the event.
+     * Replaces the waiting list of the event and takes its capacity as the waiting-list limit.
      *
-     * @param waitingList The waiting list to set.
+     * @param waitingList The waiting list to set; null empties it.
      */
+    @Exclude
     public void setWaitingList(UserList waitingList) {
-        this.waitingList = waitingList;
+        if (waitingList != null && waitingList.getCapacity() != null) {
+            waitingListLimit = waitingList.getCapacity();
+        }
+        setLegacyList(Status.WAITING, waitingList, false);
     }
 
     /**
-     * Gets the joined list of the event.
+     * Gets the joined list of the event. Derived from the memberships; do not change it.
      *
      * @return The joined list of the event.
      */
+    @Exclude
     public UserList getJoinedList() {
-        return joinedList;
+        return view(Status.JOINED);
     }
 
     /**
-     * Sets the joined list of the event.
+     * Replaces the joined list of the event.
      *
-     * @param joinedList The joined list to set.
+     * @param joinedList The joined list to set; null empties it.
      */
+    @Exclude
     public void setJoinedList(UserList joinedList) {
-        this.joinedList = joinedList;
+        setLegacyList(Status.JOINED, joinedList, false);
     }
 
     /**
-     * Gets the invited list of the event.
+     * Gets the invited list of the event. Derived from the memberships; do not change it.
      * @return The invited list of the event.
      */
+    @Exclude
     public UserList getInvitedList() {
-        return invitedList;
+        return view(Status.INVITED);
     }
 
     /**
-     * Sets the invited list of the event.
-     * @param invitedList
+     * Replaces the invited list of the event.
+     * @param invitedList The invited list to set; null empties it.
      */
+    @Exclude
     public void setInvitedList(UserList invitedList) {
-        this.invitedList = invitedList;
+        setLegacyList(Status.INVITED, invitedList, false);
     }
 
     /**
-     * Gets the cancelled list of the event.
+     * Gets the cancelled list of the event. Derived from the memberships; do not change it.
      * @return The cancelled list of the event.
      */
+    @Exclude
     public UserList getCancelledList() {
-        return cancelledList;
+        return view(Status.CANCELLED);
     }
 
     /**
-     * Sets the cancelled list of the event.
-     * @param cancelledList The cancelled list to set.
+     * Replaces the cancelled list of the event.
+     * @param cancelledList The cancelled list to set; null empties it.
      */
+    @Exclude
     public void setCancelledList(UserList cancelledList) {
-        this.cancelledList = cancelledList;
+        setLegacyList(Status.CANCELLED, cancelledList, false);
+    }
+
+    // Documents written before memberships keep four list fields and a joinLocations map.
+    // Firestore reads them through these accessors; writing the event clears them, since
+    // the getters always return null.
+
+    @PropertyName("waitingList")
+    public UserList getStoredWaitingList() {
+        return null;
+    }
+
+    @PropertyName("waitingList")
+    public void setStoredWaitingList(UserList waitingList) {
+        if (waitingListLimit == 0 && waitingList != null && waitingList.getCapacity() != null) {
+            waitingListLimit = waitingList.getCapacity();
+        }
+        setLegacyList(Status.WAITING, waitingList, true);
+    }
+
+    @PropertyName("invitedList")
+    public UserList getStoredInvitedList() {
+        return null;
+    }
+
+    @PropertyName("invitedList")
+    public void setStoredInvitedList(UserList invitedList) {
+        setLegacyList(Status.INVITED, invitedList, true);
+    }
+
+    @PropertyName("joinedList")
+    public UserList getStoredJoinedList() {
+        return null;
+    }
+
+    @PropertyName("joinedList")
+    public void setStoredJoinedList(UserList joinedList) {
+        setLegacyList(Status.JOINED, joinedList, true);
+    }
+
+    @PropertyName("cancelledList")
+    public UserList getStoredCancelledList() {
+        return null;
+    }
+
+    @PropertyName("cancelledList")
+    public void setStoredCancelledList(UserList cancelledList) {
+        setLegacyList(Status.CANCELLED, cancelledList, true);
+    }
+
+    @PropertyName(LEGACY_JOIN_LOCATIONS)
+    public Map<String, JoinLocation> getStoredJoinLocations() {
+        return null;
+    }
+
+    @PropertyName(LEGACY_JOIN_LOCATIONS)
+    public void setStoredJoinLocations(Map<String, JoinLocation> joinLocations) {
+        setLegacyLocations(joinLocations, true);
     }
 
     /**
@@ -319,6 +577,24 @@ public class Event implements Serializable {
         this.lng = lng;
     }
 
+    /**
+     * Gets the geohash of the event's location, used for proximity queries.
+     *
+     * @return the geohash, or null if the event has no coordinates
+     */
+    public String getGeohash() {
+        return geohash;
+    }
+
+    /**
+     * Sets the geohash of the event's location
+     *
+     * @param geohash The geohash to set
+     */
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
     /**
      * Gets the price of the event
      *
@@ -486,6 +762,25 @@ public class Event implements Serializable {
         this.qrCodeId = qrCodeId;
     }
 
+    /**
+     * Gets the download URL of the event's QR code image, stored with the event so it
+     * can be shown without looking up the image document.
+     *
+     * @return The QR code image URL, or null if the event has none.
+     */
+    public String getQrCodeImage() {
+        return qrCodeImage;
+    }
+
+    /**
+     * Sets the download URL of the event's QR code image.
+     *
+     * @param qrCodeImage The QR code image URL to set.
+     */
+    public void setQrCodeImage(String qrCodeImage) {
+        this.qrCodeImage = qrCodeImage;
+    }
+
     /**
      * Gets the geo policy of the event.
      *
@@ -519,6 +814,484 @@ public class Event implements Serializable {
     public void setCategory(String category) {
         this.category = category;
     }
+
+    /**
+     * Gets the number of admission shards. When positive, the waiting list is kept in the
+     * event's entrants subcollection instead of this document; see {@link AdmissionShards}.
+     *
+     * @return The number of shards, or 0 if the waiting list is kept on this document.
+     */
+    public int getAdmissionShards() {
+        return admissionShards;
+    }
+
+    /**
+     * Sets the number of admission shards.
+     *
+     * @param admissionShards The number of shards, or 0 to keep the waiting list on this document.
+     */
+    public void setAdmissionShards(int admissionShards) {
+        this.admissionShards = admissionShards;
+    }
+
+    /**
+     * Gets where entrants were when they joined, keyed by user id.
+     * Only recorded for events that require geolocation.
+     *
+     * @return A copy of the join locations of the event.
+     */
+    @Exclude
+    public Map<String, JoinLocation> getJoinLocations() {
+        Map<String, JoinLocation> locations = new HashMap<>();
+        for (Map.Entry<String, Membership> entry : memberships().entrySet()) {
+            if (entry.getValue().getLocation() != null) {
+                locations.put(entry.getKey(), entry.getValue().getLocation());
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Sets the join locations of entrants already on the event.
+     *
+     * @param joinLocations The join locations to set, keyed by user id.
+     */
+    @Exclude
+    public void setJoinLocations(Map<String, JoinLocation> joinLocations) {
+        setLegacyLocations(joinLocations, false);
+    }
+
+    /**
+     * Records where an entrant was when they joined the waiting list.
+     *
+     * @param userId The id of the entrant, who must already be on the event.
+     * @param lat Latitude in degrees.
+     * @param lng Longitude in degrees.
+     */
+    public void recordJoinLocation(String userId, double lat, double lng) {
+        Membership membership = userId != null ? memberships().get(userId) : null;
+        if (membership != null) {
+            membership.setLocation(new JoinLocation(lat, lng));
+            memberChanged(userId);
+        }
+    }
+
+    /**
+     * Gets where an entrant was when they joined the waiting list.
+     *
+     * @param userId The id of the entrant.
+     * @return The join location, or null if none was recorded.
+     */
+    public JoinLocation getJoinLocation(String userId) {
+        Membership membership = userId != null ? memberships().get(userId) : null;
+        return membership != null ? membership.getLocation() : null;
+    }
+
+    /**
+     * Gets an entrant's membership.
+     *
+     * @param userId The id of the entrant.
+     * @return The membership, or null if the entrant is on none of the lists.
+     */
+    public Membership getMembership(String userId) {
+        return userId != null ? memberships().get(userId) : null;
+    }
+
+    /**
+     * Gets which list an entrant is on, in constant time.
+     *
+     * @param userId The id of the entrant.
+     * @return The entrant's status, or null if they are on none of the lists.
+     */
+    public Status statusOf(String userId) {
+        Membership membership = getMembership(userId);
+        return membership != null ? membership.getStatus() : null;
+    }
+
+    /**
+     * Gets how many entrants have a status, in constant time. An event read from a document
+     * with counters starts from those, so screens showing counts never walk the memberships;
+     * otherwise the memberships are counted once.
+     *
+     * @param status The status to count.
+     * @return The number of entrants with that status.
+     */
+    public int countOf(Status status) {
+        Integer count = counts().get(status);
+        return count != null ? count : 0;
+    }
+
+    private EnumMap<Status, Integer> counts() {
+        if (counts == null) {
+            if (storedCounts != null && legacyLists == null) {
+                counts = new EnumMap<>(storedCounts);
+            } else {
+                Map<String, Membership> all = memberships();
+                counts = new EnumMap<>(Status.class);
+                for (Membership membership : all.values()) {
+                    counts.merge(membership.getStatus(), 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Gets one page of the entrants with a status, in list order, for screens that show the
+     * list a page at a time.
+     *
+     * @param status The status to list.
+     * @param offset The position of the first entrant to return.
+     * @param limit The most entrants to return.
+     * @return A copy of the entrants in that range; empty past the end of the list.
+     * @throws IllegalArgumentException If the status is null or the range is negative.
+     */
+    public List<User> entrantsPage(Status status, int offset, int limit) {
+        if (status == null || offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Status and a non-negative range are required");
+        }
+        List<User> users = view(status).getUsers();
+        if (offset >= users.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(users.subList(offset, Math.min(users.size(), offset + limit)));
+    }
+
+    /**
+     * Gets the Firestore fields to update after the given entrants changed, for
+     * {@link FDatabase#updateEventFields}. Entrants no longer on the event map to null,
+     * which deletes their entry. The per-status counters are not included; the write works
+     * them out from the stored document with {@link #counterFields}. If the event was read
+     * from a document in the older list format, every membership is included and the old
+     * fields are cleared, completing the migration.
+     *
+     * @param userIds The ids of the entrants that changed.
+     * @return The fields to update, keyed by field path.
+     */
+    public Map<String, Object> membershipFields(Collection<String> userIds) {
+        Map<String, Membership> all = memberships();
+        Map<String, Object> fields = new HashMap<>();
+        for (String userId : userIds) {
+            fields.put(MEMBERSHIPS + "." + userId, all.get(userId));
+        }
+        if (migrationPending) {
+            for (Map.Entry<String, Membership> entry : all.entrySet()) {
+                fields.put(MEMBERSHIPS + "." + entry.getKey(), entry.getValue());
+            }
+            for (Status status : Status.values()) {
+                fields.put(status.getField(), null);
+            }
+            fields.put(LEGACY_JOIN_LOCATIONS, null);
+        }
+        return fields;
+    }
+
+    /**
+     * Works out the per-status counters of a document after an update, by counting the
+     * stored memberships with the update's applied. Called in the transaction that writes the
+     * update, so the counters always match the memberships they are stored with, however
+     * stale the writer's copy of the event was.
+     *
+     * @param stored The stored document's data, or null if it does not exist.
+     * @param updateFields Fields of an event update, e.g. from {@link #membershipFields}.
+     * @return The counter fields to add to the update; empty if it changes no membership.
+     */
+    public static Map<String, Object> counterFields(Map<String, Object> stored, Map<String, Object> updateFields) {
+        Map<String, Object> fields = new HashMap<>();
+        Map<String, String> updated = memberStatuses(updateFields);
+        if (updated.isEmpty()) {
+            return fields;
+        }
+        EnumMap<Status, Integer> counted = new EnumMap<>(Status.class);
+        Object storedMemberships = stored != null ? stored.get(MEMBERSHIPS) : null;
+        if (storedMemberships instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) storedMemberships).entrySet()) {
+                if (updated.containsKey(String.valueOf(entry.getKey())) || !(entry.getValue() instanceof Map)) {
+                    continue;
+                }
+                Status status = storedStatus(((Map<?, ?>) entry.getValue()).get("status"));
+                if (status != null) {
+                    counted.merge(status, 1, Integer::sum);
+                }
+            }
+        }
+        for (String list : updated.values()) {
+            for (Status status : Status.values()) {
+                if (status.getField().equals(list)) {
+                    counted.merge(status, 1, Integer::sum);
+                }
+            }
+        }
+        for (Status status : Status.values()) {
+            Integer count = counted.get(status);
+            fields.put(status.getCountField(), count != null ? count : 0);
+        }
+        return fields;
+    }
+
+    // Firestore stores the enum by name
+    private static Status storedStatus(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Status.valueOf(value.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the entrants whose membership an update sets, with the list each ends up on, for
+     * mirroring into {@link #MEMBER_STATUSES} on their profiles.
+     *
+     * @param updateFields Fields of an event update, e.g. from {@link #membershipFields}.
+     * @return The list name, e.g. "waitingList", by user id; null for entrants taken off the event.
+     */
+    public static Map<String, String> memberStatuses(Map<String, Object> updateFields) {
+        Map<String, String> statuses = new HashMap<>();
+        String prefix = MEMBERSHIPS + ".";
+        for (Map.Entry<String, Object> field : updateFields.entrySet()) {
+            if (!field.getKey().startsWith(prefix)) {
+                continue;
+            }
+            Object value = field.getValue();
+            Status status = value instanceof Membership ? ((Membership) value).getStatus() : null;
+            statuses.put(field.getKey().substring(prefix.length()), status != null ? status.getField() : null);
+        }
+        return statuses;
+    }
+
+    /**
+     * Remembers the current field values as what Firestore holds, so {@link #changedFields()}
+     * can report only what changes after this. Called when the event is read, and when its
+     * changes are handed to Firestore.
+     */
+    public void markPersisted() {
+        // Merge any older-format lists first, so they count as already stored
+        memberships();
+        persisted = documentFields();
+        changedMembers = new HashSet<>();
+    }
+
+    /**
+     * Forgets what Firestore holds, e.g. after a write failed, so the next save sends the
+     * whole event.
+     */
+    public void clearPersisted() {
+        persisted = null;
+        changedMembers = null;
+    }
+
+    /**
+     * Checks whether {@link #changedFields()} can be used, i.e. whether the event was read
+     * from or saved to Firestore since it was created or deserialized.
+     *
+     * @return True if the values Firestore holds are known.
+     */
+    public boolean hasPersistedState() {
+        return persisted != null;
+    }
+
+    /**
+     * Gets the Firestore fields that changed since {@link #markPersisted()}: top-level fields
+     * whose values differ, plus the memberships of entrants that were added, moved or removed.
+     * A field changed to null maps to null, which deletes it.
+     *
+     * @return The fields to update, keyed by field path; empty if nothing changed.
+     * @throws IllegalStateException If the values Firestore holds are not known.
+     */
+    public Map<String, Object> changedFields() {
+        if (persisted == null) {
+            throw new IllegalStateException("Event has no persisted state to compare against");
+        }
+        Map<String, Object> fields = membershipFields(changedMembers);
+        for (Map.Entry<String, Object> entry : documentFields().entrySet()) {
+            if (!Objects.equals(entry.getValue(), persisted.get(entry.getKey()))) {
+                fields.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return fields;
+    }
+
+    // The top-level fields Firestore stores besides memberships, by name
+    private Map<String, Object> documentFields() {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("eventId", eventId);
+        fields.put("createdBy", createdBy);
+        fields.put("name", name);
+        fields.put("description", description);
+        fields.put("criteria", criteria);
+        fields.put("waitingListLimit", waitingListLimit);
+        fields.put("location", location);
+        fields.put("date", copy(date));
+        fields.put("lat", lat);
+        fields.put("lng", lng);
+        fields.put("geohash", geohash);
+        fields.put("price", price);
+        fields.put("capacity", capacity);
+        fields.put("regOpenAt", copy(regOpenAt));
+        fields.put("regCloseAt", copy(regCloseAt));
+        fields.put("posterUri", posterUri);
+        fields.put("qrCodeId", qrCodeId);
+        fields.put("qrCodeImage", qrCodeImage);
+        fields.put("geoRequired", geoRequired);
+        fields.put("category", category);
+        fields.put("admissionShards", admissionShards);
+        return fields;
+    }
+
+    // Dates are mutable, so compare against a copy rather than the live object
+    private static Date copy(Date date) {
+        return date != null ? new Date(date.getTime()) : null;
+    }
+
+    private void memberChanged(String userId) {
+        if (changedMembers != null) {
+            changedMembers.add(userId);
+        }
+    }
+
+    private Map<String, Membership> memberships() {
+        if (legacyLists != null || legacyLocations != null) {
+            resolveLegacy();
+        }
+        return memberships;
+    }
+
+    private void setLegacyList(Status status, UserList list, boolean fromDocument) {
+        if (legacyLists == null) {
+            legacyLists = new EnumMap<>(Status.class);
+        }
+        legacyLists.put(status, list);
+        legacyFromDocument |= fromDocument;
+    }
+
+    private void setLegacyLocations(Map<String, JoinLocation> locations, boolean fromDocument) {
+        if (locations == null) {
+            return;
+        }
+        if (legacyLocations == null) {
+            legacyLocations = new HashMap<>();
+        }
+        legacyLocations.putAll(locations);
+        legacyFromDocument |= fromDocument;
+    }
+
+    /**
+     * Merges lists and locations set in the older format into the memberships. Each list
+     * replaces the entrants with its status. Lists read from a document that also has
+     * memberships are stale and ignored.
+     */
+    private void resolveLegacy() {
+        EnumMap<Status, UserList> lists = legacyLists;
+        Map<String, JoinLocation> locations = legacyLocations;
+        boolean fromDocument = legacyFromDocument;
+        legacyLists = null;
+        legacyLocations = null;
+        legacyFromDocument = false;
+
+        if (lists != null && !(fromDocument && membershipsLoaded)) {
+            long now = System.currentTimeMillis();
+            int order = 0;
+            Set<String> placed = new HashSet<>();
+            for (Status status : LEGACY_PRECEDENCE) {
+                if (!lists.containsKey(status)) {
+                    continue;
+                }
+                Iterator<Map.Entry<String, Membership>> existing = memberships.entrySet().iterator();
+                while (existing.hasNext()) {
+                    Map.Entry<String, Membership> entry = existing.next();
+                    if (entry.getValue().getStatus() == status) {
+                        existing.remove();
+                        memberChanged(entry.getKey());
+                    }
+                }
+                UserList list = lists.get(status);
+                if (list == null || list.getUsers() == null) {
+                    continue;
+                }
+                for (User user : list.getUsers()) {
+                    if (user == null || user.getId() == null || !placed.add(user.getId())) {
+                        continue;
+                    }
+                    // Offset each timestamp so the stored order survives a reload
+                    put(new Membership(user, status, new Date(now + order++)));
+                }
+            }
+            counts = null;
+            views = null;
+            // Counters stored with older-format lists, if any, predate them
+            storedCounts = null;
+            migrationPending |= fromDocument;
+        }
+        if (locations != null && !(fromDocument && membershipsLoaded)) {
+            for (Map.Entry<String, JoinLocation> entry : locations.entrySet()) {
+                Membership membership = memberships.get(entry.getKey());
+                if (membership != null && membership.getLocation() == null) {
+                    membership.setLocation(entry.getValue());
+                    memberChanged(entry.getKey());
+                }
+            }
+        }
+        membershipsLoaded = false;
+    }
+
+    private UserList view(Status status) {
+        Map<String, Membership> all = memberships();
+        if (views == null) {
+            views = new EnumMap<>(Status.class);
+        }
+        UserList view = views.get(status);
+        if (view == null) {
+            ArrayList<User> users = new ArrayList<>(countOf(status));
+            for (Membership membership : all.values()) {
+                if (membership.getStatus() == status) {
+                    users.add(membership.getUser());
+                }
+            }
+            view = new UserList(users, status == Status.WAITING ? waitingListLimit : capacity);
+            views.put(status, view);
+        }
+        return view;
+    }
+
+    /**
+     * Adds or replaces a membership, moving it to the end of the list order.
+     */
+    private void put(Membership membership) {
+        String userId = membership.getUser().getId();
+        // Start counting before the change, so it is applied to the counts it belongs to
+        counts();
+        Membership previous = memberships.remove(userId);
+        if (previous != null) {
+            changed(previous.getStatus(), -1);
+        }
+        memberships.put(userId, membership);
+        changed(membership.getStatus(), 1);
+        memberChanged(userId);
+    }
+
+    private Membership remove(String userId) {
+        Membership previous = memberships.get(userId);
+        if (previous != null) {
+            counts();
+            memberships.remove(userId);
+            changed(previous.getStatus(), -1);
+            memberChanged(userId);
+        }
+        return previous;
+    }
+
+    private void changed(Status status, int delta) {
+        if (counts != null) {
+            counts.merge(status, delta, Integer::sum);
+        }
+        if (views != null) {
+            views.remove(status);
+        }
+    }
+
 //    public void schedule(List<Event> events) {
 //        for(Event event : events){
 //
@@ -565,28 +1338,21 @@ public class Event implements Serializable {
     }
 
     /**
-     * Checks if the registration window is open.
-     * @param now The current time.
-     * @return True if the registration window is open, false otherwise.
-     */
-    public boolean isRegistrationOpen(Instant now) {
-        return true;
-    }
-
-    /**
-     * Checks if there are any remaining seats.
-     * @return The number of seats.
+     * Gets how many more entrants can be invited: the capacity less those already invited
+     * or joined. Constant time.
+     * @return The number of seats left, never negative.
      */
     public int remainingSeats() {
-        return 0;
+        return Math.max(0, capacity - countOf(Status.INVITED) - countOf(Status.JOINED));
     }
 
     /**
-     * Returns the number of entrants.
+     * Returns the number of entrants still taking part, i.e. waiting, invited or joined.
+     * Constant time.
      * @return The number of entrants.
      */
     public int totalEntrants() {
-        return 0;
+        return countOf(Status.WAITING) + countOf(Status.INVITED) + countOf(Status.JOINED);
     }
 
     /**
@@ -595,77 +1361,134 @@ public class Event implements Serializable {
      * @return True if the entrant is in any of the core lists (waiting/invited/joined/cancelled), false otherwise.
      */
     public boolean hasEntrant(String id) {
-        return entrantInList(id, waitingList)
-                || entrantInList(id, invitedList)
-                || entrantInList(id, joinedList)
-                || entrantInList(id, cancelledList);
+        return id != null && memberships().containsKey(id);
     }
 
+    /**
+     * Gets the number of invited entrants. Stored on the document as "invitedCount" so
+     * queries and screens that never read the memberships can use it.
+     * @return The number of invited entrants.
+     */
     public int getInvitedCount() {
-        return invitedList != null ? invitedList.size() : 0;
+        return countOf(Status.INVITED);
     }
 
+    /**
+     * Gets the number of entrants on the waiting list, stored as "waitingCount".
+     * @return The number of waiting entrants.
+     */
     public int getWaitingCount() {
-        return waitingList != null ? waitingList.size() : 0;
+        return countOf(Status.WAITING);
+    }
+
+    /**
+     * Gets the number of entrants who accepted, stored as "joinedCount".
+     * @return The number of joined entrants.
+     */
+    public int getJoinedCount() {
+        return countOf(Status.JOINED);
+    }
+
+    /**
+     * Gets the number of cancelled entrants, stored as "cancelledCount".
+     * @return The number of cancelled entrants.
+     */
+    public int getCancelledCount() {
+        return countOf(Status.CANCELLED);
     }
 
     /**
-     * Adds an entrant to the waiting list.
+     * Sets the stored number of invited entrants. Called by Firestore; counts read after this
+     * start from the stored counters instead of the memberships, and a status without a
+     * stored counter counts as zero.
+     * @param count The stored count.
+     */
+    public void setInvitedCount(int count) {
+        storeCount(Status.INVITED, count);
+    }
+
+    /**
+     * Called by Firestore with the stored counter; see {@link #setInvitedCount(int)}.
+     * @param count The stored count.
+     */
+    public void setWaitingCount(int count) {
+        storeCount(Status.WAITING, count);
+    }
+
+    /**
+     * Called by Firestore with the stored counter; see {@link #setInvitedCount(int)}.
+     * @param count The stored count.
+     */
+    public void setJoinedCount(int count) {
+        storeCount(Status.JOINED, count);
+    }
+
+    /**
+     * Called by Firestore with the stored counter; see {@link #setInvitedCount(int)}.
+     * @param count The stored count.
+     */
+    public void setCancelledCount(int count) {
+        storeCount(Status.CANCELLED, count);
+    }
+
+    private void storeCount(Status status, int count) {
+        if (storedCounts == null) {
+            storedCounts = new EnumMap<>(Status.class);
+        }
+        storedCounts.put(status, count);
+        counts = null;
+    }
+
+    /**
+     * Adds an entrant to the waiting list, taking them off the invited or cancelled list.
      * @param entrant The entrant to add to the waiting list.
-     * @throws NullPointerException If the waiting list is null.
-     * @throws IllegalStateException If the waiting list is full.
+     * @throws IllegalStateException If the entrant already joined or the waiting list is full.
      * @throws IllegalArgumentException If the entrant is null.
      */
     public void addEntrantWaitingList(Entrant entrant) {
         if (entrant == null) {
             throw new IllegalArgumentException("Entrant is null");
         }
-        if (waitingList == null) {
-            throw  new NullPointerException("Waiting list is null");
-        }
-        // Keep lists mutually exclusive: clear any previous cancel/invite entries.
-        removeUserFromList(cancelledList, entrant.getId());
-        removeUserFromList(invitedList, entrant.getId());
-
-        if (entrantInList(entrant.getId(), joinedList)) {
+        Status current = statusOf(entrant.getId());
+        if (current == Status.JOINED) {
             throw new IllegalStateException("Entrant already joined");
         }
-        // De-dupe before adding
-        removeUserFromList(waitingList, entrant.getId());
-        if (waitingList.getCapacity()== 0 || waitingList.size() < waitingList.getCapacity()) {
-            waitingList.add(entrant);
-        } else {
+        if (current != Status.WAITING && waitingListLimit > 0 && countOf(Status.WAITING) >= waitingListLimit) {
             throw new IllegalStateException("Waiting list is full");
         }
+        put(new Membership(entrant, Status.WAITING, new Date()));
     }
 
     /**
-     * Removes an entrant from the waiting list.
+     * Removes an entrant from the waiting list, along with their join location.
      * @param entrant The entrant to remove from the waiting list.
-     * @throws NullPointerException If the waiting list is null.
      * @throws IllegalArgumentException If the entrant is null.
      */
     public void removeEntrantWaitingList(Entrant entrant) {
         if (entrant == null) {
             throw new IllegalArgumentException("Entrant is null");
         }
-        if (waitingList == null) {
-            throw  new NullPointerException("Waiting list is null");
-        } else {
-            waitingList.remove(entrant);
-        }
+        removeAll(Collections.singletonList(entrant.getId()), Status.WAITING);
     }
 
     /**
-     * Checks if an entrant is in the list.
+     * Checks if an entrant is in the list. Takes constant time for the lists returned by this event.
      * @param id The entrant to check.
      * @param list The list to check.
-     * @return True if the entrant is in the joined list, false otherwise.
+     * @return True if the entrant is in the list, false otherwise.
      */
     public boolean entrantInList(String id, UserList list) {
         if (list == null || list.getUsers() == null || id == null) {
             return false;
         }
+        // Views are dropped when their status changes, so a cached one is current
+        if (views != null) {
+            for (Map.Entry<Status, UserList> view : views.entrySet()) {
+                if (view.getValue() == list) {
+                    return statusOf(id) == view.getKey();
+                }
+            }
+        }
         //Loop through the list and see if an identical entrant is in there
         for (User e : list.getUsers()) {
             if (Objects.equals(e.getId(), id)) {
@@ -676,54 +1499,120 @@ public class Event implements Serializable {
     }
 
     /**
-     * Removes a user with matching id from a list if present.
-     * @param list The list to remove from.
-     * @param userId The user id to match.
+     * Moves a user to the cancelled list, from whichever list they were on.
+     * @param user user to move.
      */
-    private void removeUserFromList(UserList list, String userId) {
-        if (list == null || list.getUsers() == null || userId == null) {
-            return;
-        }
-        ArrayList<User> users = list.getUsers();
-        for (int i = users.size() - 1; i >= 0; i--) {
-            User user = users.get(i);
-            if (user != null && userId.equals(user.getId())) {
-                users.remove(i);
-            }
-        }
+    public void moveToCancelled(User user) {
+        moveTo(user, Status.CANCELLED);
     }
 
     /**
-     * Moves a user to the cancelled list, ensuring they are removed from all other lists first.
-     * @param user user to move.
+     * Puts a user on a list, from whichever list they were on, keeping their join location.
+     * @param user The user to move; added to the event if new.
+     * @param status The list to put them on.
+     * @return The change to persist.
+     * @throws IllegalArgumentException If the user, their id or the status is null.
      */
-    public void moveToCancelled(User user) {
-        if (user == null || user.getId() == null) {
+    public ChangeSet moveTo(User user, Status status) {
+        if (user == null || user.getId() == null || status == null) {
             throw new IllegalArgumentException("User is null");
         }
-        if (cancelledList == null) {
-            cancelledList = new UserList(capacity);
+        Membership previous = memberships().get(user.getId());
+        Membership membership = new Membership(user, status, new Date());
+        if (previous != null) {
+            membership.setLocation(previous.getLocation());
         }
-        removeUserFromList(waitingList, user.getId());
-        removeUserFromList(invitedList, user.getId());
-        removeUserFromList(joinedList, user.getId());
-        addUnique(cancelledList, user);
+        put(membership);
+        return new ChangeSet(this, Collections.singletonList(user), Collections.singletonList(user.getId()));
     }
 
-    private void addUnique(UserList list, User user) {
-        if (list == null || user == null) {
-            return;
+    /**
+     * Moves the entrants with the given ids from one list to another. Each entrant is a
+     * constant-time map update, so moving many entrants costs no more per entrant than moving one.
+     * Entrants not on the source list are ignored.
+     *
+     * @param ids The ids of the entrants to move.
+     * @param from The list to move them from.
+     * @param to The list to move them to.
+     * @return The entrants moved and the fields to persist.
+     * @throws IllegalArgumentException If any argument is null or both lists are the same.
+     */
+    public ChangeSet transition(Collection<String> ids, Status from, Status to) {
+        if (from == null || from == to) {
+            throw new IllegalArgumentException("Source and target lists must differ");
         }
-        if (list.getUsers() == null) {
-            list.setUsers(new ArrayList<>());
+        return moveAll(ids, EnumSet.of(from), to);
+    }
+
+    /**
+     * Invites the entrants with the given ids from the waiting list, ignoring capacity.
+     *
+     * @param ids The ids of the entrants to invite.
+     * @return The entrants invited and the fields to persist.
+     */
+    public ChangeSet inviteAll(Collection<String> ids) {
+        return transition(ids, Status.WAITING, Status.INVITED);
+    }
+
+    /**
+     * Moves the entrants with the given ids to the cancelled list from whichever of the
+     * waiting, invited or joined lists they are on. The bulk form of {@link #moveToCancelled(User)}.
+     *
+     * @param ids The ids of the entrants to cancel.
+     * @return The entrants cancelled and the fields to persist.
+     */
+    public ChangeSet cancelAll(Collection<String> ids) {
+        return moveAll(ids, EnumSet.of(Status.WAITING, Status.INVITED, Status.JOINED), Status.CANCELLED);
+    }
+
+    /**
+     * Takes the entrants with the given ids off the event if they are on a list.
+     *
+     * @param ids The ids of the entrants to remove.
+     * @param from The list they must be on.
+     * @return The entrants removed and the fields to persist.
+     * @throws IllegalArgumentException If any argument is null.
+     */
+    public ChangeSet removeAll(Collection<String> ids, Status from) {
+        if (ids == null || from == null) {
+            throw new IllegalArgumentException("Ids and a list are required");
         }
-        for (User existing : list.getUsers()) {
-            if (existing != null && user.getId().equals(existing.getId())) {
-                return;
+        Map<String, Membership> all = memberships();
+        List<User> removed = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            Membership membership = id != null ? all.get(id) : null;
+            if (membership != null && membership.getStatus() == from) {
+                remove(id);
+                removed.add(membership.getUser());
+                removedIds.add(id);
             }
         }
-        list.add(user);
+        return new ChangeSet(this, removed, removedIds);
     }
+
+    private ChangeSet moveAll(Collection<String> ids, EnumSet<Status> sources, Status target) {
+        if (ids == null || target == null || sources.contains(target)) {
+            throw new IllegalArgumentException("Ids and a separate target list are required");
+        }
+        Map<String, Membership> all = memberships();
+        Date now = new Date();
+        List<User> moved = new ArrayList<>();
+        List<String> movedIds = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            Membership membership = id != null ? all.get(id) : null;
+            if (membership == null || !sources.contains(membership.getStatus())) {
+                continue;
+            }
+            Membership next = new Membership(membership.getUser(), target, now);
+            next.setLocation(membership.getLocation());
+            put(next);
+            moved.add(membership.getUser());
+            movedIds.add(id);
+        }
+        return new ChangeSet(this, moved, movedIds);
+    }
+
     /**
      * Cancels an enrollment.
      * @param enrollment The enrollment to cancel.
@@ -738,46 +1627,30 @@ public class Event implements Serializable {
 //    }
 
     /**
-     * Draws entrants from the waiting list into the invited list based on capacity.
-     * If waiting list size > capacity, randomly draws `capacity` entrants.
-     * If waiting list size <= capacity, all entrants are invited.
+     * Draws entrants from the waiting list into the invited list to fill the seats left.
+     * If the waiting list is larger than {@link #remainingSeats()}, that many are drawn at random;
+     * otherwise all entrants are invited. A later draw, e.g. the one scheduled for when
+     * registration closes, only fills seats freed since.
      *
      * @return A list of invited users for this draw.
      */
     public ArrayList<User> drawEvent() {
-        if (waitingList == null) {
-            throw new NullPointerException("Waiting list is null");
-        }
-        // Nothing to draw or no capacity
-        if (waitingList.size() == 0 || capacity <= 0) {
-            return new ArrayList<>();
-        }
-        // Make sure invitedList exists
-        if (invitedList == null) {
-            invitedList = new UserList(0);
-        }
-        ArrayList<User> invitations = new ArrayList<>();
+        return drawEvent(new Random());
+    }
 
-        int spotsToFill = capacity;
-        if (waitingList.size() <= spotsToFill) {
-            // Everyone in waiting list gets invited
-            ArrayList<User> waitingCopy = new ArrayList<>(waitingList.getUsers());
-            for (User u : waitingCopy) {
-                invitations.add(u);
-                invitedList.add(u);
-                waitingList.remove(u);
-            }
-        } else {
-            // More people than spots -> random lottery of `capacity` entrants
-            for (int i = 0; i < spotsToFill; i++) {
-                int index = (int) (Math.random() * waitingList.size());
-                User selected = waitingList.get(index);
-                invitations.add(selected);
-                invitedList.add(selected);
-                waitingList.remove(selected);
-            }
+    /**
+     * Draws entrants from the waiting list into the seats left, using the given source of randomness. The same seed on the same lists picks the same entrants.
+     *
+     * @param random The random source used to pick entrants.
+     * @return A list of invited users for this draw.
+     */
+    public ArrayList<User> drawEvent(Random random) {
+        // Nothing to draw or no seats left
+        int seats = remainingSeats();
+        if (countOf(Status.WAITING) == 0 || seats <= 0) {
+            return new ArrayList<>();
         }
-        return invitations;
+        return inviteRandom(seats, random);
     }
 
     /**
@@ -789,27 +1662,36 @@ public class Event implements Serializable {
      */
     public ArrayList<User> drawFromWaiting(int count) {
         ArrayList<User> invited = new ArrayList<>();
-        if (count <= 0 || waitingList == null || waitingList.size() == 0) {
+        if (count <= 0 || countOf(Status.WAITING) == 0) {
             return invited;
         }
-        if (invitedList == null) {
-            invitedList = new UserList(0);
-        }
 
-        int joinedCount = joinedList != null ? joinedList.size() : 0;
-        int invitedCount = invitedList.size();
-        int seatsLeft = capacity - joinedCount - invitedCount;
-        int toDraw = Math.min(count, Math.max(0, seatsLeft));
-        toDraw = Math.min(toDraw, waitingList.size());
+        int toDraw = Math.min(count, remainingSeats());
+        toDraw = Math.min(toDraw, countOf(Status.WAITING));
 
-        for (int i = 0; i < toDraw; i++) {
-            int index = (int) (Math.random() * waitingList.size());
-            User selected = waitingList.get(index);
-            invited.add(selected);
-            invitedList.add(selected);
-            waitingList.remove(selected);
+        return toDraw > 0 ? inviteRandom(toDraw, new Random()) : invited;
+    }
+
+    /**
+     * Invites a uniform random sample of the waiting list in linear time.
+     * @param count How many entrants to invite; everyone if the waiting list is smaller
+     * @param random The random source used to pick entrants
+     * @return The invited entrants, in the order they were drawn
+     */
+    private ArrayList<User> inviteRandom(int count, Random random) {
+        ArrayList<User> pool = new ArrayList<>(view(Status.WAITING).getUsers());
+        int picks = Math.min(count, pool.size());
+        // Partial Fisher-Yates shuffle: the first picks slots end up a uniform sample
+        for (int i = 0; i < picks; i++) {
+            Collections.swap(pool, i, i + random.nextInt(pool.size() - i));
         }
-        return invited;
+        ArrayList<User> invitations = new ArrayList<>(pool.subList(0, picks));
+        Set<String> ids = new HashSet<>();
+        for (User user : invitations) {
+            ids.add(user.getId());
+        }
+        inviteAll(ids);
+        return invitations;
     }
 //    public FinalRef exportFinalCSV(){
 //        return new FinalRef();
@@ -16,54 +16,19 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.bumptech.glide.Glide;
-import com.google.firebase.firestore.FieldValue;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * The adapter for an event array. This is used to help display the events in the event list.
  */
 
 public class EventArrayAdapter extends ArrayAdapter<Event> {
-    private void sendNotifications(Event event){
-        //We want to loop through the list of people who were invited and send them a notification.
-        //We then want to loop through the list of people who were NOT invited and send them a notification.
-
-        //Loop through the list of people who are invited.
-
-        for (User user : event.getInvitedList().getUsers()){
-            createNotification(UUID.randomUUID().toString(), user.getId(), event.getEventId(), "Event",
-                    "Status: You're selected!", event.getCreatedBy());
-        }
-        for (User user : event.getWaitingList().getUsers()){
-            createNotification(UUID.randomUUID().toString(), user.getId(), event.getEventId(), "Event",
-                    "Status: Not selected", event.getCreatedBy());
-        }
-
-    }
-
-    private void createNotification(String notificationID, String recipientID, String eventID, String notifType, String payload, String organizerID){
-        //Create a notification and store it in the firebase.
-        Map<String, Object> notificationDoc = new HashMap<>();
-        notificationDoc.put("notificationID", notificationID);
-        notificationDoc.put("recipientID", recipientID);
-        notificationDoc.put("eventID", eventID);
-        notificationDoc.put("notifType", notifType);
-        notificationDoc.put("payload", payload);
-        notificationDoc.put("organizerID", organizerID);
-        notificationDoc.put("viewedByEntrant", false);
-        notificationDoc.put("sentAt", FieldValue.serverTimestamp());
-        //TODO: Write this object to the database
-        FDatabase.getInstance().addNotification(notificationDoc, notificationID);
-
-
-    }
-
     public enum ViewType {
         HOME,
         EVENTS
@@ -82,6 +47,8 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
     private User currentUser;
     private OnButtonClickListener buttonClickListener;
     private Map<String, String> interactionLabels = new HashMap<>();
+    // Waiting counts of sharded events by id, which their event documents do not hold
+    private final Map<String, Integer> shardedWaitingCounts = new HashMap<>();
 
     /**
      * Constructor for the adapter.
@@ -166,21 +133,11 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
 
         // Make the entire view clickable to navigate to details
         view.setOnClickListener(v -> {
+            // Hand off the loaded event and user so the details screen renders without re-reading them
+            SessionCache.getInstance().putEvent(event);
+            SessionCache.getInstance().putUser(currentUser);
             Intent intent = new Intent(getContext(), EventDetailsActivity.class);
             intent.putExtra("EVENT_ID", event.getEventId());
-            intent.putExtra("EVENT_NAME", event.getName());
-            intent.putExtra("EVENT_DESCRIPTION", event.getDescription());
-            intent.putExtra("EVENT_LOCATION", event.getLocation());
-            intent.putExtra("EVENT_CATEGORY", event.getCategory());
-            intent.putExtra("EVENT_PRICE", event.getPrice());
-            intent.putExtra("EVENT_CAPACITY", event.getCapacity());
-            intent.putExtra("EVENT_DATE", event.getDate() != null ? event.getDate().getTime() : 0L);
-            intent.putExtra("EVENT_REG_OPEN", event.getRegOpenAt() != null ? event.getRegOpenAt().getTime() : 0L);
-            intent.putExtra("EVENT_REG_CLOSE", event.getRegCloseAt() != null ? event.getRegCloseAt().getTime() : 0L);
-            intent.putExtra("EVENT_WAITING_COUNT", event.getWaitingList() != null ? event.getWaitingList().size() : 0);
-            intent.putExtra("EVENT_LAT", event.getLat());
-            intent.putExtra("EVENT_LNG", event.getLng());
-            intent.putExtra("EVENT_GEO_REQUIRED", event.isGeoRequired());
             getContext().startActivity(intent);
         });
 
@@ -221,9 +178,9 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
             priceString = String.format(Locale.getDefault(), "$%.2f", event.getPrice());
         }
 
-        int waitingCount = event.getWaitingCount();
+        int waitingCount = waitingCount(event);
         int invitedCount = event.getInvitedCount();
-        int joinedCount = event.getJoinedList() != null ? event.getJoinedList().size() : 0;
+        int joinedCount = event.getJoinedCount();
 
         String details = String.format(
                 Locale.getDefault(),
@@ -254,9 +211,10 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
         // Check if current user is an organizer
         boolean isOrganizer = currentUser != null && currentUser.getRole() == User.Role.ORGANIZER;
         String userId = currentUser != null ? currentUser.getId() : null;
-        boolean isInWaitingList = event.entrantInList(userId, event.getWaitingList());
-        boolean isInvited = event.entrantInList(userId, event.getInvitedList());
-        boolean isJoined = event.entrantInList(userId, event.getJoinedList());
+        Event.Status status = event.statusOf(userId);
+        boolean isInWaitingList = status == Event.Status.WAITING;
+        boolean isInvited = status == Event.Status.INVITED;
+        boolean isJoined = status == Event.Status.JOINED;
 
         Button drawLotteryButton = view.findViewById(R.id.draw_lottery_button);
         if (drawLotteryButton != null) {
@@ -266,30 +224,12 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
             } else {
                 drawLotteryButton.setVisibility(View.VISIBLE);
                 drawLotteryButton.setOnClickListener(v -> {
-                    try {
-                        // run the lottery for this event only
-                        ArrayList<User> invitedNow = event.drawEvent();
-                        // persist to Firestore
-                        FDatabase.getInstance().updateEvent(event);
-                        // refresh list row counts etc.
-                        notifyDataSetChanged();
-
-                        if (invitedNow.isEmpty()) {
-                            Toast.makeText(getContext(),
-                                    "No entrants to invite or no capacity left.",
-                                    Toast.LENGTH_SHORT).show();
-                        } else {
-                            Toast.makeText(getContext(),
-                                    "Invited " + invitedNow.size() + " entrant(s).",
-                                    Toast.LENGTH_SHORT).show();
-                        }
-                    } catch (Exception e) {
-                        Toast.makeText(getContext(),
-                                "Error drawing lottery: " + e.getMessage(),
-                                Toast.LENGTH_SHORT).show();
-                        Log.e("EventArrayAdapter", "Error in drawEvent()", e);
-                    }
-                    sendNotifications(event);
+                    // The draw and its notifications run as background work that survives
+                    // leaving this screen and resumes after a restart
+                    new DrawScheduler(getContext()).requestDraw(event.getEventId());
+                    Toast.makeText(getContext(),
+                            "Lottery draw started. Entrants will be notified shortly.",
+                            Toast.LENGTH_SHORT).show();
                 });
             }
         }
@@ -432,9 +372,16 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
 
                         // add geo pont on or off check
 
+                        if (event.getAdmissionShards() > 0) {
+                            joinShardedWaitingList(event, entrant, "Added to waiting list!");
+                            return;
+                        }
+
                         try {
                             entrant.joinWaitingList(event);
-                            FDatabase.getInstance().updateEvent(event);
+                            FDatabase.getInstance().updateEventFields(event.getEventId(),
+                                    event.membershipFields(Collections.singletonList(entrant.getId())));
+                            FDatabase.getInstance().recordEventMembership(entrant.getId(), event.getEventId());
                             Toast.makeText(getContext(), "Added to waiting list!", Toast.LENGTH_SHORT).show();
                             notifyDataSetChanged();
                         } catch (Exception e) {
@@ -505,8 +452,9 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
                         }
 
                         try {
-                            event.getWaitingList().remove(userInList);
-                            FDatabase.getInstance().updateEvent(event);
+                            Event.ChangeSet left = event.removeAll(
+                                    Collections.singletonList(userInList.getId()), Event.Status.WAITING);
+                            FDatabase.getInstance().updateEventFields(event.getEventId(), left.getUpdateFields());
                             Toast.makeText(getContext(), "Removed from waiting list!", Toast.LENGTH_SHORT).show();
                             notifyDataSetChanged();
                         } catch (Exception e) {
@@ -559,8 +507,7 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
 
         TextView eventWaiting = view.findViewById(R.id.event_waiting);
         if (eventWaiting != null) {
-            String waiting = (event.getWaitingList() != null) ?
-                    String.format(Locale.getDefault(), "%d waiting", event.getWaitingList().size()) : "0 waiting";
+            String waiting = String.format(Locale.getDefault(), "%d waiting", waitingCount(event));
             eventWaiting.setText(waiting);
         }
 
@@ -585,10 +532,11 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
 
                 // Check if user is already in waiting list
                 String userId = currentUser != null ? currentUser.getId() : null;
-                boolean isInWaiting = event.entrantInList(userId, event.getWaitingList());
-                boolean isInvited = event.entrantInList(userId, event.getInvitedList());
-                boolean isConfirmed = event.entrantInList(userId, event.getJoinedList());
-                boolean isCancelled = event.entrantInList(userId, event.getCancelledList());
+                Event.Status status = event.statusOf(userId);
+                boolean isInWaiting = status == Event.Status.WAITING;
+                boolean isInvited = status == Event.Status.INVITED;
+                boolean isConfirmed = status == Event.Status.JOINED;
+                boolean isCancelled = status == Event.Status.CANCELLED;
 
                 if (isInWaiting) {
                     joinButton.setEnabled(false);
@@ -663,8 +611,14 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
                     Toast.makeText(getContext(), "Already invited/confirmed for this event.", Toast.LENGTH_SHORT).show();
                     return;
                 }
+                if (event.getAdmissionShards() > 0) {
+                    joinShardedWaitingList(event, entrant, "Joined waiting list!");
+                    return;
+                }
                 entrant.joinWaitingList(event);
-                FDatabase.getInstance().updateEvent(event);
+                FDatabase.getInstance().updateEventFields(event.getEventId(),
+                        event.membershipFields(Collections.singletonList(entrant.getId())));
+                FDatabase.getInstance().recordEventMembership(entrant.getId(), event.getEventId());
                 Toast.makeText(getContext(), "Joined waiting list!", Toast.LENGTH_SHORT).show();
                 notifyDataSetChanged();
             } catch (Exception e) {
@@ -676,6 +630,67 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
         }
     }
 
+    /**
+     * Joins the sharded waiting list of a hot event; see {@link FDatabase#joinWaitingListSharded}.
+     * @param event The event to join.
+     * @param entrant The joining entrant.
+     * @param successMessage The toast shown once joined.
+     */
+    private void joinShardedWaitingList(Event event, Entrant entrant, String successMessage) {
+        FDatabase.getInstance().joinWaitingListSharded(event, entrant,
+                toastCallback(event.getEventId(), successMessage));
+    }
+
+    private FDatabase.StatusCallback toastCallback(String eventId, String successMessage) {
+        return new FDatabase.StatusCallback() {
+            @Override
+            public void onSuccess() {
+                Toast.makeText(getContext(), successMessage, Toast.LENGTH_SHORT).show();
+                // Count the waiting list again on the next bind
+                shardedWaitingCounts.remove(eventId);
+                notifyDataSetChanged();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Toast.makeText(getContext(), error, Toast.LENGTH_SHORT).show();
+                Log.e("EventArrayAdapter", "Sharded waiting list update failed: " + error);
+            }
+        };
+    }
+
+    /**
+     * Gets the number of entrants waiting for an event. Sharded events keep their waiting list
+     * in shard documents, so their count is fetched once per event and the cards redrawn when
+     * it arrives; until then the count on the event document is shown.
+     * @param event The event to count.
+     * @return The number of waiting entrants.
+     */
+    private int waitingCount(Event event) {
+        if (event.getAdmissionShards() <= 0 || event.getEventId() == null) {
+            return event.getWaitingCount();
+        }
+        Integer count = shardedWaitingCounts.get(event.getEventId());
+        if (count != null) {
+            return count;
+        }
+        String eventId = event.getEventId();
+        shardedWaitingCounts.put(eventId, event.getWaitingCount());
+        FDatabase.getInstance().getShardedWaitingCount(eventId, new FDatabase.CountCallback() {
+            @Override
+            public void onSuccess(long total) {
+                shardedWaitingCounts.put(eventId, (int) total);
+                notifyDataSetChanged();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e("EventArrayAdapter", "Failed to count sharded waiting list: " + error);
+            }
+        });
+        return event.getWaitingCount();
+    }
+
     private User findUserInList(UserList list, String userId) {
         if (list == null || userId == null) {
             return null;
@@ -702,17 +717,25 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
         // Find the user in the waiting list
         User userInList = findUserInList(event.getWaitingList(), currentUser.getId());
 
+        if (userInList == null && event.getAdmissionShards() > 0) {
+            // Hot events keep their waiting list outside the event document
+            FDatabase.getInstance().leaveWaitingListSharded(event.getEventId(), currentUser.getId(),
+                    toastCallback(event.getEventId(), "Left waiting list successfully!"));
+            return;
+        }
+
         if (userInList == null) {
             Toast.makeText(getContext(), "You are not in this event's waiting list.", Toast.LENGTH_SHORT).show();
             return;
         }
 
         try {
-            // Remove the actual user object from the waiting list
-            event.getWaitingList().remove(userInList);
+            // Remove the user from the waiting list
+            Event.ChangeSet left = event.removeAll(
+                    Collections.singletonList(userInList.getId()), Event.Status.WAITING);
 
             // Update event in database
-            FDatabase.getInstance().updateEvent(event);
+            FDatabase.getInstance().updateEventFields(event.getEventId(), left.getUpdateFields());
 
             Toast.makeText(getContext(), "Left waiting list successfully!", Toast.LENGTH_SHORT).show();
 
@@ -729,24 +752,13 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
             Toast.makeText(getContext(), "Only entrants can accept invites.", Toast.LENGTH_SHORT).show();
             return;
         }
-        if (event.getInvitedList() == null) {
+        if (event.statusOf(currentUser.getId()) != Event.Status.INVITED) {
             Toast.makeText(getContext(), "No invitation found.", Toast.LENGTH_SHORT).show();
             return;
         }
-        User invitee = findUserInList(event.getInvitedList(), currentUser.getId());
-        if (invitee == null) {
-            Toast.makeText(getContext(), "No invitation found.", Toast.LENGTH_SHORT).show();
-            return;
-        }
-        if (event.getJoinedList() == null) {
-            event.setJoinedList(new UserList(event.getCapacity()));
-        }
-        if (!event.entrantInList(currentUser.getId(), event.getJoinedList())) {
-            event.getJoinedList().add(invitee);
-        }
-        event.getInvitedList().remove(invitee);
-
-        FDatabase.getInstance().updateEvent(event);
+        Event.ChangeSet accepted = event.transition(Collections.singletonList(currentUser.getId()),
+                Event.Status.INVITED, Event.Status.JOINED);
+        FDatabase.getInstance().updateEventFields(event.getEventId(), accepted.getUpdateFields());
         Toast.makeText(getContext(), "Invitation accepted!", Toast.LENGTH_SHORT).show();
         remove(event);
         notifyDataSetChanged();
@@ -757,20 +769,12 @@ public class EventArrayAdapter extends ArrayAdapter<Event> {
             Toast.makeText(getContext(), "Only entrants can decline invites.", Toast.LENGTH_SHORT).show();
             return;
         }
-        if (event.getInvitedList() == null) {
-            Toast.makeText(getContext(), "No invitation found.", Toast.LENGTH_SHORT).show();
-            return;
-        }
-        User invitee = findUserInList(event.getInvitedList(), currentUser.getId());
-        if (invitee == null) {
+        if (event.statusOf(currentUser.getId()) != Event.Status.INVITED) {
             Toast.makeText(getContext(), "No invitation found.", Toast.LENGTH_SHORT).show();
             return;
         }
-        if (event.getCancelledList() == null) {
-            event.setCancelledList(new UserList(event.getCapacity()));
-        }
-        event.moveToCancelled(invitee);
-        FDatabase.getInstance().updateEvent(event);
+        Event.ChangeSet declined = event.cancelAll(Collections.singletonList(currentUser.getId()));
+        FDatabase.getInstance().updateEventFields(event.getEventId(), declined.getUpdateFields());
         Toast.makeText(getContext(), "Invitation declined.", Toast.LENGTH_SHORT).show();
         remove(event);
         notifyDataSetChanged();
@@ -26,7 +26,7 @@ import com.google.firebase.storage.StorageReference;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
@@ -62,12 +62,17 @@ public class EventDetailsActivity extends AppCompatActivity {
     private ViewPager2 eventPager;
     private ImagePagerAdapter imagePagerAdapter;
     private final List<String> pagerImages = new ArrayList<>(); // index 0 = poster, 1 = QR (if exists)
+    // QR URL found in the 'images' collection for older events, so revalidating doesn't query again
+    private String lookedUpQrCodeId;
+    private String lookedUpQrUrl;
 
     // Data
     private String eventId;
     private User currentUser;
     private int waitingCount;
     private Event currentEvent;
+    // Membership of a sharded waiting list, which the event document does not hold
+    private boolean onShardedWaitingList;
 
     // Image picker / upload
     private ActivityResultLauncher<Intent> pickImageLauncher;
@@ -81,9 +86,9 @@ public class EventDetailsActivity extends AppCompatActivity {
 
         initializeViews();
         setDefaultVisibility(); // hide role-based buttons until we know the role
-        loadEventData();        // sets eventId + basic info from intent
+        loadEventData();        // sets eventId + renders the event handed off by the list
         setupButtons();
-        // Load current user AFTER eventId is set
+        // Load current user AFTER the event is shown, so ownership can be derived from it
         loadCurrentUser();      // shows the proper button based on role
 
         // Register image picker
@@ -120,9 +125,9 @@ public class EventDetailsActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        // Reload the event data when activity resumes to catch any changes
+        // Revalidate the cached event and user when activity resumes to catch any changes
         if (eventId != null) {
-            loadFullEventFromDatabase();
+            refreshFromDatabase();
         }
     }
 
@@ -164,7 +169,8 @@ public class EventDetailsActivity extends AppCompatActivity {
     }
 
     /**
-     * Load the currently authenticated user and show the correct button.
+     * Show the correct buttons for the currently authenticated user, using the copy the
+     * previous screen cached. {@link #refreshFromDatabase()} fills it in if it was not cached.
      */
     private void loadCurrentUser() {
         if (FirebaseAuth.getInstance().getCurrentUser() == null) {
@@ -173,82 +179,48 @@ public class EventDetailsActivity extends AppCompatActivity {
         }
 
         String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
+        User cached = SessionCache.getInstance().getUser(uid);
+        if (cached != null) {
+            applyUser(cached);
+        }
+    }
 
-        FDatabase.getInstance().getDb().collection("users")
-                .document(uid)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    if (!snapshot.exists()) return;
-
-                    currentUser = snapshot.toObject(User.class);
-                    if (currentUser == null || currentUser.getRole() == null) return;
-
-                    setDefaultVisibility();
-
-                    switch (currentUser.getRole()) {
-                        case ADMIN:
-                            deleteButton.setVisibility(View.VISIBLE);
-                            // Join button remains hidden for admins
-                            break;
-
-                        case ORGANIZER:
-                            // Only show update photo button if organizer owns this event
-                            checkEventOwnershipAndShowButton();
-                            // Join button remains hidden for organizers
-                            break;
-
-                        case ENTRANT:
-                            joinButton.setVisibility(View.VISIBLE);
-                            // Check button state immediately after making it visible
-                            updateJoinButtonState();
-                            break;
-                    }
-                })
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to load user", e));
+    /**
+     * Show the buttons for a user's role.
+     * @param user the signed-in user.
+     */
+    private void applyUser(User user) {
+        currentUser = user;
+        if (currentUser.getRole() == null) return;
+
+        // Admins can delete, entrants can join; organizers only see the photo button on their own events
+        deleteButton.setVisibility(currentUser.getRole() == User.Role.ADMIN ? View.VISIBLE : View.GONE);
+        joinButton.setVisibility(currentUser.getRole() == User.Role.ENTRANT ? View.VISIBLE : View.GONE);
+        updateOwnershipButton();
+        // Check button state immediately after making it visible
+        updateJoinButtonState();
     }
 
     /**
-     * Check if the current organizer owns this event and show update photo button accordingly.
+     * Show the update photo button if the current organizer owns this event.
+     * Ownership comes from the loaded event's "createdBy" field.
      */
-    private void checkEventOwnershipAndShowButton() {
-        if (eventId == null || currentUser == null) {
-            Log.w(TAG, "Cannot check ownership - eventId: " + eventId + ", currentUser: " + currentUser);
+    private void updateOwnershipButton() {
+        if (currentEvent == null || currentUser == null || currentUser.getRole() != User.Role.ORGANIZER) {
+            updatePhotoBtn.setVisibility(View.GONE);
             return;
         }
 
-        Log.d(TAG, "Checking event ownership for eventId: " + eventId + ", userId: " + currentUser.getId());
-
-        FDatabase.getInstance().getDb().collection("events")
-                .document(eventId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (!documentSnapshot.exists()) {
-                        Log.w(TAG, "Event document does not exist");
-                        return;
-                    }
-
-                    // Try to get the creator/organizer ID from the document
-                    // The field is called "createdBy" in Firestore
-                    String eventCreatorId = documentSnapshot.getString("createdBy");
-
-                    Log.d(TAG, "Event createdBy: " + eventCreatorId + ", Current userId: " + currentUser.getId());
-
-                    if (eventCreatorId != null && eventCreatorId.equals(currentUser.getId())) {
-                        Log.d(TAG, "User IS the organizer - showing update photo button");
-                        updatePhotoBtn.setVisibility(View.VISIBLE);
-                    } else {
-                        Log.d(TAG, "User is NOT the organizer - hiding update photo button");
-                        updatePhotoBtn.setVisibility(View.GONE);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to check event ownership", e);
-                    updatePhotoBtn.setVisibility(View.GONE);
-                });
+        String eventCreatorId = currentEvent.getCreatedBy();
+        Log.d(TAG, "Event createdBy: " + eventCreatorId + ", Current userId: " + currentUser.getId());
+        updatePhotoBtn.setVisibility(eventCreatorId != null && eventCreatorId.equals(currentUser.getId())
+                ? View.VISIBLE : View.GONE);
     }
 
     /**
-     * Read basic event info from Intent and then fetch full event from DB.
+     * Read the event id from the Intent and render the event the list handed off through
+     * the {@link SessionCache}. Deep links and restored activities may find nothing cached;
+     * they show placeholders until {@link #refreshFromDatabase()} loads the event.
      */
     private void loadEventData() {
         eventId = getIntent().getStringExtra("EVENT_ID");
@@ -261,43 +233,20 @@ public class EventDetailsActivity extends AppCompatActivity {
             return;
         }
 
-        String name = getIntent().getStringExtra("EVENT_NAME");
-        String description = getIntent().getStringExtra("EVENT_DESCRIPTION");
-        String criteria = getIntent().getStringExtra("EVENT_CRITERIA");
-        String location = getIntent().getStringExtra("EVENT_LOCATION");
-        String category = getIntent().getStringExtra("EVENT_CATEGORY");
-        Double price = getIntent().hasExtra("EVENT_PRICE")
-                ? getIntent().getDoubleExtra("EVENT_PRICE", 0.0)
-                : null;
-        int capacity = getIntent().getIntExtra("EVENT_CAPACITY", 0);
-        long dateMillis = getIntent().getLongExtra("EVENT_DATE", 0L);
-        long regOpenMillis = getIntent().getLongExtra("EVENT_REG_OPEN", 0L);
-        long regCloseMillis = getIntent().getLongExtra("EVENT_REG_CLOSE", 0L);
-        waitingCount = getIntent().getIntExtra("EVENT_WAITING_COUNT", 0);
-
-        displayEventInfo(name, description, criteria, location, category, price, capacity,
-                dateMillis, regOpenMillis, regCloseMillis, waitingCount);
-
-        loadFullEventFromDatabase();
+        Event cached = SessionCache.getInstance().getEvent(eventId);
+        if (cached != null) {
+            showEvent(cached);
+        } else {
+            displayEventInfo(new Event());
+        }
     }
 
-
     private boolean isUserInWaitingList(Event event) {
-        if (currentUser == null || event.getWaitingList() == null) {
-            return false;
-        }
-
-        ArrayList<User> users = event.getWaitingList().getUsers();
-        if (users == null) {
-            return false;
-        }
-
-        for (User user : users) {
-            if (user != null && user.getId() != null && user.getId().equals(currentUser.getId())) {
-                return true;
-            }
+        if (event.getAdmissionShards() > 0) {
+            // Sharded waiting lists are not on the event document; see refreshShardedWaitingList()
+            return onShardedWaitingList;
         }
-        return false;
+        return currentUser != null && event.statusOf(currentUser.getId()) == Event.Status.WAITING;
     }
 
     /**
@@ -316,104 +265,152 @@ public class EventDetailsActivity extends AppCompatActivity {
     }
 
     /**
-     * Fetch full event from Firestore (including waitingList, posterUri, qrCodeId).
+     * Render an event and everything derived from it: details, join state, ownership and images.
+     * @param event the event to show.
      */
-    private void loadFullEventFromDatabase() {
-        FDatabase db = FDatabase.getInstance();
+    private void showEvent(Event event) {
+        currentEvent = event;
+        displayEventInfo(event);
+        updateJoinButtonState();
+        updateOwnershipButton();
+        // Load poster + QR code into ViewPager2
+        loadEventImages(event);
+    }
 
-        db.getEventById(eventId, new FDatabase.EventCallback() {
-            @Override
-            public void onSuccess(Event event) {
-                Log.d(TAG, "Successfully loaded event from database");
-                currentEvent = event;
-                runOnUiThread(() -> {
-                    // Update waiting count in case it changed
-                    if (event.getWaitingList() != null) {
-                        waitingCount = event.getWaitingList().size();
-                        eventWaiting.setText(String.format(Locale.getDefault(),
-                                "%d people waiting", waitingCount));
-                    }
+    /**
+     * Revalidate the event and the current user against Firestore in parallel, then
+     * re-render with the fresh copies and put them back in the cache.
+     */
+    private void refreshFromDatabase() {
+        FDatabase db = FDatabase.getInstance();
 
-                    if (event.getCriteria() != null && !event.getCriteria().isEmpty()) {
-                        eventCriteria.setText(event.getCriteria());
-                    }
+        LifecycleFutures.observe(this, db.getEventByIdAsync(eventId), event -> {
+            Log.d(TAG, "Successfully loaded event from database");
+            SessionCache.getInstance().putEvent(event);
+            showEvent(event);
+            if (event.getAdmissionShards() > 0) {
+                refreshShardedWaitingList();
+            }
+        }, error -> {
+            Log.e(TAG, "Failed to load event from database", error);
+            if (currentEvent == null) {
+                joinButton.setEnabled(false);
+                joinButton.setText("Unable to join");
+            }
+            Snackbar.make(eventPager, "Failed to load event details",
+                    Snackbar.LENGTH_LONG).show();
+        });
 
-                    // Update join button state
-                    updateJoinButtonState();
+        if (FirebaseAuth.getInstance().getCurrentUser() == null) {
+            return;
+        }
+        String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
+        LifecycleFutures.observe(this,
+                FDatabase.toFuture(db.trackRead("users", db.getDb().collection("users").document(uid).get())),
+                snapshot -> {
+                    User user = snapshot.exists() ? snapshot.toObject(User.class) : null;
+                    if (user == null) return;
+                    SessionCache.getInstance().putUser(user);
+                    applyUser(user);
+                },
+                error -> Log.e(TAG, "Failed to load user", error));
+    }
 
-                    // Load poster + QR code into ViewPager2
-                    loadEventImages(event);
-                });
+    /**
+     * Load the waiting count and the current user's membership for an event with sharded
+     * admission, whose waiting list is kept outside the event document.
+     */
+    private void refreshShardedWaitingList() {
+        FDatabase db = FDatabase.getInstance();
+        db.getShardedWaitingCount(eventId, new FDatabase.CountCallback() {
+            @Override
+            public void onSuccess(long count) {
+                if (isFinishing() || isDestroyed()) return;
+                waitingCount = (int) count;
+                eventWaiting.setText(String.format(Locale.getDefault(),
+                        "%d people waiting", waitingCount));
             }
 
             @Override
             public void onFailure(String error) {
-                Log.e(TAG, "Failed to load event from database: " + error);
-                runOnUiThread(() -> {
-                    joinButton.setEnabled(false);
-                    joinButton.setText("Unable to join");
-                    Snackbar.make(eventPager, "Failed to load event details",
-                            Snackbar.LENGTH_LONG).show();
-                });
+                Log.e(TAG, "Failed to count sharded waiting list: " + error);
             }
         });
+
+        if (FirebaseAuth.getInstance().getCurrentUser() == null) {
+            return;
+        }
+        LifecycleFutures.observe(this,
+                db.isOnShardedWaitingListAsync(eventId, FirebaseAuth.getInstance().getCurrentUser().getUid()),
+                waiting -> {
+                    onShardedWaitingList = waiting;
+                    updateJoinButtonState();
+                },
+                error -> Log.e(TAG, "Failed to check sharded waiting list", error));
     }
 
     /**
      * Populate ViewPager2 with:
      *  - Index 0: Poster image (event.posterUri, if present)
-     *  - Index 1: QR code image (from 'images' collection, if present)
+     *  - Index 1: QR code image (event.qrCodeImage, if present)
+     * Events saved before the QR URL was stored on the event fall back to the 'images' collection.
      * @param event event to render images for.
      */
     private void loadEventImages(Event event) {
-        pagerImages.clear();
-        if (event == null) {
-            setupOrRefreshPager();
-            return;
-        }
-        // Poster at index 0
-        String posterUri = event.getPosterUri();
-        pagerImages.add(normalizeImageUrl(posterUri));
-        // QR code at index 1 (lookup via QR Code ID)
         String qrCodeId = event.getQrCodeId();
         if (qrCodeId == null || qrCodeId.isEmpty()) {
             // No QR code — finish with only poster image
-            if (qrHint != null) {
-                qrHint.setVisibility(View.GONE);
-            }
-            setupOrRefreshPager();
+            showImages(event.getPosterUri(), null, false);
+            return;
+        }
+        String qrUrl = event.getQrCodeImage();
+        if ((qrUrl == null || qrUrl.isEmpty()) && qrCodeId.equals(lookedUpQrCodeId)) {
+            qrUrl = lookedUpQrUrl;
+        }
+        if (qrUrl != null && !qrUrl.isEmpty()) {
+            showImages(event.getPosterUri(), qrUrl, true);
             return;
         }
-        updateQrHintVisibility(true);
-        FirebaseFirestore.getInstance()
-                .collection("images")
-                .whereEqualTo("imageType", Image.TYPE_QR_CODE)
-                .whereEqualTo("imageID", qrCodeId)
-                .limit(1)
-                .get()
+
+        showImages(event.getPosterUri(), null, true);
+        FDatabase.getInstance().trackRead("images", FirebaseFirestore.getInstance()
+                        .collection("images")
+                        .whereEqualTo("imageType", Image.TYPE_QR_CODE)
+                        .whereEqualTo("imageID", qrCodeId)
+                        .limit(1)
+                        .get())
                 .addOnSuccessListener(querySnapshot -> {
-                    updateQrHintVisibility(true);
-                    if (!querySnapshot.isEmpty()) {
-                        Image img = querySnapshot.getDocuments()
-                                .get(0)
-                                .toObject(Image.class);
-                        if (img != null) {
-                            addQrIfNew(img.getImageUrl());
-                        } else {
-                            addQrIfNew(null);
-                        }
-                    } else {
-                        // QR entry missing from Firestore
-                        addQrIfNew(null);
+                    Image img = querySnapshot.isEmpty() ? null
+                            : querySnapshot.getDocuments().get(0).toObject(Image.class);
+                    lookedUpQrCodeId = qrCodeId;
+                    lookedUpQrUrl = img != null ? img.getImageUrl() : null;
+                    if (currentEvent != null && qrCodeId.equals(currentEvent.getQrCodeId())) {
+                        showImages(currentEvent.getPosterUri(), lookedUpQrUrl, true);
                     }
-                    setupOrRefreshPager();
                 })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load QR image metadata", e);
-                    addQrIfNew(null);
-                    updateQrHintVisibility(true);
-                    setupOrRefreshPager();
-                });
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to load QR image metadata", e));
+    }
+
+    /**
+     * Show the poster and QR pages, refreshing the pager only if they changed.
+     * @param posterUrl the poster URL, or null for the placeholder.
+     * @param qrUrl the QR code URL, or null for the placeholder.
+     * @param hasQr whether the event has a QR code page at all.
+     */
+    private void showImages(String posterUrl, String qrUrl, boolean hasQr) {
+        List<String> images = new ArrayList<>();
+        images.add(normalizeImageUrl(posterUrl));
+        // Skip the QR page if it would repeat the poster
+        if (hasQr && !images.contains(normalizeImageUrl(qrUrl))) {
+            images.add(normalizeImageUrl(qrUrl));
+        }
+        updateQrHintVisibility(hasQr);
+        if (imagePagerAdapter != null && images.equals(pagerImages)) {
+            return;
+        }
+        pagerImages.clear();
+        pagerImages.addAll(images);
+        setupOrRefreshPager();
     }
 
     /**
@@ -428,16 +425,6 @@ public class EventDetailsActivity extends AppCompatActivity {
         }
     }
 
-    /**
-     * Add QR image if it isn't already present (prevents duplicate QR pages).
-     */
-    private void addQrIfNew(String qrUrl) {
-        String normalized = normalizeImageUrl(qrUrl);
-        if (!pagerImages.contains(normalized)) {
-            pagerImages.add(normalized);
-        }
-    }
-
     /**
      * Normalize missing/placeholder URLs.
      */
@@ -458,16 +445,16 @@ public class EventDetailsActivity extends AppCompatActivity {
     }
 
     /**
-     * Display basic event info in the UI.
+     * Display the event's details in the UI, with placeholders for missing fields.
+     * @param event event to display.
      */
-    private void displayEventInfo(String name, String description, String criteria, String location,
-                                  String category, Double price, int capacity,
-                                  long dateMillis, long regOpenMillis, long regCloseMillis,
-                                  int waitingCount) {
+    private void displayEventInfo(Event event) {
         SimpleDateFormat dateFormat =
                 new SimpleDateFormat("MMM dd, yyyy 'at' hh:mm a", Locale.getDefault());
 
-        eventName.setText(name != null ? name : "Event Name");
+        String description = event.getDescription();
+        String criteria = event.getCriteria();
+        eventName.setText(event.getName() != null ? event.getName() : "Event Name");
         eventDescription.setText(
                 description != null && !description.isEmpty()
                         ? description
@@ -476,34 +463,35 @@ public class EventDetailsActivity extends AppCompatActivity {
                 criteria != null && !criteria.isEmpty()
                         ? criteria
                         : "No criteria available");
-        eventLocation.setText(location != null ? location : "Location TBD");
-        eventCategory.setText(category != null ? category : "Uncategorized");
+        eventLocation.setText(event.getLocation() != null ? event.getLocation() : "Location TBD");
+        eventCategory.setText(event.getCategory() != null ? event.getCategory() : "Uncategorized");
 
-        if (dateMillis > 0) {
-            eventDate.setText(dateFormat.format(new Date(dateMillis)));
+        if (event.getDate() != null) {
+            eventDate.setText(dateFormat.format(event.getDate()));
         } else {
             eventDate.setText("Date TBD");
         }
 
-        if (price != null && price > 0) {
-            eventPrice.setText(String.format(Locale.getDefault(), "$%.2f", price));
+        if (event.getPrice() != null && event.getPrice() > 0) {
+            eventPrice.setText(String.format(Locale.getDefault(), "$%.2f", event.getPrice()));
         } else {
             eventPrice.setText("Free");
         }
 
+        waitingCount = event.getWaitingCount();
         eventCapacity.setText(String.format(Locale.getDefault(),
-                "%d spots available", capacity));
+                "%d spots available", event.getCapacity()));
         eventWaiting.setText(String.format(Locale.getDefault(),
                 "%d people waiting", waitingCount));
 
-        if (regOpenMillis > 0) {
-            eventRegOpen.setText(dateFormat.format(new Date(regOpenMillis)));
+        if (event.getRegOpenAt() != null) {
+            eventRegOpen.setText(dateFormat.format(event.getRegOpenAt()));
         } else {
             eventRegOpen.setText("Open now");
         }
 
-        if (regCloseMillis > 0) {
-            eventRegClose.setText(dateFormat.format(new Date(regCloseMillis)));
+        if (event.getRegCloseAt() != null) {
+            eventRegClose.setText(dateFormat.format(event.getRegCloseAt()));
         } else {
             eventRegClose.setText("Until full");
         }
@@ -566,20 +554,24 @@ public class EventDetailsActivity extends AppCompatActivity {
                 currentUser.getGeoPoint()
         );
 
-        boolean inWaiting = event.entrantInList(entrant.getId(), event.getWaitingList());
-        boolean inInvited = event.entrantInList(entrant.getId(), event.getInvitedList());
-        boolean inJoined = event.entrantInList(entrant.getId(), event.getJoinedList());
-
-        if (inWaiting || inInvited || inJoined) {
+        Event.Status status = event.statusOf(entrant.getId());
+        if (status != null && status != Event.Status.CANCELLED) {
             Toast.makeText(this, "You are already in this event", Toast.LENGTH_SHORT).show();
             return;
         }
 
+        if (event.getAdmissionShards() > 0) {
+            joinShardedWaitingList(event, entrant);
+            return;
+        }
+
         try {
             entrant.joinWaitingList(event);
 
             // Update the database
-            FDatabase.getInstance().updateEvent(event);
+            FDatabase.getInstance().updateEventFields(event.getEventId(),
+                    event.membershipFields(Collections.singletonList(entrant.getId())));
+            FDatabase.getInstance().recordEventMembership(entrant.getId(), event.getEventId());
 
             // Update the waiting count
             waitingCount++;
@@ -601,6 +593,33 @@ public class EventDetailsActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Entrant joins the sharded waiting list of a hot event.
+     * @param event target event to join.
+     * @param entrant the joining entrant.
+     */
+    private void joinShardedWaitingList(Event event, Entrant entrant) {
+        joinButton.setEnabled(false);
+        FDatabase.getInstance().joinWaitingListSharded(event, entrant, new FDatabase.StatusCallback() {
+            @Override
+            public void onSuccess() {
+                onShardedWaitingList = true;
+                waitingCount++;
+                eventWaiting.setText(String.format(Locale.getDefault(),
+                        "%d people waiting", waitingCount));
+                joinButton.setText("Joined");
+                Toast.makeText(EventDetailsActivity.this, "Joined waiting list!", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e(TAG, "Error joining sharded waiting list: " + error);
+                updateJoinButtonState();
+                Toast.makeText(EventDetailsActivity.this, "Failed to join: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
     /**
      * Delete the current event.
      * @param id event identifier to delete.
@@ -609,6 +628,7 @@ public class EventDetailsActivity extends AppCompatActivity {
         FDatabase.getInstance().deleteEvent(id, new FDatabase.StatusCallback() {
             @Override
             public void onSuccess() {
+                new DrawScheduler(EventDetailsActivity.this).cancelScheduledDraw(id);
                 runOnUiThread(() -> {
                     Toast.makeText(EventDetailsActivity.this,
                             "Event deleted", Toast.LENGTH_SHORT).show();
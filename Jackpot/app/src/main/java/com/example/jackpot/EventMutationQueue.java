@@ -0,0 +1,176 @@
+package com.example.jackpot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * CMPUT 301 – Event Lottery App (“Jackpot”)
+ * File: EventMutationQueue.java
+ *
+ * Purpose/Role:
+ *   Coalesces field updates to the same event into fewer Firestore writes.
+ *
+ * Design Notes:
+ *   - Each event has at most one write in flight. Changes made while it is in flight, or
+ *     within COALESCE_WINDOW_MS of the first pending change, are merged into the next write.
+ *   - A merged write only sets the fields that changed (a field mask), so edits to different
+ *     fields from different screens no longer overwrite each other with stale copies.
+ *   - A later value for a field replaces an earlier pending one, which gives the same result
+ *     as writing them in order.
+ *   - Pure Java; the writer and scheduler are supplied by FDatabase so this can be unit tested.
+ */
+
+/**
+ * A per-event queue that merges pending field updates into a single write.
+ * Each update gets its own future, completed when the write carrying it finishes.
+ * Thread-safe.
+ */
+public class EventMutationQueue {
+    /** How long the first pending change waits for others to join its write. */
+    public static final long COALESCE_WINDOW_MS = 300;
+
+    /**
+     * Writes some fields of one event.
+     */
+    public interface Writer {
+        /**
+         * @param eventId The event to update
+         * @param fields The fields to set, by Firestore field name
+         * @return A future completed when the write is committed
+         */
+        CompletableFuture<Void> write(String eventId, Map<String, Object> fields);
+    }
+
+    /**
+     * Runs work later, e.g. on the main thread's handler.
+     */
+    public interface Scheduler {
+        void schedule(Runnable task, long delayMs);
+    }
+
+    private static class Batch {
+        final Map<String, Object> fields = new LinkedHashMap<>();
+        final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    }
+
+    private static class EventQueue {
+        Batch pending;
+        boolean flushScheduled;
+        boolean writing;
+    }
+
+    private final Writer writer;
+    private final Scheduler scheduler;
+    private final long windowMs;
+    private final Map<String, EventQueue> queues = new HashMap<>();
+
+    /**
+     * Creates a queue that waits {@link #COALESCE_WINDOW_MS} before writing.
+     * @param writer Performs the merged writes
+     * @param scheduler Runs delayed flushes
+     */
+    public EventMutationQueue(Writer writer, Scheduler scheduler) {
+        this(writer, scheduler, COALESCE_WINDOW_MS);
+    }
+
+    EventMutationQueue(Writer writer, Scheduler scheduler, long windowMs) {
+        this.writer = writer;
+        this.scheduler = scheduler;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Queues an update of some fields of an event.
+     * @param eventId The event to update
+     * @param fields The fields to set, by Firestore field name; must not be empty
+     * @return A future completed once the update is written, or failed with the write's error
+     * @throws IllegalArgumentException If the event ID is null or there are no fields
+     */
+    public synchronized CompletableFuture<Void> enqueue(String eventId, Map<String, Object> fields) {
+        if (eventId == null || fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("Event ID and at least one field are required");
+        }
+        EventQueue queue = queues.get(eventId);
+        if (queue == null) {
+            queue = new EventQueue();
+            queues.put(eventId, queue);
+        }
+        if (queue.pending == null) {
+            queue.pending = new Batch();
+        }
+        merge(queue.pending.fields, fields);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.pending.waiters.add(done);
+        // While a write is in flight its completion schedules the next one
+        if (!queue.writing && !queue.flushScheduled) {
+            queue.flushScheduled = true;
+            scheduler.schedule(() -> flush(eventId), windowMs);
+        }
+        return done;
+    }
+
+    // A later value replaces a pending one
+    private static void merge(Map<String, Object> pending, Map<String, Object> fields) {
+        pending.putAll(fields);
+    }
+
+    /**
+     * @param eventId The event to check
+     * @return true if the event has updates that are queued or being written
+     */
+    public synchronized boolean hasPending(String eventId) {
+        return queues.containsKey(eventId);
+    }
+
+    private void flush(String eventId) {
+        Batch batch;
+        synchronized (this) {
+            EventQueue queue = queues.get(eventId);
+            if (queue == null) {
+                return;
+            }
+            queue.flushScheduled = false;
+            if (queue.writing || queue.pending == null) {
+                return;
+            }
+            batch = queue.pending;
+            queue.pending = null;
+            queue.writing = true;
+        }
+
+        CompletableFuture<Void> write;
+        try {
+            write = writer.write(eventId, new LinkedHashMap<>(batch.fields));
+        } catch (RuntimeException e) {
+            // failedFuture() needs API 31
+            write = new CompletableFuture<>();
+            write.completeExceptionally(e);
+        }
+        write.whenComplete((ignored, error) -> {
+            for (CompletableFuture<Void> waiter : batch.waiters) {
+                if (error == null) {
+                    waiter.complete(null);
+                } else {
+                    waiter.completeExceptionally(error);
+                }
+            }
+            finishWrite(eventId);
+        });
+    }
+
+    private synchronized void finishWrite(String eventId) {
+        EventQueue queue = queues.get(eventId);
+        queue.writing = false;
+        if (queue.pending == null) {
+            queues.remove(eventId);
+        } else if (!queue.flushScheduled) {
+            // These changes already waited for the previous write, so send them straight away
+            queue.flushScheduled = true;
+            scheduler.schedule(() -> flush(eventId), 0);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.jackpot;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares event queries between the screens of one activity.
+ * Each query key has one {@link LiveData} stream backed by one Firestore listener, however
+ * many fragments observe it. The listener starts with the first observer and stops a short
+ * while after the last one leaves, so switching tabs or rotating reuses it instead of
+ * downloading every event again. Every event delivered is also put in the {@link SessionCache},
+ * so other screens, including other activities, can read it by id.
+ * Owned by {@link EventViewModel}; use the repository on the main thread.
+ */
+public class EventRepository {
+    /** Key for the stream of every event. */
+    public static final String ALL_EVENTS = "all";
+    private static final String CREATED_BY_PREFIX = "createdBy:";
+    /** How long a listener outlives its last observer, so a returning screen can reuse it. */
+    static final long STOP_DELAY_MS = 5000;
+
+    private final FDatabase database;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, QueryLiveData> queries = new HashMap<>();
+
+    /**
+     * Creates a repository over the shared database.
+     * @param database The database to listen to
+     */
+    public EventRepository(FDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Builds the key for the events created by one organizer.
+     * @param creatorId The organizer's user id
+     * @return The query key
+     */
+    public static String createdBy(String creatorId) {
+        return CREATED_BY_PREFIX + creatorId;
+    }
+
+    /**
+     * Gets the stream for a query key. Repeated calls with the same key return the same stream.
+     * @param key {@link #ALL_EVENTS} or a key from {@link #createdBy(String)}
+     * @return The stream of events matching the key; empty until the first update arrives
+     */
+    public QueryLiveData events(String key) {
+        QueryLiveData query = queries.get(key);
+        if (query == null) {
+            query = new QueryLiveData(key);
+            queries.put(key, query);
+        }
+        return query;
+    }
+
+    /**
+     * Gets an event any stream has delivered, without a query.
+     * @param eventId The id of the event
+     * @return The latest copy seen, or null if no stream has delivered it
+     */
+    @Nullable
+    public Event getCachedEvent(String eventId) {
+        return SessionCache.getInstance().getEvent(eventId);
+    }
+
+    /**
+     * Adds or replaces an event in the shared cache, e.g. after the current screen edits it.
+     * @param event The event to cache; ignored if it has no id
+     */
+    public void putEvent(Event event) {
+        SessionCache.getInstance().putEvent(event);
+    }
+
+    /**
+     * Loads one event for a screen that was handed only its id. The cached copy, if any, is
+     * delivered straight away so the screen can render, then the event is read again and the
+     * stored copy delivered and cached, so the callback's onSuccess may run twice.
+     * @param eventId The id of the event
+     * @param callback Receives the event, or the error if it could not be read
+     */
+    public void loadEvent(String eventId, FDatabase.EventCallback callback) {
+        Event cached = getCachedEvent(eventId);
+        if (cached != null) {
+            callback.onSuccess(cached);
+        }
+        database.getEventById(eventId, new FDatabase.EventCallback() {
+            @Override
+            public void onSuccess(Event event) {
+                putEvent(event);
+                callback.onSuccess(event);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                callback.onFailure(error);
+            }
+        });
+    }
+
+    /**
+     * Stops every listener immediately. Called when the owning activity is finished.
+     */
+    public void close() {
+        for (QueryLiveData query : queries.values()) {
+            query.stop();
+        }
+        queries.clear();
+    }
+
+    /**
+     * A live query. Active while it has a started observer; see {@link EventRepository}.
+     */
+    public class QueryLiveData extends LiveData<List<Event>> {
+        private final String key;
+        private final MutableLiveData<Exception> error = new MutableLiveData<>();
+        private final Runnable stopRunnable = this::stop;
+        private ListenerRegistration registration;
+
+        private QueryLiveData(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return The listener's latest failure, or null while it is healthy.
+         */
+        public LiveData<Exception> getError() {
+            return error;
+        }
+
+        @Override
+        protected void onActive() {
+            mainHandler.removeCallbacks(stopRunnable);
+            if (registration != null) {
+                return;
+            }
+            String creatorId = key.startsWith(CREATED_BY_PREFIX)
+                    ? key.substring(CREATED_BY_PREFIX.length()) : null;
+            registration = database.listenToEvents(creatorId, new FDatabase.DataCallback<Event>() {
+                @Override
+                public void onSuccess(ArrayList<Event> events) {
+                    for (Event event : events) {
+                        putEvent(event);
+                    }
+                    error.postValue(null);
+                    postValue(events);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    error.postValue(e);
+                }
+            });
+        }
+
+        @Override
+        protected void onInactive() {
+            mainHandler.postDelayed(stopRunnable, STOP_DELAY_MS);
+        }
+
+        private void stop() {
+            mainHandler.removeCallbacks(stopRunnable);
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.jackpot;
+
+import androidx.lifecycle.ViewModel;
+
+/**
+ * Activity-scoped holder for the {@link EventRepository}, so its streams and store survive
+ * configuration changes and are shared by every fragment in the activity.
+ * Fragments get it with {@code new ViewModelProvider(requireActivity()).get(EventViewModel.class)}.
+ */
+public class EventViewModel extends ViewModel {
+    private final EventRepository repository = new EventRepository(FDatabase.getInstance());
+
+    /**
+     * Getter for the repository.
+     *
+     * @return the shared event repository
+     */
+    public EventRepository getRepository() {
+        return repository;
+    }
+
+    @Override
+    protected void onCleared() {
+        repository.close();
+    }
+}
@@ -1,18 +1,45 @@
 package com.example.jackpot;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import com.google.android.gms.tasks.CancellableTask;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.AggregateField;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /*
  * CMPUT 301 – Event Lottery App (“Jackpot”)
@@ -31,8 +58,27 @@ import java.util.Map;
  * Provides typed callbacks and convenience methods for common queries and updates.
  */
 public class FDatabase {
+    /** Maximum number of writes Firestore accepts in a single WriteBatch. */
+    public static final int MAX_BATCH_WRITES = 500;
+    /** Maximum number of values Firestore accepts in a whereIn filter. */
+    public static final int MAX_WHERE_IN = 30;
+    /** User field mapping each broadcast the user has read to when it was sent. */
+    public static final String READ_BROADCASTS = "readBroadcasts";
+
     private static FDatabase instance = null;
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final Map<String, Task<String>> organizerNames = new HashMap<>();
+    private final FirestoreMetrics metrics = new FirestoreMetrics();
+    private final ScreenReadTracker screenReads = new ScreenReadTracker();
+    // Sizing documents walks their fields, so keep it off the main thread
+    private final Executor metricsExecutor = Executors.newSingleThreadExecutor();
+    // Snapshot listeners convert documents to objects, so deliver them off the main thread too
+    private final Executor listenerExecutor = Executors.newSingleThreadExecutor();
+    private final Random random = new Random();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final EventMutationQueue eventMutations = new EventMutationQueue(
+            (eventId, fields) -> toFuture(writeEventFields(eventId, fields)),
+            (task, delayMs) -> mainHandler.postDelayed(task, delayMs));
 
     private FDatabase() {}
 
@@ -56,6 +102,85 @@ public class FDatabase {
         return db;
     }
 
+    /**
+     * Get the operation metrics recorded for every call made through this facade.
+     * @return The metrics collector.
+     */
+    public FirestoreMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the per-screen read attribution for calls made through this facade.
+     * @return The screen read tracker.
+     */
+    public ScreenReadTracker getScreenReads() {
+        return screenReads;
+    }
+
+    /**
+     * Records a read against a collection once the task completes, and charges it to the
+     * innermost screen open now. Handles document, query and aggregation results.
+     * Screens that query Firestore directly should wrap their reads with this too.
+     * Call on the main thread, when the read is issued.
+     * @param collection The collection being read
+     * @param task The read task
+     * @return The same task, for chaining listeners
+     */
+    public <T> Task<T> trackRead(String collection, Task<T> task) {
+        long start = System.nanoTime();
+        ScreenReadTracker.Visit visit = screenReads.currentVisit();
+        task.addOnCompleteListener(metricsExecutor, done -> {
+            long latency = System.nanoTime() - start;
+            if (!done.isSuccessful()) {
+                metrics.record(collection, latency, 0, 0, 0, 0, 0, true);
+                return;
+            }
+            Object result = done.getResult();
+            List<DocumentSnapshot> documents;
+            boolean fromCache;
+            if (result instanceof QuerySnapshot) {
+                documents = ((QuerySnapshot) result).getDocuments();
+                fromCache = ((QuerySnapshot) result).getMetadata().isFromCache();
+            } else if (result instanceof DocumentSnapshot) {
+                documents = Collections.singletonList((DocumentSnapshot) result);
+                fromCache = ((DocumentSnapshot) result).getMetadata().isFromCache();
+            } else {
+                // Aggregations are billed as a single read
+                metrics.record(collection, latency, 1, 0, 0, 0, 0, false);
+                screenReads.recordReads(visit, collection, 1, 0);
+                return;
+            }
+            long bytes = 0;
+            for (DocumentSnapshot document : documents) {
+                bytes += FirestoreMetrics.estimateDocumentBytes(document.getReference().getPath(),
+                        document.getData());
+            }
+            // A query that matches nothing is still billed as one read
+            int serverReads = fromCache ? 0 : Math.max(1, documents.size());
+            int cachedReads = fromCache ? documents.size() : 0;
+            metrics.record(collection, latency, serverReads, cachedReads, 0, bytes, 0, false);
+            screenReads.recordReads(visit, collection, serverReads, cachedReads);
+        });
+        return task;
+    }
+
+    /**
+     * Records a write against a collection once the task completes.
+     * @param collection The collection being written
+     * @param documents The number of documents written or deleted
+     * @param bytes The approximate size written, or 0 if not known
+     * @param task The write task
+     * @return The same task, for chaining listeners
+     */
+    private <T> Task<T> trackWrite(String collection, int documents, long bytes, Task<T> task) {
+        long start = System.nanoTime();
+        task.addOnCompleteListener(metricsExecutor, done -> metrics.record(collection,
+                System.nanoTime() - start, 0, 0, done.isSuccessful() ? documents : 0,
+                0, done.isSuccessful() ? bytes : 0, !done.isSuccessful()));
+        return task;
+    }
+
     // Generic callback interface
     public interface DataCallback<T> {
         void onSuccess(ArrayList<T> data);
@@ -70,6 +195,23 @@ public class FDatabase {
         void onFailure(String error);
     }
 
+    /**
+     * Callback interface for one page of a cursor-paged query.
+     * The last visible snapshot is the cursor to pass back in for the next page.
+     */
+    public interface PageCallback<T> {
+        void onSuccess(ArrayList<T> data, @Nullable DocumentSnapshot lastVisible, boolean hasMore);
+        void onFailure(Exception e);
+    }
+
+    /**
+     * Callback interface for server-side count aggregations.
+     */
+    public interface CountCallback {
+        void onSuccess(long count);
+        void onFailure(String error);
+    }
+
     // Single event callback interface
 
     /**
@@ -94,17 +236,12 @@ public class FDatabase {
 
         Log.d("FDatabase", "Fetching event with ID: " + eventId);
 
-        db.collection("events").document(eventId)
-                .get()
+        trackRead("events", db.collection("events").document(eventId).get())
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
                         try {
-                            Event event = documentSnapshot.toObject(Event.class);
+                            Event event = toObject(documentSnapshot, Event.class);
                             if (event != null) {
-                                // Make sure the eventId is set
-                                if (event.getEventId() == null || event.getEventId().isEmpty()) {
-                                    event.setEventId(documentSnapshot.getId());
-                                }
                                 Log.d("FDatabase", "Event found: " + event.getName());
                                 callback.onSuccess(event);
                             } else {
@@ -137,13 +274,12 @@ public class FDatabase {
      */
     public <T> void queryCollection(String collectionName, String field, Object value,
                                     Class<T> classType, DataCallback<T> callback) {
-        db.collection(collectionName).whereEqualTo(field, value)
-                .get()
+        trackRead(collectionName, db.collection(collectionName).whereEqualTo(field, value).get())
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     ArrayList<T> results = new ArrayList<>();
                     if (!queryDocumentSnapshots.isEmpty()) {
                         for (DocumentSnapshot documentSnapshot : queryDocumentSnapshots) {
-                            T item = documentSnapshot.toObject(classType);
+                            T item = toObject(documentSnapshot, classType);
                             if (item != null) {
                                 results.add(item);
                             }
@@ -168,13 +304,12 @@ public class FDatabase {
      */
     public <T> void queryCollectionWithArrayContains(String collectionName, String field, Object value,
                                                      Class<T> classType, DataCallback<T> callback) {
-        db.collection(collectionName).whereArrayContains(field, value)
-                .get()
+        trackRead(collectionName, db.collection(collectionName).whereArrayContains(field, value).get())
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     ArrayList<T> results = new ArrayList<>();
                     if (!queryDocumentSnapshots.isEmpty()) {
                         for (DocumentSnapshot documentSnapshot : queryDocumentSnapshots) {
-                            T item = documentSnapshot.toObject(classType);
+                            T item = toObject(documentSnapshot, classType);
                             if (item != null) {
                                 results.add(item);
                             }
@@ -197,14 +332,14 @@ public class FDatabase {
      */
     public <T> void getAllFromCollection(String collectionName, Class<T> classType,
                                          DataCallback<T> callback) {
-        db.collection(collectionName).get()
+        trackRead(collectionName, db.collection(collectionName).get())
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     ArrayList<T> results = new ArrayList<>();
                     if (queryDocumentSnapshots.isEmpty()) {
                         Log.d("FDatabase", "No data found in " + collectionName);
                     } else {
                         for (DocumentSnapshot documentSnapshot : queryDocumentSnapshots) {
-                            T item = documentSnapshot.toObject(classType);
+                            T item = toObject(documentSnapshot, classType);
                             if (item != null) {
                                 results.add(item);
                             }
@@ -223,13 +358,328 @@ public class FDatabase {
      * @param event The event to update
      */
     public void updateEvent(Event event) {
+        updateEvent(event, new StatusCallback() {
+            @Override
+            public void onSuccess() {
+                Log.d("FDatabase", "Event updated successfully");
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e("FDatabase", "Error updating event: " + error);
+            }
+        });
+    }
+
+    /**
+     * Updates an event in Firestore and reports when the write completes. Only the fields
+     * changed since the event was read or last saved are sent; see {@link #updateEventAsync}.
+     * @param event The event to update
+     * @param callback Called on the main thread once the write completes
+     */
+    public void updateEvent(Event event, StatusCallback callback) {
         if (event == null || event.getEventId() == null) {
             Log.e("FDatabase", "Event or event ID is null, cannot update.");
+            callback.onFailure("Event or event ID is null");
+            return;
+        }
+        updateEventAsync(event).whenComplete((ignored, error) -> mainHandler.post(() -> {
+            if (error == null) {
+                callback.onSuccess();
+            } else {
+                callback.onFailure(error.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Updates only the given fields of an event. Updates to the same event made in quick
+     * succession are merged into one write and applied in the order they were made, so
+     * prefer this over {@link #updateEvent(Event)} when only some fields changed.
+     * @param eventId The ID of the event to update
+     * @param fields The new values, by field path, e.g. from {@link Event#membershipFields};
+     *               a null value deletes the field
+     * @param callback Called on the main thread once this update is written
+     */
+    public void updateEventFields(String eventId, Map<String, Object> fields, StatusCallback callback) {
+        if (eventId == null || fields == null || fields.isEmpty()) {
+            Log.e("FDatabase", "Event ID or fields missing, cannot update.");
+            callback.onFailure("Event ID or fields missing");
             return;
         }
-        db.collection("events").document(event.getEventId()).set(event)
-                .addOnSuccessListener(aVoid -> Log.d("FDatabase", "Event updated successfully"))
-                .addOnFailureListener(e -> Log.e("FDatabase", "Error updating event", e));
+        eventMutations.enqueue(eventId, fields).whenComplete((ignored, error) -> mainHandler.post(() -> {
+            if (error == null) {
+                callback.onSuccess();
+            } else {
+                callback.onFailure(error.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Updates only the given fields of an event, logging the outcome.
+     * See {@link #updateEventFields(String, Map, StatusCallback)}.
+     * @param eventId The ID of the event to update
+     * @param fields The new values, by field name
+     */
+    public void updateEventFields(String eventId, Map<String, Object> fields) {
+        updateEventFields(eventId, fields, new StatusCallback() {
+            @Override
+            public void onSuccess() {
+                Log.d("FDatabase", "Event fields updated: " + fields.keySet());
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e("FDatabase", "Error updating event fields: " + error);
+            }
+        });
+    }
+
+    /**
+     * Writes some fields of an event, and copies each changed entrant's status onto their
+     * profile so the inbox can check broadcast audiences from the user document alone. The
+     * event is read and written in a transaction, so the per-status counters are recounted
+     * from the memberships being stored ({@link Event#counterFields}) and cannot drift when
+     * devices change the event at once. As many profiles as fit go in the same transaction;
+     * a migration can change more entrants than that, and the rest follow in batches.
+     * @param eventId The event to update
+     * @param fields The fields to set, by field path
+     * @return A task completed once the transaction and every batch are committed
+     */
+    private Task<Void> writeEventFields(String eventId, Map<String, Object> fields) {
+        List<Map.Entry<String, String>> statuses = new ArrayList<>(Event.memberStatuses(fields).entrySet());
+        int inTransaction = Math.min(statuses.size(), MAX_BATCH_WRITES - 1);
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        Task<Void> written = db.runTransaction(transaction -> {
+            DocumentSnapshot stored = transaction.get(eventRef);
+            Map<String, Object> update = new HashMap<>(fields);
+            update.putAll(Event.counterFields(stored.getData(), fields));
+            transaction.update(eventRef, forUpdate(update));
+            for (Map.Entry<String, String> status : statuses.subList(0, inTransaction)) {
+                transaction.set(db.collection("users").document(status.getKey()),
+                        memberStatusUpdate(eventId, status.getValue()), SetOptions.merge());
+            }
+            return null;
+        });
+        if (inTransaction < statuses.size()) {
+            written = written.onSuccessTask(ignored -> {
+                List<Task<Void>> commits = new ArrayList<>();
+                WriteBatch batch = db.batch();
+                int writes = 0;
+                for (Map.Entry<String, String> status : statuses.subList(inTransaction, statuses.size())) {
+                    if (writes == MAX_BATCH_WRITES) {
+                        commits.add(batch.commit());
+                        batch = db.batch();
+                        writes = 0;
+                    }
+                    batch.set(db.collection("users").document(status.getKey()),
+                            memberStatusUpdate(eventId, status.getValue()), SetOptions.merge());
+                    writes++;
+                }
+                commits.add(batch.commit());
+                return Tasks.whenAll(commits);
+            });
+        }
+        if (!statuses.isEmpty()) {
+            trackWrite("users", statuses.size(), 0, written);
+        }
+        return trackWrite("events", 1, 0, written);
+    }
+
+    /**
+     * Builds a merge into a user's {@link Event#MEMBER_STATUSES} recording which list they
+     * are on for one event, and since when. Leaving an event also takes it off the user's
+     * eventIds, so events they left no longer take up room in the broadcast query.
+     * @param eventId The event
+     * @param status The list name, or null if the user is no longer on the event
+     * @return The fields to merge into the user document
+     */
+    static Map<String, Object> memberStatusUpdate(String eventId, String status) {
+        return memberStatusUpdate(eventId, status, status != null ? FieldValue.serverTimestamp() : null);
+    }
+
+    /**
+     * Builds a merge into a user's {@link Event#MEMBER_STATUSES} with a known start time,
+     * e.g. when copying memberships that already exist.
+     * @param eventId The event
+     * @param status The list name, or null if the user is no longer on the event
+     * @param since When the user moved to the list, as a Date or server timestamp; null with a null status
+     * @return The fields to merge into the user document
+     */
+    static Map<String, Object> memberStatusUpdate(String eventId, String status, Object since) {
+        Map<String, Object> statuses = new HashMap<>();
+        statuses.put(eventId, status);
+        Map<String, Object> sinces = new HashMap<>();
+        sinces.put(eventId, since);
+        Map<String, Object> update = new HashMap<>();
+        update.put(Event.MEMBER_STATUSES, statuses);
+        update.put(Event.MEMBER_SINCE, sinces);
+        update.put("eventIds", status != null ? FieldValue.arrayUnion(eventId) : FieldValue.arrayRemove(eventId));
+        return update;
+    }
+
+    /**
+     * Replaces null values with deletes, so an update removes fields instead of storing nulls.
+     * @param fields The fields of an update
+     * @return A copy of the fields ready for update()
+     */
+    static Map<String, Object> forUpdate(Map<String, Object> fields) {
+        Map<String, Object> update = new HashMap<>(fields);
+        for (Map.Entry<String, Object> entry : update.entrySet()) {
+            if (entry.getValue() == null) {
+                entry.setValue(FieldValue.delete());
+            }
+        }
+        return update;
+    }
+
+    // Future-based API. Futures complete off the main thread; use LifecycleFutures to
+    // deliver results to a screen.
+
+    /**
+     * Adapts a Play services task to a CompletableFuture. Cancelling the future also cancels
+     * the task when it supports it, e.g. a Storage upload.
+     * @param task The task to adapt
+     * @return A future completed with the task's result
+     */
+    public static <T> CompletableFuture<T> toFuture(Task<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        task.addOnCompleteListener(Runnable::run, done -> {
+            if (done.isCanceled()) {
+                future.cancel(false);
+            } else if (done.isSuccessful()) {
+                future.complete(done.getResult());
+            } else {
+                future.completeExceptionally(done.getException());
+            }
+        });
+        if (task instanceof CancellableTask) {
+            future.whenComplete((result, error) -> {
+                if (future.isCancelled()) {
+                    ((CancellableTask<T>) task).cancel();
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * Gets a single event by its ID.
+     * @param eventId The ID of the event to retrieve
+     * @return A future of the event; fails with NoSuchElementException if it does not exist
+     */
+    public CompletableFuture<Event> getEventByIdAsync(String eventId) {
+        if (eventId == null || eventId.isEmpty()) {
+            CompletableFuture<Event> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalArgumentException("Event ID is null or empty"));
+            return failed;
+        }
+        return toFuture(trackRead("events", db.collection("events").document(eventId).get()))
+                .thenApply(documentSnapshot -> {
+                    Event event = documentSnapshot.exists() ? toObject(documentSnapshot, Event.class) : null;
+                    if (event == null) {
+                        throw new NoSuchElementException("Event not found: " + eventId);
+                    }
+                    return event;
+                });
+    }
+
+    /**
+     * Queries documents from any collection based on field and value.
+     * @param collectionName name of the collection to query
+     * @param field parameter to compare
+     * @param value value to check in parameter
+     * @param classType the class type to convert documents to
+     * @return A future of the matching documents
+     */
+    public <T> CompletableFuture<ArrayList<T>> queryCollectionAsync(String collectionName, String field,
+                                                                    Object value, Class<T> classType) {
+        return toFuture(trackRead(collectionName,
+                db.collection(collectionName).whereEqualTo(field, value).get()))
+                .thenApply(queryDocumentSnapshots -> toObjects(queryDocumentSnapshots, classType));
+    }
+
+    /**
+     * Gets all documents from any collection.
+     * @param collectionName name of the collection
+     * @param classType the class type to convert documents to
+     * @return A future of every document in the collection
+     */
+    public <T> CompletableFuture<ArrayList<T>> getAllFromCollectionAsync(String collectionName,
+                                                                         Class<T> classType) {
+        return toFuture(trackRead(collectionName, db.collection(collectionName).get()))
+                .thenApply(queryDocumentSnapshots -> toObjects(queryDocumentSnapshots, classType));
+    }
+
+    /**
+     * Writes a whole document, replacing any existing one.
+     * @param collectionName name of the collection
+     * @param documentId ID of the document
+     * @param document the fields to write
+     * @return A future completed once the write is committed
+     */
+    public CompletableFuture<Void> setDocumentAsync(String collectionName, String documentId,
+                                                    Map<String, Object> document) {
+        DocumentReference ref = db.collection(collectionName).document(documentId);
+        return toFuture(trackWrite(collectionName, 1,
+                FirestoreMetrics.estimateDocumentBytes(ref.getPath(), document), ref.set(document)));
+    }
+
+    /**
+     * Updates an event in Firestore. An event read through this class is diffed against what
+     * was read and only the changed fields are sent, merged with other pending updates to the
+     * same event as in {@link #updateEventFields}; if nothing changed, nothing is written.
+     * Otherwise the whole event is written.
+     * @param event The event to update
+     * @return A future completed once the write is committed
+     */
+    public CompletableFuture<Void> updateEventAsync(Event event) {
+        if (event == null || event.getEventId() == null) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalArgumentException("Event or event ID is null"));
+            return failed;
+        }
+        Map<String, Object> fields = event.hasPersistedState() ? event.changedFields() : null;
+        if (fields != null && fields.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // Taken now so edits made while this write is in flight count as changes for the next one
+        event.markPersisted();
+        CompletableFuture<Void> write = fields != null
+                ? eventMutations.enqueue(event.getEventId(), fields)
+                : toFuture(trackWrite("events", 1, 0,
+                        db.collection("events").document(event.getEventId()).set(event)));
+        write.whenComplete((ignored, error) -> {
+            if (error != null) {
+                mainHandler.post(event::clearPersisted);
+            }
+        });
+        return write;
+    }
+
+    // Converts a document, remembering an event's values so later saves only send changes
+    private static <T> T toObject(DocumentSnapshot snapshot, Class<T> classType) {
+        T item = snapshot.toObject(classType);
+        if (item instanceof Event) {
+            Event event = (Event) item;
+            if (event.getEventId() == null || event.getEventId().isEmpty()) {
+                event.setEventId(snapshot.getId());
+            }
+            event.markPersisted();
+        }
+        return item;
+    }
+
+    private static <T> ArrayList<T> toObjects(QuerySnapshot snapshot, Class<T> classType) {
+        ArrayList<T> results = new ArrayList<>();
+        for (DocumentSnapshot documentSnapshot : snapshot) {
+            T item = toObject(documentSnapshot, classType);
+            if (item != null) {
+                results.add(item);
+            }
+        }
+        return results;
     }
 
     // Convenience methods for Events (backward compatibility)
@@ -281,13 +731,61 @@ public class FDatabase {
      * @param callback Callback to handle success or failure
      */
     public void deleteEvent(String eventId, StatusCallback callback) {
-        db.collection("events").document(eventId)
-                .delete()
+        trackWrite("events", 1, 0, db.collection("events").document(eventId).delete())
                 .addOnSuccessListener(aVoid -> callback.onSuccess())
                 .addOnFailureListener(e -> callback.onFailure(e.getMessage()));
     }
 
 
+    /**
+     * Finds events within a radius of a location, nearest first.
+     * Runs one range query per covering geohash prefix, so only events in nearby
+     * cells are read, then drops the ones outside the radius.
+     * @param lat Latitude of the centre in degrees
+     * @param lng Longitude of the centre in degrees
+     * @param radiusKm Search radius in kilometres
+     * @param callback Callback to handle the results
+     */
+    public void queryEventsNear(double lat, double lng, double radiusKm, DataCallback<Event> callback) {
+        List<Task<QuerySnapshot>> tasks = new ArrayList<>();
+        for (String prefix : GeoHash.coveringPrefixes(lat, lng, radiusKm)) {
+            tasks.add(trackRead("events", db.collection("events")
+                    .orderBy("geohash")
+                    .startAt(prefix)
+                    .endAt(prefix + "\uf8ff")
+                    .get()));
+        }
+        Tasks.whenAllSuccess(tasks)
+                .addOnSuccessListener(snapshots -> {
+                    Map<String, Event> byId = new LinkedHashMap<>();
+                    Map<String, Double> distances = new HashMap<>();
+                    for (Object snapshot : snapshots) {
+                        for (DocumentSnapshot doc : ((QuerySnapshot) snapshot).getDocuments()) {
+                            Event event = toObject(doc, Event.class);
+                            if (event == null || event.getLat() == null || event.getLng() == null) {
+                                continue;
+                            }
+                            double km = GeoHash.distanceKm(lat, lng, event.getLat(), event.getLng());
+                            if (km <= radiusKm) {
+                                byId.put(doc.getId(), event);
+                                distances.put(doc.getId(), km);
+                            }
+                        }
+                    }
+                    ArrayList<String> ids = new ArrayList<>(byId.keySet());
+                    ids.sort(Comparator.comparingDouble(distances::get));
+                    ArrayList<Event> results = new ArrayList<>();
+                    for (String id : ids) {
+                        results.add(byId.get(id));
+                    }
+                    callback.onSuccess(results);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("FDatabase", "Error querying nearby events", e);
+                    callback.onFailure(e);
+                });
+    }
+
     /**
      * Queries events created by a specific organizer.
      *
@@ -298,6 +796,62 @@ public class FDatabase {
         queryCollection("events", "createdBy", creatorId, Event.class, callback);
     }
 
+    /**
+     * Listens to events, optionally only those created by one organizer. The first update
+     * delivers every matching event; later ones redeliver the full list after applying only
+     * the documents that changed. Callbacks run on a background thread.
+     * @param creatorId The organizer to filter by, or null for every event
+     * @param callback Receives the full list on every change, or the listener's failure
+     * @return The registration; remove it to stop listening
+     */
+    public ListenerRegistration listenToEvents(@Nullable String creatorId, DataCallback<Event> callback) {
+        Query query = db.collection("events");
+        if (creatorId != null) {
+            query = query.whereEqualTo("createdBy", creatorId);
+        }
+        ScreenReadTracker.Visit visit = screenReads.currentVisit();
+        Map<String, Event> byId = new HashMap<>();
+        return query.addSnapshotListener(listenerExecutor, (snapshot, error) -> {
+            if (error != null) {
+                Log.e("FDatabase", "Event listener failed", error);
+                callback.onFailure(error);
+                return;
+            }
+            if (snapshot == null) {
+                return;
+            }
+            long bytes = 0;
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                DocumentSnapshot doc = change.getDocument();
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    byId.remove(doc.getId());
+                    continue;
+                }
+                bytes += FirestoreMetrics.estimateDocumentBytes(doc.getReference().getPath(), doc.getData());
+                Event event = toObject(doc, Event.class);
+                if (event == null) {
+                    byId.remove(doc.getId());
+                    continue;
+                }
+                byId.put(doc.getId(), event);
+            }
+            int changed = snapshot.getDocumentChanges().size();
+            boolean fromCache = snapshot.getMetadata().isFromCache();
+            metrics.recordListenerUpdate("events", fromCache ? 0 : changed, fromCache ? changed : 0, bytes);
+            screenReads.recordReads(visit, "events", fromCache ? 0 : changed, fromCache ? changed : 0);
+
+            // Keep the query's order rather than the map's
+            ArrayList<Event> events = new ArrayList<>(snapshot.size());
+            for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                Event event = byId.get(doc.getId());
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+            callback.onSuccess(events);
+        });
+    }
+
     public void addNotification(Map<String, Object> notificationDoc, String notificationID){
         Object recipient = notificationDoc.get("recipientID");
         String recipientId = recipient != null ? recipient.toString() : null;
@@ -308,7 +862,7 @@ public class FDatabase {
         }
 
         // Respect entrant opt-out. If the flag can't be read, default to sending.
-        db.collection("users").document(recipientId).get()
+        trackRead("users", db.collection("users").document(recipientId).get())
                 .addOnSuccessListener(snapshot -> {
                     boolean skip = false;
                     if (snapshot.exists()) {
@@ -322,18 +876,67 @@ public class FDatabase {
                         Log.d("FDatabase", "Skipping notification for opted-out entrant: " + recipientId);
                         return;
                     }
-                    writeNotification(notificationDoc, notificationID);
+                    fillOrganizerName(notificationDoc, () -> writeNotification(notificationDoc, notificationID));
                 })
                 .addOnFailureListener(e -> {
                     Log.e("FDatabase", "Failed to read user for notification opt-out, defaulting to send", e);
-                    writeNotification(notificationDoc, notificationID);
+                    fillOrganizerName(notificationDoc, () -> writeNotification(notificationDoc, notificationID));
                 });
     }
 
+    /**
+     * Snapshots the organizer's display name into a notification document so notification
+     * screens can render without reading the users collection per row.
+     * @param notificationDoc The notification document being written
+     * @param then Runs once the name is filled in, or could not be resolved
+     */
+    private void fillOrganizerName(Map<String, Object> notificationDoc, Runnable then) {
+        Object organizer = notificationDoc.get("organizerID");
+        if (organizer == null || notificationDoc.get("organizerName") != null) {
+            then.run();
+            return;
+        }
+        lookupOrganizerName(organizer.toString())
+                .addOnCompleteListener(task -> {
+                    if (task.isSuccessful() && task.getResult() != null) {
+                        notificationDoc.put("organizerName", task.getResult());
+                    }
+                    then.run();
+                });
+    }
+
+    /**
+     * Looks up an organizer's display name, sharing one read per organizer across callers.
+     * @param organizerId The ID of the organizer
+     * @return A task resolving to the organizer's name, or null if the user has none
+     */
+    Task<String> lookupOrganizerName(String organizerId) {
+        Task<String> cached = organizerNames.get(organizerId);
+        if (cached != null) {
+            return cached;
+        }
+        Task<String> lookup = trackRead("users", db.collection("users").document(organizerId).get())
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        organizerNames.remove(organizerId);
+                        Log.e("FDatabase", "Failed to read organizer name", task.getException());
+                        return null;
+                    }
+                    return task.getResult().getString("name");
+                });
+        organizerNames.put(organizerId, lookup);
+        return lookup;
+    }
+
     private void writeNotification(Map<String, Object> notificationDoc, String notificationID) {
-        db.collection("notifications")
-                .document(notificationID)
-                .set(notificationDoc)
+        // The inbox query filters on viewedByEntrant and orders by sentAt,
+        // so documents missing either field would never be listed.
+        notificationDoc.putIfAbsent("viewedByEntrant", false);
+        notificationDoc.putIfAbsent("sentAt", FieldValue.serverTimestamp());
+        DocumentReference ref = db.collection("notifications").document(notificationID);
+        trackWrite("notifications", 1,
+                FirestoreMetrics.estimateDocumentBytes(ref.getPath(), notificationDoc),
+                ref.set(notificationDoc))
                 .addOnSuccessListener(aVoid -> Log.d("FDatabase", "Notification added successfully"))
                 .addOnFailureListener(e -> Log.e("FDatabase", "Error adding notification", e));
 
@@ -344,4 +947,564 @@ public class FDatabase {
         queryCollection("notifications", "recipientID", receiverId, Notification.class, callback);
     }
 
+    /**
+     * Builds the query for a recipient's unread notifications, newest first.
+     * Needs the composite index (recipientID ASC, viewedByEntrant ASC, sentAt DESC).
+     * @param recipientId The ID of the recipient
+     * @return The unread notifications query, without a limit
+     */
+    public Query unreadNotificationsQuery(String recipientId) {
+        return db.collection("notifications")
+                .whereEqualTo("recipientID", recipientId)
+                .whereEqualTo("viewedByEntrant", false)
+                .orderBy("sentAt", Query.Direction.DESCENDING);
+    }
+
+    /**
+     * Loads one page of a recipient's unread notifications, newest first.
+     * @param recipientId The ID of the recipient
+     * @param startAfter The last snapshot of the previous page, or null for the first page
+     * @param pageSize The maximum number of notifications to load
+     * @param callback Callback receiving the page and the cursor for the next one
+     */
+    public void queryUnreadNotificationsPage(String recipientId, @Nullable DocumentSnapshot startAfter,
+                                             int pageSize, PageCallback<Notification> callback) {
+        loadNotificationPage("notifications", unreadNotificationsQuery(recipientId), startAfter, pageSize, callback);
+    }
+
+    /**
+     * Loads one page of notifications where a field equals a value, newest first.
+     * Used by the admin (organizerID) and organizer (eventID) notification screens.
+     * Needs a composite index on (field ASC, sentAt DESC).
+     * @param field The field to compare
+     * @param value The value the field must equal
+     * @param startAfter The last snapshot of the previous page, or null for the first page
+     * @param pageSize The maximum number of notifications to load
+     * @param callback Callback receiving the page and the cursor for the next one
+     */
+    public void queryNotificationsPage(String field, Object value, @Nullable DocumentSnapshot startAfter,
+                                       int pageSize, PageCallback<Notification> callback) {
+        Query query = db.collection("notifications")
+                .whereEqualTo(field, value)
+                .orderBy("sentAt", Query.Direction.DESCENDING);
+        loadNotificationPage("notifications", query, startAfter, pageSize, callback);
+    }
+
+    private void loadNotificationPage(String collection, Query query, @Nullable DocumentSnapshot startAfter,
+                                      int pageSize, PageCallback<Notification> callback) {
+        Query page = query.limit(pageSize);
+        if (startAfter != null) {
+            page = page.startAfter(startAfter);
+        }
+        trackRead(collection, page.get())
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    ArrayList<Notification> results = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                        Notification notification = document.toObject(Notification.class);
+                        notification.setNotificationID(document.getId());
+                        results.add(notification);
+                    }
+                    List<DocumentSnapshot> documents = queryDocumentSnapshots.getDocuments();
+                    DocumentSnapshot lastVisible = documents.isEmpty()
+                            ? startAfter : documents.get(documents.size() - 1);
+                    callback.onSuccess(results, lastVisible, documents.size() == pageSize);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("FDatabase", "Error loading notification page", e);
+                    callback.onFailure(e);
+                });
+    }
+
+    /**
+     * Marks the given notifications as read using batched writes instead of one update per
+     * notification. IDs are split into chunks of at most {@link #MAX_BATCH_WRITES}.
+     * @param notificationIds IDs of the notifications to mark as read
+     * @param callback Callback to handle success or failure
+     */
+    public void markNotificationsRead(Collection<String> notificationIds, StatusCallback callback) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            callback.onSuccess();
+            return;
+        }
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int batchSize = 0;
+        for (String id : notificationIds) {
+            batch.update(db.collection("notifications").document(id), "viewedByEntrant", true);
+            batchSize++;
+            if (batchSize == MAX_BATCH_WRITES) {
+                commits.add(trackWrite("notifications", batchSize, 0, batch.commit()));
+                batch = db.batch();
+                batchSize = 0;
+            }
+        }
+        if (batchSize > 0) {
+            commits.add(trackWrite("notifications", batchSize, 0, batch.commit()));
+        }
+        Tasks.whenAll(commits)
+                .addOnSuccessListener(aVoid -> {
+                    Log.d("FDatabase", "Marked " + notificationIds.size() + " notifications read");
+                    callback.onSuccess();
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("FDatabase", "Error marking notifications read", e);
+                    callback.onFailure(e.getMessage());
+                });
+    }
+
+    /**
+     * Marks every unread notification of a recipient as read.
+     * Unread notifications are read and updated one batch-sized page at a time, so the
+     * inbox never has to be loaded in full.
+     * @param recipientId The ID of the recipient
+     * @param callback Callback to handle success or failure
+     */
+    public void markAllNotificationsRead(String recipientId, StatusCallback callback) {
+        if (recipientId == null || recipientId.isEmpty()) {
+            callback.onFailure("Recipient ID is null or empty");
+            return;
+        }
+        // Updated documents drop out of the unread query, so each pass restarts from the top.
+        trackRead("notifications", unreadNotificationsQuery(recipientId).limit(MAX_BATCH_WRITES).get())
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    if (queryDocumentSnapshots.isEmpty()) {
+                        callback.onSuccess();
+                        return;
+                    }
+                    WriteBatch batch = db.batch();
+                    for (DocumentSnapshot document : queryDocumentSnapshots.getDocuments()) {
+                        batch.update(document.getReference(), "viewedByEntrant", true);
+                    }
+                    trackWrite("notifications", queryDocumentSnapshots.size(), 0, batch.commit())
+                            .addOnSuccessListener(aVoid -> {
+                                if (queryDocumentSnapshots.size() < MAX_BATCH_WRITES) {
+                                    callback.onSuccess();
+                                } else {
+                                    markAllNotificationsRead(recipientId, callback);
+                                }
+                            })
+                            .addOnFailureListener(e -> {
+                                Log.e("FDatabase", "Error committing mark-all-read batch", e);
+                                callback.onFailure(e.getMessage());
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("FDatabase", "Error loading unread notifications", e);
+                    callback.onFailure(e.getMessage());
+                });
+    }
+
+    /**
+     * Sends one notification to every member of an event list by storing it once under
+     * events/{eventId}/broadcasts. Recipients find it at read time through their event
+     * membership instead of each receiving a copy.
+     * @param event The event the broadcast belongs to
+     * @param audience The event list addressed, e.g. "waitingList"
+     * @param notifType The notification type
+     * @param payload The message
+     * @param callback Callback to handle success or failure
+     */
+    public void sendBroadcast(Event event, String audience, String notifType, String payload,
+                              StatusCallback callback) {
+        if (event == null || event.getEventId() == null || event.getEventId().isEmpty()) {
+            callback.onFailure("Event or event ID is null");
+            return;
+        }
+        DocumentReference ref = db.collection("events").document(event.getEventId())
+                .collection("broadcasts").document();
+        Map<String, Object> broadcastDoc = new HashMap<>();
+        broadcastDoc.put("notificationID", ref.getId());
+        broadcastDoc.put("eventID", event.getEventId());
+        broadcastDoc.put("eventName", event.getName());
+        broadcastDoc.put("organizerID", event.getCreatedBy());
+        broadcastDoc.put("notifType", notifType);
+        broadcastDoc.put("payload", payload);
+        broadcastDoc.put("audience", audience);
+        broadcastDoc.put("sentAt", FieldValue.serverTimestamp());
+
+        fillOrganizerName(broadcastDoc, () -> trackWrite("broadcasts", 1,
+                FirestoreMetrics.estimateDocumentBytes(ref.getPath(), broadcastDoc), ref.set(broadcastDoc))
+                .addOnSuccessListener(aVoid -> {
+                    Log.d("FDatabase", "Broadcast sent to " + audience + " of " + event.getEventId());
+                    callback.onSuccess();
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("FDatabase", "Error sending broadcast", e);
+                    callback.onFailure(e.getMessage());
+                }));
+    }
+
+    /**
+     * Loads one page of broadcasts for a set of events, newest first.
+     * Firestore limits whereIn to {@link #MAX_WHERE_IN} values, so only the first that many
+     * events are used; callers list the events that matter most first.
+     * Needs a collection group index on broadcasts (eventID ASC, sentAt DESC).
+     * @param eventIds The events to read broadcasts for, most relevant first
+     * @param since Only broadcasts sent after this time, or null for all
+     * @param startAfter The last snapshot of the previous page, or null for the first page
+     * @param pageSize The maximum number of broadcasts to load
+     * @param callback Callback receiving the page and the cursor for the next one
+     */
+    public void queryBroadcastsPage(List<String> eventIds, @Nullable Timestamp since,
+                                    @Nullable DocumentSnapshot startAfter, int pageSize,
+                                    PageCallback<Notification> callback) {
+        if (eventIds == null || eventIds.isEmpty()) {
+            callback.onSuccess(new ArrayList<>(), null, false);
+            return;
+        }
+        List<String> ids = eventIds.size() > MAX_WHERE_IN ? eventIds.subList(0, MAX_WHERE_IN) : eventIds;
+        Query query = db.collectionGroup("broadcasts").whereIn("eventID", new ArrayList<>(ids));
+        if (since != null) {
+            query = query.whereGreaterThan("sentAt", since);
+        }
+        loadNotificationPage("broadcasts", query.orderBy("sentAt", Query.Direction.DESCENDING),
+                startAfter, pageSize, callback);
+    }
+
+    /**
+     * Loads one page of broadcasts where a field equals a value, newest first.
+     * Used by the organizer (eventID) and admin (organizerID) notification screens.
+     * Needs a collection group index on broadcasts (field ASC, sentAt DESC).
+     * @param field The field to compare
+     * @param value The value the field must equal
+     * @param startAfter The last snapshot of the previous page, or null for the first page
+     * @param pageSize The maximum number of broadcasts to load
+     * @param callback Callback receiving the page and the cursor for the next one
+     */
+    public void queryBroadcastsPage(String field, Object value, @Nullable DocumentSnapshot startAfter,
+                                    int pageSize, PageCallback<Notification> callback) {
+        Query query = db.collectionGroup("broadcasts")
+                .whereEqualTo(field, value)
+                .orderBy("sentAt", Query.Direction.DESCENDING);
+        loadNotificationPage("broadcasts", query, startAfter, pageSize, callback);
+    }
+
+    /**
+     * Records that a user joined an event's waiting list, so event broadcasts reach their inbox.
+     * @param userId The ID of the user
+     * @param eventId The ID of the event joined
+     */
+    public void recordEventMembership(String userId, String eventId) {
+        if (userId == null || eventId == null) {
+            return;
+        }
+        trackWrite("users", 1, 0, db.collection("users").document(userId)
+                .set(memberStatusUpdate(eventId, Event.Status.WAITING.getField()), SetOptions.merge()))
+                .addOnFailureListener(e -> Log.e("FDatabase", "Error recording event membership", e));
+    }
+
+    /** Outcome of trying to join one admission shard. */
+    private enum ShardJoin { JOINED, ALREADY_JOINED, ALREADY_DRAWN, SHARD_FULL }
+
+    /**
+     * Adds an entrant to the waiting list of an event that uses sharded admission.
+     * The entrant lands in one of the event's shards in a transaction that only touches
+     * that shard's counter and the entrant's own document, so concurrent joins rarely
+     * contend. The waiting-list limit is enforced per shard and never exceeded.
+     * Also records the event on the entrant's profile, like {@link #recordEventMembership}.
+     * @param event The event to join; must have {@link Event#getAdmissionShards()} above 0
+     * @param entrant The entrant joining
+     * @param callback Callback to handle success or failure
+     */
+    public void joinWaitingListSharded(Event event, Entrant entrant, StatusCallback callback) {
+        if (event == null || event.getEventId() == null || entrant == null || event.getAdmissionShards() <= 0) {
+            callback.onFailure("Event does not use sharded admission");
+            return;
+        }
+        List<Integer> probes = AdmissionShards.probeOrder(event.getAdmissionShards(),
+                AdmissionShards.MAX_PROBES, random);
+        joinShard(event, entrant, probes, 0, false, callback);
+    }
+
+    private void joinShard(Event event, Entrant entrant, List<Integer> probes, int attempt,
+                           boolean searched, StatusCallback callback) {
+        String eventId = event.getEventId();
+        int shards = event.getAdmissionShards();
+        Integer limit = event.getWaitingListLimit();
+        DocumentReference eventRef = db.collection("events").document(eventId);
+
+        if (attempt >= probes.size()) {
+            if (searched) {
+                callback.onFailure("Waiting list is full");
+                return;
+            }
+            // The random shards were full; look at every shard before turning the entrant away
+            trackRead("events", eventRef.collection(AdmissionShards.SHARDS).get())
+                    .addOnSuccessListener(snapshot -> {
+                        long[] counts = new long[shards];
+                        long[] limits = new long[shards];
+                        for (int i = 0; i < shards; i++) {
+                            limits[i] = AdmissionShards.shardLimit(limit, shards, i);
+                        }
+                        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                            int shard = Integer.parseInt(doc.getId());
+                            Long count = doc.getLong("count");
+                            if (shard < shards && count != null) {
+                                counts[shard] = count;
+                            }
+                        }
+                        int shard = AdmissionShards.pickShardWithRoom(counts, limits, random);
+                        if (shard < 0) {
+                            callback.onFailure("Waiting list is full");
+                        } else {
+                            joinShard(event, entrant, Collections.singletonList(shard), 0, true, callback);
+                        }
+                    })
+                    .addOnFailureListener(e -> {
+                        Log.e("FDatabase", "Error reading admission shards", e);
+                        callback.onFailure(e.getMessage());
+                    });
+            return;
+        }
+
+        int shard = probes.get(attempt);
+        long shardLimit = AdmissionShards.shardLimit(limit, shards, shard);
+        DocumentReference shardRef = eventRef.collection(AdmissionShards.SHARDS).document(String.valueOf(shard));
+        DocumentReference entrantRef = eventRef.collection(AdmissionShards.ENTRANTS).document(entrant.getId());
+
+        Map<String, Object> entrantDoc = new HashMap<>();
+        entrantDoc.put("userId", entrant.getId());
+        entrantDoc.put("user", entrant);
+        entrantDoc.put("shard", shard);
+        entrantDoc.put("status", AdmissionShards.STATUS_WAITING);
+        entrantDoc.put("joinedAt", FieldValue.serverTimestamp());
+        // (0,0) means location sharing is turned off
+        if (event.isGeoRequired() && entrant.getGeoPoint() != null
+                && (entrant.getGeoPoint().getLatitude() != 0.0 || entrant.getGeoPoint().getLongitude() != 0.0)) {
+            entrantDoc.put("lat", entrant.getGeoPoint().getLatitude());
+            entrantDoc.put("lng", entrant.getGeoPoint().getLongitude());
+        }
+
+        trackWrite("events", 2, 0, db.runTransaction(transaction -> {
+            DocumentSnapshot existing = transaction.get(entrantRef);
+            // Leaving deletes the document, so any that remains is a waiting or drawn entrant
+            if (existing.exists()) {
+                return AdmissionShards.STATUS_WAITING.equals(existing.getString("status"))
+                        ? ShardJoin.ALREADY_JOINED : ShardJoin.ALREADY_DRAWN;
+            }
+            Long count = transaction.get(shardRef).getLong("count");
+            long current = count != null ? count : 0;
+            if (current >= shardLimit) {
+                return ShardJoin.SHARD_FULL;
+            }
+            Map<String, Object> counter = new HashMap<>();
+            counter.put("count", current + 1);
+            transaction.set(shardRef, counter, SetOptions.merge());
+            transaction.set(entrantRef, entrantDoc);
+            return ShardJoin.JOINED;
+        }))
+                .addOnSuccessListener(result -> {
+                    switch (result) {
+                        case JOINED:
+                            recordEventMembership(entrant.getId(), eventId);
+                            callback.onSuccess();
+                            break;
+                        case ALREADY_JOINED:
+                            callback.onFailure("You are already on the waiting list");
+                            break;
+                        case ALREADY_DRAWN:
+                            callback.onFailure("You have already been drawn for this event");
+                            break;
+                        case SHARD_FULL:
+                            joinShard(event, entrant, probes, attempt + 1, searched, callback);
+                            break;
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("FDatabase", "Error joining sharded waiting list", e);
+                    callback.onFailure(e.getMessage());
+                });
+    }
+
+    /**
+     * Removes an entrant from the waiting list of an event that uses sharded admission,
+     * freeing their place in the shard they joined and clearing their status on their profile.
+     * @param eventId The ID of the event
+     * @param userId The ID of the entrant leaving
+     * @param callback Callback to handle success or failure
+     */
+    public void leaveWaitingListSharded(String eventId, String userId, StatusCallback callback) {
+        if (eventId == null || userId == null) {
+            callback.onFailure("Event or user ID is null");
+            return;
+        }
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference entrantRef = eventRef.collection(AdmissionShards.ENTRANTS).document(userId);
+        trackWrite("events", 3, 0, db.runTransaction(transaction -> {
+            DocumentSnapshot entrantDoc = transaction.get(entrantRef);
+            if (!entrantDoc.exists() || !AdmissionShards.STATUS_WAITING.equals(entrantDoc.getString("status"))) {
+                return false;
+            }
+            Long shard = entrantDoc.getLong("shard");
+            transaction.delete(entrantRef);
+            transaction.set(db.collection("users").document(userId),
+                    memberStatusUpdate(eventId, null), SetOptions.merge());
+            if (shard != null) {
+                transaction.update(eventRef.collection(AdmissionShards.SHARDS).document(String.valueOf(shard)),
+                        "count", FieldValue.increment(-1));
+            }
+            return true;
+        }))
+                .addOnSuccessListener(left -> {
+                    if (left) {
+                        callback.onSuccess();
+                    } else {
+                        callback.onFailure("You are not in this event's waiting list.");
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("FDatabase", "Error leaving sharded waiting list", e);
+                    callback.onFailure(e.getMessage());
+                });
+    }
+
+    /**
+     * Counts the sharded waiting list of an event by summing its shard counters on the
+     * server, billed as a single read.
+     * @param eventId The ID of the event
+     * @param callback Callback to handle the count
+     */
+    public void getShardedWaitingCount(String eventId, CountCallback callback) {
+        trackRead("events", db.collection("events").document(eventId)
+                .collection(AdmissionShards.SHARDS)
+                .aggregate(AggregateField.sum("count"))
+                .get(AggregateSource.SERVER))
+                .addOnSuccessListener(snapshot -> {
+                    Long sum = snapshot.getLong(AggregateField.sum("count"));
+                    callback.onSuccess(sum != null ? sum : 0);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("FDatabase", "Error counting sharded waiting list", e);
+                    callback.onFailure(e.getMessage());
+                });
+    }
+
+    /**
+     * Loads the sharded waiting list of an event, for the organizer's screens that show who is
+     * waiting. Each entrant document becomes a waiting membership carrying the user, join time
+     * and join location saved when they joined. Costs one read per entrant.
+     * @param eventId The ID of the event
+     * @return A future of the waiting memberships, earliest joined first
+     */
+    public CompletableFuture<List<Membership>> getShardedWaitingEntrantsAsync(String eventId) {
+        return toFuture(trackRead("events", db.collection("events").document(eventId)
+                .collection(AdmissionShards.ENTRANTS)
+                .whereEqualTo("status", AdmissionShards.STATUS_WAITING)
+                .get()))
+                .thenApply(snapshots -> {
+                    List<Membership> entrants = new ArrayList<>();
+                    for (DocumentSnapshot doc : snapshots.getDocuments()) {
+                        User user = doc.get("user", User.class);
+                        if (user == null) {
+                            continue;
+                        }
+                        if (user.getId() == null) {
+                            user.setId(doc.getId());
+                        }
+                        Membership membership = new Membership(user, Event.Status.WAITING, doc.getDate("joinedAt"));
+                        Double lat = doc.getDouble("lat");
+                        Double lng = doc.getDouble("lng");
+                        if (lat != null && lng != null) {
+                            membership.setLocation(new JoinLocation(lat, lng));
+                        }
+                        entrants.add(membership);
+                    }
+                    // Sorted here, since ordering by joinedAt as well would need a composite index
+                    entrants.sort(Comparator.comparing(Membership::getSince,
+                            Comparator.nullsFirst(Comparator.naturalOrder())));
+                    return entrants;
+                });
+    }
+
+    /**
+     * Checks whether a user is on the sharded waiting list of an event.
+     * @param eventId The ID of the event
+     * @param userId The ID of the user
+     * @return A future of whether the user is still waiting
+     */
+    public CompletableFuture<Boolean> isOnShardedWaitingListAsync(String eventId, String userId) {
+        return toFuture(trackRead("events", db.collection("events").document(eventId)
+                .collection(AdmissionShards.ENTRANTS).document(userId).get()))
+                .thenApply(snapshot -> snapshot.exists()
+                        && AdmissionShards.STATUS_WAITING.equals(snapshot.getString("status")));
+    }
+
+    /**
+     * Marks broadcasts as read for one user. Broadcasts are shared, so read state is kept
+     * on the user document rather than on the broadcast, in a map of broadcast ID to the
+     * time it was sent so it can be trimmed with {@link #trimReadBroadcasts}.
+     * @param userId The ID of the user
+     * @param broadcasts When each broadcast read was sent, by broadcast ID
+     */
+    public void markBroadcastsRead(String userId, Map<String, Timestamp> broadcasts) {
+        if (userId == null || broadcasts == null || broadcasts.isEmpty()) {
+            return;
+        }
+        Map<String, Object> fields = new HashMap<>();
+        for (Map.Entry<String, Timestamp> broadcast : broadcasts.entrySet()) {
+            fields.put(READ_BROADCASTS + "." + broadcast.getKey(), broadcast.getValue());
+        }
+        trackWrite("users", 1, 0, db.collection("users").document(userId).update(fields))
+                .addOnFailureListener(e -> Log.e("FDatabase", "Error marking broadcasts read", e));
+    }
+
+    /**
+     * Forgets the oldest read broadcasts of a user, hiding everything sent up to the newest
+     * of them instead, so the read state on the profile stays small.
+     * @param userId The ID of the user
+     * @param broadcastIds IDs of the read broadcasts to forget
+     * @param clearedAt When the newest of them was sent
+     */
+    public void trimReadBroadcasts(String userId, Collection<String> broadcastIds, Timestamp clearedAt) {
+        if (userId == null || broadcastIds == null || broadcastIds.isEmpty()) {
+            return;
+        }
+        Map<String, Object> fields = new HashMap<>();
+        for (String broadcastId : broadcastIds) {
+            fields.put(READ_BROADCASTS + "." + broadcastId, FieldValue.delete());
+        }
+        fields.put("broadcastsClearedAt", clearedAt);
+        trackWrite("users", 1, 0, db.collection("users").document(userId).update(fields))
+                .addOnFailureListener(e -> Log.e("FDatabase", "Error trimming read broadcasts", e));
+    }
+
+    /**
+     * Hides every broadcast sent so far from a user's inbox.
+     * @param userId The ID of the user
+     */
+    public void clearBroadcasts(String userId) {
+        if (userId == null) {
+            return;
+        }
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("broadcastsClearedAt", FieldValue.serverTimestamp());
+        fields.put("readBroadcastIds", new ArrayList<String>());
+        fields.put(READ_BROADCASTS, new HashMap<String, Object>());
+        trackWrite("users", 1, 0, db.collection("users").document(userId).update(fields))
+                .addOnFailureListener(e -> Log.e("FDatabase", "Error clearing broadcasts", e));
+    }
+
+    /**
+     * Counts a recipient's unread notifications with a server-side aggregation,
+     * so the badge costs a single read instead of one per document.
+     * @param recipientId The ID of the recipient
+     * @param callback Callback receiving the unread count
+     */
+    public void countUnreadNotifications(String recipientId, CountCallback callback) {
+        if (recipientId == null || recipientId.isEmpty()) {
+            callback.onFailure("Recipient ID is null or empty");
+            return;
+        }
+        trackRead("notifications", db.collection("notifications")
+                .whereEqualTo("recipientID", recipientId)
+                .whereEqualTo("viewedByEntrant", false)
+                .count()
+                .get(AggregateSource.SERVER))
+                .addOnSuccessListener(snapshot -> callback.onSuccess(snapshot.getCount()))
+                .addOnFailureListener(e -> {
+                    Log.e("FDatabase", "Error counting unread notifications", e);
+                    callback.onFailure(e.getMessage());
+                });
+    }
+
 }
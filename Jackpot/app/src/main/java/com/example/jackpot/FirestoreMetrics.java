@@ -0,0 +1,287 @@
+package com.example.jackpot;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.GeoPoint;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Operation-level counters for Firestore access, grouped by collection.
+ * Records latency histograms, document read and write counts, approximate payload
+ * sizes and errors for every {@link FDatabase} operation. Thread-safe; {@link #snapshot()}
+ * returns an immutable copy that screens and log dumps can read without locking.
+ */
+public class FirestoreMetrics {
+    /** Upper bounds of the latency histogram buckets, in milliseconds. The last bucket is open-ended. */
+    static final long[] BUCKET_BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    /** Firestore adds this many bytes of overhead to every document's stored size. */
+    private static final int DOCUMENT_OVERHEAD_BYTES = 32;
+
+    private final Map<String, Stats> byCollection = new TreeMap<>();
+
+    /**
+     * Records one completed operation.
+     * @param collection The collection the operation touched
+     * @param latencyNanos Time from issuing the request to its completion
+     * @param docsRead Documents read from the server; Firestore bills a query that matches nothing as one read
+     * @param cachedDocsRead Documents served from the local cache, which are not billed
+     * @param docsWritten Documents written or deleted
+     * @param bytesRead Approximate size of the documents read
+     * @param bytesWritten Approximate size of the documents written, or 0 if not known
+     * @param failed Whether the operation failed
+     */
+    public synchronized void record(String collection, long latencyNanos, int docsRead, int cachedDocsRead,
+                                    int docsWritten, long bytesRead, long bytesWritten, boolean failed) {
+        Stats stats = byCollection.get(collection);
+        if (stats == null) {
+            stats = new Stats(collection);
+            byCollection.put(collection, stats);
+        }
+        stats.operations++;
+        if (failed) {
+            stats.errors++;
+        }
+        stats.docsRead += docsRead;
+        stats.cachedDocsRead += cachedDocsRead;
+        stats.docsWritten += docsWritten;
+        stats.bytesRead += bytesRead;
+        stats.bytesWritten += bytesWritten;
+        long millis = latencyNanos / 1_000_000L;
+        stats.latencyBuckets[bucketFor(millis)]++;
+        stats.maxLatencyMs = Math.max(stats.maxLatencyMs, millis);
+    }
+
+    /**
+     * Records documents delivered by a snapshot listener update. Listener updates have
+     * no request latency, so only the read and byte counts change.
+     * @param collection The collection listened to
+     * @param docsRead Changed documents read from the server
+     * @param cachedDocsRead Changed documents served from the local cache
+     * @param bytesRead Approximate size of the changed documents
+     */
+    public synchronized void recordListenerUpdate(String collection, int docsRead, int cachedDocsRead,
+                                                  long bytesRead) {
+        Stats stats = byCollection.get(collection);
+        if (stats == null) {
+            stats = new Stats(collection);
+            byCollection.put(collection, stats);
+        }
+        stats.docsRead += docsRead;
+        stats.cachedDocsRead += cachedDocsRead;
+        stats.bytesRead += bytesRead;
+    }
+
+    /**
+     * @return An immutable copy of the counters, keyed and ordered by collection name.
+     */
+    public synchronized Map<String, Stats> snapshot() {
+        Map<String, Stats> copy = new TreeMap<>();
+        for (Stats stats : byCollection.values()) {
+            copy.put(stats.collection, stats.copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Clears all counters.
+     */
+    public synchronized void reset() {
+        byCollection.clear();
+    }
+
+    /**
+     * Formats a snapshot as one line per collection, for the debug screen and log dumps.
+     * @param snapshot A snapshot from {@link #snapshot()}
+     * @return The formatted report, or a placeholder if nothing was recorded
+     */
+    public static String format(Map<String, Stats> snapshot) {
+        if (snapshot.isEmpty()) {
+            return "No Firestore operations recorded";
+        }
+        StringBuilder report = new StringBuilder();
+        for (Stats stats : snapshot.values()) {
+            if (report.length() > 0) {
+                report.append('\n');
+            }
+            report.append(stats);
+        }
+        return report.toString();
+    }
+
+    /**
+     * Approximates the stored size of a document using Firestore's storage size rules.
+     * @param documentPath The document path, e.g. "events/abc"
+     * @param data The document fields, or null for a missing document
+     * @return The approximate size in bytes, or 0 for a missing document
+     */
+    public static long estimateDocumentBytes(String documentPath, Map<String, Object> data) {
+        if (data == null) {
+            return 0;
+        }
+        return stringBytes(documentPath) + estimateBytes(data) + DOCUMENT_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Approximates the stored size of a field value.
+     * @param value A Firestore field value
+     * @return The approximate size in bytes
+     */
+    static long estimateBytes(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 1;
+        }
+        if (value instanceof String) {
+            return stringBytes((String) value);
+        }
+        if (value instanceof Number || value instanceof Date || value instanceof Timestamp) {
+            return 8;
+        }
+        if (value instanceof GeoPoint) {
+            return 16;
+        }
+        if (value instanceof Map) {
+            long size = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += stringBytes(String.valueOf(entry.getKey())) + estimateBytes(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            long size = 0;
+            for (Object item : (Collection<?>) value) {
+                size += estimateBytes(item);
+            }
+            return size;
+        }
+        // References, blobs and anything else
+        return stringBytes(value.toString());
+    }
+
+    private static long stringBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+
+    private static int bucketFor(long millis) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (millis <= BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    /**
+     * Counters for one collection. Instances returned by {@link #snapshot()} are copies
+     * and never change.
+     */
+    public static class Stats {
+        private final String collection;
+        private long operations;
+        private long errors;
+        private long docsRead;
+        private long cachedDocsRead;
+        private long docsWritten;
+        private long bytesRead;
+        private long bytesWritten;
+        private long maxLatencyMs;
+        private final long[] latencyBuckets = new long[BUCKET_BOUNDS_MS.length + 1];
+
+        private Stats(String collection) {
+            this.collection = collection;
+        }
+
+        private Stats copy() {
+            Stats copy = new Stats(collection);
+            copy.operations = operations;
+            copy.errors = errors;
+            copy.docsRead = docsRead;
+            copy.cachedDocsRead = cachedDocsRead;
+            copy.docsWritten = docsWritten;
+            copy.bytesRead = bytesRead;
+            copy.bytesWritten = bytesWritten;
+            copy.maxLatencyMs = maxLatencyMs;
+            System.arraycopy(latencyBuckets, 0, copy.latencyBuckets, 0, latencyBuckets.length);
+            return copy;
+        }
+
+        public String getCollection() {
+            return collection;
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getDocsRead() {
+            return docsRead;
+        }
+
+        public long getCachedDocsRead() {
+            return cachedDocsRead;
+        }
+
+        public long getDocsWritten() {
+            return docsWritten;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        public long getMaxLatencyMs() {
+            return maxLatencyMs;
+        }
+
+        /**
+         * @return The fraction of operations that failed, between 0 and 1.
+         */
+        public double getErrorRate() {
+            return operations == 0 ? 0 : (double) errors / operations;
+        }
+
+        /**
+         * Estimates a latency percentile from the histogram.
+         * @param percentile Percentile between 0 and 100
+         * @return The upper bound of the bucket holding the percentile, capped at the
+         *         slowest operation seen, or 0 if nothing was recorded
+         */
+        public long getLatencyPercentileMs(double percentile) {
+            if (operations == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * operations));
+            long seen = 0;
+            for (int i = 0; i < latencyBuckets.length; i++) {
+                seen += latencyBuckets[i];
+                if (seen >= rank) {
+                    return i < BUCKET_BOUNDS_MS.length
+                            ? Math.min(BUCKET_BOUNDS_MS[i], maxLatencyMs) : maxLatencyMs;
+                }
+            }
+            return maxLatencyMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%s: ops=%d errors=%.1f%% reads=%d (+%d cached) writes=%d in=%.1fKB out=%.1fKB p50=%dms p99=%dms max=%dms",
+                    collection, operations, getErrorRate() * 100, docsRead, cachedDocsRead, docsWritten,
+                    bytesRead / 1024.0, bytesWritten / 1024.0,
+                    getLatencyPercentileMs(50), getLatencyPercentileMs(99), maxLatencyMs);
+        }
+    }
+}
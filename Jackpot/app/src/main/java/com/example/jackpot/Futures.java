@@ -0,0 +1,81 @@
+package com.example.jackpot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Helpers for composing the {@link CompletableFuture}s returned by the async {@link FDatabase} API.
+ * See {@link LifecycleFutures} for delivering results to a screen.
+ */
+public final class Futures {
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FuturesTimer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Futures() {}
+
+    /**
+     * Waits for all futures, in parallel, and collects their results in order.
+     * Fails with the first failure; cancelling the result cancels every input that has not finished.
+     * @param futures The futures to wait for
+     * @return A future of the results, in the same order as the inputs
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<? extends CompletableFuture<? extends T>> futures) {
+        CompletableFuture<List<T>> all = CompletableFuture
+                .allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<T> results = new ArrayList<>(futures.size());
+                    for (CompletableFuture<? extends T> future : futures) {
+                        results.add(future.join());
+                    }
+                    return results;
+                });
+        all.whenComplete((results, error) -> {
+            if (all.isCancelled()) {
+                for (CompletableFuture<? extends T> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        });
+        return all;
+    }
+
+    /**
+     * Fails a future with a {@link TimeoutException} if it has not finished in time.
+     * Stages chained after it then see the timeout instead of waiting forever.
+     * @param future The future to bound
+     * @param timeout How long to wait
+     * @param unit The unit of the timeout
+     * @return The same future
+     */
+    public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, long timeout, TimeUnit unit) {
+        ScheduledFuture<?> timer = TIMER.schedule(() -> future.completeExceptionally(
+                new TimeoutException("Timed out after " + unit.toMillis(timeout) + " ms")), timeout, unit);
+        future.whenComplete((result, error) -> timer.cancel(false));
+        return future;
+    }
+
+    /**
+     * Strips the wrappers CompletableFuture puts around failures in chained stages.
+     * @param error A failure passed to a stage or thrown by join/get
+     * @return The original cause
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
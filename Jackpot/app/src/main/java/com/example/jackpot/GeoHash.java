@@ -0,0 +1,142 @@
+package com.example.jackpot;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash encoding and radius helpers for finding events near a location.
+ * A geohash prefix names a lat/lng cell, so a range query on the prefix reads
+ * only the events inside that cell.
+ */
+public class GeoHash {
+    /** Precision stored on events (cells of roughly 5 m). */
+    public static final int PRECISION = 9;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private GeoHash() {}
+
+    /**
+     * Encodes a location as a geohash.
+     * @param lat Latitude in degrees.
+     * @param lng Longitude in degrees.
+     * @param precision Number of characters in the hash.
+     * @return The geohash.
+     */
+    public static String encode(double lat, double lng, int precision) {
+        if (precision < 1 || precision > 12) {
+            throw new IllegalArgumentException("precision must be between 1 and 12");
+        }
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean lngBit = true;
+        int bits = 0;
+        int ch = 0;
+        while (hash.length() < precision) {
+            if (lngBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (lng >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch <<= 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            lngBit = !lngBit;
+            if (++bits == 5) {
+                hash.append(BASE32.charAt(ch));
+                bits = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Finds the geohash prefixes whose cells together cover a circle.
+     * Uses the longest prefix whose cell is at least as large as the radius, then
+     * returns the cell containing the centre plus its eight neighbours.
+     * @param lat Latitude of the centre in degrees.
+     * @param lng Longitude of the centre in degrees.
+     * @param radiusKm Radius of the circle in kilometres.
+     * @return The distinct covering prefixes.
+     */
+    public static List<String> coveringPrefixes(double lat, double lng, double radiusKm) {
+        // Longitude cells are narrowest at the edge of the circle closest to a pole
+        double radiusLat = radiusKm / KM_PER_DEGREE_LAT;
+        double worstLat = Math.min(90, Math.abs(lat) + radiusLat);
+        double kmPerDegreeLng = KM_PER_DEGREE_LAT * Math.cos(Math.toRadians(worstLat));
+
+        int precision = 0;
+        for (int p = 1; p <= PRECISION; p++) {
+            if (cellHeight(p) * KM_PER_DEGREE_LAT < radiusKm || cellWidth(p) * kmPerDegreeLng < radiusKm) {
+                break;
+            }
+            precision = p;
+        }
+
+        Set<String> prefixes = new LinkedHashSet<>();
+        if (precision == 0) {
+            // Radius larger than any single cell: every top-level cell
+            for (int i = 0; i < BASE32.length(); i++) {
+                prefixes.add(String.valueOf(BASE32.charAt(i)));
+            }
+            return new ArrayList<>(prefixes);
+        }
+
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            double neighbourLat = lat + dLat * height;
+            if (neighbourLat > 90 || neighbourLat < -90) continue;
+            for (int dLng = -1; dLng <= 1; dLng++) {
+                double neighbourLng = lng + dLng * width;
+                if (neighbourLng >= 180) neighbourLng -= 360;
+                if (neighbourLng < -180) neighbourLng += 360;
+                prefixes.add(encode(neighbourLat, neighbourLng, precision));
+            }
+        }
+        return new ArrayList<>(prefixes);
+    }
+
+    /**
+     * Great-circle distance between two locations (haversine formula).
+     * @param lat1 Latitude of the first location in degrees.
+     * @param lng1 Longitude of the first location in degrees.
+     * @param lat2 Latitude of the second location in degrees.
+     * @param lng2 Longitude of the second location in degrees.
+     * @return The distance in kilometres.
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double cellHeight(int precision) {
+        int latBits = (precision * 5) / 2;
+        return 180.0 / (1L << latBits);
+    }
+
+    private static double cellWidth(int precision) {
+        int lngBits = precision * 5 - (precision * 5) / 2;
+        return 360.0 / (1L << lngBits);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.jackpot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ * CMPUT 301 – Event Lottery App (“Jackpot”)
+ * File: InboxMerger.java
+ *
+ * Purpose/Role:
+ *   Merges several individually sorted, paged sources (e.g. personal notifications and event
+ *   broadcasts) into a single sorted stream for the inbox.
+ *
+ * Design Notes:
+ *   - Items are only released while every source that may still have more items has a
+ *     buffered item to compare against, so the merged order holds across page boundaries.
+ *   - No Android or Firebase dependencies; fetching pages is left to the caller.
+ */
+
+/**
+ * K-way merge over paged sources that are each already sorted by the same order.
+ * @param <T> The item type.
+ */
+public class InboxMerger<T> {
+    private final Comparator<? super T> order;
+    private final List<ArrayDeque<T>> buffers = new ArrayList<>();
+    private final boolean[] exhausted;
+
+    /**
+     * Creates a merger over a fixed number of sources.
+     * @param sourceCount The number of sources to merge.
+     * @param order The order every source is sorted by; the merged stream uses it too.
+     */
+    public InboxMerger(int sourceCount, Comparator<? super T> order) {
+        if (sourceCount <= 0) {
+            throw new IllegalArgumentException("sourceCount must be positive");
+        }
+        this.order = order;
+        this.exhausted = new boolean[sourceCount];
+        for (int i = 0; i < sourceCount; i++) {
+            buffers.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Buffers a page fetched from a source.
+     * @param source The index of the source the page came from.
+     * @param items The page, sorted by this merger's order.
+     * @param hasMore Whether the source may have further pages.
+     */
+    public void addPage(int source, List<? extends T> items, boolean hasMore) {
+        if (items != null) {
+            buffers.get(source).addAll(items);
+        }
+        if (!hasMore) {
+            exhausted[source] = true;
+        }
+    }
+
+    /**
+     * Marks a source as having no further pages, e.g. when it does not apply to this user.
+     * @param source The index of the source.
+     */
+    public void markExhausted(int source) {
+        exhausted[source] = true;
+    }
+
+    /**
+     * Finds a source whose next page is needed before more items can be released.
+     * @return The index of the source to fetch from, or -1 if none needs fetching.
+     */
+    public int nextSourceToFetch() {
+        for (int i = 0; i < exhausted.length; i++) {
+            if (!exhausted[i] && buffers.get(i).isEmpty()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Releases every item whose position in the merged order is already known.
+     * @return The released items, in merged order. May be empty.
+     */
+    public List<T> drain() {
+        List<T> released = new ArrayList<>();
+        while (nextSourceToFetch() == -1) {
+            int best = -1;
+            for (int i = 0; i < buffers.size(); i++) {
+                T head = buffers.get(i).peekFirst();
+                if (head != null && (best == -1 || order.compare(head, buffers.get(best).peekFirst()) < 0)) {
+                    best = i;
+                }
+            }
+            if (best == -1) {
+                break;
+            }
+            released.add(buffers.get(best).pollFirst());
+        }
+        return released;
+    }
+
+    /**
+     * Checks whether any items remain, buffered or not yet fetched.
+     * @return true if the merged stream is not finished.
+     */
+    public boolean hasMore() {
+        for (int i = 0; i < exhausted.length; i++) {
+            if (!exhausted[i] || !buffers.get(i).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
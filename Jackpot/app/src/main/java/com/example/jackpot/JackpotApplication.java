@@ -0,0 +1,63 @@
+package com.example.jackpot;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.Map;
+
+/**
+ * Application entry point. Tracks which screens are open so Firestore reads can be
+ * attributed to them, logging each visit's reads, and in debuggable builds periodically writes the
+ * {@link FirestoreMetrics} collected by {@link FDatabase} to the log.
+ */
+public class JackpotApplication extends Application {
+    private static final String TAG = "FirestoreMetrics";
+    private static final String SCREEN_READS_TAG = "ScreenReads";
+    private static final long METRICS_DUMP_INTERVAL_MS = 60_000;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private long lastDumpedOperations = 0;
+
+    private final Runnable dumpMetrics = new Runnable() {
+        @Override
+        public void run() {
+            Map<String, FirestoreMetrics.Stats> snapshot = FDatabase.getInstance().getMetrics().snapshot();
+            long operations = 0;
+            for (FirestoreMetrics.Stats stats : snapshot.values()) {
+                operations += stats.getOperations();
+            }
+            // Stay quiet while the app is idle
+            if (operations != lastDumpedOperations) {
+                lastDumpedOperations = operations;
+                for (String line : FirestoreMetrics.format(snapshot).split("\n")) {
+                    Log.i(TAG, line);
+                }
+            }
+            handler.postDelayed(this, METRICS_DUMP_INTERVAL_MS);
+        }
+    };
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        ScreenReadTracker screenReads = FDatabase.getInstance().getScreenReads();
+        screenReads.setListener(new ScreenReadTracker.Listener() {
+            @Override
+            public void onVisitFinished(ScreenReadTracker.Visit visit) {
+                Log.d(SCREEN_READS_TAG, visit.toString());
+            }
+
+            @Override
+            public void onBudgetExceeded(ScreenReadTracker.Visit visit) {
+                Log.w(SCREEN_READS_TAG, "Read budget exceeded: " + visit);
+            }
+        });
+        registerActivityLifecycleCallbacks(new ScreenLifecycleCallbacks(screenReads));
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            handler.postDelayed(dumpMetrics, METRICS_DUMP_INTERVAL_MS);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.jackpot;
+
+import java.io.Serializable;
+
+/**
+ * Where an entrant was when they joined an event's waiting list.
+ * Stored on the event keyed by user id, so the organizer map can read every
+ * entrant coordinate together with the event instead of loading each user.
+ */
+public class JoinLocation implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private double lat;
+    private double lng;
+
+    /**
+     * Empty constructor for firebase.
+     */
+    public JoinLocation() {}
+
+    /**
+     * Creates a join location.
+     * @param lat Latitude in degrees.
+     * @param lng Longitude in degrees.
+     */
+    public JoinLocation(double lat, double lng) {
+        this.lat = lat;
+        this.lng = lng;
+    }
+
+    /**
+     * Gets the latitude.
+     * @return Latitude in degrees.
+     */
+    public double getLat() {
+        return lat;
+    }
+
+    /**
+     * Sets the latitude.
+     * @param lat Latitude in degrees.
+     */
+    public void setLat(double lat) {
+        this.lat = lat;
+    }
+
+    /**
+     * Gets the longitude.
+     * @return Longitude in degrees.
+     */
+    public double getLng() {
+        return lng;
+    }
+
+    /**
+     * Sets the longitude.
+     * @param lng Longitude in degrees.
+     */
+    public void setLng(double lng) {
+        this.lng = lng;
+    }
+}
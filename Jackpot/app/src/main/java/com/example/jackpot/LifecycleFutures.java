@@ -0,0 +1,58 @@
+package com.example.jackpot;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Delivers future results to a screen on the main thread, and only while the screen exists.
+ * When the owner is destroyed the future is cancelled, so stages chained after it are
+ * skipped and their callbacks never run against a dead fragment or activity.
+ * Fragments should pass {@code getViewLifecycleOwner()} when the callbacks touch views.
+ * Work that must finish even if the screen goes away, such as a save, should be observed
+ * through a dependent stage, e.g. {@code future.thenApply(x -> x)}, so only that stage is cancelled.
+ */
+public final class LifecycleFutures {
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private LifecycleFutures() {}
+
+    /**
+     * Observes a future for the lifetime of an owner. Call on the main thread.
+     * @param owner The lifecycle the callbacks are bound to
+     * @param future The future to observe; cancelled when the owner is destroyed
+     * @param onSuccess Receives the result on the main thread
+     * @param onFailure Receives the unwrapped failure on the main thread; not called after cancellation
+     */
+    public static <T> void observe(LifecycleOwner owner, CompletableFuture<T> future,
+                                   Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            future.cancel(false);
+            return;
+        }
+        LifecycleEventObserver cancelOnDestroy = (source, event) -> {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                future.cancel(false);
+            }
+        };
+        lifecycle.addObserver(cancelOnDestroy);
+        future.whenComplete((result, error) -> MAIN.post(() -> {
+            lifecycle.removeObserver(cancelOnDestroy);
+            if (future.isCancelled() || !lifecycle.getCurrentState().isAtLeast(Lifecycle.State.CREATED)) {
+                return;
+            }
+            if (error != null) {
+                onFailure.accept(Futures.unwrap(error));
+            } else {
+                onSuccess.accept(result);
+            }
+        }));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.jackpot;
+
+/**
+ * Runs lottery draws for events. Keeps {@link Organizer} free of Android and
+ * Firebase code; the app implementation queues the draw as background work.
+ */
+public interface LotteryService {
+    /**
+     * Requests a draw for an event. The draw and its notifications complete asynchronously.
+     * @param eventId The ID of the event to draw.
+     */
+    void requestDraw(String eventId);
+}
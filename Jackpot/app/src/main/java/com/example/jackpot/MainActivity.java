@@ -20,6 +20,7 @@ import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
 
 import com.example.jackpot.databinding.ActivityMainBinding;
+import com.google.android.material.badge.BadgeDrawable;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.navigation.NavigationView;
@@ -91,10 +92,11 @@ public class MainActivity extends AppCompatActivity {
         FirebaseUser firebaseUser = FirebaseAuth.getInstance().getCurrentUser();
         if (firebaseUser != null) {
             String uid = firebaseUser.getUid();
-            fDatabase.getDb().collection("users").document(uid).get()
+            fDatabase.trackRead("users", fDatabase.getDb().collection("users").document(uid).get())
                     .addOnSuccessListener(doc -> {
                         User user = doc.toObject(User.class);
                         if (user != null && user.getRole() != null) {
+                            SessionCache.getInstance().putUser(user);
                             currentRole = user.getRole();
                             Log.d("Firestore", "Logged in as: " + currentRole);
 
@@ -103,6 +105,11 @@ public class MainActivity extends AppCompatActivity {
 
                             // Use unified Navigation setup again
                             setupUnifiedNavigation(binding, navController, bottomNav, drawerNav);
+                            refreshNotificationBadge();
+                            if (currentRole == User.Role.ORGANIZER) {
+                                // Picks up registration dates changed since the last launch
+                                new DrawScheduler(this).scheduleOwnedEvents(uid);
+                            }
 
                             // Pass role to HomeFragment
                             Bundle bundle = new Bundle();
@@ -348,31 +355,10 @@ public class MainActivity extends AppCompatActivity {
             @Override
             public void onSuccess(Event event) {
                 runOnUiThread(() -> {
+                    // Hand off the loaded event so the details screen renders without re-reading it
+                    SessionCache.getInstance().putEvent(event);
                     Intent intent = new Intent(MainActivity.this, EventDetailsActivity.class);
-
-                    // Pass all event data to EventDetailsActivity
                     intent.putExtra("EVENT_ID", event.getEventId());
-                    intent.putExtra("EVENT_NAME", event.getName());
-                    intent.putExtra("EVENT_DESCRIPTION", event.getDescription());
-                    intent.putExtra("EVENT_LOCATION", event.getLocation());
-                    intent.putExtra("EVENT_CATEGORY", event.getCategory());
-                    intent.putExtra("EVENT_PRICE", event.getPrice());
-                    intent.putExtra("EVENT_CAPACITY", event.getCapacity());
-
-                    // Convert timestamps to milliseconds
-                    if (event.getDate() != null) {
-                        intent.putExtra("EVENT_DATE", event.getDate().getTime());
-                    }
-                    if (event.getRegOpenAt() != null) {
-                        intent.putExtra("EVENT_REG_OPEN", event.getRegOpenAt().getTime());
-                    }
-                    if (event.getRegCloseAt() != null) {
-                        intent.putExtra("EVENT_REG_CLOSE", event.getRegCloseAt().getTime());
-                    }
-                    if (event.getWaitingList() != null) {
-                        intent.putExtra("EVENT_WAITING_COUNT", event.getWaitingList().size());
-                    }
-
                     startActivity(intent);
                 });
             }
@@ -391,4 +377,43 @@ public class MainActivity extends AppCompatActivity {
     public User.Role getCurrentUserRole(){
         return currentRole;
     }
+
+    /**
+     * Shows the unread count on the entrant notification tab, or hides the badge when zero.
+     * @param count The number of unread notifications.
+     */
+    public void updateNotificationBadge(long count) {
+        BottomNavigationView bottomNav = binding.appBarMain.contentMain.bottomNavView;
+        if (bottomNav.getMenu().findItem(R.id.nav_notification_entrant) == null) {
+            return;
+        }
+        if (count > 0) {
+            BadgeDrawable badge = bottomNav.getOrCreateBadge(R.id.nav_notification_entrant);
+            badge.setNumber((int) Math.min(count, Integer.MAX_VALUE));
+            badge.setVisible(true);
+        } else {
+            bottomNav.removeBadge(R.id.nav_notification_entrant);
+        }
+    }
+
+    /**
+     * Refreshes the entrant notification badge with a server-side count of unread notifications.
+     */
+    public void refreshNotificationBadge() {
+        FirebaseUser firebaseUser = FirebaseAuth.getInstance().getCurrentUser();
+        if (firebaseUser == null || currentRole != User.Role.ENTRANT) {
+            return;
+        }
+        fDatabase.countUnreadNotifications(firebaseUser.getUid(), new FDatabase.CountCallback() {
+            @Override
+            public void onSuccess(long count) {
+                updateNotificationBadge(count);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e("MainActivity", "Failed to count unread notifications: " + error);
+            }
+        });
+    }
 }
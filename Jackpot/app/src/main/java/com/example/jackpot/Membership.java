@@ -0,0 +1,98 @@
+package com.example.jackpot;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * One entrant's place in an event: which list they are on, since when, and where they joined from.
+ * Stored on the event in a map keyed by user id, so each entrant is on exactly one list.
+ */
+public class Membership implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private User user;
+    private Event.Status status;
+    private Date since;
+    private JoinLocation location;
+
+    /**
+     * Empty constructor for firebase.
+     */
+    public Membership() {}
+
+    /**
+     * Creates a membership.
+     * @param user The entrant.
+     * @param status The list the entrant is on.
+     * @param since When the entrant moved to that list.
+     */
+    public Membership(User user, Event.Status status, Date since) {
+        this.user = user;
+        this.status = status;
+        this.since = since;
+    }
+
+    /**
+     * Gets the entrant.
+     * @return The entrant's profile as of joining.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Sets the entrant.
+     * @param user The entrant's profile.
+     */
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    /**
+     * Gets the list the entrant is on.
+     * @return The entrant's status.
+     */
+    public Event.Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the list the entrant is on.
+     * @param status The entrant's status.
+     */
+    public void setStatus(Event.Status status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets when the entrant moved to their current list. Lists are ordered by this.
+     * @return The time of the last status change.
+     */
+    public Date getSince() {
+        return since;
+    }
+
+    /**
+     * Sets when the entrant moved to their current list.
+     * @param since The time of the last status change.
+     */
+    public void setSince(Date since) {
+        this.since = since;
+    }
+
+    /**
+     * Gets where the entrant was when they joined the waiting list.
+     * @return The join location, or null if none was recorded.
+     */
+    public JoinLocation getLocation() {
+        return location;
+    }
+
+    /**
+     * Sets where the entrant was when they joined the waiting list.
+     * @param location The join location, or null.
+     */
+    public void setLocation(JoinLocation location) {
+        this.location = location;
+    }
+}
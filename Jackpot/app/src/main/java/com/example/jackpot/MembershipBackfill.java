@@ -0,0 +1,132 @@
+package com.example.jackpot;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * CMPUT 301 – Event Lottery App (“Jackpot”)
+ * File: MembershipBackfill.java
+ *
+ * Purpose/Role:
+ *   One-off job that copies each entrant's event memberships onto their profile
+ *   (eventIds, eventStatuses, eventStatusSince) for entrants who joined before those fields
+ *   were kept, so event broadcasts reach their inbox.
+ *
+ * Design Notes:
+ *   - Pages through the events collection by document ID so it can run over any size.
+ *   - Reads lists stored in the older per-list format too, through Event#getMemberships().
+ *   - Safe to re-run: each profile is set to what the event currently holds.
+ */
+
+/**
+ * Backfills the membership fields on user profiles from the events they are on.
+ */
+public class MembershipBackfill {
+    private static final String TAG = "MembershipBackfill";
+    private static final String PREFS_NAME = "jackpot_maintenance";
+    private static final String KEY_DONE = "member_statuses_backfilled";
+    private static final int PAGE_SIZE = 50;
+
+    private final FirebaseFirestore db = FDatabase.getInstance().getDb();
+
+    /**
+     * Runs the backfill once per install. Later calls return immediately.
+     * @param context Context used to remember that the backfill has completed
+     */
+    public static void runOnce(Context context) {
+        SharedPreferences prefs = context.getApplicationContext()
+                .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        if (prefs.getBoolean(KEY_DONE, false)) {
+            return;
+        }
+        new MembershipBackfill().run(new FDatabase.StatusCallback() {
+            @Override
+            public void onSuccess() {
+                prefs.edit().putBoolean(KEY_DONE, true).apply();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e(TAG, "Backfill failed, will retry next time: " + error);
+            }
+        });
+    }
+
+    /**
+     * Backfills the profiles of every event's entrants, one page of events at a time.
+     * @param callback Callback to handle completion or failure
+     */
+    public void run(FDatabase.StatusCallback callback) {
+        processPage(null, 0, callback);
+    }
+
+    private void processPage(@Nullable DocumentSnapshot startAfter, int updatedSoFar,
+                             FDatabase.StatusCallback callback) {
+        Query query = db.collection("events")
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE);
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
+        }
+        FDatabase.getInstance().trackRead("events", query.get())
+                .addOnSuccessListener(snapshots -> {
+                    List<DocumentSnapshot> documents = snapshots.getDocuments();
+                    int updated = 0;
+                    List<Task<Void>> commits = new ArrayList<>();
+                    WriteBatch batch = db.batch();
+                    int writes = 0;
+                    for (DocumentSnapshot document : documents) {
+                        Event event = document.toObject(Event.class);
+                        if (event == null) {
+                            continue;
+                        }
+                        for (Map.Entry<String, Membership> member : event.getMemberships().entrySet()) {
+                            Membership membership = member.getValue();
+                            if (membership.getStatus() == null) {
+                                continue;
+                            }
+                            if (writes == FDatabase.MAX_BATCH_WRITES) {
+                                commits.add(batch.commit());
+                                batch = db.batch();
+                                writes = 0;
+                            }
+                            batch.set(db.collection("users").document(member.getKey()),
+                                    FDatabase.memberStatusUpdate(document.getId(),
+                                            membership.getStatus().getField(), membership.getSince()),
+                                    SetOptions.merge());
+                            writes++;
+                            updated++;
+                        }
+                    }
+                    commits.add(batch.commit());
+                    int total = updatedSoFar + updated;
+                    Tasks.whenAll(commits)
+                            .addOnSuccessListener(ignored -> {
+                                if (documents.size() < PAGE_SIZE) {
+                                    Log.d(TAG, "Backfill complete, updated " + total + " memberships");
+                                    callback.onSuccess();
+                                } else {
+                                    processPage(documents.get(documents.size() - 1), total, callback);
+                                }
+                            })
+                            .addOnFailureListener(e -> callback.onFailure(e.getMessage()));
+                })
+                .addOnFailureListener(e -> callback.onFailure(e.getMessage()));
+    }
+}
@@ -43,6 +43,9 @@ public class Notification {
     private String error;
     private String organizerID;
     private boolean viewedByEntrant;
+    private String eventName;
+    private String organizerName;
+    private String audience;
 
 
 
@@ -262,4 +265,52 @@ public class Notification {
     public void setOrganizerID(String organizerID) {
         this.organizerID = organizerID;
     }
+
+    /**
+     * Gets the event name snapshotted when the notification was sent.
+     * @return The event name, or null for older notifications.
+     */
+    public String getEventName() {
+        return eventName;
+    }
+
+    /**
+     * Sets the event name shown with the notification.
+     * @param eventName The event name to set.
+     */
+    public void setEventName(String eventName) {
+        this.eventName = eventName;
+    }
+
+    /**
+     * Gets the organizer name snapshotted when the notification was sent.
+     * @return The organizer's display name, or null for older notifications.
+     */
+    public String getOrganizerName() {
+        return organizerName;
+    }
+
+    /**
+     * Sets the organizer name shown with the notification.
+     * @param organizerName The organizer's display name to set.
+     */
+    public void setOrganizerName(String organizerName) {
+        this.organizerName = organizerName;
+    }
+
+    /**
+     * Gets the event list a broadcast is addressed to (e.g. "waitingList").
+     * @return The audience list name, or null for a personal notification.
+     */
+    public String getAudience() {
+        return audience;
+    }
+
+    /**
+     * Sets the event list a broadcast is addressed to.
+     * @param audience The audience list name to set.
+     */
+    public void setAudience(String audience) {
+        this.audience = audience;
+    }
 }
@@ -0,0 +1,205 @@
+package com.example.jackpot;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * CMPUT 301 – Event Lottery App (“Jackpot”)
+ * File: NotificationBackfill.java
+ *
+ * Purpose/Role:
+ *   One-off job that copies eventName and organizerName into notification documents
+ *   written before those fields were snapshotted at send time.
+ *
+ * Design Notes:
+ *   - Pages through the notifications collection by document ID so it can run over any size.
+ *   - Each event and organizer is read at most once per run.
+ *   - Safe to re-run: documents that already have both fields are skipped.
+ */
+
+/**
+ * Backfills denormalized display fields on existing notification documents.
+ */
+public class NotificationBackfill {
+    private static final String TAG = "NotificationBackfill";
+    private static final String PREFS_NAME = "jackpot_maintenance";
+    private static final String KEY_DONE = "notification_display_fields_backfilled";
+    private static final int PAGE_SIZE = 200;
+
+    private final FDatabase fDatabase;
+    private final FirebaseFirestore db;
+    private final Map<String, Task<String>> eventNames = new HashMap<>();
+
+    /**
+     * Creates a backfill job over the app's database.
+     */
+    public NotificationBackfill() {
+        this.fDatabase = FDatabase.getInstance();
+        this.db = fDatabase.getDb();
+    }
+
+    /**
+     * Runs the backfill once per install. Later calls return immediately.
+     * @param context Context used to remember that the backfill has completed
+     */
+    public static void runOnce(Context context) {
+        SharedPreferences prefs = context.getApplicationContext()
+                .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        if (prefs.getBoolean(KEY_DONE, false)) {
+            return;
+        }
+        new NotificationBackfill().run(new FDatabase.StatusCallback() {
+            @Override
+            public void onSuccess() {
+                prefs.edit().putBoolean(KEY_DONE, true).apply();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e(TAG, "Backfill failed, will retry next time: " + error);
+            }
+        });
+    }
+
+    /**
+     * Backfills every notification document, one page at a time.
+     * @param callback Callback to handle completion or failure
+     */
+    public void run(FDatabase.StatusCallback callback) {
+        processPage(null, 0, callback);
+    }
+
+    private void processPage(@Nullable DocumentSnapshot startAfter, int updatedSoFar,
+                             FDatabase.StatusCallback callback) {
+        Query query = db.collection("notifications")
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE);
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
+        }
+        FDatabase.getInstance().trackRead("notifications", query.get())
+                .addOnSuccessListener(snapshots -> {
+                    List<DocumentSnapshot> documents = snapshots.getDocuments();
+                    if (documents.isEmpty()) {
+                        Log.d(TAG, "Backfill complete, updated " + updatedSoFar + " notifications");
+                        callback.onSuccess();
+                        return;
+                    }
+                    backfillDocuments(documents)
+                            .addOnSuccessListener(updated -> {
+                                int total = updatedSoFar + updated;
+                                if (documents.size() < PAGE_SIZE) {
+                                    Log.d(TAG, "Backfill complete, updated " + total + " notifications");
+                                    callback.onSuccess();
+                                } else {
+                                    processPage(documents.get(documents.size() - 1), total, callback);
+                                }
+                            })
+                            .addOnFailureListener(e -> callback.onFailure(e.getMessage()));
+                })
+                .addOnFailureListener(e -> callback.onFailure(e.getMessage()));
+    }
+
+    /**
+     * Resolves the missing display fields for one page and writes them in a single batch.
+     * @param documents The page of notification documents
+     * @return A task resolving to the number of documents updated
+     */
+    private Task<Integer> backfillDocuments(List<DocumentSnapshot> documents) {
+        List<DocumentSnapshot> missing = new ArrayList<>();
+        List<Task<?>> lookups = new ArrayList<>();
+        // FDatabase drops failed lookups from its cache, so keep the tasks this page waits on
+        Map<String, Task<String>> organizerNames = new HashMap<>();
+        for (DocumentSnapshot document : documents) {
+            String eventId = document.getString("eventID");
+            String organizerId = document.getString("organizerID");
+            boolean needsEvent = document.getString("eventName") == null && eventId != null && !eventId.isEmpty();
+            boolean needsOrganizer = document.getString("organizerName") == null && organizerId != null && !organizerId.isEmpty();
+            if (!needsEvent && !needsOrganizer) {
+                continue;
+            }
+            missing.add(document);
+            if (needsEvent) {
+                lookups.add(lookupEventName(eventId));
+            }
+            if (needsOrganizer && !organizerNames.containsKey(organizerId)) {
+                Task<String> lookup = fDatabase.lookupOrganizerName(organizerId);
+                organizerNames.put(organizerId, lookup);
+                lookups.add(lookup);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Tasks.forResult(0);
+        }
+
+        return Tasks.whenAllComplete(lookups).continueWithTask(ignored -> {
+            WriteBatch batch = db.batch();
+            int updated = 0;
+            for (DocumentSnapshot document : missing) {
+                Map<String, Object> fields = new HashMap<>();
+                String eventId = document.getString("eventID");
+                String organizerId = document.getString("organizerID");
+                if (document.getString("eventName") == null && eventId != null && !eventId.isEmpty()) {
+                    String name = eventNames.get(eventId).getResult();
+                    if (name != null) fields.put("eventName", name);
+                }
+                if (document.getString("organizerName") == null && organizerId != null && !organizerId.isEmpty()) {
+                    Task<String> lookup = organizerNames.get(organizerId);
+                    // A failed lookup leaves the name missing for a later run
+                    String name = lookup != null && lookup.isSuccessful() ? lookup.getResult() : null;
+                    if (name != null) fields.put("organizerName", name);
+                }
+                if (!fields.isEmpty()) {
+                    batch.update(document.getReference(), fields);
+                    updated++;
+                }
+            }
+            int count = updated;
+            return batch.commit().continueWith(task -> {
+                if (!task.isSuccessful()) {
+                    throw task.getException();
+                }
+                return count;
+            });
+        });
+    }
+
+    /**
+     * Looks up an event's name, reading each event at most once per run.
+     * @param eventId The ID of the event
+     * @return A task resolving to the event name, or null if the event is gone
+     */
+    private Task<String> lookupEventName(String eventId) {
+        Task<String> cached = eventNames.get(eventId);
+        if (cached != null) {
+            return cached;
+        }
+        Task<String> lookup = FDatabase.getInstance()
+                .trackRead("events", db.collection("events").document(eventId).get())
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        Log.e(TAG, "Failed to read event " + eventId, task.getException());
+                        return null;
+                    }
+                    return task.getResult().getString("name");
+                });
+        eventNames.put(eventId, lookup);
+        return lookup;
+    }
+}
@@ -19,7 +19,6 @@ import java.util.List;
  *
  * Outstanding Issues / TODOs:
  *   - TODO: Implement createEvent(...) in the Repository layer (not here).
- *   - TODO: Implement drawLottery(...) via a LotteryService/Repository.
  */
 
 
@@ -31,6 +30,7 @@ import java.util.List;
 public class Organizer extends User {
     private String organizationName;
     private List<String> managedEventIds;
+    private transient LotteryService lotteryService;
 
     /**
      * Constructs a new Organizer object.
@@ -57,10 +57,26 @@ public class Organizer extends User {
     }
 
     /**
-     * Draws the lottery for a specific event.
+     * Draws the lottery for a specific event through the configured {@link LotteryService}.
      * @param eventId The ID of the event for which to draw the lottery.
+     * @throws IllegalArgumentException If the event ID is null or empty.
+     * @throws IllegalStateException If no lottery service has been set.
      */
     public void drawLottery(String eventId) {
-        // TODO: trigger LotteryService to draw winners
+        if (eventId == null || eventId.isEmpty()) {
+            throw new IllegalArgumentException("Event ID is null or empty");
+        }
+        if (lotteryService == null) {
+            throw new IllegalStateException("No lottery service set");
+        }
+        lotteryService.requestDraw(eventId);
+    }
+
+    /**
+     * Sets the service used to run lottery draws.
+     * @param lotteryService The lottery service.
+     */
+    public void setLotteryService(LotteryService lotteryService) {
+        this.lotteryService = lotteryService;
     }
 }
@@ -0,0 +1,80 @@
+package com.example.jackpot;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Caps how many bytes speculative downloads may use. Each download reserves an estimate
+ * up front, so several started at once cannot overshoot the limit by much, and settles to
+ * its real size when it finishes. A URL is only ever downloaded once while it is reserved.
+ * Thread-safe.
+ */
+public class PrefetchBudget {
+    private final long limitBytes;
+    private final long estimateBytes;
+    private final Set<String> reserved = new HashSet<>();
+    private long usedBytes;
+
+    /**
+     * Creates a budget.
+     * @param limitBytes Total bytes downloads may use
+     * @param estimateBytes Bytes reserved for a download before its real size is known
+     */
+    public PrefetchBudget(long limitBytes, long estimateBytes) {
+        if (limitBytes < 0 || estimateBytes <= 0) {
+            throw new IllegalArgumentException("Limit must be non-negative and estimate positive");
+        }
+        this.limitBytes = limitBytes;
+        this.estimateBytes = estimateBytes;
+    }
+
+    /**
+     * Reserves room for downloading a URL.
+     * @param url The URL to download
+     * @return true if the download may start; false if the URL is already reserved or the
+     *         estimate does not fit in what is left
+     */
+    public synchronized boolean tryReserve(String url) {
+        if (url == null || reserved.contains(url) || usedBytes + estimateBytes > limitBytes) {
+            return false;
+        }
+        reserved.add(url);
+        usedBytes += estimateBytes;
+        return true;
+    }
+
+    /**
+     * Replaces a download's estimate with its real size. The URL stays reserved.
+     * @param url A URL passed to {@link #tryReserve(String)}
+     * @param actualBytes The size downloaded
+     */
+    public synchronized void settle(String url, long actualBytes) {
+        if (reserved.contains(url)) {
+            usedBytes += Math.max(0, actualBytes) - estimateBytes;
+        }
+    }
+
+    /**
+     * Returns a failed download's estimate, so the URL may be tried again later.
+     * @param url A URL passed to {@link #tryReserve(String)} and not yet settled
+     */
+    public synchronized void release(String url) {
+        if (reserved.remove(url)) {
+            usedBytes -= estimateBytes;
+        }
+    }
+
+    /**
+     * @return The bytes used or reserved so far.
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * @return The bytes left before the limit, never negative.
+     */
+    public synchronized long getRemainingBytes() {
+        return Math.max(0, limitBytes - usedBytes);
+    }
+}
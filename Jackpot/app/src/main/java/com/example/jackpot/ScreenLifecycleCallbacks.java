@@ -0,0 +1,80 @@
+package com.example.jackpot;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+import androidx.fragment.app.FragmentManager;
+import androidx.navigation.fragment.NavHostFragment;
+
+/**
+ * Reports activity and fragment creation and destruction to a {@link ScreenReadTracker}, so
+ * reads are charged to the screen that issued them, including the reads made in onCreate and
+ * onViewCreated. Fragments are tracked inside their activity, so a fragment's reads are
+ * charged to it rather than to its host. A fragment on the back stack keeps its visit, so
+ * the reads made when its view is recreated are charged to it once the screen above it is destroyed.
+ */
+public class ScreenLifecycleCallbacks implements Application.ActivityLifecycleCallbacks {
+    private final ScreenReadTracker tracker;
+
+    private final FragmentManager.FragmentLifecycleCallbacks fragmentCallbacks =
+            new FragmentManager.FragmentLifecycleCallbacks() {
+                @Override
+                public void onFragmentPreCreated(@NonNull FragmentManager fm, @NonNull Fragment f,
+                                                 @Nullable Bundle savedInstanceState) {
+                    // Navigation hosts only contain screens; they are not screens themselves
+                    if (!(f instanceof NavHostFragment)) {
+                        tracker.onScreenCreated(f.getClass().getSimpleName());
+                    }
+                }
+
+                @Override
+                public void onFragmentDestroyed(@NonNull FragmentManager fm, @NonNull Fragment f) {
+                    if (!(f instanceof NavHostFragment)) {
+                        tracker.onScreenDestroyed(f.getClass().getSimpleName());
+                    }
+                }
+            };
+
+    /**
+     * Creates the callbacks.
+     * @param tracker The tracker to report screen visits to.
+     */
+    public ScreenLifecycleCallbacks(ScreenReadTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+        // Dispatched from super.onCreate(), before the activity's own onCreate code issues reads
+        tracker.onScreenCreated(activity.getClass().getSimpleName());
+        if (activity instanceof FragmentActivity) {
+            ((FragmentActivity) activity).getSupportFragmentManager()
+                    .registerFragmentLifecycleCallbacks(fragmentCallbacks, true);
+        }
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {}
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {}
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {}
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {}
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {}
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {
+        tracker.onScreenDestroyed(activity.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.jackpot;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Attributes Firestore document reads to the screen that issued them.
+ * A visit runs from when a screen is created until it is destroyed, so the reads a screen
+ * makes while building itself count too. Reads are charged to the innermost open screen at
+ * the moment the request is issued, so reads that complete after the user navigates away
+ * still count against the visit that started them.
+ * Visits that read more documents than their budget are reported to the listener as soon
+ * as they cross it, which surfaces N+1 read patterns while the screen is still open.
+ */
+public class ScreenReadTracker {
+    /**
+     * Told about visits as they finish or go over budget, e.g. to log them.
+     */
+    public interface Listener {
+        /**
+         * Called once when a visit ends.
+         * @param visit The finished visit
+         */
+        void onVisitFinished(Visit visit);
+
+        /**
+         * Called once when a visit first reads more documents than its budget.
+         * @param visit The visit, still open
+         */
+        void onBudgetExceeded(Visit visit);
+    }
+
+    /** Default number of server document reads a single visit may make. */
+    public static final int DEFAULT_READ_BUDGET = 100;
+    /** Number of finished visits kept for the debug screen. */
+    static final int RECENT_VISIT_LIMIT = 20;
+
+    private final Deque<Visit> openVisits = new ArrayDeque<>();
+    private final Deque<Visit> recent = new ArrayDeque<>();
+    private final Map<String, Integer> budgets = new HashMap<>();
+    private int defaultBudget = DEFAULT_READ_BUDGET;
+    @Nullable
+    private Listener listener;
+
+    /**
+     * Sets who is told about finished and over-budget visits.
+     * @param listener The listener, or null for none
+     */
+    public synchronized void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts a visit when a screen is created. The screen becomes the target for new reads.
+     * @param screen The screen name, e.g. the fragment's simple class name
+     */
+    public synchronized void onScreenCreated(String screen) {
+        openVisits.addLast(new Visit(screen, budgetFor(screen)));
+    }
+
+    /**
+     * Ends the most recent open visit of a screen when it is destroyed.
+     * @param screen The screen name passed to {@link #onScreenCreated(String)}
+     */
+    public synchronized void onScreenDestroyed(String screen) {
+        Iterator<Visit> visits = openVisits.descendingIterator();
+        while (visits.hasNext()) {
+            Visit visit = visits.next();
+            if (visit.screen.equals(screen)) {
+                visits.remove();
+                visit.open = false;
+                recent.addFirst(visit);
+                while (recent.size() > RECENT_VISIT_LIMIT) {
+                    recent.removeLast();
+                }
+                if (listener != null) {
+                    listener.onVisitFinished(visit);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The visit new reads should be charged to, or null if no screen is open.
+     */
+    @Nullable
+    public synchronized Visit currentVisit() {
+        return openVisits.peekLast();
+    }
+
+    /**
+     * Charges completed reads to a visit and warns once if it goes over budget.
+     * @param visit The visit returned by {@link #currentVisit()} when the read was issued, or null
+     * @param collection The collection read
+     * @param serverReads Documents read from the server
+     * @param cachedReads Documents served from the local cache
+     */
+    public synchronized void recordReads(@Nullable Visit visit, String collection,
+                                         int serverReads, int cachedReads) {
+        if (visit == null) {
+            return;
+        }
+        visit.serverReads += serverReads;
+        visit.cachedReads += cachedReads;
+        Integer sofar = visit.readsByCollection.get(collection);
+        visit.readsByCollection.put(collection, (sofar == null ? 0 : sofar) + serverReads);
+        if (!visit.overBudget && visit.serverReads > visit.budget) {
+            visit.overBudget = true;
+            if (listener != null) {
+                listener.onBudgetExceeded(visit);
+            }
+        }
+    }
+
+    /**
+     * Sets the read budget used for screens without their own budget.
+     * Applies to visits that start afterwards.
+     * @param reads The maximum number of server document reads per visit
+     */
+    public synchronized void setDefaultBudget(int reads) {
+        defaultBudget = reads;
+    }
+
+    /**
+     * Sets the read budget for one screen, e.g. a list that legitimately reads a full page.
+     * Applies to visits that start afterwards.
+     * @param screen The screen name
+     * @param reads The maximum number of server document reads per visit
+     */
+    public synchronized void setBudget(String screen, int reads) {
+        budgets.put(screen, reads);
+    }
+
+    private int budgetFor(String screen) {
+        Integer budget = budgets.get(screen);
+        return budget != null ? budget : defaultBudget;
+    }
+
+    /**
+     * @return Descriptions of the open visits followed by the most recent finished ones, newest first.
+     */
+    public synchronized List<String> describeVisits() {
+        List<String> lines = new ArrayList<>();
+        Iterator<Visit> visits = openVisits.descendingIterator();
+        while (visits.hasNext()) {
+            lines.add(visits.next().toString());
+        }
+        for (Visit visit : recent) {
+            lines.add(visit.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Forgets finished visits. Open visits keep counting.
+     */
+    public synchronized void clearRecent() {
+        recent.clear();
+    }
+
+    /**
+     * Reads made during one visit to a screen. Fields are guarded by the tracker.
+     */
+    public static class Visit {
+        private final String screen;
+        private final int budget;
+        private final Map<String, Integer> readsByCollection = new TreeMap<>();
+        private int serverReads;
+        private int cachedReads;
+        private boolean open = true;
+        private boolean overBudget;
+
+        private Visit(String screen, int budget) {
+            this.screen = screen;
+            this.budget = budget;
+        }
+
+        public String getScreen() {
+            return screen;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s%s: reads=%d/%d (+%d cached) %s%s",
+                    screen, open ? " (open)" : "", serverReads, budget, cachedReads,
+                    readsByCollection, overBudget ? " OVER BUDGET" : "");
+        }
+    }
+}
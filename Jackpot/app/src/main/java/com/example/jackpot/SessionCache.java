@@ -0,0 +1,92 @@
+package com.example.jackpot;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of events and users a screen has already loaded, so a screen opened
+ * from it (possibly in another activity) can render them on its first frame instead of
+ * reading them again. Entries are only a starting point; the receiving screen should still
+ * revalidate against Firestore. Least recently used entries are dropped once full.
+ * Thread-safe.
+ */
+public class SessionCache {
+    static final int MAX_EVENTS = 200;
+    static final int MAX_USERS = 20;
+
+    private static SessionCache instance = null;
+
+    private final Map<String, Event> events = new LruMap<>(MAX_EVENTS);
+    private final Map<String, User> users = new LruMap<>(MAX_USERS);
+
+    SessionCache() {}
+
+    /**
+     * Get the shared cache.
+     * @return The singleton instance of the cache.
+     */
+    public static synchronized SessionCache getInstance() {
+        if (instance == null) {
+            instance = new SessionCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Adds or replaces an event.
+     * @param event The event to cache; ignored if it has no id
+     */
+    public synchronized void putEvent(Event event) {
+        if (event != null && event.getEventId() != null && !event.getEventId().isEmpty()) {
+            events.put(event.getEventId(), event);
+        }
+    }
+
+    /**
+     * @param eventId The id of the event
+     * @return The latest cached copy, or null if the event is not cached
+     */
+    public synchronized Event getEvent(String eventId) {
+        return eventId == null ? null : events.get(eventId);
+    }
+
+    /**
+     * Adds or replaces a user.
+     * @param user The user to cache; ignored if it has no id
+     */
+    public synchronized void putUser(User user) {
+        if (user != null && user.getId() != null && !user.getId().isEmpty()) {
+            users.put(user.getId(), user);
+        }
+    }
+
+    /**
+     * @param userId The id of the user
+     * @return The latest cached copy, or null if the user is not cached
+     */
+    public synchronized User getUser(String userId) {
+        return userId == null ? null : users.get(userId);
+    }
+
+    /**
+     * Drops everything, e.g. when the user signs out.
+     */
+    public synchronized void clear() {
+        events.clear();
+        users.clear();
+    }
+
+    private static class LruMap<V> extends LinkedHashMap<String, V> {
+        private final int capacity;
+
+        LruMap(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
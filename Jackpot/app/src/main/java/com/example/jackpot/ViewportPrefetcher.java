@@ -0,0 +1,161 @@
+package com.example.jackpot;
+
+import android.content.Context;
+import android.database.DataSetObserver;
+import android.net.ConnectivityManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.AbsListView;
+import android.widget.ListAdapter;
+import android.widget.ListView;
+
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.io.File;
+
+/**
+ * Prepares the events a user is likely to open next. Once the rows of an event list have
+ * stayed on screen for {@link #DWELL_MS}, it puts their events in the {@link SessionCache}
+ * and downloads their full-size posters and QR code images into Glide's disk cache, so
+ * {@link EventDetailsActivity} opens without waiting on the network.
+ * Downloads share a process-wide {@link PrefetchBudget} and are skipped on metered networks.
+ * Use on the main thread.
+ */
+public class ViewportPrefetcher {
+    private static final String TAG = "ViewportPrefetcher";
+    /** How long rows must stay visible before they are prefetched. */
+    static final long DWELL_MS = 600;
+    private static final long BUDGET_BYTES = 20L * 1024 * 1024;
+    // Posters are uploaded as PNGs straight from the gallery, so assume they are large
+    private static final long ESTIMATED_IMAGE_BYTES = 1024L * 1024;
+    private static final PrefetchBudget BUDGET = new PrefetchBudget(BUDGET_BYTES, ESTIMATED_IMAGE_BYTES);
+
+    private final Context context;
+    private final ListView listView;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable prefetchRunnable = this::prefetchVisibleRows;
+    private ListAdapter observedAdapter;
+
+    private final AbsListView.OnScrollListener scrollListener = new AbsListView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(AbsListView view, int scrollState) {
+            if (scrollState == SCROLL_STATE_IDLE) {
+                schedule();
+            } else {
+                handler.removeCallbacks(prefetchRunnable);
+            }
+        }
+
+        @Override
+        public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {}
+    };
+
+    private final DataSetObserver dataObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            // New rows were shown without a scroll, e.g. the first load or a filter
+            schedule();
+        }
+    };
+
+    private ViewportPrefetcher(ListView listView) {
+        this.context = listView.getContext().getApplicationContext();
+        this.listView = listView;
+    }
+
+    /**
+     * Starts watching a list whose adapter holds {@link Event}s. Replaces the list's scroll listener.
+     * @param listView The list to watch; its adapter must already be set
+     * @return The prefetcher; call {@link #detach()} when the list's view is destroyed
+     */
+    public static ViewportPrefetcher attach(ListView listView) {
+        ViewportPrefetcher prefetcher = new ViewportPrefetcher(listView);
+        listView.setOnScrollListener(prefetcher.scrollListener);
+        prefetcher.observedAdapter = listView.getAdapter();
+        if (prefetcher.observedAdapter != null) {
+            prefetcher.observedAdapter.registerDataSetObserver(prefetcher.dataObserver);
+        }
+        prefetcher.schedule();
+        return prefetcher;
+    }
+
+    /**
+     * Stops watching the list. Downloads already started still finish.
+     */
+    public void detach() {
+        handler.removeCallbacks(prefetchRunnable);
+        listView.setOnScrollListener(null);
+        if (observedAdapter != null) {
+            observedAdapter.unregisterDataSetObserver(dataObserver);
+            observedAdapter = null;
+        }
+    }
+
+    private void schedule() {
+        handler.removeCallbacks(prefetchRunnable);
+        handler.postDelayed(prefetchRunnable, DWELL_MS);
+    }
+
+    private void prefetchVisibleRows() {
+        ListAdapter adapter = listView.getAdapter();
+        if (adapter == null) {
+            return;
+        }
+        int first = listView.getFirstVisiblePosition();
+        int last = Math.min(listView.getLastVisiblePosition(), adapter.getCount() - 1);
+        boolean download = !isMetered();
+        for (int position = Math.max(0, first); position <= last; position++) {
+            Object item = adapter.getItem(position);
+            if (!(item instanceof Event)) {
+                continue;
+            }
+            Event event = (Event) item;
+            SessionCache.getInstance().putEvent(event);
+            if (download) {
+                preload(event.getPosterUri());
+                preload(event.getQrCodeImage());
+            }
+        }
+    }
+
+    private boolean isMetered() {
+        ConnectivityManager connectivity =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        // Treat an unknown network as metered rather than risk the user's data
+        return connectivity == null || connectivity.isActiveNetworkMetered();
+    }
+
+    private void preload(@Nullable String url) {
+        if (url == null || url.isEmpty() || "default".equals(url) || !BUDGET.tryReserve(url)) {
+            return;
+        }
+        Glide.with(context)
+                .downloadOnly()
+                .load(url)
+                .listener(new RequestListener<File>() {
+                    @Override
+                    public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                                Target<File> target, boolean isFirstResource) {
+                        Log.w(TAG, "Failed to prefetch " + url, e);
+                        BUDGET.release(url);
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onResourceReady(File resource, Object model, Target<File> target,
+                                                   DataSource dataSource, boolean isFirstResource) {
+                        // Files already in the disk cache cost no network, so charge nothing for them
+                        BUDGET.settle(url, dataSource == DataSource.REMOTE ? resource.length() : 0);
+                        return false;
+                    }
+                })
+                .preload();
+    }
+}
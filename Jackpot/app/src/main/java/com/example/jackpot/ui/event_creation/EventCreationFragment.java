@@ -1,6 +1,8 @@
 package com.example.jackpot.ui.event_creation;
 
 import android.graphics.Bitmap;
+import android.location.Address;
+import android.location.Geocoder;
 import android.net.Uri;
 import android.os.Bundle;
 import android.util.Log;
@@ -22,7 +24,13 @@ import androidx.fragment.app.Fragment;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.example.jackpot.UserList;
+import com.example.jackpot.AdmissionShards;
+import com.example.jackpot.DrawScheduler;
+import com.example.jackpot.Event;
+import com.example.jackpot.FDatabase;
+import com.example.jackpot.Futures;
+import com.example.jackpot.GeoHash;
+import com.example.jackpot.LifecycleFutures;
 import com.example.jackpot.R;
 import com.example.jackpot.ui.image.Image;
 import com.google.android.material.datepicker.MaterialDatePicker;
@@ -31,16 +39,20 @@ import com.google.android.material.timepicker.TimeFormat;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FieldValue;
-import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.StorageReference;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.MultiFormatWriter;
@@ -62,6 +74,8 @@ import com.journeyapps.barcodescanner.BarcodeEncoder;
  *  - Persist event, poster image, and optional QR image to Firestore/Storage.
  */
 public class EventCreationFragment extends Fragment {
+    /** Stops waiting on the screen once uploads and writes have taken this long; the save itself carries on. */
+    private static final long SAVE_TIMEOUT_SECONDS = 120;
 
     private Button selectPhotoButton;
     private TextView selectedPhotoTextView;
@@ -74,9 +88,10 @@ public class EventCreationFragment extends Fragment {
     private EditText editTextEventCapacity;
     private EditText editTextEventPrice;
     private CheckBox geoLocationBox;
+    private CheckBox highDemandBox;
     private CheckBox qrCodeBox;
     private Button submitButton;
-    private FirebaseFirestore db;
+    private FDatabase fDatabase;
     private Uri selectedImageUri;
     private EditText editWaitingListLimit;
     // UI refs
@@ -128,6 +143,7 @@ public class EventCreationFragment extends Fragment {
         editTextEventCapacity = view.findViewById(R.id.editCapacity);
         editTextEventPrice = view.findViewById(R.id.editTextPrice);
         geoLocationBox = view.findViewById(R.id.geoLocationBox);
+        highDemandBox = view.findViewById(R.id.highDemandBox);
         qrCodeBox = view.findViewById(R.id.qrCodeBox);
         submitButton = view.findViewById(R.id.buttonSubmit);
         editRegOpenDate  = view.findViewById(R.id.editRegOpenDate);
@@ -137,7 +153,7 @@ public class EventCreationFragment extends Fragment {
         editWaitingListLimit = view.findViewById(R.id.editWaitingListLimit);
 
         submitButton.setOnClickListener(v -> createEvent());
-        db = FirebaseFirestore.getInstance();
+        fDatabase = FDatabase.getInstance();
 
         spinnerCategory = view.findViewById(R.id.spinnerCategory);
         List<String> categories = Arrays.asList(
@@ -346,6 +362,7 @@ public class EventCreationFragment extends Fragment {
         String eventDate = editTextEventDate.getText().toString().trim();
         String eventTime = editTextEventTime.getText().toString().trim();
         boolean geoLocation = geoLocationBox.isChecked();
+        boolean highDemand = highDemandBox.isChecked();
         boolean qrCode = qrCodeBox.isChecked();
         // endregion
 
@@ -376,6 +393,8 @@ public class EventCreationFragment extends Fragment {
             waitLimitVal[0] = 0;
         }
         eventDoc.put("waitingListLimit", waitLimitVal[0]);
+        // Only when asked: a rush of joins is spread across shards instead of one document
+        eventDoc.put("admissionShards", AdmissionShards.shardCountFor(waitLimitVal[0], highDemand));
 
         eventDoc.put("geoRequired", geoLocation);
         eventDoc.put("qrCode", qrCode);
@@ -388,105 +407,135 @@ public class EventCreationFragment extends Fragment {
         eventDoc.put("regCloseTime", editRegCloseTime.getText().toString().trim());
         eventDoc.put("category", category);
 
-        UserList waitingList = new UserList(waitLimitVal[0]);
-        eventDoc.put("waitingList", waitingList);
-        UserList joinedList = new UserList(capacityVal);
-        eventDoc.put("joinedList", joinedList);
-        UserList invitedList = new UserList(capacityVal);
-        eventDoc.put("invitedList", invitedList);
-        UserList cancelledList = new UserList(capacityVal);
-        eventDoc.put("cancelledList", cancelledList);
+        // Every entrant's list is kept in one map; see Event#getMemberships()
+        eventDoc.put(Event.MEMBERSHIPS, new HashMap<String, Object>());
+        // Counters kept alongside it, recounted whenever the memberships are written
+        for (Event.Status status : Event.Status.values()) {
+            eventDoc.put(status.getCountField(), 0);
+        }
         // endregion
 
         submitButton.setEnabled(false);
 
-        // Upload poster (now required) and create event
-        uploadPosterAndCreateEvent(eventId, eventDoc, userId, qrCode);
+        // Geocoding, the poster upload and the QR upload are independent, so they run in parallel;
+        // the event is written once all of them have finished
+        Geocoder geocoder = Geocoder.isPresent()
+                ? new Geocoder(requireContext().getApplicationContext(), Locale.getDefault()) : null;
+        CompletableFuture<Address> coordinates = geocodeLocation(geocoder, eventLocation);
+        CompletableFuture<String> poster = uploadPoster(selectedImageUri, eventId, userId);
+        CompletableFuture<Image> qrImage = qrCode
+                ? uploadQRCode(eventId, userId) : CompletableFuture.completedFuture(null);
+        DrawScheduler drawScheduler = new DrawScheduler(requireContext());
+
+        // The save and the draw it schedules do not depend on this screen, so uploads are
+        // never left without their event when the organizer leaves or the wait times out
+        CompletableFuture<Void> saved = Futures.allOf(Arrays.<CompletableFuture<?>>asList(coordinates, poster, qrImage))
+                .thenCompose(ignored -> {
+                    Address address = coordinates.join();
+                    if (address != null) {
+                        eventDoc.put("lat", address.getLatitude());
+                        eventDoc.put("lng", address.getLongitude());
+                        eventDoc.put("geohash", GeoHash.encode(address.getLatitude(),
+                                address.getLongitude(), GeoHash.PRECISION));
+                    }
+                    eventDoc.put("posterUri", poster.join());
+                    Image qr = qrImage.join();
+                    if (qr != null) {
+                        eventDoc.put("qrCodeImage", qr.getImageUrl());
+                        eventDoc.put("qrCodeId", qr.getImageID());
+                    }
+                    return fDatabase.setDocumentAsync("events", eventId, eventDoc);
+                })
+                .thenRun(() -> {
+                    Log.d("EventCreation", "Event created: " + eventId);
+                    drawScheduler.scheduleDraw(eventId, regCloseTs.toDate());
+                });
+        saved.whenComplete((ignored, error) -> {
+            if (error != null) {
+                Log.e("EventCreation", "Failed to save event " + eventId, error);
+            }
+        });
+
+        // Only this dependent stage is cancelled with the view or timed out
+        CompletableFuture<Void> shown = saved.thenApply(ignored -> ignored);
+        LifecycleFutures.observe(getViewLifecycleOwner(),
+                Futures.withTimeout(shown, SAVE_TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                ignored -> {
+                    Toast.makeText(requireContext(), "Event created successfully!", Toast.LENGTH_SHORT).show();
+                    requireActivity().getOnBackPressedDispatcher().onBackPressed();
+                },
+                error -> {
+                    if (error instanceof TimeoutException) {
+                        // Still saving; submitting again would create a second event
+                        Toast.makeText(requireContext(), "Still saving the event, it will appear once saved", Toast.LENGTH_LONG).show();
+                        requireActivity().getOnBackPressedDispatcher().onBackPressed();
+                        return;
+                    }
+                    submitButton.setEnabled(true);
+                    Toast.makeText(requireContext(), "Failed to create event: " + error.getMessage(), Toast.LENGTH_LONG).show();
+                });
     }
 
     /**
-     * Uploads the poster image and creates separate Image documents in Firestore.
-     * @param eventId ID of the event being created.
-     * @param eventDoc event fields to persist.
-     * @param userId organizer user ID.
-     * @param generateQR true to generate QR code image.
+     * Looks up coordinates for the event address on a background thread, so the event
+     * can be found by "near me" queries.
+     * @param geocoder geocoder to use, or null if the device has none.
+     * @param address address entered by the organizer.
+     * @return the first match, or null if the address cannot be resolved; the event is
+     *         still created without coordinates.
      */
-    private void uploadPosterAndCreateEvent(String eventId, Map<String, Object> eventDoc, String userId, boolean generateQR) {
-        String imageName = "posters/" + UUID.randomUUID().toString() + ".png";
-        StorageReference storageRef = FirebaseStorage.getInstance().getReference().child(imageName);
-
-        storageRef.putFile(selectedImageUri).addOnSuccessListener(taskSnapshot -> {
-            storageRef.getDownloadUrl().addOnSuccessListener(downloadUri -> {
-                String posterUrl = downloadUri.toString();
-                eventDoc.put("posterUri", posterUrl);
-
-                // Create Image document for poster
-                String posterImageId = UUID.randomUUID().toString();
-                Image posterImage = new Image(
-                        posterImageId,
-                        userId,
-                        posterUrl,
-                        Image.TYPE_POSTER,
-                        Image.ORDER_POSTER,
-                        eventId
-                );
-
-                // Save poster image to images collection
-                savePosterImageDocument(eventId, posterImage, eventDoc, userId, generateQR);
-            });
-        }).addOnFailureListener(e -> {
-            submitButton.setEnabled(true);
-            Toast.makeText(requireContext(), "Failed to upload poster: " + e.getMessage(), Toast.LENGTH_LONG).show();
+    private CompletableFuture<Address> geocodeLocation(@Nullable Geocoder geocoder, String address) {
+        if (geocoder == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                @SuppressWarnings("deprecation")
+                List<Address> results = geocoder.getFromLocationName(address, 1);
+                return results != null && !results.isEmpty() ? results.get(0) : null;
+            } catch (IOException | IllegalArgumentException e) {
+                Log.e("EventCreation", "Could not geocode event location", e);
+                return null;
+            }
         });
     }
 
     /**
-     * Saves the poster Image document to Firestore.
+     * Uploads the poster image and creates its Image document.
+     * @param imageUri poster selected by the organizer.
      * @param eventId ID of the event being created.
-     * @param posterImage poster image model.
-     * @param eventDoc event fields to persist.
      * @param userId organizer user ID.
-     * @param generateQR true to generate QR code image.
+     * @return the poster's download URL.
      */
-    private void savePosterImageDocument(String eventId, Image posterImage, Map<String, Object> eventDoc, String userId, boolean generateQR) {
-        Map<String, Object> posterDoc = new HashMap<>();
-        posterDoc.put("imageID", posterImage.getImageID());
-        posterDoc.put("uploadedBy", posterImage.getUploadedBy());
-        posterDoc.put("imageUrl", posterImage.getImageUrl());
-        posterDoc.put("imageType", posterImage.getImageType());
-        posterDoc.put("displayOrder", posterImage.getDisplayOrder());
-        posterDoc.put("createdAt", FieldValue.serverTimestamp());
-        posterDoc.put("eventId", posterImage.getEventId());
-
-        db.collection("images")
-                .document(posterImage.getImageID())
-                .set(posterDoc)
-                .addOnSuccessListener(v -> {
-                    Log.d("ImageSave", "Poster image document created: " + posterImage.getImageID());
-
-                    // Now save the event
-                    if (generateQR) {
-                        generateQRAndSaveEvent(eventId, eventDoc, userId);
-                    } else {
-                        saveEventToFirestore(eventId, eventDoc);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    submitButton.setEnabled(true);
-                    Log.e("ImageSave", "Failed to save poster image document", e);
-                    Toast.makeText(requireContext(), "Failed to save poster image: " + e.getMessage(), Toast.LENGTH_LONG).show();
+    private CompletableFuture<String> uploadPoster(Uri imageUri, String eventId, String userId) {
+        String imageName = "posters/" + UUID.randomUUID().toString() + ".png";
+        StorageReference storageRef = FirebaseStorage.getInstance().getReference().child(imageName);
+
+        return FDatabase.toFuture(storageRef.putFile(imageUri))
+                .thenCompose(taskSnapshot -> FDatabase.toFuture(storageRef.getDownloadUrl()))
+                .thenCompose(downloadUri -> {
+                    Image posterImage = new Image(
+                            UUID.randomUUID().toString(),
+                            userId,
+                            downloadUri.toString(),
+                            Image.TYPE_POSTER,
+                            Image.ORDER_POSTER,
+                            eventId
+                    );
+                    return saveImageDocument(posterImage)
+                            .thenApply(ignored -> posterImage.getImageUrl());
                 });
     }
 
     /**
-     * Generates a QR code and saves it as a separate Image document.
+     * Generates a QR code for the event, uploads it and creates its Image document.
      * @param eventId ID of the event being created.
-     * @param eventDoc event fields to persist.
      * @param userId organizer user ID.
+     * @return the saved QR code image.
      */
-    private void generateQRAndSaveEvent(String eventId, Map<String, Object> eventDoc, String userId) {
+    private CompletableFuture<Image> uploadQRCode(String eventId, String userId) {
         String qrContent = "jackpot://event/" + eventId;
-
+        byte[] qrData;
         try {
             BitMatrix matrix = new MultiFormatWriter().encode(
                     qrContent,
@@ -499,98 +548,52 @@ public class EventCreationFragment extends Fragment {
 
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             qrBitmap.compress(Bitmap.CompressFormat.PNG, 100, baos);
-            byte[] qrData = baos.toByteArray();
-
-            String qrName = "qrcodes/" + eventId + ".png";
-            StorageReference qrRef = FirebaseStorage.getInstance().getReference().child(qrName);
-
-            qrRef.putBytes(qrData)
-                    .addOnSuccessListener(taskSnapshot -> qrRef.getDownloadUrl().addOnSuccessListener(qrUri -> {
-                        String qrUrl = qrUri.toString();
-                        Log.d("QRUpload", "QR code uploaded: " + qrUrl);
-
-                        // Store QR reference in main event document
-                        eventDoc.put("qrCodeImage", qrUrl);
-
-                        // Create Image document for QR code
-                        String qrImageId = UUID.randomUUID().toString();
-                        Image qrImage = new Image(
-                                qrImageId,
-                                userId,
-                                qrUrl,
-                                Image.TYPE_QR_CODE,
-                                Image.ORDER_QR_CODE,
-                                eventId
-                        );
-
-                        // Save QR image document
-                        eventDoc.put("qrCodeId", qrImageId);
-                        saveQRImageDocument(eventId, qrImage, eventDoc);
-                    }))
-                    .addOnFailureListener(e -> {
-                        submitButton.setEnabled(true);
-                        Log.e("QRUpload", "Failed to upload QR code", e);
-                        Toast.makeText(requireContext(), "Failed to create QR code: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                    });
-
+            qrData = baos.toByteArray();
         } catch (WriterException e) {
-            submitButton.setEnabled(true);
-            Log.e("QRGen", "Failed to generate QR code", e);
-            Toast.makeText(requireContext(), "Failed to generate QR code: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            CompletableFuture<Image> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
         }
-    }
 
-    /**
-     * Saves the QR code Image document to Firestore.
-     * @param eventId ID of the event being created.
-     * @param qrImage QR image model.
-     * @param eventDoc event fields to persist.
-     */
-    private void saveQRImageDocument(String eventId, Image qrImage, Map<String, Object> eventDoc) {
-        Map<String, Object> qrDoc = new HashMap<>();
-        qrDoc.put("imageID", qrImage.getImageID());
-        qrDoc.put("uploadedBy", qrImage.getUploadedBy());
-        qrDoc.put("imageUrl", qrImage.getImageUrl());
-        qrDoc.put("imageType", qrImage.getImageType());
-        qrDoc.put("displayOrder", qrImage.getDisplayOrder());
-        qrDoc.put("createdAt", FieldValue.serverTimestamp());
-        qrDoc.put("eventId", qrImage.getEventId());
-
-
-        db.collection("images")
-                .document(qrImage.getImageID())
-                .set(qrDoc)
-                .addOnSuccessListener(v -> {
-                    Log.d("ImageSave", "QR code image document created: " + qrImage.getImageID());
-
-                    // Finally save the event
-                    saveEventToFirestore(eventId, eventDoc);
-                })
-                .addOnFailureListener(e -> {
-                    submitButton.setEnabled(true);
-                    Log.e("ImageSave", "Failed to save QR image document", e);
-                    Toast.makeText(requireContext(), "Failed to save QR image: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        String qrName = "qrcodes/" + eventId + ".png";
+        StorageReference qrRef = FirebaseStorage.getInstance().getReference().child(qrName);
+
+        return FDatabase.toFuture(qrRef.putBytes(qrData))
+                .thenCompose(taskSnapshot -> FDatabase.toFuture(qrRef.getDownloadUrl()))
+                .thenCompose(qrUri -> {
+                    Log.d("QRUpload", "QR code uploaded: " + qrUri);
+                    Image qrImage = new Image(
+                            UUID.randomUUID().toString(),
+                            userId,
+                            qrUri.toString(),
+                            Image.TYPE_QR_CODE,
+                            Image.ORDER_QR_CODE,
+                            eventId
+                    );
+                    return saveImageDocument(qrImage).thenApply(ignored -> qrImage);
                 });
     }
 
     /**
-     * Saves the event to Firestore.
-     * @param eventId ID of the event being created.
-     * @param eventDoc event fields to persist.
+     * Saves an Image document to the images collection.
+     * @param image poster or QR image model.
+     * @return completes once the document is written.
      */
-    private void saveEventToFirestore(String eventId, Map<String, Object> eventDoc) {
-        db.collection("events")
-                .document(eventId)
-                .set(eventDoc)
-                .addOnSuccessListener(v -> {
-                    Log.d("EventCreation", "Event created: " + eventId);
-                    Toast.makeText(requireContext(), "Event created successfully!", Toast.LENGTH_SHORT).show();
-                    requireActivity().getOnBackPressedDispatcher().onBackPressed();
-                })
-                .addOnFailureListener(e -> {
-                    submitButton.setEnabled(true);
-                    Log.e("Firestore", "Failed to create event", e);
-                    Toast.makeText(requireContext(), "Failed to create event: " + e.getMessage(), Toast.LENGTH_LONG).show();
+    private CompletableFuture<Void> saveImageDocument(Image image) {
+        Map<String, Object> imageDoc = new HashMap<>();
+        imageDoc.put("imageID", image.getImageID());
+        imageDoc.put("uploadedBy", image.getUploadedBy());
+        imageDoc.put("imageUrl", image.getImageUrl());
+        imageDoc.put("imageType", image.getImageType());
+        imageDoc.put("displayOrder", image.getDisplayOrder());
+        imageDoc.put("createdAt", FieldValue.serverTimestamp());
+        imageDoc.put("eventId", image.getEventId());
+
+        return fDatabase.setDocumentAsync("images", image.getImageID(), imageDoc)
+                .whenComplete((ignored, error) -> {
+                    if (error == null) {
+                        Log.d("ImageSave", "Image document created: " + image.getImageID());
+                    }
                 });
     }
 
@@ -2,25 +2,28 @@ package com.example.jackpot.ui.events;
 
 import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.jackpot.CSVExporter;
 import com.example.jackpot.Event;
+import com.example.jackpot.EventViewModel;
+import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
-import com.example.jackpot.UserList;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -28,23 +31,27 @@ import java.util.List;
  *
  * Responsibilities:
  *  - Inflate the confirmed attendees layout.
- *  - Read the passed Event argument and extract its joined list.
+ *  - Load the event named by the passed id and extract its joined list.
  *  - Render attendees in a RecyclerView.
  *  - Provide back navigation and CSV export of the attendees list.
  */
 public class AttendeesListFragment extends Fragment {
+    private static final String ARG_EVENT_ID = "EVENT_ID";
+
+    private String eventId;
     private Event event;
-    private List<User> attendees;
+    private AttendeesListAdapter adapter;
 
     /**
-     * Factory method to create a fragment instance with the given event.
-     * @param event Event whose attendees should be displayed.
+     * Factory method to create a fragment instance for the given event. Only the id is stored
+     * in the arguments; the event itself is loaded when the view is created.
+     * @param eventId Id of the event whose attendees should be displayed.
      * @return configured AttendeesListFragment with arguments set.
      */
-    public static AttendeesListFragment newInstance(Event event) {
+    public static AttendeesListFragment newInstance(String eventId) {
         AttendeesListFragment fragment = new AttendeesListFragment();
         Bundle args = new Bundle();
-        args.putSerializable("event", event);
+        args.putString(ARG_EVENT_ID, eventId);
         fragment.setArguments(args);
         return fragment;
     }
@@ -56,30 +63,27 @@ public class AttendeesListFragment extends Fragment {
         View root = inflater.inflate(R.layout.fragment_confirmed_list, container, false);
 
         if (getArguments() != null) {
-            event = (Event) getArguments().getSerializable("event");
+            eventId = getArguments().getString(ARG_EVENT_ID);
         }
 
         RecyclerView recyclerView = root.findViewById(R.id.attendees_recycler_view);
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        adapter = new AttendeesListAdapter();
+        recyclerView.setAdapter(adapter);
 
         Button backButton = root.findViewById(R.id.back_button);
         Button exportButton = root.findViewById(R.id.export_csv_button);
 
-        if (event != null) {
-            UserList joined = event.getJoinedList();
-            attendees = joined != null && joined.getUsers() != null
-                    ? joined.getUsers() : new ArrayList<>();
-            recyclerView.setAdapter(new AttendeesListAdapter(attendees));
-        } else {
-            attendees = new ArrayList<>();
-        }
+        loadEvent();
 
         backButton.setOnClickListener(v ->
                 requireActivity().getSupportFragmentManager().popBackStack());
 
         // Export CSV functionality
         exportButton.setOnClickListener(v -> {
-            if (event != null && attendees != null && !attendees.isEmpty()) {
+            // The export needs every attendee, so only now is the whole list copied
+            List<User> attendees = event != null ? event.getJoinedList().getUsers() : null;
+            if (attendees != null && !attendees.isEmpty()) {
                 Uri csvUri = CSVExporter.exportAttendeesList(requireContext(), event, attendees);
                 if (csvUri != null) {
                     // Optionally open share dialog
@@ -95,16 +99,39 @@ public class AttendeesListFragment extends Fragment {
         return root;
     }
 
-    private static class AttendeesListAdapter extends RecyclerView.Adapter<AttendeesListAdapter.AttendeeViewHolder> {
-        private final List<User> attendees;
-
-        /**
-         * Adapter for rendering attendees in the confirmed list.
-         * @param attendees the list of attendees to render (null-safe).
-         */
-        AttendeesListAdapter(List<User> attendees) {
-            this.attendees = attendees != null ? attendees : new ArrayList<>();
+    /**
+     * Loads the event through the shared repository and shows its joined list.
+     */
+    private void loadEvent() {
+        if (eventId == null) {
+            Toast.makeText(getContext(), "Event data is missing.", Toast.LENGTH_SHORT).show();
+            return;
         }
+        new ViewModelProvider(requireActivity()).get(EventViewModel.class).getRepository()
+                .loadEvent(eventId, new FDatabase.EventCallback() {
+                    @Override
+                    public void onSuccess(Event loaded) {
+                        if (!isAdded()) {
+                            return;
+                        }
+                        event = loaded;
+                        adapter.setPager(EntrantPager.forStatus(event, Event.Status.JOINED));
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        Log.e("AttendeesListFragment", "Failed to load event: " + error);
+                        if (isAdded() && event == null) {
+                            Toast.makeText(getContext(), "Failed to load event", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Adapter for rendering attendees in the confirmed list, a page at a time.
+     */
+    private static class AttendeesListAdapter extends PagedEntrantAdapter<AttendeesListAdapter.AttendeeViewHolder> {
 
         @NonNull
         @Override
@@ -116,16 +143,16 @@ public class AttendeesListFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull AttendeeViewHolder holder, int position) {
-            User user = attendees.get(position);
-            String name = user != null ? user.getName() : null;
+            User user = getUser(position);
+            if (user == null) {
+                // Placeholder until the row's page arrives
+                holder.nameView.setText("Loading…");
+                return;
+            }
+            String name = user.getName();
             holder.nameView.setText(name != null && !name.isEmpty() ? name : "Unnamed entrant");
         }
 
-        @Override
-        public int getItemCount() {
-            return attendees.size();
-        }
-
         static class AttendeeViewHolder extends RecyclerView.ViewHolder {
             TextView nameView;
 
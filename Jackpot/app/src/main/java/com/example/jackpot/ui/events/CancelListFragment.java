@@ -1,31 +1,35 @@
 package com.example.jackpot.ui.events;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.jackpot.Event;
+import com.example.jackpot.EventViewModel;
+import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
-import com.example.jackpot.UserList;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 
 /**
  * Displays the cancelled entrant list for a given event and lets organizers view/export it.
  */
 public class CancelListFragment extends Fragment {
+    private static final String ARG_EVENT_ID = "EVENT_ID";
+    private static final String ARG_EVENT_NAME = "EVENT_NAME";
+
+    private String eventId;
     private Event event;
     private RecyclerView recyclerView;
     private TextView eventTitle;
@@ -33,14 +37,17 @@ public class CancelListFragment extends Fragment {
     private CancelledAdapter adapter;
 
     /**
-     * Factory to create the fragment with an event argument.
-     * @param event Event whose cancelled list will be shown.
+     * Factory to create the fragment for an event. Only the id and name are stored in the
+     * arguments; the event itself is loaded when the view is created.
+     * @param eventId Id of the event whose cancelled list will be shown.
+     * @param eventName Name shown as the title until the event loads.
      * @return configured fragment instance.
      */
-    public static CancelListFragment newInstance(Event event) {
+    public static CancelListFragment newInstance(String eventId, String eventName) {
         CancelListFragment fragment = new CancelListFragment();
         Bundle args = new Bundle();
-        args.putSerializable("event", event);
+        args.putString(ARG_EVENT_ID, eventId);
+        args.putString(ARG_EVENT_NAME, eventName);
         fragment.setArguments(args);
         return fragment;
     }
@@ -57,11 +64,6 @@ public class CancelListFragment extends Fragment {
                              @Nullable Bundle savedInstanceState) {
         View root = inflater.inflate(R.layout.fragment_cancel_list, container, false);
 
-        // Get event from arguments
-        if (getArguments() != null) {
-            event = (Event) getArguments().getSerializable("event");
-        }
-
         // Initialize views
         eventTitle = root.findViewById(R.id.event_title);
         recyclerView = root.findViewById(R.id.cancel_list_recycler_view);
@@ -69,14 +71,15 @@ public class CancelListFragment extends Fragment {
 
         // Setup RecyclerView
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        adapter = new CancelledAdapter();
+        recyclerView.setAdapter(adapter);
 
-        // Set event details
-        if (event != null) {
-            eventTitle.setText(event.getName());
-            ArrayList<User> cancelledUsers = extractUsers(event.getCancelledList());
-            adapter = new CancelledAdapter(cancelledUsers);
-            recyclerView.setAdapter(adapter);
+        // Get the event id from arguments; the title shows the passed name until the event loads
+        if (getArguments() != null) {
+            eventId = getArguments().getString(ARG_EVENT_ID);
+            eventTitle.setText(getArguments().getString(ARG_EVENT_NAME));
         }
+        loadEvent();
 
         // Back button
         backButton.setOnClickListener(v -> {
@@ -87,37 +90,36 @@ public class CancelListFragment extends Fragment {
     }
 
     /**
-     * Converts a UserList (possibly containing map objects from Firestore) into concrete Users.
-     * @param list raw list pulled from Firestore.
-     * @return list of concrete User models.
+     * Loads the event through the shared repository and shows its cancelled list.
      */
-    private ArrayList<User> extractUsers(UserList list) {
-        ArrayList<User> users = new ArrayList<>();
-        if (list == null || list.getUsers() == null) {
-            return users;
+    private void loadEvent() {
+        if (eventId == null) {
+            Toast.makeText(getContext(), "Event data is missing.", Toast.LENGTH_SHORT).show();
+            return;
         }
-
-        for (Object obj : list.getUsers()) {
-            if (obj instanceof User) {
-                users.add((User) obj);
-            } else if (obj instanceof HashMap) {
-                HashMap<String, Object> map = (HashMap<String, Object>) obj;
-                User user = new User();
-                user.setId((String) map.get("id"));
-                user.setName((String) map.get("name"));
-                user.setEmail((String) map.get("email"));
-                users.add(user);
-            }
-        }
-        return users;
+        new ViewModelProvider(requireActivity()).get(EventViewModel.class).getRepository()
+                .loadEvent(eventId, new FDatabase.EventCallback() {
+                    @Override
+                    public void onSuccess(Event loaded) {
+                        if (!isAdded()) {
+                            return;
+                        }
+                        event = loaded;
+                        eventTitle.setText(event.getName());
+                        adapter.setPager(EntrantPager.forStatus(event, Event.Status.CANCELLED));
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        Log.e("CancelListFragment", "Failed to load event: " + error);
+                        if (isAdded() && event == null) {
+                            Toast.makeText(getContext(), "Failed to load event", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
     }
 
-    private static class CancelledAdapter extends RecyclerView.Adapter<CancelledAdapter.CancelledViewHolder> {
-        private final List<User> cancelled;
-
-        CancelledAdapter(List<User> cancelled) {
-            this.cancelled = cancelled != null ? cancelled : new ArrayList<>();
-        }
+    private static class CancelledAdapter extends PagedEntrantAdapter<CancelledAdapter.CancelledViewHolder> {
 
         @NonNull
         @Override
@@ -129,14 +131,15 @@ public class CancelListFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull CancelledViewHolder holder, int position) {
-            User user = cancelled.get(position);
-            holder.nameView.setText(user != null && user.getName() != null ? user.getName() : "Unnamed entrant");
-            holder.emailView.setText(user != null && user.getEmail() != null ? user.getEmail() : "No email");
-        }
-
-        @Override
-        public int getItemCount() {
-            return cancelled.size();
+            User user = getUser(position);
+            if (user == null) {
+                // Placeholder until the row's page arrives
+                holder.nameView.setText("Loading…");
+                holder.emailView.setText("");
+                return;
+            }
+            holder.nameView.setText(user.getName() != null ? user.getName() : "Unnamed entrant");
+            holder.emailView.setText(user.getEmail() != null ? user.getEmail() : "No email");
         }
 
         static class CancelledViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,198 @@
+package com.example.jackpot.ui.events;
+
+import com.example.jackpot.Event;
+import com.example.jackpot.User;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Pages through one of an event's entrant lists for the organizer's list screens.
+ * Only the size of the list is known up front; pages are loaded as rows near them are shown,
+ * and only the most recently used pages are kept, so opening a list of any size costs one page.
+ * With placeholders enabled the list reports its full size and rows of pages not loaded yet
+ * read as null; without them it grows a page at a time as the end is reached.
+ * Use the pager on the main thread.
+ */
+public class EntrantPager {
+    /** Rows per page used by the list screens. */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    /** Pages kept in memory by default; older pages are loaded again if scrolled back to. */
+    public static final int DEFAULT_MAX_PAGES = 10;
+
+    /**
+     * Loads one page of entrants and passes it to the callback on the main thread, either
+     * straight away or later.
+     */
+    public interface PageLoader {
+        void load(int offset, int limit, Consumer<List<User>> callback);
+    }
+
+    /**
+     * Told when rows change after a page arrives, mirroring the RecyclerView notifications.
+     */
+    public interface Listener {
+        void onRangeChanged(int start, int count);
+        void onRangeInserted(int start, int count);
+    }
+
+    private final int size;
+    private final int pageSize;
+    private final int maxPages;
+    private final boolean placeholders;
+    private final PageLoader loader;
+    // Access-ordered, so the first entry is the least recently used page
+    private final LinkedHashMap<Integer, List<User>> pages;
+    private final Set<Integer> loading = new HashSet<>();
+    private int loadedPages;
+    private Listener listener;
+
+    /**
+     * Creates a pager.
+     * @param size The number of entrants in the list
+     * @param pageSize Rows per page
+     * @param maxPages Pages kept in memory, at least 2
+     * @param placeholders Whether to report the full size before pages load
+     * @param loader Loads pages of the list
+     * @throws IllegalArgumentException If a size is out of range or the loader is null
+     */
+    public EntrantPager(int size, int pageSize, int maxPages, boolean placeholders, PageLoader loader) {
+        if (size < 0 || pageSize < 1 || maxPages < 2 || loader == null) {
+            throw new IllegalArgumentException("Invalid pager configuration");
+        }
+        this.size = size;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.placeholders = placeholders;
+        this.loader = loader;
+        this.pages = new LinkedHashMap<Integer, List<User>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<User>> eldest) {
+                return size() > EntrantPager.this.maxPages;
+            }
+        };
+    }
+
+    /**
+     * Creates a pager over the entrants of an event with one status, with placeholders and
+     * the default page size.
+     * @param event The event, already loaded
+     * @param status The list to page through
+     * @return The pager
+     */
+    public static EntrantPager forStatus(Event event, Event.Status status) {
+        return new EntrantPager(event.countOf(status), DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, true,
+                (offset, limit, callback) -> callback.accept(event.entrantsPage(status, offset, limit)));
+    }
+
+    /**
+     * Creates a pager over the entrants of an event with one status followed by entrants kept
+     * outside the event document, e.g. the sharded waiting list of a high-demand event.
+     * @param event The event, already loaded
+     * @param status The list to page through
+     * @param more The entrants shown after the event's own, already loaded
+     * @return The pager
+     */
+    public static EntrantPager forStatus(Event event, Event.Status status, List<User> more) {
+        int onEvent = event.countOf(status);
+        return new EntrantPager(onEvent + more.size(), DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, true,
+                (offset, limit, callback) -> {
+                    List<User> page = new ArrayList<>();
+                    if (offset < onEvent) {
+                        page.addAll(event.entrantsPage(status, offset, Math.min(limit, onEvent - offset)));
+                    }
+                    int from = Math.max(offset - onEvent, 0);
+                    int to = Math.min(offset + limit - onEvent, more.size());
+                    if (from < to) {
+                        page.addAll(more.subList(from, to));
+                    }
+                    callback.accept(page);
+                });
+    }
+
+    /**
+     * Sets who is told about rows that change once their page arrives.
+     * @param listener The listener, or null
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the number of rows to show.
+     * @return The full size with placeholders, otherwise the rows loaded so far
+     */
+    public int getItemCount() {
+        return placeholders ? size : Math.min(size, loadedPages * pageSize);
+    }
+
+    /**
+     * Gets the number of entrants in the list, whether loaded or not.
+     * @return The size of the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the entrant at a row, loading its page, and the next one once past half way.
+     * Rows of a page that arrives straight away are not announced as changed, since they are
+     * read as they bind; rows added to a list without placeholders always are, so the listener
+     * should post its notifications rather than apply them in the middle of a layout.
+     * @param position The row
+     * @return The entrant, or null if its page has not arrived yet
+     */
+    public User get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " of " + size);
+        }
+        int page = position / pageSize;
+        int index = position % pageSize;
+        load(page, true);
+        if (index >= pageSize / 2) {
+            load(page + 1, true);
+        }
+        List<User> users = pages.get(page);
+        return users != null && index < users.size() ? users.get(index) : null;
+    }
+
+    /**
+     * Loads the page holding a row without reading it, e.g. the first page when the list opens.
+     * @param position The row
+     */
+    public void loadAround(int position) {
+        if (position >= 0 && position < size) {
+            load(position / pageSize, false);
+        }
+    }
+
+    private void load(int page, boolean fromGet) {
+        if (page * pageSize >= size || pages.containsKey(page) || !loading.add(page)) {
+            return;
+        }
+        // True until the loader returns, to tell a page delivered synchronously from a later one
+        boolean[] inline = {true};
+        loader.load(page * pageSize, pageSize, users -> {
+            loading.remove(page);
+            pages.put(page, users);
+            if (placeholders) {
+                if (!(fromGet && inline[0]) && listener != null) {
+                    int start = page * pageSize;
+                    listener.onRangeChanged(start, Math.min(pageSize, size - start));
+                }
+            } else if (page >= loadedPages) {
+                int before = getItemCount();
+                loadedPages = page + 1;
+                if (listener != null && getItemCount() > before) {
+                    listener.onRangeInserted(before, getItemCount() - before);
+                }
+            }
+        });
+        inline[0] = false;
+    }
+}
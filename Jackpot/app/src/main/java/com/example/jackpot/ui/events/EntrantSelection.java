@@ -0,0 +1,92 @@
+package com.example.jackpot.ui.events;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Which entrants an organizer has checked on a list screen, kept as user ids so rows can be
+ * paged in and out without losing it. Selecting everything is a flag plus the ids unchecked
+ * since, so it costs nothing however long the list is.
+ */
+public class EntrantSelection {
+    private boolean all;
+    // The checked ids, or while everything is selected, the unchecked ones
+    private final Set<String> toggled = new HashSet<>();
+
+    /**
+     * Checks whether an entrant is selected.
+     * @param userId The entrant's id
+     * @return True if the entrant is selected
+     */
+    public boolean isSelected(String userId) {
+        return all != toggled.contains(userId);
+    }
+
+    /**
+     * Selects or unselects one entrant.
+     * @param userId The entrant's id
+     * @param selected Whether the entrant should be selected
+     */
+    public void setSelected(String userId, boolean selected) {
+        if (userId == null) {
+            return;
+        }
+        if (selected != all) {
+            toggled.add(userId);
+        } else {
+            toggled.remove(userId);
+        }
+    }
+
+    /**
+     * Selects every entrant on the list, or clears the selection if they already all are.
+     * @param listSize The number of entrants on the list
+     */
+    public void toggleAll(int listSize) {
+        boolean everything = count(listSize) == listSize;
+        all = !everything;
+        toggled.clear();
+    }
+
+    /**
+     * Clears the selection.
+     */
+    public void clear() {
+        all = false;
+        toggled.clear();
+    }
+
+    /**
+     * Forgets entrants that left the list, so counts stay correct.
+     * @param userIds The ids of the entrants that left
+     */
+    public void forget(Collection<String> userIds) {
+        toggled.removeAll(userIds);
+    }
+
+    /**
+     * Counts the selected entrants.
+     * @param listSize The number of entrants on the list
+     * @return The number selected
+     */
+    public int count(int listSize) {
+        return all ? listSize - toggled.size() : toggled.size();
+    }
+
+    /**
+     * Picks the selected entrants out of the list, for acting on them.
+     * @param listIds The ids of every entrant on the list, in list order
+     * @return The selected ids, in list order
+     */
+    public Set<String> resolve(Iterable<String> listIds) {
+        Set<String> selected = new LinkedHashSet<>();
+        for (String userId : listIds) {
+            if (isSelected(userId)) {
+                selected.add(userId);
+            }
+        }
+        return selected;
+    }
+}
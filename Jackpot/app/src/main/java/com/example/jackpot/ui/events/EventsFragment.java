@@ -13,11 +13,14 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.jackpot.Entrant;
 import com.example.jackpot.Event;
 import com.example.jackpot.EventArrayAdapter;
 import com.example.jackpot.EventList;
+import com.example.jackpot.EventRepository;
+import com.example.jackpot.EventViewModel;
 import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
@@ -39,6 +42,8 @@ public class EventsFragment extends Fragment {
     private FDatabase fDatabase = FDatabase.getInstance();
     private User currentUser;
     private EventList displayedEvents = new EventList(new ArrayList<>());
+    // Latest events from the shared stream; null until the first delivery
+    private ArrayList<Event> sourceEvents;
     private User.Role userRole;
     private enum OrganizerTab { DRAW, MY_EVENTS, CONFIRMED }
     private OrganizerTab currentOrganizerTab = OrganizerTab.DRAW;
@@ -140,7 +145,7 @@ public class EventsFragment extends Fragment {
     }
 
     private void navigateToWaitingList(Event event) {
-        WaitingListFragment fragment = WaitingListFragment.newInstance(event);
+        WaitingListFragment fragment = WaitingListFragment.newInstance(event.getEventId(), event.getName());
         requireActivity().getSupportFragmentManager()
                 .beginTransaction()
                 .replace(R.id.nav_host_fragment_content_main, fragment)
@@ -149,7 +154,7 @@ public class EventsFragment extends Fragment {
     }
 
     private void navigateToCancelList(Event event) {
-        CancelListFragment fragment = CancelListFragment.newInstance(event);
+        CancelListFragment fragment = CancelListFragment.newInstance(event.getEventId(), event.getName());
         requireActivity().getSupportFragmentManager()
                 .beginTransaction()
                 .replace(R.id.nav_host_fragment_content_main, fragment)
@@ -158,7 +163,7 @@ public class EventsFragment extends Fragment {
     }
 
     private void navigateToInvitedList(Event event) {
-        InvitedListFragment fragment = InvitedListFragment.newInstance(event);
+        InvitedListFragment fragment = InvitedListFragment.newInstance(event.getEventId(), event.getName());
         requireActivity().getSupportFragmentManager()
                 .beginTransaction()
                 .replace(R.id.nav_host_fragment_content_main, fragment)
@@ -167,7 +172,7 @@ public class EventsFragment extends Fragment {
     }
 
     private void navigateToConfirmedList(Event event) {
-        AttendeesListFragment fragment = AttendeesListFragment.newInstance(event);
+        AttendeesListFragment fragment = AttendeesListFragment.newInstance(event.getEventId());
         requireActivity().getSupportFragmentManager()
                 .beginTransaction()
                 .replace(R.id.nav_host_fragment_content_main, fragment)
@@ -203,7 +208,7 @@ public class EventsFragment extends Fragment {
             eventAdapter.setLayoutResource(R.layout.drawlist_item_for_organizer);
             eventList.setAdapter(eventAdapter);
             
-            loadOrganizerEvents();
+            showCurrentTab(true);
         });
 
         activeButton.setOnClickListener(v -> {
@@ -218,7 +223,7 @@ public class EventsFragment extends Fragment {
             // Set the new layout and reset the adapter to force a refresh
             eventAdapter.setLayoutResource(R.layout.item_event_organizer);
             eventList.setAdapter(eventAdapter);
-            loadActiveOrganizerEvents();
+            showCurrentTab(true);
         });
 
         confirmedButton.setOnClickListener(v -> {
@@ -232,7 +237,7 @@ public class EventsFragment extends Fragment {
 
             eventAdapter.setLayoutResource(R.layout.item_event_confirmed_organizer);
             eventList.setAdapter(eventAdapter);
-            loadOrganizerEvents();
+            showCurrentTab(true);
         });
     }
 
@@ -245,7 +250,7 @@ public class EventsFragment extends Fragment {
                     if (isAdded() && !data.isEmpty()) {
                         currentUser = data.get(0);
                         eventAdapter.setCurrentUser(currentUser);
-                        loadOrganizerEvents();
+                        observeEvents(EventRepository.createdBy(currentUser.getId()));
                     } else {
                         Log.d("EventsFragment", "User not found in database.");
                     }
@@ -261,59 +266,6 @@ public class EventsFragment extends Fragment {
         }
     }
 
-    private void loadOrganizerEvents() {
-        if (currentUser == null) {
-            Log.d("EventsFragment", "User null, cannot load organizer events");
-            return;
-        }
-
-        fDatabase.queryEventsByCreator(currentUser.getId(), new FDatabase.DataCallback<Event>() {
-            @Override
-            public void onSuccess(ArrayList<Event> events) {
-                if (isAdded()) {
-                    updateEventList(events);
-                }
-            }
-
-            @Override
-            public void onFailure(Exception e) {
-                Log.e("EventsFragment", "Failed to load organizer events", e);
-                if (isAdded()) {
-                    Toast.makeText(getContext(), "Error loading your events.", Toast.LENGTH_SHORT).show();
-                }
-            }
-        });
-    }
-
-    private void loadActiveOrganizerEvents() {
-        if (currentUser == null) {
-            Log.d("EventsFragment", "User null");
-            return;
-        }
-
-        fDatabase.queryEventsByCreator(currentUser.getId(), new FDatabase.DataCallback<Event>() {
-            @Override
-            public void onSuccess(ArrayList<Event> events) {
-                if (isAdded()) {
-                    ArrayList<Event> activeEvents = new ArrayList<>();
-                    long currentTime = System.currentTimeMillis();
-
-                    for (Event event : events) {
-                        if (event.getDate() != null && event.getDate().getTime() > currentTime) {
-                            activeEvents.add(event);
-                        }
-                    }
-                    updateEventList(activeEvents);
-                }
-            }
-
-            @Override
-            public void onFailure(Exception e) {
-                Log.e("EventsFragment", "Failed to load active events", e);
-            }
-        });
-    }
-
     private void setupTabs(View root) {
         Button joinedButton = root.findViewById(R.id.joined_events_button);
         Button wishlistButton = root.findViewById(R.id.wishlist_events_button);
@@ -339,7 +291,7 @@ public class EventsFragment extends Fragment {
             wishlistButton.setTextColor(inactiveTextColor);
             invitsButton.setBackgroundColor(inactiveColor);
             invitsButton.setTextColor(inactiveTextColor);
-            loadEventsForTab();
+            showCurrentTab(true);
         });
 
         wishlistButton.setOnClickListener(v -> {
@@ -350,7 +302,7 @@ public class EventsFragment extends Fragment {
             joinedButton.setTextColor(inactiveTextColor);
             invitsButton.setBackgroundColor(inactiveColor);
             invitsButton.setTextColor(inactiveTextColor);
-            loadEventsForTab();
+            showCurrentTab(true);
         });
 
         invitsButton.setOnClickListener(v -> {
@@ -361,7 +313,7 @@ public class EventsFragment extends Fragment {
             wishlistButton.setTextColor(inactiveTextColor);
             joinedButton.setBackgroundColor(inactiveColor);
             joinedButton.setTextColor(inactiveTextColor);
-            loadEventsForTab();
+            showCurrentTab(true);
         });
     }
 
@@ -374,7 +326,7 @@ public class EventsFragment extends Fragment {
                     if (isAdded() && !data.isEmpty()) {
                         currentUser = data.get(0);
                         eventAdapter.setCurrentUser(currentUser);
-                        loadEventsForTab();
+                        observeEvents(EventRepository.ALL_EVENTS);
                     } else {
                         Log.d("EventsFragment", "User not found in database.");
                     }
@@ -390,53 +342,71 @@ public class EventsFragment extends Fragment {
         }
     }
 
-    private void loadEventsForTab() {
-        if (currentUser == null) {
-            Log.d("EventsFragment", "User null");
+    /**
+     * Observes a shared event stream and shows the current tab whenever it changes.
+     * Entrant tabs filter every event by membership; organizer tabs filter the organizer's own.
+     * Switching tabs re-filters the latest events instead of querying again.
+     * @param key The repository query key to observe.
+     */
+    private void observeEvents(String key) {
+        if (getView() == null) return;
+        EventRepository.QueryLiveData events = new ViewModelProvider(requireActivity())
+                .get(EventViewModel.class).getRepository().events(key);
+        events.observe(getViewLifecycleOwner(), data -> {
+            // Only the first delivery announces an empty tab; later ones are background changes
+            boolean firstDelivery = sourceEvents == null;
+            sourceEvents = new ArrayList<>(data);
+            showCurrentTab(firstDelivery);
+        });
+        events.getError().observe(getViewLifecycleOwner(), e -> {
+            if (e != null) {
+                Log.e("EventsFragment", "Failed to load events for key: " + key, e);
+                Toast.makeText(getContext(), "Error loading events.", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    /**
+     * Shows the latest events that belong in the selected tab.
+     * @param announceEmpty whether to tell the user when the tab is empty.
+     */
+    private void showCurrentTab(boolean announceEmpty) {
+        if (sourceEvents == null) {
+            // Still loading; the first delivery shows the selected tab
             return;
         }
-
-        fDatabase.getAllEvents(new FDatabase.DataCallback<Event>() {
-            @Override
-            public void onSuccess(ArrayList<Event> events) {
-                if (isAdded()) {
-                    ArrayList<Event> listToDisplay = new ArrayList<>();
-                    for (Event event : events) {
-                        boolean shouldInclude = false;
-                        switch (currentTab) {
-                            case JOINED:
-                                shouldInclude = event.entrantInList(currentUser.getId(), event.getJoinedList());
-                                break;
-                            case INVITATIONS:
-                                shouldInclude = event.entrantInList(currentUser.getId(), event.getInvitedList());
-                                break;
-                            case WISHLIST:
-                            default:
-                                shouldInclude = event.entrantInList(currentUser.getId(), event.getWaitingList());
-                                break;
-                        }
-                        if (shouldInclude) listToDisplay.add(event);
-                    }
-                    updateEventList(listToDisplay);
-                }
+        ArrayList<Event> listToDisplay = new ArrayList<>();
+        long currentTime = System.currentTimeMillis();
+        for (Event event : sourceEvents) {
+            if (belongsInCurrentTab(event, currentTime)) {
+                listToDisplay.add(event);
             }
+        }
+        updateEventList(listToDisplay, announceEmpty);
+    }
 
-            @Override
-            public void onFailure(Exception e) {
-                Log.e("EventsFragment", "Failed to load events for tab: " + currentTab, e);
-                if (isAdded()) {
-                    Toast.makeText(getContext(), "Error loading events.", Toast.LENGTH_SHORT).show();
-                }
+    private boolean belongsInCurrentTab(Event event, long currentTime) {
+        if (userRole != User.Role.ENTRANT) {
+            if (currentOrganizerTab == OrganizerTab.MY_EVENTS) {
+                return event.getDate() != null && event.getDate().getTime() > currentTime;
             }
-        });
+            return true;
+        }
+        switch (currentTab) {
+            case JOINED:
+                return event.entrantInList(currentUser.getId(), event.getJoinedList());
+            case INVITATIONS:
+                return event.entrantInList(currentUser.getId(), event.getInvitedList());
+            case WISHLIST:
+            default:
+                return event.entrantInList(currentUser.getId(), event.getWaitingList());
+        }
     }
 
-    private void updateEventList(ArrayList<Event> events) {
+    private void updateEventList(ArrayList<Event> events, boolean announceEmpty) {
         eventAdapter.clear();
-        if (events != null) {
-            eventAdapter.addAll(events);
-        }
-        if (events == null || events.isEmpty()) {
+        eventAdapter.addAll(events);
+        if (announceEmpty && events.isEmpty()) {
             Toast.makeText(getContext(), "No events found.", Toast.LENGTH_SHORT).show();
         }
     }
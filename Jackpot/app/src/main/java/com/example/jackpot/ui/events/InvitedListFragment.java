@@ -1,6 +1,7 @@
 package com.example.jackpot.ui.events;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,36 +12,45 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.jackpot.Event;
+import com.example.jackpot.EventViewModel;
 import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
-import com.example.jackpot.UserList;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Displays entrants who have been invited to an event.
  */
 public class InvitedListFragment extends Fragment {
+    private static final String ARG_EVENT_ID = "EVENT_ID";
+    private static final String ARG_EVENT_NAME = "EVENT_NAME";
+
+    private String eventId;
     private Event event;
     private InvitedManagementAdapter adapter;
 
     /**
-     * Factory to build a fragment with the event argument set.
-     * @param event Event whose invited users are managed here.
+     * Factory to build a fragment for an event. Only the id and name are stored in the
+     * arguments; the event itself is loaded when the view is created.
+     * @param eventId Id of the event whose invited users are managed here.
+     * @param eventName Name shown as the title until the event loads.
      * @return configured InvitedListFragment.
      */
-    public static InvitedListFragment newInstance(Event event) {
+    public static InvitedListFragment newInstance(String eventId, String eventName) {
         InvitedListFragment fragment = new InvitedListFragment();
         Bundle args = new Bundle();
-        args.putSerializable("event", event);
+        args.putString(ARG_EVENT_ID, eventId);
+        args.putString(ARG_EVENT_NAME, eventName);
         fragment.setArguments(args);
         return fragment;
     }
@@ -56,10 +66,6 @@ public class InvitedListFragment extends Fragment {
                              @Nullable Bundle savedInstanceState) {
         View root = inflater.inflate(R.layout.fragment_invited_list, container, false);
 
-        if (getArguments() != null) {
-            event = (Event) getArguments().getSerializable("event");
-        }
-
         TextView title = root.findViewById(R.id.event_title);
         RecyclerView recyclerView = root.findViewById(R.id.invited_recycler_view);
         Button backButton = root.findViewById(R.id.back_button);
@@ -67,28 +73,18 @@ public class InvitedListFragment extends Fragment {
         Button cancelButton = root.findViewById(R.id.button_replace_invites);
 
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        adapter = new InvitedManagementAdapter();
+        recyclerView.setAdapter(adapter);
 
-        if (event != null) {
-            title.setText(event.getName());
-            UserList invited = event.getInvitedList();
-            ArrayList<User> invitedUsers = extractUsers(invited);
-            if (invited != null) {
-                invited.setUsers(invitedUsers);
-            }
-            if (event.getCancelledList() != null) {
-                event.getCancelledList().setUsers(extractUsers(event.getCancelledList()));
-            }
-            adapter = new InvitedManagementAdapter(invitedUsers);
-            recyclerView.setAdapter(adapter);
+        if (getArguments() != null) {
+            eventId = getArguments().getString(ARG_EVENT_ID);
+            title.setText(getArguments().getString(ARG_EVENT_NAME));
         }
+        loadEvent(title);
 
         backButton.setOnClickListener(v -> requireActivity().getSupportFragmentManager().popBackStack());
 
-        selectAllButton.setOnClickListener(v -> {
-            if (adapter != null) {
-                adapter.toggleSelectAll();
-            }
-        });
+        selectAllButton.setOnClickListener(v -> adapter.toggleSelectAll());
 
         cancelButton.setOnClickListener(v -> replaceSelectedInvites());
 
@@ -96,94 +92,69 @@ public class InvitedListFragment extends Fragment {
     }
 
     /**
-     * Moves selected invitees to cancelled and backfills with draws from waiting list.
+     * Loads the event through the shared repository and shows its invited list.
+     * @param title view showing the event name.
      */
-    private void replaceSelectedInvites() {
-        if (adapter == null || event == null) {
-            return;
-        }
-        ArrayList<User> selected = adapter.getSelectedUsers();
-        if (selected.isEmpty()) {
-            Toast.makeText(getContext(), "No invitees selected", Toast.LENGTH_SHORT).show();
+    private void loadEvent(TextView title) {
+        if (eventId == null) {
+            Toast.makeText(getContext(), "Event data is missing.", Toast.LENGTH_SHORT).show();
             return;
         }
-
-        if (event.getInvitedList() == null) {
-            event.setInvitedList(new UserList(event.getCapacity()));
-        }
-        if (event.getCancelledList() == null) {
-            event.setCancelledList(new UserList(event.getCapacity()));
-        }
-
-        for (User user : selected) {
-            removeById(event.getInvitedList(), user.getId());
-            addIfMissing(event.getCancelledList(), user);
-        }
-
-        ArrayList<User> replacements = event.drawFromWaiting(selected.size());
-
-        FDatabase.getInstance().updateEvent(event);
-        adapter.removeUsers(selected);
-        adapter.addUsers(replacements);
-        Toast.makeText(getContext(), "Invite(s) replaced", Toast.LENGTH_SHORT).show();
+        new ViewModelProvider(requireActivity()).get(EventViewModel.class).getRepository()
+                .loadEvent(eventId, new FDatabase.EventCallback() {
+                    @Override
+                    public void onSuccess(Event loaded) {
+                        if (!isAdded()) {
+                            return;
+                        }
+                        event = loaded;
+                        title.setText(event.getName());
+                        adapter.setPager(EntrantPager.forStatus(event, Event.Status.INVITED));
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        Log.e("InvitedListFragment", "Failed to load event: " + error);
+                        if (isAdded() && event == null) {
+                            Toast.makeText(getContext(), "Failed to load event", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
     }
 
     /**
-     * Converts a UserList (which may contain raw map objects from Firestore) into concrete Users.
-     * @param list raw invited/cancelled list.
-     * @return list of concrete User models.
+     * Moves selected invitees to cancelled and backfills with draws from waiting list.
      */
-    private ArrayList<User> extractUsers(UserList list) {
-        ArrayList<User> users = new ArrayList<>();
-        if (list == null || list.getUsers() == null) {
-            return users;
+    private void replaceSelectedInvites() {
+        if (event == null) {
+            return;
         }
-
-        for (Object obj : list.getUsers()) {
-            if (obj instanceof User) {
-                users.add((User) obj);
-            } else if (obj instanceof HashMap) {
-                HashMap<String, Object> map = (HashMap<String, Object>) obj;
-                User user = new User();
-                user.setId((String) map.get("id"));
-                user.setName((String) map.get("name"));
-                user.setEmail((String) map.get("email"));
-                users.add(user);
-            }
+        EntrantSelection selection = adapter.getSelection();
+        List<String> invitedIds = new ArrayList<>(event.getInvitedCount());
+        for (User user : event.getInvitedList().getUsers()) {
+            invitedIds.add(user.getId());
         }
-        return users;
-    }
-
-    /** Removes a user with a matching id from the provided list, if present.
-     * @param list list to mutate.
-     * @param id user id to remove.
-     */
-    private void removeById(UserList list, String id) {
-        if (list == null || list.getUsers() == null) {
+        Set<String> selectedIds = selection.resolve(invitedIds);
+        if (selectedIds.isEmpty()) {
+            Toast.makeText(getContext(), "No invitees selected", Toast.LENGTH_SHORT).show();
             return;
         }
-        List<User> users = list.getUsers();
-        for (int i = users.size() - 1; i >= 0; i--) {
-            User user = users.get(i);
-            if (user != null && Objects.equals(user.getId(), id)) {
-                users.remove(i);
-            }
-        }
-    }
+        Event.ChangeSet cancelled = event.transition(selectedIds, Event.Status.INVITED, Event.Status.CANCELLED);
 
-    /** Adds a user if not already in the provided list (by id).
-     * @param list list to mutate.
-     * @param user user to add if missing.
-     */
-    private void addIfMissing(UserList list, User user) {
-        if (list == null || user == null) {
-            return;
+        ArrayList<User> replacements = event.drawFromWaiting(selectedIds.size());
+
+        // One set of fields for both moves, so they are written and counted together
+        Set<String> changedIds = new HashSet<>();
+        for (User user : cancelled.getMoved()) {
+            changedIds.add(user.getId());
         }
-        for (User existing : list.getUsers()) {
-            if (existing != null && Objects.equals(existing.getId(), user.getId())) {
-                return;
-            }
+        for (User user : replacements) {
+            changedIds.add(user.getId());
         }
-        list.add(user);
+        Map<String, Object> fields = event.membershipFields(changedIds);
+        FDatabase.getInstance().updateEventFields(event.getEventId(), fields);
+        selection.clear();
+        adapter.setPager(EntrantPager.forStatus(event, Event.Status.INVITED));
+        Toast.makeText(getContext(), "Invite(s) replaced", Toast.LENGTH_SHORT).show();
     }
 }
@@ -12,22 +12,13 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Objects;
-
 /**
  * Adapter used by organizers to review invited entrants and select which invitations to cancel.
+ * Rows are paged in from the event; the selection is kept by user id, so it survives paging.
  */
-public class InvitedManagementAdapter extends RecyclerView.Adapter<InvitedManagementAdapter.InvitedViewHolder> {
-
-    private final ArrayList<User> invitedUsers;
-    private final ArrayList<User> selectedUsers = new ArrayList<>();
+public class InvitedManagementAdapter extends PagedEntrantAdapter<InvitedManagementAdapter.InvitedViewHolder> {
 
-    public InvitedManagementAdapter(ArrayList<User> invitedUsers) {
-        this.invitedUsers = invitedUsers != null ? invitedUsers : new ArrayList<>();
-    }
+    private final EntrantSelection selection = new EntrantSelection();
 
     @NonNull
     @Override
@@ -39,94 +30,41 @@ public class InvitedManagementAdapter extends RecyclerView.Adapter<InvitedManage
 
     @Override
     public void onBindViewHolder(@NonNull InvitedViewHolder holder, int position) {
-        User user = invitedUsers.get(position);
+        User user = getUser(position);
+        holder.checkBox.setOnCheckedChangeListener(null);
+        if (user == null) {
+            // Placeholder until the row's page arrives
+            holder.nameView.setText("Loading…");
+            holder.emailView.setText("");
+            holder.checkBox.setChecked(false);
+            holder.checkBox.setEnabled(false);
+            return;
+        }
         holder.nameView.setText(user.getName() != null ? user.getName() : "Unnamed entrant");
         holder.emailView.setText(user.getEmail() != null ? user.getEmail() : "No email");
 
-        holder.checkBox.setOnCheckedChangeListener(null);
-        holder.checkBox.setChecked(isSelected(user));
-        holder.checkBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            if (isChecked) {
-                if (!isSelected(user)) {
-                    selectedUsers.add(user);
-                }
-            } else {
-                removeSelectedById(user.getId());
-            }
-        });
-    }
-
-    @Override
-    public int getItemCount() {
-        return invitedUsers.size();
+        holder.checkBox.setEnabled(true);
+        holder.checkBox.setChecked(selection.isSelected(user.getId()));
+        holder.checkBox.setOnCheckedChangeListener((buttonView, isChecked) ->
+                selection.setSelected(user.getId(), isChecked));
     }
 
-    public ArrayList<User> getSelectedUsers() {
-        return new ArrayList<>(selectedUsers);
+    /**
+     * Gets the checked entrants, by id.
+     * @return The live selection
+     */
+    public EntrantSelection getSelection() {
+        return selection;
     }
 
+    /**
+     * Checks every invited entrant, or unchecks them all if they already are.
+     */
     public void toggleSelectAll() {
-        if (selectedUsers.size() == invitedUsers.size()) {
-            selectedUsers.clear();
-        } else {
-            selectedUsers.clear();
-            selectedUsers.addAll(invitedUsers);
-        }
-        notifyDataSetChanged();
-    }
-
-    public void removeUsers(List<User> usersToRemove) {
-        if (usersToRemove == null || usersToRemove.isEmpty()) {
-            return;
-        }
-        Iterator<User> iterator = invitedUsers.iterator();
-        while (iterator.hasNext()) {
-            User user = iterator.next();
-            if (containsUser(usersToRemove, user)) {
-                iterator.remove();
-            }
-        }
-        for (User user : usersToRemove) {
-            removeSelectedById(user.getId());
-        }
-        notifyDataSetChanged();
-    }
-
-    public void addUsers(List<User> newUsers) {
-        if (newUsers == null || newUsers.isEmpty()) {
-            return;
-        }
-        for (User user : newUsers) {
-            if (!containsUser(invitedUsers, user)) {
-                invitedUsers.add(user);
-            }
-        }
+        selection.toggleAll(getListSize());
         notifyDataSetChanged();
     }
 
-    private boolean containsUser(List<User> list, User target) {
-        for (User user : list) {
-            if (Objects.equals(user.getId(), target.getId())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean isSelected(User user) {
-        return containsUser(selectedUsers, user);
-    }
-
-    private void removeSelectedById(String id) {
-        Iterator<User> iterator = selectedUsers.iterator();
-        while (iterator.hasNext()) {
-            User user = iterator.next();
-            if (Objects.equals(user.getId(), id)) {
-                iterator.remove();
-            }
-        }
-    }
-
     static class InvitedViewHolder extends RecyclerView.ViewHolder {
         TextView nameView;
         TextView emailView;
@@ -0,0 +1,81 @@
+package com.example.jackpot.ui.events;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.jackpot.User;
+
+/**
+ * Base for the organizer's entrant list adapters. Rows come from an {@link EntrantPager},
+ * so binding a row only needs its page; a null user is a row whose page has not arrived.
+ * @param <VH> The view holder type
+ */
+public abstract class PagedEntrantAdapter<VH extends RecyclerView.ViewHolder>
+        extends RecyclerView.Adapter<VH> implements EntrantPager.Listener {
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private EntrantPager pager;
+
+    /**
+     * Shows a new pager, e.g. after the list changed, and starts loading its first page.
+     * @param pager The pager to show, or null to show nothing
+     */
+    public void setPager(@Nullable EntrantPager pager) {
+        if (this.pager != null) {
+            this.pager.setListener(null);
+        }
+        this.pager = pager;
+        if (pager != null) {
+            pager.setListener(this);
+            pager.loadAround(0);
+        }
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Gets the entrant shown at a row.
+     * @param position The row
+     * @return The entrant, or null while its page loads
+     */
+    @Nullable
+    protected User getUser(int position) {
+        return pager != null ? pager.get(position) : null;
+    }
+
+    /**
+     * Gets the number of entrants on the list, including rows not loaded yet.
+     * @return The size of the list
+     */
+    protected int getListSize() {
+        return pager != null ? pager.size() : 0;
+    }
+
+    @Override
+    public int getItemCount() {
+        return pager != null ? pager.getItemCount() : 0;
+    }
+
+    // Pages may arrive while a row binds, so apply the change after the current layout,
+    // unless the pager was replaced in the meantime
+    @Override
+    public void onRangeChanged(int start, int count) {
+        EntrantPager source = pager;
+        mainHandler.post(() -> {
+            if (pager == source) {
+                notifyItemRangeChanged(start, count);
+            }
+        });
+    }
+
+    @Override
+    public void onRangeInserted(int start, int count) {
+        EntrantPager source = pager;
+        mainHandler.post(() -> {
+            if (pager == source) {
+                notifyItemRangeInserted(start, count);
+            }
+        });
+    }
+}
@@ -6,7 +6,6 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.TextView;
-import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
@@ -14,34 +13,28 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * An adapter for displaying a list of users in a RecyclerView.
- * Used in fragments like WaitingListFragment and CancelListFragment to show entrants.
+ * An adapter for displaying a paged list of users in a RecyclerView.
+ * Used in WaitingListFragment to show entrants.
  * Class functionality partially assisted by Gemini
  */
-public class UserArrayAdapter extends RecyclerView.Adapter<UserArrayAdapter.UserViewHolder> {
+public class UserArrayAdapter extends PagedEntrantAdapter<UserArrayAdapter.UserViewHolder> {
 
     public interface OnUserNotifyClickListener {
         void onNotifyClick(User user);
     }
 
-    private final ArrayList<User> userList;
     private final Context context;
     private final OnUserNotifyClickListener notifyClickListener;
 
     /**
-     * Constructs a UserArrayAdapter.
+     * Constructs a UserArrayAdapter. Rows are shown once a pager is set.
      * @param context The context from the calling fragment or activity.
-     * @param userList The list of users to display.
+     * @param notifyClickListener Called when a row's notify button is tapped.
      */
     public UserArrayAdapter(Context context,
-                            ArrayList<User> userList,
                             OnUserNotifyClickListener notifyClickListener) {
         this.context = context;
-        this.userList = userList;
         this.notifyClickListener = notifyClickListener;
     }
 
@@ -68,24 +61,21 @@ public class UserArrayAdapter extends RecyclerView.Adapter<UserArrayAdapter.User
      */
     @Override
     public void onBindViewHolder(@NonNull UserViewHolder holder, int position) {
-        User user = userList.get(position);
-        if (user != null) {
-            holder.attendeeName.setText(user.getName());
-            holder.notifyButton.setOnClickListener(v -> {
-                if (notifyClickListener != null) {
-                    notifyClickListener.onNotifyClick(user);
-                }
-            });
+        User user = getUser(position);
+        if (user == null) {
+            // Placeholder until the row's page arrives
+            holder.attendeeName.setText("Loading…");
+            holder.notifyButton.setEnabled(false);
+            holder.notifyButton.setOnClickListener(null);
+            return;
         }
-    }
-
-    /**
-     * Returns the total number of items in the data set held by the adapter.
-     * @return The total number of items in this adapter.
-     */
-    @Override
-    public int getItemCount() {
-        return userList != null ? userList.size() : 0;
+        holder.attendeeName.setText(user.getName());
+        holder.notifyButton.setEnabled(true);
+        holder.notifyButton.setOnClickListener(v -> {
+            if (notifyClickListener != null) {
+                notifyClickListener.onNotifyClick(user);
+            }
+        });
     }
 
     /**
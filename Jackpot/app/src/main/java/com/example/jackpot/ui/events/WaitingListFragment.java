@@ -13,11 +13,16 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.jackpot.Event;
+import com.example.jackpot.EventViewModel;
+import com.example.jackpot.FDatabase;
+import com.example.jackpot.LifecycleFutures;
+import com.example.jackpot.Membership;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
 import com.google.firebase.firestore.FieldValue;
@@ -25,13 +30,17 @@ import com.google.firebase.firestore.GeoPoint;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Displays the waiting list for an event so organizers can view and notify entrants.
  */
 public class WaitingListFragment extends Fragment {
+    private static final String ARG_EVENT_ID = "EVENT_ID";
+    private static final String ARG_EVENT_NAME = "EVENT_NAME";
+
+    private String eventId;
     private Event event;
     private RecyclerView recyclerView;
     private TextView eventTitle;
@@ -39,17 +48,21 @@ public class WaitingListFragment extends Fragment {
     private Button backButton;
     private Button notifyAllButton;
     private UserArrayAdapter adapter;
-    private ArrayList<User> waitingListUsers = new ArrayList<>();
+    // Includes the sharded waiting list, which is kept outside the event document
+    private int waitingCount;
 
     /**
-     * Factory to create the fragment with the target event bundled.
-     * @param event Event whose waiting list will be shown.
+     * Factory to create the fragment for the target event. Only the id and name are stored in
+     * the arguments; the event itself is loaded when the view is created.
+     * @param eventId Id of the event whose waiting list will be shown.
+     * @param eventName Name shown as the title until the event loads.
      * @return configured fragment instance.
      */
-    public static WaitingListFragment newInstance(Event event) {
+    public static WaitingListFragment newInstance(String eventId, String eventName) {
         WaitingListFragment fragment = new WaitingListFragment();
         Bundle args = new Bundle();
-        args.putSerializable("event", event);
+        args.putString(ARG_EVENT_ID, eventId);
+        args.putString(ARG_EVENT_NAME, eventName);
         fragment.setArguments(args);
         return fragment;
     }
@@ -66,11 +79,6 @@ public class WaitingListFragment extends Fragment {
                              @Nullable Bundle savedInstanceState) {
         View root = inflater.inflate(R.layout.fragment_waiting_list, container, false);
 
-        // Get event from arguments
-        if (getArguments() != null) {
-            event = (Event) getArguments().getSerializable("event");
-        }
-
         // Initialize views
         eventTitle = root.findViewById(R.id.event_title);
 //        eventImage = root.findViewById(R.id.event_image);
@@ -78,50 +86,17 @@ public class WaitingListFragment extends Fragment {
         backButton = root.findViewById(R.id.back_button);
         notifyAllButton = root.findViewById(R.id.notify_all_button);
 
-        // Setup RecyclerView
+        // Setup RecyclerView; rows are paged in once the event loads
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        adapter = new UserArrayAdapter(requireContext(), user -> showCustomMessageDialogForUser(user));
+        recyclerView.setAdapter(adapter);
 
-        // Set event details and populate the list
-        if (event != null) {
-            eventTitle.setText(event.getName());
-
-//            if (event.getPosterUri() != null && !event.getPosterUri().isEmpty()) {
-//                Glide.with(this).load(event.getPosterUri()).into(eventImage);
-//            }
-
-            // Manually convert Firestore's list of HashMaps into a list of User objects
-            waitingListUsers = new ArrayList<>();
-            if (event.getWaitingList() != null && event.getWaitingList().getUsers() != null) {
-                for (Object obj : event.getWaitingList().getUsers()) {
-                    if (obj instanceof HashMap) {
-                        try {
-                            HashMap<String, Object> map = (HashMap<String, Object>) obj;
-                            User user = new User();
-                            user.setId((String) map.get("id"));
-                            user.setName((String) map.get("name"));
-                            user.setEmail((String) map.get("email"));
-                            // Add any other fields you need for the User object here
-                            waitingListUsers.add(user);
-                        } catch (Exception e) {
-                            Log.e("WaitingListFragment", "Failed to convert HashMap to User", e);
-                        }
-                    } else if (obj instanceof User) {
-                        waitingListUsers.add((User) obj);
-                    }
-                }
-            }
-
-            // Now pass the correctly typed list to the adapter
-            adapter = new UserArrayAdapter(
-                    requireContext(),
-                    waitingListUsers,
-                    user -> showCustomMessageDialogForUser(user)
-            );
-            recyclerView.setAdapter(adapter);
-
-        } else {
-            Toast.makeText(getContext(), "Event data is missing.", Toast.LENGTH_SHORT).show();
+        // Get the event id from arguments; the title shows the passed name until the event loads
+        if (getArguments() != null) {
+            eventId = getArguments().getString(ARG_EVENT_ID);
+            eventTitle.setText(getArguments().getString(ARG_EVENT_NAME));
         }
+        loadEvent();
 
         // Back button
         backButton.setOnClickListener(v -> {
@@ -130,7 +105,7 @@ public class WaitingListFragment extends Fragment {
 
         // Notify all button
         notifyAllButton.setOnClickListener(v -> {
-            if (waitingListUsers == null || waitingListUsers.isEmpty()) {
+            if (event == null || waitingCount == 0) {
                 Toast.makeText(requireContext(),
                         "No entrants on the waiting list",
                         Toast.LENGTH_SHORT).show();
@@ -142,12 +117,71 @@ public class WaitingListFragment extends Fragment {
         return root;
     }
 
+    /**
+     * Loads the event through the shared repository and shows its waiting list.
+     */
+    private void loadEvent() {
+        if (eventId == null) {
+            Toast.makeText(getContext(), "Event data is missing.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        new ViewModelProvider(requireActivity()).get(EventViewModel.class).getRepository()
+                .loadEvent(eventId, new FDatabase.EventCallback() {
+                    @Override
+                    public void onSuccess(Event loaded) {
+                        if (!isAdded()) {
+                            return;
+                        }
+                        event = loaded;
+                        eventTitle.setText(event.getName());
+                        adapter.setPager(EntrantPager.forStatus(event, Event.Status.WAITING));
+                        waitingCount = event.getWaitingCount();
+                        if (event.getAdmissionShards() > 0) {
+                            loadShardedEntrants(event);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        Log.e("WaitingListFragment", "Failed to load event: " + error);
+                        if (isAdded() && event == null) {
+                            Toast.makeText(getContext(), "Failed to load event", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Adds the sharded waiting list of a high-demand event after the entrants on the event
+     * document, so the organizer sees and can notify everyone waiting.
+     */
+    private void loadShardedEntrants(Event loaded) {
+        if (getView() == null) {
+            return;
+        }
+        LifecycleFutures.observe(getViewLifecycleOwner(),
+                FDatabase.getInstance().getShardedWaitingEntrantsAsync(eventId),
+                entrants -> {
+                    if (event != loaded) {
+                        return;
+                    }
+                    List<User> users = new ArrayList<>(entrants.size());
+                    for (Membership membership : entrants) {
+                        users.add(membership.getUser());
+                    }
+                    EntrantPager pager = EntrantPager.forStatus(loaded, Event.Status.WAITING, users);
+                    waitingCount = pager.size();
+                    adapter.setPager(pager);
+                },
+                error -> Log.e("WaitingListFragment", "Failed to load sharded waiting list", error));
+    }
+
     /**
      * Sends notifications to all entrants on the waiting list.
      * Implements US 02.07.01
      */
     private void sendWaitingListNotifications(Event event, String customMessage) {
-        if (waitingListUsers == null || waitingListUsers.isEmpty()) {
+        if (waitingCount == 0) {
             Toast.makeText(getContext(), "No entrants to notify", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -155,33 +189,29 @@ public class WaitingListFragment extends Fragment {
         // Build the notification payload with all required information
         String payload = buildWaitingListPayload(event, customMessage);
 
-        int notificationCount = 0;
-
-        // Send notification to each user on the waiting list
-        for (User user : waitingListUsers) {
-            if (user != null && user.getId() != null) {
-                createNotification(
-                        UUID.randomUUID().toString(),
-                        user.getId(),
-                        event.getEventId(),
-                        "WAITING_LIST_UPDATE",
-                        payload,
-                        event.getCreatedBy()
-                );
-                notificationCount++;
-            }
-        }
+        // Stored once on the event; each entrant on the waiting list reads it from their inbox
+        int recipientCount = waitingCount;
+        FDatabase.getInstance().sendBroadcast(event, "waitingList", "WAITING_LIST_UPDATE", payload,
+                new FDatabase.StatusCallback() {
+                    @Override
+                    public void onSuccess() {
+                        // Show success message toast to organizer
+                        if (isAdded()) {
+                            Toast.makeText(getContext(),
+                                    "Sent notifications to " + recipientCount + " entrant(s) on the waiting list",
+                                    Toast.LENGTH_LONG).show();
+                        }
+                    }
 
-        // Show success message toast to organizer
-        if (notificationCount > 0) {
-            Toast.makeText(getContext(),
-                    "Sent notifications to " + notificationCount + " entrant(s) on the waiting list",
-                    Toast.LENGTH_LONG).show();
-        } else {
-            Toast.makeText(getContext(),
-                    "Failed to send notifications",
-                    Toast.LENGTH_SHORT).show();
-        }
+                    @Override
+                    public void onFailure(String error) {
+                        if (isAdded()) {
+                            Toast.makeText(getContext(),
+                                    "Failed to send notifications",
+                                    Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
     }
 
     private static final int MAX_MESSAGE_WORDS = 15;
@@ -343,6 +373,7 @@ public class WaitingListFragment extends Fragment {
                 java.util.UUID.randomUUID().toString(),
                 user.getId(),
                 event.getEventId(),
+                event.getName(),
                 "WAITING_LIST_UPDATE",
                 payload,
                 event.getCreatedBy()
@@ -372,11 +403,14 @@ public class WaitingListFragment extends Fragment {
      * Creates a notification document and saves it to Firebase.
      */
     private void createNotification(String notificationID, String recipientID, String eventID,
-                                    String notifType, String payload, String organizerID) {
+                                    String eventName, String notifType, String payload,
+                                    String organizerID) {
         Map<String, Object> notificationDoc = new HashMap<>();
         notificationDoc.put("notificationID", notificationID);
         notificationDoc.put("recipientID", recipientID);
         notificationDoc.put("eventID", eventID);
+        // Snapshot display fields so notification screens don't read the event per row
+        notificationDoc.put("eventName", eventName);
         notificationDoc.put("notifType", notifType);
         notificationDoc.put("payload", payload);
         notificationDoc.put("organizerID", organizerID);
@@ -17,16 +17,21 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.jackpot.Event;
 import com.example.jackpot.EventArrayAdapter;
 import com.example.jackpot.EventList;
+import com.example.jackpot.EventRepository;
+import com.example.jackpot.EventViewModel;
 import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
 import com.example.jackpot.UserList;
+import com.example.jackpot.ViewportPrefetcher;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.GeoPoint;
 
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -45,15 +50,22 @@ import java.util.stream.Collectors;
  *  - Inflate entrant/organizer/admin home layout based on role.
  *  - Fetch current user, load events, and bind to list with search/filters/history.
  *  - Provide category/date/location/history filters and search.
+ *  - Show events near the user's saved location via a geohash radius query.
+ *  - Prefetch details and images for rows that stay on screen.
  */
 public class HomeFragment extends Fragment {
 
+    private static final double NEARBY_RADIUS_KM = 25.0;
+
     private ListView eventList;
     private EventArrayAdapter eventAdapter;
     private FDatabase fDatabase = FDatabase.getInstance();
     private User currentUser;
     private EventList dataList = new EventList(new ArrayList<>());
     private SearchView searchView;
+    // Whether the unfiltered list is shown, so live updates don't replace a filtered view
+    private boolean showingAll = true;
+    private ViewportPrefetcher prefetcher;
 
     // From OpenAI, ChatGPT (GPT-5 Thinking), "ListenerRegistration field for live updates from Firestore (events collection)", 2025-11-07
     private com.google.firebase.firestore.ListenerRegistration eventsReg;
@@ -111,6 +123,8 @@ public class HomeFragment extends Fragment {
         eventAdapter = new EventArrayAdapter(requireActivity(), new ArrayList<>(),
                 eventItemLayoutResource, EventArrayAdapter.ViewType.HOME, null);
         eventList.setAdapter(eventAdapter);
+        // Warm the details screen for rows the user lingers on
+        prefetcher = ViewportPrefetcher.attach(eventList);
 
         searchView = root.findViewById(R.id.searchView);
 
@@ -122,25 +136,37 @@ public class HomeFragment extends Fragment {
     }
 
     /**
-     * Fetches all events from the database and updates the UI.
+     * Observes every event through the activity's shared repository and updates the UI.
+     * The stream outlives this view, so returning to the screen or rotating reuses it,
+     * and later changes only replace the list while no filter is applied.
      */
     private void loadEvents() {
-        fDatabase.getAllEvents(new FDatabase.DataCallback<Event>() {
-            @Override
-            public void onSuccess(ArrayList<Event> data) {
-                if (isAdded()) {
-                    dataList.getEvents().clear();
-                    dataList.getEvents().addAll(data);
-                    updateEventList(dataList.getEvents());
-                }
+        if (!isAdded() || getView() == null) return;
+        EventRepository.QueryLiveData events = new ViewModelProvider(requireActivity())
+                .get(EventViewModel.class).getRepository().events(EventRepository.ALL_EVENTS);
+        events.observe(getViewLifecycleOwner(), data -> {
+            dataList.getEvents().clear();
+            dataList.getEvents().addAll(data);
+            if (showingAll) {
+                updateEventList(dataList.getEvents());
             }
-            @Override
-            public void onFailure(Exception e) {
+        });
+        events.getError().observe(getViewLifecycleOwner(), e -> {
+            if (e != null) {
                 Log.e("HomeFragment", "Failed to load events", e);
             }
         });
     }
 
+    @Override
+    public void onDestroyView() {
+        if (prefetcher != null) {
+            prefetcher.detach();
+            prefetcher = null;
+        }
+        super.onDestroyView();
+    }
+
     /**
      * Fetches the current user from Firebase and then loads all events.
      * The user object is passed to the adapter to enable role-specific UI elements.
@@ -333,10 +359,46 @@ public class HomeFragment extends Fragment {
             }
         });
 
+        builder.setNeutralButton("Near me", (dialog, which) -> showNearbyEvents());
         builder.setNegativeButton("Cancel", (dialog, which) -> dialog.cancel());
         builder.show();
     }
 
+    /**
+     * Shows events within {@link #NEARBY_RADIUS_KM} of the user's saved location, nearest first.
+     * Only events in the surrounding geohash cells are read.
+     */
+    private void showNearbyEvents() {
+        GeoPoint geoPoint = currentUser != null ? currentUser.getGeoPoint() : null;
+        // (0,0) means location sharing is turned off
+        if (geoPoint == null || (geoPoint.getLatitude() == 0.0 && geoPoint.getLongitude() == 0.0)) {
+            Toast.makeText(getContext(), "Turn on location to see events near you", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        fDatabase.queryEventsNear(geoPoint.getLatitude(), geoPoint.getLongitude(), NEARBY_RADIUS_KM,
+                new FDatabase.DataCallback<Event>() {
+                    @Override
+                    public void onSuccess(ArrayList<Event> data) {
+                        if (!isAdded()) return;
+                        updateEventList(data);
+                        if (data.isEmpty()) {
+                            Toast.makeText(getContext(), "No events found near you", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(getContext(), "Showing events within " + (int) NEARBY_RADIUS_KM + " km", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        Log.e("HomeFragment", "Failed to load nearby events", e);
+                        if (isAdded()) {
+                            Toast.makeText(getContext(), "Failed to load nearby events", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
+    }
+
     /**
      * Updates the event list adapter with a new list of events.
      * @param events The new list of events to display.
@@ -351,6 +413,7 @@ public class HomeFragment extends Fragment {
      * @param interactionLabels Map of eventId -> label describing user interaction.
      */
     private void updateEventList(ArrayList<Event> events, Map<String, String> interactionLabels) {
+        showingAll = events == dataList.getEvents();
         if (eventAdapter != null) {
             eventAdapter.setInteractionLabels(interactionLabels);
             eventAdapter.clear();
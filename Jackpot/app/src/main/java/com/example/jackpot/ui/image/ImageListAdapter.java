@@ -12,6 +12,7 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.storage.FirebaseStorage;
@@ -49,10 +50,10 @@ public class ImageListAdapter extends RecyclerView.Adapter<ImageListAdapter.View
         String uploaderId = image.getUploadedBy();
 
         // Get email from Firestore
-        FirebaseFirestore.getInstance()
-                .collection("users")
-                .document(uploaderId)
-                .get()
+        FDatabase.getInstance().trackRead("users", FirebaseFirestore.getInstance()
+                        .collection("users")
+                        .document(uploaderId)
+                        .get())
                 .addOnSuccessListener(doc -> {
                     if (doc.exists()) {
                         String email = doc.getString("email");
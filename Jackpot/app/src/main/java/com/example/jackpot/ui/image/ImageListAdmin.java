@@ -14,8 +14,10 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.storage.FirebaseStorage;
@@ -72,8 +74,8 @@ public class ImageListAdmin extends Fragment {
     /** Loads non-QR images (and profile images) from Firestore into the adapter. */
     private void loadImages() {
         allImages.clear();  // clear old data
-        db.collection("images")
-                .get()
+        FDatabase fDatabase = FDatabase.getInstance();
+        fDatabase.trackRead("images", db.collection("images").get())
                 .addOnSuccessListener(querySnapshot -> {
                     for (QueryDocumentSnapshot doc : querySnapshot) {
                         Image image = doc.toObject(Image.class);
@@ -85,8 +87,7 @@ public class ImageListAdmin extends Fragment {
 
                         allImages.add(image);
                     }
-                    db.collection("users")
-                            .get()
+                    fDatabase.trackRead("users", db.collection("users").get())
                             .addOnSuccessListener(userSnapshot -> {
                                 for (QueryDocumentSnapshot userDoc : userSnapshot) {
                                     String profileUrl = userDoc.getString("profileImageUrl");
@@ -121,9 +122,9 @@ public class ImageListAdmin extends Fragment {
             String imageUrl = image.getImageUrl();
 
             // Delete Firestore document by field match
-            firestore.collection("images")
-                    .whereEqualTo("imageID", imageId)
-                    .get()
+            FDatabase.getInstance().trackRead("images", firestore.collection("images")
+                            .whereEqualTo("imageID", imageId)
+                            .get())
                     .addOnSuccessListener(querySnapshot -> {
                         for (DocumentSnapshot doc : querySnapshot) {
                             // DELETE THE IMAGE DOCUMENT
@@ -161,9 +162,9 @@ public class ImageListAdmin extends Fragment {
             }
 
             // Reset USER profile images if matched
-            firestore.collection("users")
-                    .whereEqualTo("profileImageUrl", imageUrl)
-                    .get()
+            FDatabase.getInstance().trackRead("users", firestore.collection("users")
+                            .whereEqualTo("profileImageUrl", imageUrl)
+                            .get())
                     .addOnSuccessListener(userSnapshot -> {
                         for (DocumentSnapshot userDoc : userSnapshot) {
                             userDoc.getReference().update("profileImageUrl", "default");
@@ -184,6 +185,15 @@ public class ImageListAdmin extends Fragment {
                                     Log.d("EventUpdate", "Cleared poster for event " + eventId));
                 }
 
+                // If this is a QR CODE; the details screen falls back to the placeholder
+                if (Image.TYPE_QR_CODE.equals(image.getImageType())) {
+                    firestore.collection("events")
+                            .document(eventId)
+                            .update("qrCodeImage", FieldValue.delete())
+                            .addOnSuccessListener(a ->
+                                    Log.d("EventUpdate", "Cleared QR code for event " + eventId));
+                }
+
             }
             Toast.makeText(requireContext(), "Selected images deleted", Toast.LENGTH_SHORT).show();
         }
@@ -12,6 +12,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.app.ActivityCompat;
 import androidx.fragment.app.Fragment;
+import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationServices;
@@ -76,7 +77,7 @@ public class LocationFragment extends Fragment {
 
     /** Loads the current geoPoint from Firestore and updates the switch state. */
     private void loadCurrentLocationStatus() {
-        db.collection("users").document(uid).get()
+        FDatabase.getInstance().trackRead("users", db.collection("users").document(uid).get())
                 .addOnSuccessListener(doc -> {
                     if (doc.exists()) {
                         GeoPoint gp = doc.getGeoPoint("geoPoint");
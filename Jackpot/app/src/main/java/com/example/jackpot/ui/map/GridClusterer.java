@@ -0,0 +1,212 @@
+package com.example.jackpot.ui.map;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Grid-based point clustering for the entrant map.
+ *
+ * Coordinates are kept in primitive double arrays and projected to Web Mercator once, so
+ * re-clustering for a new zoom level or viewport is a single pass with no per-point objects.
+ * Pure Java, so it can run on a background thread and be unit tested.
+ */
+public class GridClusterer {
+
+    /** Approximate on-screen size of one grid cell, in pixels. */
+    public static final int DEFAULT_CELL_PIXELS = 64;
+    private static final double TILE_PIXELS = 256.0;
+    private static final double MAX_MERCATOR_LAT = 85.05112878;
+
+    private final double[] lats;
+    private final double[] lons;
+    private final double[] mercX;
+    private final double[] mercY;
+    private final int size;
+    private final int cellPixels;
+    private double north = -90, south = 90, east = -180, west = 180;
+
+    /**
+     * Creates a clusterer over the first {@code count} coordinates.
+     * @param lats latitudes in degrees.
+     * @param lons longitudes in degrees.
+     * @param count number of points to use from the arrays.
+     * @param cellPixels on-screen grid cell size in pixels.
+     */
+    public GridClusterer(double[] lats, double[] lons, int count, int cellPixels) {
+        if (lats.length < count || lons.length < count) {
+            throw new IllegalArgumentException("Coordinate arrays are shorter than count");
+        }
+        if (cellPixels <= 0) {
+            throw new IllegalArgumentException("cellPixels must be positive");
+        }
+        this.lats = lats;
+        this.lons = lons;
+        this.size = count;
+        this.cellPixels = cellPixels;
+        this.mercX = new double[count];
+        this.mercY = new double[count];
+        for (int i = 0; i < count; i++) {
+            mercX[i] = (lons[i] + 180.0) / 360.0;
+            double lat = Math.max(-MAX_MERCATOR_LAT, Math.min(MAX_MERCATOR_LAT, lats[i]));
+            double sin = Math.sin(Math.toRadians(lat));
+            mercY[i] = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+
+            north = Math.max(north, lats[i]);
+            south = Math.min(south, lats[i]);
+            east = Math.max(east, lons[i]);
+            west = Math.min(west, lons[i]);
+        }
+    }
+
+    /**
+     * Number of points being clustered.
+     * @return the point count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Bounds of all points, computed once.
+     * @return {north, south, east, west} in degrees.
+     */
+    public double[] getBounds() {
+        return new double[]{north, south, east, west};
+    }
+
+    /**
+     * Clusters every point for a zoom level.
+     * @param zoom map zoom level.
+     * @return the clusters.
+     */
+    public Clusters cluster(double zoom) {
+        return cluster(zoom, 90, -90, 180, -180);
+    }
+
+    /**
+     * Clusters the points inside a viewport for a zoom level.
+     * Points are bucketed into square grid cells of {@code cellPixels} at that zoom;
+     * each non-empty cell becomes one cluster placed at the mean of its points.
+     * @param zoom map zoom level.
+     * @param north northern edge of the viewport.
+     * @param south southern edge of the viewport.
+     * @param east eastern edge of the viewport.
+     * @param west western edge of the viewport.
+     * @return the clusters.
+     */
+    public Clusters cluster(double zoom, double north, double south, double east, double west) {
+        double cellsPerWorld = Math.max(1.0, Math.pow(2, Math.floor(zoom)) * TILE_PIXELS / cellPixels);
+        long cellsPerRow = (long) Math.ceil(cellsPerWorld);
+        boolean wrapsDateLine = west > east;
+
+        Map<Long, Integer> slotByCell = new HashMap<>();
+        double[] sumLat = new double[16];
+        double[] sumLon = new double[16];
+        int[] counts = new int[16];
+        int[] firstIndex = new int[16];
+        int clusters = 0;
+
+        for (int i = 0; i < size; i++) {
+            double lat = lats[i];
+            double lon = lons[i];
+            if (lat > north || lat < south) continue;
+            if (wrapsDateLine ? (lon > east && lon < west) : (lon > east || lon < west)) continue;
+
+            long cx = Math.min(cellsPerRow - 1, (long) (mercX[i] * cellsPerWorld));
+            long cy = Math.min(cellsPerRow - 1, (long) (mercY[i] * cellsPerWorld));
+            long key = cy * cellsPerRow + cx;
+
+            Integer slot = slotByCell.get(key);
+            if (slot == null) {
+                slot = clusters++;
+                if (slot == counts.length) {
+                    int grown = counts.length * 2;
+                    sumLat = Arrays.copyOf(sumLat, grown);
+                    sumLon = Arrays.copyOf(sumLon, grown);
+                    counts = Arrays.copyOf(counts, grown);
+                    firstIndex = Arrays.copyOf(firstIndex, grown);
+                }
+                slotByCell.put(key, slot);
+                firstIndex[slot] = i;
+            }
+            sumLat[slot] += lat;
+            sumLon[slot] += lon;
+            counts[slot]++;
+        }
+
+        double[] centerLat = new double[clusters];
+        double[] centerLon = new double[clusters];
+        for (int c = 0; c < clusters; c++) {
+            centerLat[c] = sumLat[c] / counts[c];
+            centerLon[c] = sumLon[c] / counts[c];
+        }
+        return new Clusters(clusters, centerLat, centerLon,
+                Arrays.copyOf(counts, clusters), Arrays.copyOf(firstIndex, clusters));
+    }
+
+    /**
+     * Result of one clustering pass, stored as parallel primitive arrays.
+     */
+    public static class Clusters {
+        private final int size;
+        private final double[] lats;
+        private final double[] lons;
+        private final int[] counts;
+        private final int[] firstIndex;
+
+        Clusters(int size, double[] lats, double[] lons, int[] counts, int[] firstIndex) {
+            this.size = size;
+            this.lats = lats;
+            this.lons = lons;
+            this.counts = counts;
+            this.firstIndex = firstIndex;
+        }
+
+        /** @return number of clusters. */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param cluster cluster index.
+         * @return mean latitude of the cluster's points.
+         */
+        public double getLat(int cluster) {
+            return lats[cluster];
+        }
+
+        /**
+         * @param cluster cluster index.
+         * @return mean longitude of the cluster's points.
+         */
+        public double getLon(int cluster) {
+            return lons[cluster];
+        }
+
+        /**
+         * @param cluster cluster index.
+         * @return number of points in the cluster.
+         */
+        public int getCount(int cluster) {
+            return counts[cluster];
+        }
+
+        /**
+         * @param cluster cluster index.
+         * @return index of the first point bucketed into the cluster, e.g. to label single points.
+         */
+        public int getFirstIndex(int cluster) {
+            return firstIndex[cluster];
+        }
+
+        /** @return total number of points across all clusters. */
+        public int totalPoints() {
+            int total = 0;
+            for (int c = 0; c < size; c++) {
+                total += counts[c];
+            }
+            return total;
+        }
+    }
+}
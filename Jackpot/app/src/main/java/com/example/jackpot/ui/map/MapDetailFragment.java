@@ -1,6 +1,14 @@
 package com.example.jackpot.ui.map;
 
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -14,25 +22,39 @@ import androidx.fragment.app.Fragment;
 
 import com.example.jackpot.Event;
 import com.example.jackpot.FDatabase;
+import com.example.jackpot.JoinLocation;
+import com.example.jackpot.LifecycleFutures;
+import com.example.jackpot.Membership;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
 
 import org.osmdroid.api.IMapController;
 import org.osmdroid.config.Configuration;
+import org.osmdroid.events.DelayedMapListener;
+import org.osmdroid.events.MapListener;
+import org.osmdroid.events.ScrollEvent;
+import org.osmdroid.events.ZoomEvent;
 import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
 import org.osmdroid.util.BoundingBox;
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
+import org.osmdroid.views.overlay.FolderOverlay;
 import org.osmdroid.views.overlay.Marker;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * MapDetailFragment using osmdroid to display user locations on OpenStreetMap.
  *
  * Responsibilities:
  *  - Load event details and waiting list user locations.
- *  - Fetch full user records for geo points and render markers.
+ *  - Read entrant join locations from the event document and render clustered markers.
+ *  - Re-cluster on a background thread whenever the zoom level or viewport changes.
  *  - Provide back navigation and default map fallback when no data.
  */
 public class MapDetailFragment extends Fragment {
@@ -53,6 +75,15 @@ public class MapDetailFragment extends Fragment {
     private MapView mapView;
     private IMapController mapController;
 
+    private static final long RECLUSTER_DELAY_MS = 150;
+    private final ExecutorService clusterExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Drawable> clusterIcons = new HashMap<>();
+    private FolderOverlay clusterOverlay;
+    private GridClusterer clusterer;
+    private String[] pointLabels;
+    private int clusterGeneration = 0;
+
     public MapDetailFragment() {}
 
     public static MapDetailFragment newInstance(String eventId, String eventName) {
@@ -111,6 +142,23 @@ public class MapDetailFragment extends Fragment {
         mapController = mapView.getController();
         mapController.setZoom(13.0);
 
+        // Markers live in their own folder so re-clustering only replaces them
+        clusterOverlay = new FolderOverlay();
+        mapView.getOverlays().add(clusterOverlay);
+        mapView.addMapListener(new DelayedMapListener(new MapListener() {
+            @Override
+            public boolean onScroll(ScrollEvent event) {
+                requestRecluster();
+                return false;
+            }
+
+            @Override
+            public boolean onZoom(ZoomEvent event) {
+                requestRecluster();
+                return false;
+            }
+        }, RECLUSTER_DELAY_MS));
+
         // Set default center (Edmonton)
         GeoPoint startPoint = new GeoPoint(53.5461, -113.4938);
         mapController.setCenter(startPoint);
@@ -149,22 +197,18 @@ public class MapDetailFragment extends Fragment {
                 currentEvent = event;
                 Log.d(TAG, "Event loaded: " + currentEvent.getName());
 
-                if (event.getWaitingList() != null &&
-                        event.getWaitingList().getUsers() != null &&
-                        !event.getWaitingList().getUsers().isEmpty()) {
-
-                    ArrayList<User> waitingListUsers = event.getWaitingList().getUsers();
-                    Log.d(TAG, "Found " + waitingListUsers.size() + " users in waiting list");
-                    loadUsersFromFirestore(waitingListUsers);
-
+                if (event.getAdmissionShards() > 0) {
+                    if (getView() == null) return;
+                    // High-demand events keep most of their waiting list in shard documents
+                    LifecycleFutures.observe(getViewLifecycleOwner(),
+                            fDatabase.getShardedWaitingEntrantsAsync(eventId),
+                            entrants -> showWaitingList(event, entrants),
+                            error -> {
+                                Log.e(TAG, "Failed to load sharded waiting list", error);
+                                showWaitingList(event, new ArrayList<>());
+                            });
                 } else {
-                    if (isAdded()) {
-                        userCountText.setText("0 users with locations");
-                        Toast.makeText(getContext(),
-                                "No users on waiting list",
-                                Toast.LENGTH_SHORT).show();
-                        showDefaultMap();
-                    }
+                    showWaitingList(event, new ArrayList<>());
                 }
             }
 
@@ -181,191 +225,248 @@ public class MapDetailFragment extends Fragment {
         });
     }
 
-    /** Fetches full user data from Firestore for all users in waiting list.
-     * @param waitingListUsers users from waiting list to resolve.
+    /**
+     * Shows the waiting list of an event on the map, or the default map if nobody is waiting.
+     * @param event event whose waiting list is shown.
+     * @param sharded entrants on the event's sharded waiting list, empty if it has none.
      */
-    private void loadUsersFromFirestore(ArrayList<User> waitingListUsers) {
-        if (waitingListUsers == null || waitingListUsers.isEmpty()) {
-            showDefaultMap();
-            return;
+    private void showWaitingList(Event event, List<Membership> sharded) {
+        if (!isAdded()) return;
+        List<Membership> waiting = new ArrayList<>();
+        for (User user : event.getWaitingList().getUsers()) {
+            waiting.add(event.getMembership(user.getId()));
         }
+        waiting.addAll(sharded);
 
-        ArrayList<User> usersWithLocations = new ArrayList<>();
-        final int totalUsers = waitingListUsers.size();
-        final int[] loadedCount = {0};
-
-        for (User waitingUser : waitingListUsers) {
-            if (waitingUser.getId() == null) {
-                loadedCount[0]++;
-                continue;
-            }
-
-            fDatabase.getUserById(waitingUser.getId(), new FDatabase.DataCallback<User>() {
-                @Override
-                public void onSuccess(ArrayList<User> userData) {
-                    if (!isAdded()) return;
-
-                    if (!userData.isEmpty()) {
-                        User fullUser = userData.get(0);
-
-                        if (fullUser.getGeoPoint() != null) {
-                            double lat = fullUser.getGeoPoint().getLatitude();
-                            double lon = fullUser.getGeoPoint().getLongitude();
-
-                            // Only add if coordinates are valid (not 0,0)
-                            if (lat != 0.0 || lon != 0.0) {
-                                usersWithLocations.add(fullUser);
-                                Log.d(TAG, "User " + fullUser.getName() +
-                                        " has location: (" + lat + ", " + lon + ")");
-                            }
-                        }
-                    }
-
-                    loadedCount[0]++;
-
-                    // When all users are loaded, display them on the map
-                    if (loadedCount[0] == totalUsers) {
-                        if (isAdded()) {
-                            displayUsersOnMap(usersWithLocations, totalUsers);
-                        }
-                    }
-                }
-
-                @Override
-                public void onFailure(Exception e) {
-                    if (!isAdded()) return;
-
-                    Log.e(TAG, "Failed to load user: " + waitingUser.getId(), e);
-                    loadedCount[0]++;
-
-                    // When all users are processed, display results
-                    if (loadedCount[0] == totalUsers) {
-                        if (isAdded()) {
-                            displayUsersOnMap(usersWithLocations, totalUsers);
-                        }
-                    }
-                }
-            });
+        if (!waiting.isEmpty()) {
+            Log.d(TAG, "Found " + waiting.size() + " users in waiting list");
+            displayUsersOnMap(waiting);
+        } else {
+            userCountText.setText("0 users with locations");
+            Toast.makeText(getContext(),
+                    "No users on waiting list",
+                    Toast.LENGTH_SHORT).show();
+            showDefaultMap();
         }
     }
 
     /**
-     * Add markers and zoom to bounding box showing all user locations.
-     * @param usersWithLocations users who have valid geo points.
-     * @param totalUsers total users processed from waiting list.
+     * Cluster waiting list locations off the main thread and zoom to their bounding box.
+     * Each location is the join location when one was recorded, otherwise the location
+     * stored on the waiting list entry when the user joined.
+     * @param waiting memberships of the entrants waiting for the event.
      */
-    private void displayUsersOnMap(ArrayList<User> usersWithLocations, int totalUsers) {
+    private void displayUsersOnMap(List<Membership> waiting) {
         if (mapView == null) {
             Log.e(TAG, "MapView is null, cannot display users");
             return;
         }
 
-        int usersWithValidLocations = usersWithLocations.size();
-
-        // Update user count text
-        userCountText.setText(usersWithValidLocations + " of " + totalUsers + " users with locations");
+        int totalUsers = waiting.size();
+
+        // Copy coordinates into primitive arrays and index them on the background thread
+        clusterExecutor.execute(() -> {
+            double[] lats = new double[totalUsers];
+            double[] lons = new double[totalUsers];
+            String[] labels = new String[totalUsers];
+            int count = 0;
+            for (Membership membership : waiting) {
+                User user = membership != null ? membership.getUser() : null;
+                if (user == null) continue;
+                double lat;
+                double lon;
+                JoinLocation joinLocation = membership.getLocation();
+                if (joinLocation != null) {
+                    lat = joinLocation.getLat();
+                    lon = joinLocation.getLng();
+                } else if (user.getGeoPoint() != null) {
+                    lat = user.getGeoPoint().getLatitude();
+                    lon = user.getGeoPoint().getLongitude();
+                } else {
+                    continue;
+                }
+                // Only add if coordinates are valid (not 0,0)
+                if (lat == 0.0 && lon == 0.0) continue;
+                lats[count] = lat;
+                lons[count] = lon;
+                labels[count] = displayName(user);
+                count++;
+            }
+            int usersWithValidLocations = count;
+            GridClusterer built = usersWithValidLocations == 0 ? null
+                    : new GridClusterer(lats, lons, usersWithValidLocations, GridClusterer.DEFAULT_CELL_PIXELS);
+
+            mainHandler.post(() -> {
+                if (mapView == null || !isAdded()) return;
+
+                // Update user count text
+                userCountText.setText(usersWithValidLocations + " of " + totalUsers + " users with locations");
+
+                if (built == null) {
+                    Toast.makeText(getContext(),
+                            "No users have shared their location",
+                            Toast.LENGTH_SHORT).show();
+                    showDefaultMap();
+                    return;
+                }
+                clusterer = built;
+                pointLabels = labels;
+                zoomToPoints(built);
+                requestRecluster();
+            });
+        });
+    }
 
-        if (usersWithValidLocations == 0) {
-            Toast.makeText(getContext(),
-                    "No users have shared their location",
-                    Toast.LENGTH_SHORT).show();
-            showDefaultMap();
-            return;
+    /**
+     * Picks the marker title for a single user (prefer name over email).
+     * @param user user to label.
+     * @return display name.
+     */
+    private static String displayName(User user) {
+        String userName = user.getName();
+        if (userName == null || userName.isEmpty()) {
+            userName = user.getEmail();
         }
+        if (userName == null || userName.isEmpty()) {
+            userName = "Anonymous User";
+        }
+        return userName;
+    }
 
-        // Clear existing overlays
-        mapView.getOverlays().clear();
-
-        // Variables for bounding box calculation
-        double north = -90;
-        double south = 90;
-        double east = -180;
-        double west = 180;
+    /**
+     * Moves the camera to show every point.
+     * @param points indexed user locations.
+     */
+    private void zoomToPoints(GridClusterer points) {
+        double[] bounds = points.getBounds();
+        double north = bounds[0], south = bounds[1], east = bounds[2], west = bounds[3];
+
+        // Add padding to the bounding box
+        double latPadding = Math.max((north - south) * 0.2, 0.01); // At least 0.01 degrees
+        double lonPadding = Math.max((east - west) * 0.2, 0.01);
+
+        final BoundingBox boundingBox = new BoundingBox(
+                Math.min(north + latPadding, MapView.getTileSystem().getMaxLatitude()),
+                Math.min(east + lonPadding, MapView.getTileSystem().getMaxLongitude()),
+                Math.max(south - latPadding, MapView.getTileSystem().getMinLatitude()),
+                Math.max(west - lonPadding, MapView.getTileSystem().getMinLongitude())
+        );
+
+        // Use postDelayed to ensure the map view is fully laid out
+        mapView.postDelayed(() -> {
+            if (mapView != null && isAdded()) {
+                try {
+                    // For single marker, just center and zoom
+                    if (points.size() == 1) {
+                        mapController.setCenter(new GeoPoint(north, east));
+                        mapController.setZoom(15.0);
+                    } else {
+                        // For multiple markers, zoom to bounding box
+                        mapView.zoomToBoundingBox(boundingBox, true, 100);
+                    }
+                    Log.d(TAG, "Camera adjusted to show " + points.size() + " users");
+                } catch (Exception e) {
+                    Log.e(TAG, "Error zooming to bounding box", e);
+                    // Fallback: just center on the points
+                    mapController.setCenter(new GeoPoint((north + south) / 2, (east + west) / 2));
+                    mapController.setZoom(13.0);
+                }
+                requestRecluster();
+            }
+        }, 300); // 300ms delay
+    }
 
-        // Add markers for each user
-        for (User user : usersWithLocations) {
-            double lat = user.getGeoPoint().getLatitude();
-            double lon = user.getGeoPoint().getLongitude();
+    /**
+     * Re-clusters the points for the current zoom level and viewport on the background thread.
+     * Results from superseded requests are dropped.
+     */
+    private void requestRecluster() {
+        if (clusterer == null || mapView == null) return;
+
+        GridClusterer points = clusterer;
+        double zoom = mapView.getZoomLevelDouble();
+        BoundingBox box = mapView.getBoundingBox();
+        // Cluster a margin around the viewport so short pans don't show empty edges
+        double latMargin = box.getLatitudeSpan() * 0.25;
+        double lonMargin = box.getLongitudeSpanWithDateLine() * 0.25;
+        double north = box.getLatNorth() + latMargin;
+        double south = box.getLatSouth() - latMargin;
+        double east = box.getLonEast() + lonMargin;
+        double west = box.getLonWest() - lonMargin;
+        int generation = ++clusterGeneration;
+
+        clusterExecutor.execute(() -> {
+            GridClusterer.Clusters clusters = points.cluster(zoom, north, south, east, west);
+            mainHandler.post(() -> {
+                if (generation != clusterGeneration || mapView == null || !isAdded()) return;
+                renderClusters(clusters);
+            });
+        });
+    }
 
-            GeoPoint point = new GeoPoint(lat, lon);
+    /**
+     * Replaces the cluster markers on the map.
+     * @param clusters clusters for the current zoom level and viewport.
+     */
+    private void renderClusters(GridClusterer.Clusters clusters) {
+        clusterOverlay.getItems().clear();
 
-            // Update bounding box
-            north = Math.max(north, lat);
-            south = Math.min(south, lat);
-            east = Math.max(east, lon);
-            west = Math.min(west, lon);
+        for (int c = 0; c < clusters.size(); c++) {
+            GeoPoint point = new GeoPoint(clusters.getLat(c), clusters.getLon(c));
+            int count = clusters.getCount(c);
 
-            // Create marker
             Marker marker = new Marker(mapView);
             marker.setPosition(point);
-
-            // Set marker title (prefer name over email)
-            String userName = user.getName();
-            if (userName == null || userName.isEmpty()) {
-                userName = user.getEmail();
+            if (count == 1) {
+                marker.setTitle(pointLabels[clusters.getFirstIndex(c)]);
+                marker.setSnippet("Waiting List User");
+                marker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_BOTTOM);
+            } else {
+                marker.setIcon(clusterIcon(count));
+                marker.setTitle(count + " waiting list users");
+                marker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_CENTER);
+                // Tapping a cluster zooms in on it
+                marker.setOnMarkerClickListener((m, map) -> {
+                    mapController.animateTo(m.getPosition(), map.getZoomLevelDouble() + 2, 300L);
+                    return true;
+                });
             }
-            if (userName == null || userName.isEmpty()) {
-                userName = "Anonymous User";
-            }
-
-            marker.setTitle(userName);
-            marker.setSnippet("Waiting List User");
-            marker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_BOTTOM);
-
-            mapView.getOverlays().add(marker);
-
-            Log.d(TAG, "Added marker for user: " + userName +
-                    " at (" + lat + ", " + lon + ")");
+            clusterOverlay.add(marker);
         }
 
-        // Refresh the map to show markers
         mapView.invalidate();
+        Log.d(TAG, "Rendered " + clusters.size() + " clusters for " + clusters.totalPoints() + " users");
+    }
 
-        // Zoom to show all markers with a delay to ensure map is ready
-        if (usersWithValidLocations > 0) {
-            // Add padding to the bounding box
-            double latPadding = Math.max((north - south) * 0.2, 0.01); // At least 0.01 degrees
-            double lonPadding = Math.max((east - west) * 0.2, 0.01);
-
-            final BoundingBox boundingBox = new BoundingBox(
-                    north + latPadding,
-                    east + lonPadding,
-                    south - latPadding,
-                    west - lonPadding
-            );
-
-            // Use postDelayed to ensure the map view is fully laid out
-            mapView.postDelayed(() -> {
-                if (mapView != null && isAdded()) {
-                    try {
-                        // For single marker, just center and zoom
-                        if (usersWithValidLocations == 1) {
-                            GeoPoint center = new GeoPoint(
-                                    usersWithLocations.get(0).getGeoPoint().getLatitude(),
-                                    usersWithLocations.get(0).getGeoPoint().getLongitude()
-                            );
-                            mapController.setCenter(center);
-                            mapController.setZoom(15.0);
-                        } else {
-                            // For multiple markers, zoom to bounding box
-                            mapView.zoomToBoundingBox(boundingBox, true, 100);
-                        }
-                        mapView.invalidate();
-                        Log.d(TAG, "Camera adjusted to show " + usersWithValidLocations + " markers");
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error zooming to bounding box", e);
-                        // Fallback: just center on first user
-                        GeoPoint fallback = new GeoPoint(
-                                usersWithLocations.get(0).getGeoPoint().getLatitude(),
-                                usersWithLocations.get(0).getGeoPoint().getLongitude()
-                        );
-                        mapController.setCenter(fallback);
-                        mapController.setZoom(13.0);
-                        mapView.invalidate();
-                    }
-                }
-            }, 300); // 300ms delay
-        }
+    /**
+     * Builds (or reuses) a round marker icon labelled with a cluster's size.
+     * @param count number of users in the cluster.
+     * @return icon drawable.
+     */
+    private Drawable clusterIcon(int count) {
+        String label = count < 1000 ? String.valueOf(count) : (count / 1000) + "k";
+        Drawable cached = clusterIcons.get(label);
+        if (cached != null) return cached;
+
+        float density = getResources().getDisplayMetrics().density;
+        int size = (int) (40 * density);
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        Paint circle = new Paint(Paint.ANTI_ALIAS_FLAG);
+        circle.setColor(Color.argb(220, 33, 150, 243));
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, circle);
+
+        Paint text = new Paint(Paint.ANTI_ALIAS_FLAG);
+        text.setColor(Color.WHITE);
+        text.setTextSize(14 * density);
+        text.setTextAlign(Paint.Align.CENTER);
+        text.setFakeBoldText(true);
+        canvas.drawText(label, size / 2f, size / 2f - (text.descent() + text.ascent()) / 2f, text);
+
+        Drawable icon = new BitmapDrawable(getResources(), bitmap);
+        clusterIcons.put(label, icon);
+        return icon;
     }
 
     /**
@@ -400,8 +501,19 @@ public class MapDetailFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        clusterGeneration++;
+        mainHandler.removeCallbacksAndMessages(null);
         if (mapView != null) {
             mapView.onDetach();
+            mapView = null;
         }
+        clusterer = null;
+        clusterIcons.clear();
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        clusterExecutor.shutdownNow();
     }
 }
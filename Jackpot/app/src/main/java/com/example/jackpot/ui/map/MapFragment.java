@@ -9,23 +9,25 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.jackpot.Event;
 import com.example.jackpot.EventList;
-import com.example.jackpot.FDatabase;
+import com.example.jackpot.EventRepository;
+import com.example.jackpot.EventViewModel;
 import com.example.jackpot.R;
 import com.google.firebase.auth.FirebaseAuth;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Map fragment that displays the list of events created by the current organizer.
  * Each event can be clicked to navigate to a detailed map view showing user locations.
  *
  * Responsibilities:
- *  - Fetch organizer-owned events.
+ *  - Observe organizer-owned events from the shared event repository.
  *  - Render them in a RecyclerView.
  *  - Navigate to MapDetailFragment on item click.
  */
@@ -35,9 +37,9 @@ public class MapFragment extends Fragment implements OrganizerEventAdapter.OnEve
 
     private RecyclerView recyclerView;
     private OrganizerEventAdapter adapter;
-    private FDatabase fDatabase;
     private FirebaseAuth auth;
     private EventList eventList;
+    private boolean loaded;
 
     /**
      * Inflate UI, initialize adapters, and kick off event loading.
@@ -53,11 +55,11 @@ public class MapFragment extends Fragment implements OrganizerEventAdapter.OnEve
         View root = inflater.inflate(R.layout.fragment_map_organizer, container, false);
 
         // Initialize Firebase
-        fDatabase = FDatabase.getInstance();
         auth = FirebaseAuth.getInstance();
 
         // Initialize event list
         eventList = new EventList();
+        loaded = false;
 
         // Setup RecyclerView
         recyclerView = root.findViewById(R.id.event_recycler_view);
@@ -73,8 +75,9 @@ public class MapFragment extends Fragment implements OrganizerEventAdapter.OnEve
     }
 
     /**
-     * Loads events created by the current organizer from Firestore.
-     * Uses FDatabase method to match EventsFragment implementation.
+     * Observes the events created by the current organizer through the activity's shared
+     * repository. The listener keeps the list current, so nothing is reloaded on resume,
+     * and returning to this screen reuses the events other screens already loaded.
      */
     private void loadOrganizerEvents() {
         if (auth.getCurrentUser() == null) {
@@ -86,59 +89,52 @@ public class MapFragment extends Fragment implements OrganizerEventAdapter.OnEve
         String organizerId = auth.getCurrentUser().getUid();
         Log.d(TAG, "Loading events for organizer: " + organizerId);
 
-        fDatabase.queryEventsByCreator(organizerId, new FDatabase.DataCallback<Event>() {
-            @Override
-            public void onSuccess(ArrayList<Event> events) {
-                if (!isAdded()) {
-                    return;
-                }
-
-                eventList.clearEvents();
-
-                for (Event event : events) {
-                    try {
-                        // Verify the event has the required fields
-                        if (event.getEventId() == null || event.getEventId().isEmpty()) {
-                            Log.w(TAG, "Event missing ID, skipping: " + event.getName());
-                            continue;
-                        }
-
-                        eventList.addEvent(event);
-                        Log.d(TAG, "Loaded event: " + event.getName() +
-                                " (ID: " + event.getEventId() +
-                                ", Capacity: " + event.getCapacity() +
-                                ", Waiting: " + (event.getWaitingList() != null ?
-                                event.getWaitingList().size() : 0) + ")");
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error processing event: " + event.getName(), e);
-                    }
-                }
-
-                // Update adapter with loaded events
-                adapter.setEvents(eventList.getEvents());
-
-                if (eventList.countEvents() == 0) {
-                    Toast.makeText(getContext(),
-                            "No events found. Create your first event!",
-                            Toast.LENGTH_SHORT).show();
-                    Log.d(TAG, "No events found for organizer");
-                } else {
-                    Log.d(TAG, "Successfully loaded " + eventList.countEvents() + " events");
-                }
+        EventRepository.QueryLiveData events = new ViewModelProvider(requireActivity())
+                .get(EventViewModel.class).getRepository().events(EventRepository.createdBy(organizerId));
+        events.observe(getViewLifecycleOwner(), this::showEvents);
+        events.getError().observe(getViewLifecycleOwner(), e -> {
+            if (e == null) {
+                return;
             }
+            Log.e(TAG, "Error loading events from Firestore", e);
+            Toast.makeText(getContext(),
+                    "Failed to load events: " + e.getMessage(),
+                    Toast.LENGTH_LONG).show();
+        });
+    }
+
+    /**
+     * Shows the organizer's events.
+     * @param events The latest events from the shared stream.
+     */
+    private void showEvents(List<Event> events) {
+        // Only the first delivery announces an empty list; later ones are background changes
+        boolean firstDelivery = !loaded;
+        loaded = true;
+        eventList.clearEvents();
+
+        for (Event event : events) {
+            // Verify the event has the required fields
+            if (event.getEventId() == null || event.getEventId().isEmpty()) {
+                Log.w(TAG, "Event missing ID, skipping: " + event.getName());
+                continue;
+            }
+            eventList.addEvent(event);
+        }
 
-            @Override
-            public void onFailure(Exception e) {
-                if (!isAdded()) {
-                    return;
-                }
+        // Update adapter with loaded events
+        adapter.setEvents(eventList.getEvents());
 
-                Log.e(TAG, "Error loading events from Firestore", e);
+        if (eventList.countEvents() == 0) {
+            if (firstDelivery) {
                 Toast.makeText(getContext(),
-                        "Failed to load events: " + e.getMessage(),
-                        Toast.LENGTH_LONG).show();
+                        "No events found. Create your first event!",
+                        Toast.LENGTH_SHORT).show();
             }
-        });
+            Log.d(TAG, "No events found for organizer");
+        } else {
+            Log.d(TAG, "Showing " + eventList.countEvents() + " events");
+        }
     }
 
     /**
@@ -179,12 +175,4 @@ public class MapFragment extends Fragment implements OrganizerEventAdapter.OnEve
             Toast.makeText(getContext(), "Navigation error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
         }
     }
-
-    /** Refresh the event list when the fragment becomes visible. */
-    @Override
-    public void onResume() {
-        super.onResume();
-        Log.d(TAG, "Fragment resumed, refreshing event list");
-        loadOrganizerEvents();
-    }
 }
@@ -10,8 +10,11 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.example.jackpot.Event;
+import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Adapter for displaying organizer's events in a RecyclerView.
@@ -22,6 +25,8 @@ public class OrganizerEventAdapter extends RecyclerView.Adapter<OrganizerEventAd
     private static final String TAG = "OrganizerEventAdapter";
     private ArrayList<Event> events;
     private OnEventClickListener listener;
+    // Waiting counts of sharded events by id, which their event documents do not hold
+    private final Map<String, Integer> shardedWaitingCounts = new HashMap<>();
 
     /**
      * Interface for handling event click events.
@@ -71,6 +76,37 @@ public class OrganizerEventAdapter extends RecyclerView.Adapter<OrganizerEventAd
         return events.size();
     }
 
+    /**
+     * Gets the number of entrants waiting for an event. The shard counters of a sharded event
+     * are summed once and the rows redrawn when the total arrives.
+     * @param event The event to count.
+     * @return The number of waiting entrants.
+     */
+    private int waitingCount(Event event) {
+        if (event.getAdmissionShards() <= 0 || event.getEventId() == null) {
+            return event.getWaitingCount();
+        }
+        Integer count = shardedWaitingCounts.get(event.getEventId());
+        if (count != null) {
+            return count;
+        }
+        String eventId = event.getEventId();
+        shardedWaitingCounts.put(eventId, event.getWaitingCount());
+        FDatabase.getInstance().getShardedWaitingCount(eventId, new FDatabase.CountCallback() {
+            @Override
+            public void onSuccess(long total) {
+                shardedWaitingCounts.put(eventId, (int) total);
+                notifyDataSetChanged();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e(TAG, "Failed to count sharded waiting list: " + error);
+            }
+        });
+        return event.getWaitingCount();
+    }
+
     /**
      * ViewHolder for event items in the RecyclerView.
      */
@@ -109,30 +145,16 @@ public class OrganizerEventAdapter extends RecyclerView.Adapter<OrganizerEventAd
             // Set event name
             eventName.setText(event.getName() != null ? event.getName() : "Unnamed Event");
 
-            // Get counts for waiting list and joined list
-            int waitingCount = 0;
-            if (event.getWaitingList() != null) {
-                waitingCount = event.getWaitingList().size();
-            }
-
-            int waitingCapacity = 0;
-            if (event.getWaitingList() != null) {
-                waitingCapacity = event.getWaitingList().getCapacity();
-            }
-
-            int joinedCount = 0;
-            if (event.getJoinedList() != null) {
-                joinedCount = event.getJoinedList().size();
-            }
-
+            // Counts come from the event's counters, so no list is built
+            int waitingCount = waitingCount(event);
+            int waitingCapacity = event.getWaitingListLimit();
             int totalCapacity = event.getCapacity();
 
             // Display: X/Y in waiting list
             eventJoined.setText(waitingCount + "/" + waitingCapacity + " in waiting list");
 
-            // Calculate free spots based on joined list
-            int freeSpots = Math.max(0, totalCapacity - joinedCount);
-            eventFreeSpots.setText(freeSpots + "/" + totalCapacity + " spots free");
+            // Seats not yet taken by invited or joined entrants
+            eventFreeSpots.setText(event.remainingSeats() + "/" + totalCapacity + " spots free");
 
             // Load poster image using Glide
             String imageUri = event.getPosterUri();
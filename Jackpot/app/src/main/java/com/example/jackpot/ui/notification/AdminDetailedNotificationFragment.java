@@ -15,13 +15,14 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.jackpot.FDatabase;
+import com.example.jackpot.Notification;
 import com.example.jackpot.R;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Fragment that displays detailed notifications for a specific organizer.
@@ -32,6 +33,8 @@ public class AdminDetailedNotificationFragment extends Fragment {
     private static final String ARG_ORGANIZER_ID = "organizer_id";
     private static final String ARG_ORGANIZER_NAME = "organizer_name";
     private static final String ARG_ORGANIZER_EMAIL = "organizer_email";
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 5;
 
     private String organizerId;
     private String organizerName;
@@ -42,6 +45,7 @@ public class AdminDetailedNotificationFragment extends Fragment {
     private FirebaseFirestore db;
     private TextView headerName;
     private ImageButton backButton;
+    private MergedNotificationPager pager;
 
     /**
      * Creates a new instance of this fragment with organizer information.
@@ -101,133 +105,98 @@ public class AdminDetailedNotificationFragment extends Fragment {
         adapter = new AdminNotificationDetailAdapter(new ArrayList<>());
         recyclerView.setAdapter(adapter);
 
+        // Load the next page as the list nears its end
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) view.getLayoutManager();
+                if (layoutManager != null
+                        && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+
         // Load notifications for this organizer
-        loadNotificationsForOrganizer();
+        loadNextPage();
 
         return root;
     }
 
     /**
-     * Loads all notifications sent by the selected organizer.
+     * Loads the next page of notifications and broadcasts sent by the selected organizer,
+     * newest first. Event names are read from the documents, so no per-row lookups are needed.
      */
-    private void loadNotificationsForOrganizer() {
+    private void loadNextPage() {
+        if (pager == null) {
+            FDatabase fDatabase = FDatabase.getInstance();
+            pager = new MergedNotificationPager(PAGE_SIZE, Arrays.asList(
+                    (startAfter, pageSize, callback) ->
+                            fDatabase.queryNotificationsPage("organizerID", organizerId, startAfter, pageSize, callback),
+                    (startAfter, pageSize, callback) ->
+                            fDatabase.queryBroadcastsPage("organizerID", organizerId, startAfter, pageSize, callback)));
+        }
+        if (pager.isLoading() || !pager.hasMore()) {
+            return;
+        }
         Log.d(TAG, "Loading notifications for organizer: " + organizerId);
 
-        db.collection("notifications")
-                .whereEqualTo("organizerID", organizerId)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<NotificationDetail> notifications = new ArrayList<>();
-
-                    Log.d(TAG, "Found " + queryDocumentSnapshots.size() + " notifications");
-
-                    if (queryDocumentSnapshots.isEmpty()) {
-                        // Check if fragment is still attached before showing Toast
-                        if (isAdded() && getContext() != null) {
-                            Toast.makeText(getContext(),
-                                    "No notifications found for " + organizerName,
-                                    Toast.LENGTH_SHORT).show();
-                        }
-                        return;
-                    }
-
-                    AtomicInteger processedCount = new AtomicInteger(0);
-                    int totalCount = queryDocumentSnapshots.size();
-
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        try {
-                            String notificationId = document.getId();
-                            String eventId = document.getString("eventID");
-                            String recipientId = document.getString("recipientID");
-                            String notifType = document.getString("notifType");
-                            String payload = document.getString("payload");
-
-                            Log.d(TAG, "Processing notification: " + payload);
-
-                            if (payload != null) {
-                                // Create notification detail object
-                                NotificationDetail notification = new NotificationDetail(
-                                        notificationId,
-                                        eventId,
-                                        recipientId,
-                                        notifType,
-                                        payload
-                                );
-
-                                // Fetch event name if eventId exists
-                                if (eventId != null && !eventId.isEmpty()) {
-                                    fetchEventName(notification, eventId, notifications, processedCount, totalCount);
-                                } else {
-                                    notification.setEventName("No Event");
-                                    notifications.add(notification);
-                                    checkIfAllProcessed(notifications, processedCount.incrementAndGet(), totalCount);
-                                }
-                            } else {
-                                processedCount.incrementAndGet();
-                                checkIfAllProcessed(notifications, processedCount.get(), totalCount);
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error processing notification", e);
-                            processedCount.incrementAndGet();
-                            checkIfAllProcessed(notifications, processedCount.get(), totalCount);
-                        }
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error loading notifications", e);
-                    // Check if fragment is still attached before showing Toast
-                    if (isAdded() && getContext() != null) {
-                        Toast.makeText(getContext(),
-                                "Failed to load notifications: " + e.getMessage(),
-                                Toast.LENGTH_SHORT).show();
-                    }
-                });
-    }
-
-    /**
-     * Fetches the event name for a notification.
-     * @param notification detail entry being updated.
-     * @param eventId id of the related event.
-     * @param notifications collector list for processed notifications.
-     * @param processedCount atomic count of processed items.
-     * @param totalCount expected total items to process.
-     */
-    private void fetchEventName(NotificationDetail notification, String eventId,
-                                List<NotificationDetail> notifications,
-                                AtomicInteger processedCount, int totalCount) {
-        db.collection("events")
-                .document(eventId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        String eventName = documentSnapshot.getString("name");
-                        notification.setEventName(eventName != null ? eventName : "Unknown Event");
-                    } else {
-                        notification.setEventName("Event Not Found");
+        pager.loadMore(new MergedNotificationPager.Listener() {
+            @Override
+            public void onItems(List<Notification> items, boolean hasMore) {
+                if (!isAdded()) {
+                    return;
+                }
+
+                List<NotificationDetail> details = new ArrayList<>();
+                for (Notification notification : items) {
+                    if (notification.getPayload() != null) {
+                        details.add(toDetail(notification));
                     }
-                    notifications.add(notification);
-                    checkIfAllProcessed(notifications, processedCount.incrementAndGet(), totalCount);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error fetching event name", e);
-                    notification.setEventName("Error Loading Event");
-                    notifications.add(notification);
-                    checkIfAllProcessed(notifications, processedCount.incrementAndGet(), totalCount);
-                });
+                }
+                adapter.addData(details);
+
+                if (!hasMore && adapter.getItemCount() == 0 && getContext() != null) {
+                    Toast.makeText(getContext(),
+                            "No notifications found for " + organizerName,
+                            Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Error loading notifications", e);
+                // Check if fragment is still attached before showing Toast
+                if (isAdded() && getContext() != null) {
+                    Toast.makeText(getContext(),
+                            "Failed to load notifications: " + e.getMessage(),
+                            Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
     }
 
     /**
-     * Checks if all notifications have been processed and updates the adapter.
-     * @param notifications processed notification list.
-     * @param processed current processed count.
-     * @param total total to process.
+     * Builds the display entry for a notification from its snapshotted fields.
+     * @param notification notification document.
+     * @return detail entry for the adapter.
      */
-    private void checkIfAllProcessed(List<NotificationDetail> notifications, int processed, int total) {
-        Log.d(TAG, "Processed " + processed + " of " + total + " notifications");
-        if (processed == total) {
-            Log.d(TAG, "All notifications processed, updating adapter with " + notifications.size() + " items");
-            adapter.updateData(notifications);
+    private NotificationDetail toDetail(Notification notification) {
+        NotificationDetail detail = new NotificationDetail(
+                notification.getNotificationID(),
+                notification.getEventID(),
+                notification.getRecipientID(),
+                notification.getNotifType(),
+                notification.getPayload()
+        );
+        String eventId = notification.getEventID();
+        if (eventId == null || eventId.isEmpty()) {
+            detail.setEventName("No Event");
+        } else {
+            detail.setEventName(notification.getEventName() != null
+                    ? notification.getEventName() : "Unknown Event");
         }
+        return detail;
     }
 
     /**
@@ -55,6 +55,17 @@ public class AdminNotificationDetailAdapter extends RecyclerView.Adapter<AdminNo
         notifyDataSetChanged();
     }
 
+    /**
+     * Appends a page of notifications to the end of the list.
+     * @param page Notifications to append
+     */
+    public void addData(List<AdminDetailedNotificationFragment.NotificationDetail> page) {
+        if (page == null || page.isEmpty()) return;
+        int start = notificationList.size();
+        notificationList.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
     /**
      * ViewHolder class for notification items.
      */
@@ -1,74 +1,74 @@
 package com.example.jackpot.ui.notification;
 
-import android.content.Context;
-import android.util.Log;
+import android.os.Build;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
-import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
-import com.example.jackpot.Event;
-import com.example.jackpot.FDatabase;
 import com.example.jackpot.Notification;
 import com.example.jackpot.R;
 import com.google.firebase.Timestamp;
 
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.List;
 
 
 /**
+ * Adapter for the entrant's unread notification inbox.
+ * Rows are added and removed with targeted change notifications so dismissing
+ * one notification does not rebind the whole list.
  * Created with the assistance of ClaudeAI Sonnet 4.5
  */
-public class EntrantNotificationAdapter extends ArrayAdapter<Notification> {
-    private static final String TAG = "EntrantNotifAdapter";
-    private Context context;
-    private ArrayList<Notification> notifications;
-    private FDatabase fDatabase;
+public class EntrantNotificationAdapter
+        extends RecyclerView.Adapter<EntrantNotificationAdapter.ViewHolder> {
+
+    /**
+     * Listener for long presses on a notification row.
+     */
+    public interface OnNotificationLongClickListener {
+        void onNotificationLongClick(int position);
+    }
+
+    private final List<Notification> notifications;
+    private OnNotificationLongClickListener longClickListener;
 
     /**
      * Constructor for the adapter.
-     * @param context The context
      * @param notifications List of notifications to display
      */
-    public EntrantNotificationAdapter(@NonNull Context context, ArrayList<Notification> notifications) {
-        super(context, 0, notifications);
-        this.context = context;
+    public EntrantNotificationAdapter(List<Notification> notifications) {
         this.notifications = notifications;
-        this.fDatabase = FDatabase.getInstance();
+    }
 
+    /**
+     * Sets the listener for long presses on a row.
+     * @param listener The listener, or null to remove it
+     */
+    public void setOnNotificationLongClickListener(@Nullable OnNotificationLongClickListener listener) {
+        this.longClickListener = listener;
     }
 
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        ViewHolder holder;
-
-        if (convertView == null) {
-            convertView = LayoutInflater.from(context)
-                    .inflate(R.layout.item_event_notification, parent, false);
-
-            holder = new ViewHolder();
-            holder.dateText = convertView.findViewById(R.id.dateText);
-            holder.messageText = convertView.findViewById(R.id.notif_message);
-
-            convertView.setTag(holder);
-        } else {
-            holder = (ViewHolder) convertView.getTag();
-        }
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_event_notification, parent, false);
+        return new ViewHolder(view);
+    }
 
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         Notification notif = notifications.get(position);
 
         // ---------- DATE ----------
         Timestamp ts = notif.getSentAt();
-        if (ts != null && android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
+        if (ts != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             DateTimeFormatter formatter =
                     DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")
                             .withZone(ZoneId.systemDefault());
@@ -82,39 +82,67 @@ public class EntrantNotificationAdapter extends ArrayAdapter<Notification> {
                 notif.getPayload() != null ? notif.getPayload() : "Notification"
         );
 
-        return convertView;
+        holder.itemView.setOnLongClickListener(v -> {
+            int adapterPosition = holder.getBindingAdapterPosition();
+            if (longClickListener == null || adapterPosition == RecyclerView.NO_POSITION) {
+                return false;
+            }
+            longClickListener.onNotificationLongClick(adapterPosition);
+            return true;
+        });
     }
 
-
+    @Override
+    public int getItemCount() {
+        return notifications.size();
+    }
 
     /**
-     * Marks a notification as read and removes it from the display.
-     * The notification remains in the database but is marked as read.
-     * @param position The position of the notification to mark as read
+     * Appends a page of notifications to the end of the list.
+     * @param page The notifications to append
      */
-    public void markNotificationAsRead(int position) {
-        if (position < 0 || position >= notifications.size()) return;
+    public void addNotifications(List<Notification> page) {
+        if (page == null || page.isEmpty()) return;
+        int start = notifications.size();
+        notifications.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
 
-        Notification notif = notifications.get(position);
-        String id = notif.getNotificationID();
+    /**
+     * Removes a notification row from the display.
+     * @param position The position of the notification to remove
+     * @return The removed notification, or null if the position is out of range
+     */
+    @Nullable
+    public Notification removeNotification(int position) {
+        if (position < 0 || position >= notifications.size()) return null;
 
-        notifications.remove(position);
-        notifyDataSetChanged();
+        Notification notif = notifications.remove(position);
+        notifyItemRemoved(position);
+        return notif;
+    }
 
-        if (id != null && !id.isEmpty()) {
-            fDatabase.getDb().collection("notifications")
-                    .document(id)
-                    .update("viewedByEntrant", true)
-                    .addOnSuccessListener(a -> Log.d(TAG, "Marked read"))
-                    .addOnFailureListener(e -> Log.e(TAG, "Failed mark read", e));
-        }
+    /**
+     * Removes every notification from the display.
+     */
+    public void clear() {
+        int count = notifications.size();
+        if (count == 0) return;
+        notifications.clear();
+        notifyItemRangeRemoved(0, count);
     }
 
     /**
-     * ViewHolder pattern to improve ListView performance by caching view references.
+     * ViewHolder caching the row's view references.
      */
-    private static class ViewHolder {
+    public static class ViewHolder extends RecyclerView.ViewHolder {
         TextView dateText;
         TextView messageText;
+
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            dateText = itemView.findViewById(R.id.dateText);
+            messageText = itemView.findViewById(R.id.notif_message);
+        }
     }
 }
@@ -0,0 +1,124 @@
+package com.example.jackpot.ui.notification;
+
+import androidx.annotation.Nullable;
+
+import com.example.jackpot.FDatabase;
+import com.example.jackpot.InboxMerger;
+import com.example.jackpot.Notification;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Pages through several notification sources (personal notifications and event broadcasts)
+ * and returns them as one list ordered by sentAt, newest first.
+ */
+public class MergedNotificationPager {
+
+    /**
+     * Loads one page of a single source, newest first.
+     */
+    public interface PageSource {
+        void load(@Nullable DocumentSnapshot startAfter, int pageSize,
+                  FDatabase.PageCallback<Notification> callback);
+    }
+
+    /**
+     * Receives merged items as they become available.
+     */
+    public interface Listener {
+        void onItems(List<Notification> items, boolean hasMore);
+        void onFailure(Exception e);
+    }
+
+    /** Newest first; notifications still waiting for a server timestamp sort as newest. */
+    private static final Comparator<Notification> NEWEST_FIRST = (a, b) -> {
+        Timestamp ta = a.getSentAt();
+        Timestamp tb = b.getSentAt();
+        if (ta == null || tb == null) {
+            return ta == null ? (tb == null ? 0 : -1) : 1;
+        }
+        return tb.compareTo(ta);
+    };
+
+    private final List<PageSource> sources;
+    private final DocumentSnapshot[] cursors;
+    private final InboxMerger<Notification> merger;
+    private final int pageSize;
+    private boolean loading = false;
+
+    /**
+     * Creates a pager over the given sources.
+     * @param pageSize Page size requested from each source
+     * @param sources The sources to merge; each must be ordered by sentAt descending
+     */
+    public MergedNotificationPager(int pageSize, List<PageSource> sources) {
+        this.pageSize = pageSize;
+        this.sources = new ArrayList<>(sources);
+        this.cursors = new DocumentSnapshot[sources.size()];
+        this.merger = new InboxMerger<>(sources.size(), NEWEST_FIRST);
+    }
+
+    /**
+     * Checks whether a load is in progress.
+     * @return true while pages are being fetched
+     */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * Checks whether more items may be loaded.
+     * @return true if any source has items left
+     */
+    public boolean hasMore() {
+        return merger.hasMore();
+    }
+
+    /**
+     * Loads the next merged items, fetching from whichever source is needed to keep order.
+     * Does nothing if a load is already running or every source is finished.
+     * @param listener Receives the merged items
+     */
+    public void loadMore(Listener listener) {
+        if (loading || !merger.hasMore()) {
+            return;
+        }
+        loading = true;
+        fetchUntilReleased(listener);
+    }
+
+    private void fetchUntilReleased(Listener listener) {
+        int source = merger.nextSourceToFetch();
+        if (source == -1) {
+            loading = false;
+            listener.onItems(merger.drain(), merger.hasMore());
+            return;
+        }
+        sources.get(source).load(cursors[source], pageSize, new FDatabase.PageCallback<Notification>() {
+            @Override
+            public void onSuccess(ArrayList<Notification> page, DocumentSnapshot lastVisible, boolean hasMore) {
+                cursors[source] = lastVisible;
+                merger.addPage(source, page, hasMore);
+                List<Notification> released = merger.drain();
+                if (released.isEmpty() && merger.hasMore()) {
+                    fetchUntilReleased(listener);
+                    return;
+                }
+                loading = false;
+                listener.onItems(released, merger.hasMore());
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                // Drop the failing source so the rest of the inbox still loads
+                merger.markExhausted(source);
+                loading = false;
+                listener.onFailure(e);
+            }
+        });
+    }
+}
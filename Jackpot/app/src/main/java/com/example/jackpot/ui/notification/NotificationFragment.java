@@ -5,7 +5,8 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ListView;
+import android.widget.Button;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
@@ -17,18 +18,33 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.jackpot.Event;
 
 import com.example.jackpot.FDatabase;
+import com.example.jackpot.Futures;
+import com.example.jackpot.LifecycleFutures;
 import com.example.jackpot.MainActivity;
+import com.example.jackpot.Membership;
+import com.example.jackpot.MembershipBackfill;
 import com.example.jackpot.Notification;
+import com.example.jackpot.NotificationBackfill;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
+import com.example.jackpot.UserList;
 import com.example.jackpot.ui.map.OrganizerEventAdapter;
+import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Notification fragment, which will show the notifications of the user.
@@ -37,7 +53,8 @@ import java.util.List;
  *
  * Responsibilities:
  *  - Inflate role-specific notification UIs (entrant/organizer/admin).
- *  - Entrant: load unread notifications, long-press dismiss.
+ *  - Entrant: page through unread notifications merged with event broadcasts (newest first),
+ *    show the unread count, long-press dismiss (buffered), mark all read.
  *  - Admin: list organizers with contact info.
  */
 public class NotificationFragment extends Fragment {
@@ -49,11 +66,28 @@ public class NotificationFragment extends Fragment {
     private FirebaseFirestore db;
 
     //For entrant notification
-    private ListView notificationListView;
+    private RecyclerView notificationRecyclerView;
     private EntrantNotificationAdapter notificationAdapter;
     private ArrayList<Notification> notificationList;
     private FDatabase fDatabase;
     private String currentUserId;
+    private TextView unreadCountText;
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 5;
+    // Read broadcasts remembered on the profile; past this the oldest half is forgotten
+    private static final int MAX_READ_BROADCASTS = 100;
+    private long unreadCount = 0;
+    private ReadStateBuffer readStateBuffer;
+    private MergedNotificationPager inboxPager;
+    // Read broadcasts by when they were sent, and IDs read before send times were kept
+    private final Map<String, Timestamp> readBroadcasts = new HashMap<>();
+    private final Set<String> readBroadcastIds = new HashSet<>();
+    // The list this entrant is on per event, from their profile; null once they left the event
+    private final Map<String, String> memberStatuses = new HashMap<>();
+    // When the entrant moved to that list; broadcasts sent earlier were not meant for them
+    private final Map<String, Timestamp> memberSince = new HashMap<>();
+    // Events read for entrants whose profile predates memberStatuses
+    private final Map<String, Event> audienceEvents = new HashMap<>();
 
 
     /**
@@ -106,83 +140,429 @@ public class NotificationFragment extends Fragment {
         }
         currentUserId = currentUser.getUid();
         fDatabase = FDatabase.getInstance();
-        notificationListView = root.findViewById(R.id.notificationListView);
+        readStateBuffer = new ReadStateBuffer(fDatabase);
+        notificationRecyclerView = root.findViewById(R.id.notificationRecyclerView);
+        notificationRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        unreadCountText = root.findViewById(R.id.unreadCountText);
         notificationList = new ArrayList<>();
-        notificationAdapter = new EntrantNotificationAdapter(getContext(), notificationList);
-        notificationListView.setAdapter(notificationAdapter);
+        notificationAdapter = new EntrantNotificationAdapter(notificationList);
+        notificationRecyclerView.setAdapter(notificationAdapter);
+
+        Button markAllReadButton = root.findViewById(R.id.markAllReadButton);
+        markAllReadButton.setOnClickListener(v -> confirmMarkAllRead());
 
         setupLongPressToDismiss();
-        loadUnreadNotifications();
+        setupPaging();
+        loadUnreadCount();
+        loadInbox();
 
     }
-    /** Loads only unread notifications for the current entrant. */
-    private void loadUnreadNotifications() {
+    /**
+     * Reads the entrant's event memberships and broadcast read state, then builds the inbox
+     * pager over personal notifications and the broadcasts of those events.
+     */
+    private void loadInbox() {
+        fDatabase.trackRead("users", fDatabase.getDb().collection("users").document(currentUserId).get())
+                .addOnSuccessListener(snapshot -> {
+                    List<String> eventIds = new ArrayList<>();
+                    Timestamp clearedAt = null;
+                    boolean optedOut = false;
+                    if (snapshot.exists()) {
+                        Object ids = snapshot.get("eventIds");
+                        if (ids instanceof List) {
+                            for (Object id : (List<?>) ids) {
+                                if (id != null) eventIds.add(id.toString());
+                            }
+                        }
+                        Object statuses = snapshot.get(Event.MEMBER_STATUSES);
+                        if (statuses instanceof Map) {
+                            for (Map.Entry<?, ?> entry : ((Map<?, ?>) statuses).entrySet()) {
+                                Object status = entry.getValue();
+                                memberStatuses.put(entry.getKey().toString(),
+                                        status != null ? status.toString() : null);
+                            }
+                        }
+                        putTimestamps(snapshot.get(Event.MEMBER_SINCE), memberSince);
+                        putTimestamps(snapshot.get(FDatabase.READ_BROADCASTS), readBroadcasts);
+                        Object read = snapshot.get("readBroadcastIds");
+                        if (read instanceof List) {
+                            for (Object id : (List<?>) read) {
+                                if (id != null) readBroadcastIds.add(id.toString());
+                            }
+                        }
+                        clearedAt = snapshot.getTimestamp("broadcastsClearedAt");
+                        optedOut = Boolean.TRUE.equals(snapshot.getBoolean("notificationsOptOut"));
+                    }
+                    // Opted-out entrants get no new personal notifications, so skip broadcasts too
+                    buildInboxPager(optedOut ? new ArrayList<>() : broadcastEventIds(eventIds), clearedAt);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to read inbox state, showing personal notifications only", e);
+                    buildInboxPager(new ArrayList<>(), null);
+                });
+    }
+
+    /**
+     * Copies a map of timestamps read from a document, skipping values that are not timestamps.
+     * @param field the map field's value.
+     * @param into receives the timestamps by key.
+     */
+    private static void putTimestamps(@Nullable Object field, Map<String, Timestamp> into) {
+        if (!(field instanceof Map)) {
+            return;
+        }
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) field).entrySet()) {
+            if (entry.getValue() instanceof Timestamp) {
+                into.put(entry.getKey().toString(), (Timestamp) entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Orders the entrant's events for the broadcast query, which only takes the first
+     * {@link FDatabase#MAX_WHERE_IN}: events they are on, most recently changed first, then
+     * events recorded before statuses were kept, newest first. Events they left are dropped.
+     * @param eventIds the events on the entrant's profile, oldest first.
+     * @return the events whose broadcasts reach this entrant.
+     */
+    private List<String> broadcastEventIds(List<String> eventIds) {
+        List<String> current = new ArrayList<>();
+        for (Map.Entry<String, String> status : memberStatuses.entrySet()) {
+            if (status.getValue() != null) {
+                current.add(status.getKey());
+            }
+        }
+        Collections.sort(current, (a, b) -> {
+            Timestamp sinceA = memberSince.get(a);
+            Timestamp sinceB = memberSince.get(b);
+            if (sinceA == null || sinceB == null) {
+                return sinceA == null ? (sinceB == null ? 0 : 1) : -1;
+            }
+            return sinceB.compareTo(sinceA);
+        });
+        for (int i = eventIds.size() - 1; i >= 0; i--) {
+            if (!memberStatuses.containsKey(eventIds.get(i))) {
+                current.add(eventIds.get(i));
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Creates the pager merging personal notifications with event broadcasts.
+     * @param eventIds events whose broadcasts reach this entrant.
+     * @param clearedAt broadcasts sent before this time are hidden, or null.
+     */
+    private void buildInboxPager(List<String> eventIds, @Nullable Timestamp clearedAt) {
+        List<MergedNotificationPager.PageSource> sources = new ArrayList<>();
+        sources.add((startAfter, pageSize, callback) ->
+                fDatabase.queryUnreadNotificationsPage(currentUserId, startAfter, pageSize, callback));
+        if (!eventIds.isEmpty()) {
+            sources.add((startAfter, pageSize, callback) ->
+                    fDatabase.queryBroadcastsPage(eventIds, clearedAt, startAfter, pageSize, callback));
+        }
+        inboxPager = new MergedNotificationPager(PAGE_SIZE, sources);
+        if (isAdded()) {
+            loadNextPage();
+        }
+    }
+
+    /**
+     * Loads the next page of the entrant's inbox, newest first.
+     * Pages are fetched with cursors so opening the inbox only reads one page per source.
+     */
+    private void loadNextPage() {
         if (currentUserId == null) {
             Log.e(TAG, "Current user ID is null");
             return;
         }
-        Log.d(TAG, "Loading unread notifications for user: " + currentUserId);
+        if (inboxPager == null || inboxPager.isLoading() || !inboxPager.hasMore()) {
+            return;
+        }
+        Log.d(TAG, "Loading inbox page for user: " + currentUserId);
 
-        // Query notifications where recipientID matches AND read is false (or doesn't exist)
-        db = FirebaseFirestore.getInstance();
-        db.collection("notifications")
-                .whereEqualTo("recipientID", currentUserId)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    ArrayList<Notification> unreadNotifications = new ArrayList<>();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        Boolean isRead = document.getBoolean("viewedByEntrant");
-                        // If 'read' field doesn't exist or is false, include it
-                        if (isRead == null || !isRead) {
-                            Notification notification = document.toObject(Notification.class);
-                            if (notification != null) {
-                                notification.setNotificationID(document.getId());
-                                unreadNotifications.add(notification);
-                            }
-                        }
+        inboxPager.loadMore(new MergedNotificationPager.Listener() {
+            @Override
+            public void onItems(List<Notification> items, boolean hasMore) {
+                filterBroadcasts(items, visible -> {
+                    if (!isAdded()) {
+                        return;
                     }
+                    notificationAdapter.addNotifications(visible);
 
-                    if (isAdded()) {
-                        updateNotificationList(unreadNotifications);
-
-                        if (unreadNotifications.isEmpty() && getContext() != null) {
+                    if (notificationList.isEmpty()) {
+                        if (hasMore) {
+                            // Everything on this page was filtered out; keep going
+                            loadNextPage();
+                        } else if (getContext() != null) {
                             Toast.makeText(getContext(), "No new notifications", Toast.LENGTH_SHORT).show();
                         }
                     }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch notifications", e);
-                    if (isAdded() && getContext() != null) {
-                        Toast.makeText(getContext(), "Failed to load notifications", Toast.LENGTH_SHORT).show();
-                    }
                 });
+            }
 
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Failed to fetch notifications", e);
+                if (isAdded() && getContext() != null) {
+                    Toast.makeText(getContext(), "Failed to load notifications", Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops broadcasts this entrant has read or is no longer in the audience of.
+     * The audience is checked against the statuses on the entrant's profile; only events
+     * missing from it are read, each at most once while the inbox is open.
+     * @param items merged inbox items.
+     * @param onFiltered receives the items to display.
+     */
+    private void filterBroadcasts(List<Notification> items, Consumer<List<Notification>> onFiltered) {
+        Set<String> toFetch = new HashSet<>();
+        for (Notification item : items) {
+            if (item.getAudience() != null && !memberStatuses.containsKey(item.getEventID())
+                    && !audienceEvents.containsKey(item.getEventID())) {
+                toFetch.add(item.getEventID());
+            }
+        }
+        if (toFetch.isEmpty()) {
+            onFiltered.accept(visibleItems(items));
+            return;
+        }
+        if (getView() == null) {
+            return;
+        }
+        List<String> eventIds = new ArrayList<>(toFetch);
+        List<CompletableFuture<Event>> reads = new ArrayList<>();
+        for (String eventId : eventIds) {
+            // An unreadable event hides its broadcasts instead of failing the page
+            reads.add(fDatabase.getEventByIdAsync(eventId).exceptionally(e -> null));
+        }
+        LifecycleFutures.observe(getViewLifecycleOwner(), Futures.allOf(reads), events -> {
+            for (int i = 0; i < eventIds.size(); i++) {
+                audienceEvents.put(eventIds.get(i), events.get(i));
+            }
+            onFiltered.accept(visibleItems(items));
+        }, e -> Log.e(TAG, "Failed to load broadcast events", e));
+    }
+
+    private List<Notification> visibleItems(List<Notification> items) {
+        List<Notification> visible = new ArrayList<>();
+        for (Notification item : items) {
+            if (item.getAudience() == null) {
+                visible.add(item);
+                continue;
+            }
+            if (readBroadcasts.containsKey(item.getNotificationID())
+                    || readBroadcastIds.contains(item.getNotificationID())) {
+                continue;
+            }
+            if (memberStatuses.containsKey(item.getEventID())) {
+                if (item.getAudience().equals(memberStatuses.get(item.getEventID()))
+                        && !sentBefore(item, memberSince.get(item.getEventID()))) {
+                    visible.add(item);
+                }
+                continue;
+            }
+            Event event = audienceEvents.get(item.getEventID());
+            UserList audience = event == null ? null : audienceList(event, item.getAudience());
+            if (audience != null && event.entrantInList(currentUserId, audience)) {
+                Membership membership = event.getMemberships().get(currentUserId);
+                Date since = membership != null ? membership.getSince() : null;
+                if (!sentBefore(item, since != null ? new Timestamp(since) : null)) {
+                    visible.add(item);
+                }
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Checks whether a broadcast went out before the entrant moved to the list it addresses.
+     * @param item the broadcast.
+     * @param since when the entrant moved to the list, or null if unknown.
+     * @return true if the broadcast predates the entrant being on the list.
+     */
+    private static boolean sentBefore(Notification item, @Nullable Timestamp since) {
+        return since != null && item.getSentAt() != null && item.getSentAt().compareTo(since) < 0;
+    }
+
+    /**
+     * Maps a broadcast audience name to the event list it addresses.
+     * @param event event the broadcast belongs to.
+     * @param audience audience list name.
+     * @return the matching list, or null if the name is unknown.
+     */
+    @Nullable
+    private UserList audienceList(Event event, String audience) {
+        switch (audience) {
+            case "waitingList":
+                return event.getWaitingList();
+            case "invitedList":
+                return event.getInvitedList();
+            case "joinedList":
+                return event.getJoinedList();
+            case "cancelledList":
+                return event.getCancelledList();
+            default:
+                return null;
+        }
+    }
+
+    /** Fetches the next page once the list is scrolled near its end. */
+    private void setupPaging() {
+        notificationRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) view.getLayoutManager();
+                int totalItemCount = notificationAdapter.getItemCount();
+                if (layoutManager != null && totalItemCount > 0
+                        && layoutManager.findLastVisibleItemPosition() >= totalItemCount - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+    }
+
+    /** Loads the unread badge count with a server-side aggregation. */
+    private void loadUnreadCount() {
+        fDatabase.countUnreadNotifications(currentUserId, new FDatabase.CountCallback() {
+            @Override
+            public void onSuccess(long count) {
+                if (isAdded()) {
+                    setUnreadCount(count);
+                }
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e(TAG, "Failed to count unread notifications: " + error);
+            }
+        });
+    }
+
+    /**
+     * Updates the unread header and the bottom navigation badge.
+     * @param count number of unread notifications.
+     */
+    private void setUnreadCount(long count) {
+        unreadCount = Math.max(0, count);
+        unreadCountText.setText(unreadCount == 0 ? "No unread notifications" : unreadCount + " unread");
+        if (getActivity() instanceof MainActivity) {
+            ((MainActivity) getActivity()).updateNotificationBadge(unreadCount);
+        }
+    }
+
+    /**
+     * Records a broadcast as read on the entrant's profile. Once too many are remembered, the
+     * oldest half is forgotten and broadcasts up to the newest of those are hidden instead.
+     * @param broadcast the broadcast dismissed.
+     */
+    private void markBroadcastRead(Notification broadcast) {
+        Timestamp sentAt = broadcast.getSentAt() != null ? broadcast.getSentAt() : Timestamp.now();
+        readBroadcasts.put(broadcast.getNotificationID(), sentAt);
+        fDatabase.markBroadcastsRead(currentUserId,
+                Collections.singletonMap(broadcast.getNotificationID(), sentAt));
+        if (readBroadcasts.size() <= MAX_READ_BROADCASTS) {
+            return;
+        }
+        List<Map.Entry<String, Timestamp>> oldestFirst = new ArrayList<>(readBroadcasts.entrySet());
+        Collections.sort(oldestFirst, (a, b) -> a.getValue().compareTo(b.getValue()));
+        List<String> forgotten = new ArrayList<>();
+        Timestamp clearedAt = null;
+        for (Map.Entry<String, Timestamp> read : oldestFirst.subList(0, oldestFirst.size() / 2)) {
+            forgotten.add(read.getKey());
+            clearedAt = read.getValue();
+        }
+        for (String id : forgotten) {
+            readBroadcasts.remove(id);
+        }
+        fDatabase.trimReadBroadcasts(currentUserId, forgotten, clearedAt);
     }
 
     private void setupLongPressToDismiss() {
-        notificationListView.setOnItemLongClickListener((parent, view, position, id) -> {
+        notificationAdapter.setOnNotificationLongClickListener(position -> {
             // Show confirmation dialog
             new androidx.appcompat.app.AlertDialog.Builder(requireContext())
                     .setTitle("Dismiss Notification")
                     .setMessage("Mark this notification as read?")
                     .setPositiveButton("Yes", (dialog, which) -> {
-                        notificationAdapter.markNotificationAsRead(position);
+                        Notification dismissed = notificationAdapter.removeNotification(position);
+                        if (dismissed == null) {
+                            return;
+                        }
+                        if (dismissed.getAudience() != null) {
+                            // Broadcasts are shared, so read state lives on the user
+                            markBroadcastRead(dismissed);
+                        } else {
+                            // Buffered so several dismissals are written as one batch
+                            readStateBuffer.markRead(dismissed.getNotificationID());
+                            setUnreadCount(unreadCount - 1);
+                        }
                         Toast.makeText(getContext(), "Notification dismissed", Toast.LENGTH_SHORT).show();
                     })
                     .setNegativeButton("Cancel", null)
                     .show();
-            return true;
         });
     }
 
-    /** Updates the entrant notification list in the adapter.
-     * @param notifications unread notifications to display.
+    /** Asks for confirmation before marking every unread notification as read. */
+    private void confirmMarkAllRead() {
+        if (unreadCount == 0 && notificationList.isEmpty()) {
+            Toast.makeText(getContext(), "No new notifications", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        new androidx.appcompat.app.AlertDialog.Builder(requireContext())
+                .setTitle("Mark All Read")
+                .setMessage("Mark all notifications as read?")
+                .setPositiveButton("Yes", (dialog, which) -> markAllRead())
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    /**
+     * Marks every unread notification as read, including pages not loaded yet.
+     * The database pages through the unread notifications in batches.
+     */
+    private void markAllRead() {
+        readStateBuffer.flush();
+        fDatabase.clearBroadcasts(currentUserId);
+        fDatabase.markAllNotificationsRead(currentUserId, new FDatabase.StatusCallback() {
+            @Override
+            public void onSuccess() {
+                if (!isAdded()) {
+                    return;
+                }
+                notificationAdapter.clear();
+                readBroadcasts.clear();
+                readBroadcastIds.clear();
+                inboxPager = null;
+                setUnreadCount(0);
+                Toast.makeText(getContext(), "All notifications marked as read", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e(TAG, "Failed to mark all notifications read: " + error);
+                if (isAdded() && getContext() != null) {
+                    Toast.makeText(getContext(), "Failed to mark notifications as read", Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes any buffered mark-as-read actions when the screen is left.
      */
-    private void updateNotificationList(ArrayList<Notification> notifications) {
-        notificationList.clear();
-        notificationList.addAll(notifications);
-        notificationAdapter.notifyDataSetChanged();
+    @Override
+    public void onPause() {
+        super.onPause();
+        if (readStateBuffer != null) {
+            readStateBuffer.flush();
+        }
     }
+
     /** Sets up the RecyclerView and loads organizer data for admin view.
      * @param root inflated admin layout.
      */
@@ -206,6 +586,11 @@ public class NotificationFragment extends Fragment {
 
         // Load organizer data directly from users collection
         loadOrganizersFromUsers();
+
+        // Copy event/organizer names into notifications sent before they were snapshotted
+        NotificationBackfill.runOnce(requireContext());
+        // Copy memberships onto the profiles of entrants who joined before they were kept there
+        MembershipBackfill.runOnce(requireContext());
     }
 
     /**
@@ -237,8 +622,7 @@ public class NotificationFragment extends Fragment {
         Log.d(TAG, "Loading organizers from users collection...");
 
         // Get all users and filter for ORGANIZER role
-        db.collection("users")
-                .get()
+        FDatabase.getInstance().trackRead("users", db.collection("users").get())
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     List<OrganizerInfo> organizerList = new ArrayList<>();
 
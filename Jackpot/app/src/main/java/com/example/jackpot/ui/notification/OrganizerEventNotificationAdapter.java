@@ -83,4 +83,15 @@ public class OrganizerEventNotificationAdapter
         notifList = list;
         notifyDataSetChanged();
     }
+
+    /**
+     * Appends a page of notifications to the end of the list.
+     * @param page Notifications to append
+     */
+    public void addData(List<Notification> page) {
+        if (page == null || page.isEmpty()) return;
+        int start = notifList.size();
+        notifList.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
 }
\ No newline at end of file
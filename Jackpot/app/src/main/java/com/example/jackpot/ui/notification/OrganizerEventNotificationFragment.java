@@ -1,6 +1,7 @@
 package com.example.jackpot.ui.notification;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -12,25 +13,29 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.jackpot.FDatabase;
 import com.example.jackpot.Notification;
 import com.example.jackpot.R;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class OrganizerEventNotificationFragment extends Fragment {
 
     private static final String ARG_EVENT_ID = "event_id";
     private static final String ARG_EVENT_NAME = "event_name";
+    private static final String TAG = "OrganizerEventNotif";
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 5;
 
     private String eventId, eventName;
 
     private RecyclerView recyclerView;
     private OrganizerEventNotificationAdapter adapter;
     private FirebaseFirestore db;
+    private MergedNotificationPager pager;
 
     public static OrganizerEventNotificationFragment newInstance(String eventId, String eventName) {
         OrganizerEventNotificationFragment f = new OrganizerEventNotificationFragment();
@@ -65,28 +70,52 @@ public class OrganizerEventNotificationFragment extends Fragment {
             eventName = getArguments().getString(ARG_EVENT_NAME);
         }
 
-        loadEventNotifications();
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) view.getLayoutManager();
+                if (layoutManager != null
+                        && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+
+        loadNextPage();
         return root;
     }
 
-    private void loadEventNotifications() {
+    /**
+     * Loads the next page of this event's notifications and broadcasts, newest first.
+     */
+    private void loadNextPage() {
         if (eventId == null || eventId.isEmpty()) {
             return;
         }
+        if (pager == null) {
+            FDatabase fDatabase = FDatabase.getInstance();
+            pager = new MergedNotificationPager(PAGE_SIZE, Arrays.asList(
+                    (startAfter, pageSize, callback) ->
+                            fDatabase.queryNotificationsPage("eventID", eventId, startAfter, pageSize, callback),
+                    (startAfter, pageSize, callback) ->
+                            fDatabase.queryBroadcastsPage("eventID", eventId, startAfter, pageSize, callback)));
+        }
+        if (pager.isLoading() || !pager.hasMore()) {
+            return;
+        }
 
-        db.collection("notifications")
-                .whereEqualTo("eventID", eventId)
-                .get()
-                .addOnSuccessListener(query -> {
-                    List<Notification> list = new ArrayList<>();
-                    for (QueryDocumentSnapshot doc : query) {
-                        Notification n = doc.toObject(Notification.class);
-                        list.add(n);
-                    }
-                    adapter.updateData(list);
-                })
-                .addOnFailureListener(e -> {
-                    // you can log / toast if you want
-                });
+        pager.loadMore(new MergedNotificationPager.Listener() {
+            @Override
+            public void onItems(List<Notification> items, boolean hasMore) {
+                if (isAdded()) {
+                    adapter.addData(items);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Failed to load event notifications", e);
+            }
+        });
     }
 }
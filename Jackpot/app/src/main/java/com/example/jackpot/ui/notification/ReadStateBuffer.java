@@ -0,0 +1,73 @@
+package com.example.jackpot.ui.notification;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.jackpot.FDatabase;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects mark-as-read actions from the entrant inbox and writes them together.
+ * Pending IDs are flushed as one batched write a short time after the first tap,
+ * or immediately when {@link #flush()} is called (e.g. when the screen is left).
+ */
+public class ReadStateBuffer {
+    private static final String TAG = "ReadStateBuffer";
+    private static final long FLUSH_DELAY_MS = 3000;
+
+    private final FDatabase fDatabase;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Set<String> pendingIds = new LinkedHashSet<>();
+    private final Runnable flushRunnable = this::flush;
+    private boolean flushScheduled = false;
+
+    /**
+     * Creates a buffer that writes through the given database.
+     * @param fDatabase The database facade used to commit the batched writes
+     */
+    public ReadStateBuffer(FDatabase fDatabase) {
+        this.fDatabase = fDatabase;
+    }
+
+    /**
+     * Queues a notification to be marked as read on the next flush.
+     * @param notificationId The ID of the notification
+     */
+    public void markRead(String notificationId) {
+        if (notificationId == null || notificationId.isEmpty()) return;
+        pendingIds.add(notificationId);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            handler.postDelayed(flushRunnable, FLUSH_DELAY_MS);
+        }
+    }
+
+    /**
+     * Writes all pending mark-as-read actions now.
+     * IDs from a failed write are kept and retried on the next flush.
+     */
+    public void flush() {
+        handler.removeCallbacks(flushRunnable);
+        flushScheduled = false;
+        if (pendingIds.isEmpty()) return;
+
+        ArrayList<String> ids = new ArrayList<>(pendingIds);
+        pendingIds.clear();
+        fDatabase.markNotificationsRead(ids, new FDatabase.StatusCallback() {
+            @Override
+            public void onSuccess() {
+                Log.d(TAG, "Flushed " + ids.size() + " read notifications");
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.e(TAG, "Failed to flush read notifications: " + error);
+                pendingIds.addAll(ids);
+            }
+        });
+    }
+}
@@ -23,9 +23,10 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 
 import com.bumptech.glide.Glide;
-import com.example.jackpot.FDatabase;
 
+import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
+import com.example.jackpot.SessionCache;
 import com.example.jackpot.activities.ui.LoginActivity;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -119,9 +120,9 @@ public class ProfileFragment extends Fragment {
         FirebaseUser currentUser = mAuth.getCurrentUser();
         if (currentUser == null) return;
 
-        db.collection("users")
-                .document(currentUser.getUid())
-                .get()
+        FDatabase.getInstance().trackRead("users", db.collection("users")
+                        .document(currentUser.getUid())
+                        .get())
                 .addOnSuccessListener(snapshot -> {
                     if (snapshot.exists()) {
                         nameField.setText(snapshot.getString("name"));
@@ -259,6 +260,7 @@ public class ProfileFragment extends Fragment {
      */
     private void logout() {
         mAuth.signOut();
+        SessionCache.getInstance().clear();
         Toast.makeText(requireContext(), "Logged out successfully", Toast.LENGTH_SHORT).show();
 
         // Redirect to login
@@ -14,6 +14,7 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.jackpot.FDatabase;
 import com.example.jackpot.R;
 import com.example.jackpot.User;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -94,8 +95,7 @@ public class ProfileListAdmin extends Fragment {
      * Loads the users from the database and adds them to the list.
      */
     private void loadUsers() {
-        db.collection("users")
-                .get()
+        FDatabase.getInstance().trackRead("users", db.collection("users").get())
                 .addOnSuccessListener(querySnapshot -> {
                     allUsers.clear();
                     for (QueryDocumentSnapshot doc : querySnapshot) {
@@ -1,10 +1,12 @@
 package com.example.jackpot.ui.settings;
 
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.LinearLayout;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
@@ -12,6 +14,8 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.widget.SwitchCompat;
 import androidx.fragment.app.Fragment;
 
+import com.example.jackpot.FDatabase;
+import com.example.jackpot.FirestoreMetrics;
 import com.example.jackpot.R;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -24,6 +28,7 @@ import com.google.firebase.firestore.ListenerRegistration;
  * Responsibilities:
  *  - Inflate the settings layout.
  *  - Allow entrants to opt out of organizer/admin notifications.
+ *  - In debuggable builds, show the Firestore operation metrics.
  */
 public class SettingsFragment extends Fragment {
 
@@ -31,6 +36,7 @@ public class SettingsFragment extends Fragment {
     private LinearLayout entrantOptOutCard;
     private boolean isApplyingSwitchState = false;
     private ListenerRegistration userListener;
+    private TextView metricsText;
 
     /**
      * Inflate the settings UI.
@@ -67,9 +73,19 @@ public class SettingsFragment extends Fragment {
             updateOptOutPreference(user.getUid(), isChecked);
         });
 
+        if ((requireContext().getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            setupMetricsCard(root);
+        }
+
         return root;
     }
 
+    @Override
+    public void onResume() {
+        super.onResume();
+        showMetrics();
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
@@ -79,6 +95,31 @@ public class SettingsFragment extends Fragment {
         }
         entrantOptOutSwitch = null;
         entrantOptOutCard = null;
+        metricsText = null;
+    }
+
+    private void setupMetricsCard(View root) {
+        root.findViewById(R.id.firestore_metrics_card).setVisibility(View.VISIBLE);
+        metricsText = root.findViewById(R.id.firestore_metrics_text);
+        root.findViewById(R.id.button_refresh_metrics).setOnClickListener(v -> showMetrics());
+        root.findViewById(R.id.button_reset_metrics).setOnClickListener(v -> {
+            FDatabase.getInstance().getMetrics().reset();
+            FDatabase.getInstance().getScreenReads().clearRecent();
+            showMetrics();
+        });
+    }
+
+    private void showMetrics() {
+        if (metricsText == null) {
+            return;
+        }
+        FDatabase fDatabase = FDatabase.getInstance();
+        StringBuilder text = new StringBuilder(FirestoreMetrics.format(fDatabase.getMetrics().snapshot()));
+        text.append("\n\nReads per screen visit:");
+        for (String visit : fDatabase.getScreenReads().describeVisits()) {
+            text.append('\n').append(visit);
+        }
+        metricsText.setText(text);
     }
 
     private void attachUserListener(String userId) {
@@ -2,11 +2,16 @@ package com.example.jackpot;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
 
 import com.google.firebase.firestore.GeoPoint;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Simple constructor sanity tests for admin and organizer user models.
  */
@@ -34,6 +39,28 @@ public class AdminOrganizerTest {
         assertEquals(geoPoint, organizer.getGeoPoint());
     }
 
+    @Test
+    public void drawLottery_delegatesToLotteryService() {
+        Organizer organizer = new Organizer("Org", "org-3", User.Role.ORGANIZER, "", "", "", "", "",
+                new Device(), new GeoPoint(0, 0));
+        List<String> requested = new ArrayList<>();
+        organizer.setLotteryService(requested::add);
+
+        organizer.drawLottery("event-1");
+
+        assertEquals(Collections.singletonList("event-1"), requested);
+    }
+
+    @Test
+    public void drawLottery_requiresServiceAndEventId() {
+        Organizer organizer = new Organizer("Org", "org-4", User.Role.ORGANIZER, "", "", "", "", "",
+                new Device(), new GeoPoint(0, 0));
+        assertThrows(IllegalStateException.class, () -> organizer.drawLottery("event-1"));
+
+        organizer.setLotteryService(eventId -> { });
+        assertThrows(IllegalArgumentException.class, () -> organizer.drawLottery(""));
+    }
+
     @Test
     public void adminConstructor_setsRoleAdmin() {
         GeoPoint geoPoint = new GeoPoint(0, 0);
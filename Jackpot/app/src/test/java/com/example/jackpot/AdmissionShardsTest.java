@@ -0,0 +1,103 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the sharded waiting-list admission rules.
+ */
+public class AdmissionShardsTest {
+    private Random random;
+
+    @Before
+    public void setUp() {
+        random = new Random(42);
+    }
+
+    @Test
+    public void shardCountFor_onlyShardsHighDemandEventsWithLargeLimits() {
+        assertEquals(0, AdmissionShards.shardCountFor(AdmissionShards.SHARDING_THRESHOLD, false));
+        assertEquals(0, AdmissionShards.shardCountFor(0, false));
+        assertEquals(0, AdmissionShards.shardCountFor(AdmissionShards.SHARDING_THRESHOLD - 1, true));
+        assertEquals(AdmissionShards.DEFAULT_SHARDS,
+                AdmissionShards.shardCountFor(AdmissionShards.SHARDING_THRESHOLD, true));
+        assertEquals(AdmissionShards.DEFAULT_SHARDS, AdmissionShards.shardCountFor(0, true));
+    }
+
+    @Test
+    public void shardLimit_sharesAddUpToLimit() {
+        int limit = 1000;
+        int shards = 32;
+        long total = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            long share = AdmissionShards.shardLimit(limit, shards, shard);
+            assertTrue(share == 31 || share == 32);
+            total += share;
+        }
+        assertEquals(limit, total);
+    }
+
+    @Test
+    public void shardLimit_noLimitIsUnlimited() {
+        assertEquals(AdmissionShards.UNLIMITED, AdmissionShards.shardLimit(null, 4, 0));
+        assertEquals(AdmissionShards.UNLIMITED, AdmissionShards.shardLimit(0, 4, 3));
+    }
+
+    @Test
+    public void shardLimit_rejectsShardOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> AdmissionShards.shardLimit(100, 4, 4));
+        assertThrows(IllegalArgumentException.class, () -> AdmissionShards.shardLimit(100, 4, -1));
+        assertThrows(IllegalArgumentException.class, () -> AdmissionShards.shardLimit(100, 0, 0));
+    }
+
+    @Test
+    public void probeOrder_picksDistinctShardsInRange() {
+        List<Integer> probes = AdmissionShards.probeOrder(32, AdmissionShards.MAX_PROBES, random);
+        assertEquals(AdmissionShards.MAX_PROBES, probes.size());
+        assertEquals(probes.size(), new HashSet<>(probes).size());
+        for (int shard : probes) {
+            assertTrue(shard >= 0 && shard < 32);
+        }
+        assertEquals(2, AdmissionShards.probeOrder(2, 5, random).size());
+    }
+
+    @Test
+    public void pickShardWithRoom_onlyPicksShardsBelowQuota() {
+        long[] limits = {2, 2, 2};
+        assertEquals(1, AdmissionShards.pickShardWithRoom(new long[]{2, 1, 2}, limits, random));
+        assertEquals(-1, AdmissionShards.pickShardWithRoom(new long[]{2, 2, 2}, limits, random));
+    }
+
+    @Test
+    public void pickWinners_ignoresReadOrder() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add("user" + i);
+        }
+        List<String> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, new Random(7));
+
+        List<String> first = AdmissionShards.pickWinners(ids, 10, new Random(99));
+        List<String> second = AdmissionShards.pickWinners(shuffled, 10, new Random(99));
+        assertEquals(first, second);
+        assertEquals(10, new HashSet<>(first).size());
+    }
+
+    @Test
+    public void pickWinners_handlesFewEntrantsAndNoSpots() {
+        List<String> ids = Arrays.asList("b", "a");
+        assertEquals(Arrays.asList("a", "b"), AdmissionShards.pickWinners(ids, 5, random));
+        assertTrue(AdmissionShards.pickWinners(ids, 0, random).isEmpty());
+    }
+}
@@ -70,7 +70,7 @@ public class EntrantTest {
     @Test
     public void joinWaitingList_addsEntrant() {
         entrant.joinWaitingList(baseEvent);
-        assertTrue(waitingList.contains(entrant));
+        assertTrue(baseEvent.getWaitingList().contains(entrant));
     }
 
     @Test
@@ -88,11 +88,41 @@ public class EntrantTest {
         assertThrows(IllegalStateException.class, () -> third.joinWaitingList(baseEvent));
     }
 
+    @Test
+    public void joinWaitingList_recordsJoinLocationWhenGeoRequired() {
+        baseEvent.setGeoRequired(true);
+        entrant.joinWaitingList(baseEvent);
+
+        JoinLocation location = baseEvent.getJoinLocation(entrant.getId());
+        assertNotNull(location);
+        assertEquals(53, location.getLat(), 0);
+        assertEquals(-113, location.getLng(), 0);
+    }
+
+    @Test
+    public void joinWaitingList_skipsJoinLocationWhenNotRequiredOrDisabled() {
+        entrant.joinWaitingList(baseEvent);
+        assertNull(baseEvent.getJoinLocation(entrant.getId()));
+
+        baseEvent.setGeoRequired(true);
+        Entrant other = new Entrant(UUID.randomUUID().toString(), "Other", User.Role.ENTRANT, "", "", "", "", "", new Device(), new GeoPoint(0, 0));
+        other.joinWaitingList(baseEvent);
+        assertNull(baseEvent.getJoinLocation(other.getId()));
+    }
+
+    @Test
+    public void leaveWaitingList_dropsJoinLocation() {
+        baseEvent.setGeoRequired(true);
+        entrant.joinWaitingList(baseEvent);
+        entrant.leaveWaitingList(baseEvent);
+        assertNull(baseEvent.getJoinLocation(entrant.getId()));
+    }
+
     @Test
     public void leaveWaitingList_removesEntrant() {
         entrant.joinWaitingList(baseEvent);
         entrant.leaveWaitingList(baseEvent);
-        assertFalse(waitingList.contains(entrant));
+        assertFalse(baseEvent.getWaitingList().contains(entrant));
     }
 
     @Test
@@ -103,12 +133,11 @@ public class EntrantTest {
     @Test
     public void rejoinMovesFromCancelledToWaiting() {
         entrant.joinWaitingList(baseEvent);
-        waitingList.remove(entrant);
-        cancelledList.add(entrant);
+        baseEvent.moveToCancelled(entrant);
 
         entrant.joinWaitingList(baseEvent);
 
-        assertTrue(waitingList.contains(entrant));
-        assertFalse(cancelledList.contains(entrant));
+        assertTrue(baseEvent.getWaitingList().contains(entrant));
+        assertFalse(baseEvent.getCancelledList().contains(entrant));
     }
 }
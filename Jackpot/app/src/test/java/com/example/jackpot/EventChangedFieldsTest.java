@@ -0,0 +1,120 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Unit tests for finding which fields of an event changed since it was read.
+ */
+public class EventChangedFieldsTest {
+    private Event event;
+
+    @Before
+    public void setUp() {
+        event = new Event();
+        event.setEventId("e1");
+        event.setName("Swim lessons");
+        event.setDescription("A long description that should not be re-sent");
+        event.setCapacity(5);
+        event.setDate(new Date(1000));
+        ArrayList<User> users = new ArrayList<>();
+        users.add(user("a"));
+        users.add(user("b"));
+        event.setWaitingList(new UserList(users, 10));
+        event.markPersisted();
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    @Test
+    public void changedFields_emptyWhenNothingChanged() {
+        assertTrue(event.hasPersistedState());
+        assertTrue(event.changedFields().isEmpty());
+    }
+
+    @Test
+    public void changedFields_onlyEditedFields() {
+        event.setName("Diving lessons");
+        event.setCapacity(8);
+
+        Map<String, Object> fields = event.changedFields();
+
+        assertEquals(new HashSet<>(Arrays.asList("name", "capacity")), fields.keySet());
+        assertEquals("Diving lessons", fields.get("name"));
+        assertEquals(8, fields.get("capacity"));
+    }
+
+    @Test
+    public void changedFields_clearedFieldMapsToNull() {
+        event.setDescription(null);
+
+        Map<String, Object> fields = event.changedFields();
+
+        assertTrue(fields.containsKey("description"));
+        assertNull(fields.get("description"));
+    }
+
+    @Test
+    public void changedFields_dateEditedInPlace() {
+        event.getDate().setTime(2000);
+
+        assertEquals(new HashSet<>(Collections.singletonList("date")), event.changedFields().keySet());
+    }
+
+    @Test
+    public void changedFields_onlyMovedMemberships() {
+        event.moveTo(user("a"), Event.Status.INVITED);
+
+        Map<String, Object> fields = event.changedFields();
+
+        // The counters are recounted when the change is written
+        assertEquals(Collections.singleton("memberships.a"), fields.keySet());
+        assertEquals(Event.Status.INVITED, ((Membership) fields.get("memberships.a")).getStatus());
+    }
+
+    @Test
+    public void changedFields_removedEntrantDeletesMembership() {
+        event.removeAll(Collections.singletonList("b"), Event.Status.WAITING);
+
+        Map<String, Object> fields = event.changedFields();
+
+        assertTrue(fields.containsKey("memberships.b"));
+        assertNull(fields.get("memberships.b"));
+        assertFalse(fields.containsKey("memberships.a"));
+    }
+
+    @Test
+    public void markPersisted_startsTheNextDiff() {
+        event.setName("Diving lessons");
+        event.markPersisted();
+        event.setCategory("Sports");
+
+        assertEquals(new HashSet<>(Collections.singletonList("category")), event.changedFields().keySet());
+    }
+
+    @Test
+    public void clearPersisted_requiresFullWrite() {
+        event.clearPersisted();
+
+        assertFalse(event.hasPersistedState());
+        assertThrows(IllegalStateException.class, () -> event.changedFields());
+        assertFalse(new Event().hasPersistedState());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Unit tests for the per-status counters kept on the event document.
+ */
+public class EventCountersTest {
+    private Event event;
+
+    @Before
+    public void setUp() {
+        event = new Event();
+        event.setCapacity(3);
+        Map<String, Membership> stored = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            stored.put("w" + i, new Membership(user("w" + i), Event.Status.WAITING, new Date(i)));
+        }
+        stored.put("j0", new Membership(user("j0"), Event.Status.JOINED, new Date(10)));
+        // As read from a document that has counters
+        event.setMemberships(stored);
+        event.setWaitingCount(4);
+        event.setJoinedCount(1);
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    // A document's memberships as Firestore returns them, with the status stored by name
+    private static Map<String, Object> storedDocument(String... idsAndStatuses) {
+        Map<String, Object> memberships = new HashMap<>();
+        for (int i = 0; i < idsAndStatuses.length; i += 2) {
+            Map<String, Object> membership = new HashMap<>();
+            membership.put("status", idsAndStatuses[i + 1]);
+            memberships.put(idsAndStatuses[i], membership);
+        }
+        Map<String, Object> document = new HashMap<>();
+        document.put(Event.MEMBERSHIPS, memberships);
+        return document;
+    }
+
+    @Test
+    public void counts_comeFromTheStoredCounters() {
+        Event read = new Event();
+        read.setWaitingCount(7);
+        read.setInvitedCount(2);
+
+        assertEquals(7, read.getWaitingCount());
+        assertEquals(2, read.getInvitedCount());
+        // A status without a stored counter has nobody on it
+        assertEquals(0, read.getJoinedCount());
+    }
+
+    @Test
+    public void localChanges_adjustTheStoredCounters() {
+        Event read = new Event();
+        read.setWaitingCount(7);
+        read.moveTo(user("w0"), Event.Status.INVITED);
+
+        assertEquals(7, read.getWaitingCount());
+        assertEquals(1, read.getInvitedCount());
+    }
+
+    @Test
+    public void documentWithoutCounters_countsItsMemberships() {
+        Event old = new Event();
+        Map<String, Membership> stored = new HashMap<>();
+        stored.put("w0", new Membership(user("w0"), Event.Status.WAITING, new Date(0)));
+        stored.put("w1", new Membership(user("w1"), Event.Status.WAITING, new Date(1)));
+        old.setMemberships(stored);
+
+        assertEquals(2, old.getWaitingCount());
+        old.inviteAll(Collections.singletonList("w0"));
+        assertEquals(1, old.getWaitingCount());
+        assertEquals(1, old.getInvitedCount());
+    }
+
+    @Test
+    public void membershipFields_leaveTheCountersToTheWrite() {
+        Map<String, Object> fields = event.inviteAll(Arrays.asList("w0", "w1")).getUpdateFields();
+
+        assertEquals(new HashSet<>(Arrays.asList("memberships.w0", "memberships.w1")), fields.keySet());
+    }
+
+    @Test
+    public void counterFields_recountTheStoredMembershipsWithTheUpdate() {
+        Map<String, Object> stored = storedDocument("w0", "WAITING", "w1", "WAITING", "j0", "JOINED");
+        Map<String, Object> update = new HashMap<>();
+        update.put("memberships.w0", new Membership(user("w0"), Event.Status.INVITED, new Date(0)));
+        update.put("memberships.j0", null);
+        update.put("memberships.n0", new Membership(user("n0"), Event.Status.WAITING, new Date(5)));
+
+        Map<String, Object> counters = Event.counterFields(stored, update);
+
+        assertEquals(2, counters.get("waitingCount"));
+        assertEquals(1, counters.get("invitedCount"));
+        assertEquals(0, counters.get("joinedCount"));
+        assertEquals(0, counters.get("cancelledCount"));
+    }
+
+    @Test
+    public void counterFields_correctDriftedCounters() {
+        // Stored counters say three are waiting, but only one membership is
+        Map<String, Object> stored = storedDocument("w0", "WAITING");
+        stored.put("waitingCount", 3L);
+        Map<String, Object> update = new HashMap<>();
+        update.put("memberships.w1", new Membership(user("w1"), Event.Status.WAITING, new Date(1)));
+
+        assertEquals(2, Event.counterFields(stored, update).get("waitingCount"));
+    }
+
+    @Test
+    public void counterFields_staleCopiesMovingTheSameEntrantCountItOnce() {
+        Map<String, Object> stored = storedDocument("w0", "INVITED");
+        Map<String, Object> update = new HashMap<>();
+        update.put("memberships.w0", new Membership(user("w0"), Event.Status.INVITED, new Date(0)));
+
+        Map<String, Object> counters = Event.counterFields(stored, update);
+        assertEquals(1, counters.get("invitedCount"));
+        assertEquals(0, counters.get("waitingCount"));
+    }
+
+    @Test
+    public void counterFields_emptyForUpdatesWithoutMemberships() {
+        Map<String, Object> update = new HashMap<>();
+        update.put("name", "Renamed");
+
+        assertTrue(Event.counterFields(storedDocument("w0", "WAITING"), update).isEmpty());
+    }
+
+    @Test
+    public void remainingSeats_andTotalEntrants_followTransitions() {
+        assertEquals(2, event.remainingSeats());
+        assertEquals(5, event.totalEntrants());
+
+        event.inviteAll(Arrays.asList("w0", "w1"));
+        assertEquals(0, event.remainingSeats());
+
+        event.cancelAll(Collections.singletonList("w1"));
+        assertEquals(1, event.remainingSeats());
+        assertEquals(4, event.totalEntrants());
+        assertEquals(1, event.getCancelledCount());
+        assertEquals(1, event.getJoinedCount());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for the membership map and migration from stored lists.
+ */
+public class EventMembershipTest {
+    private Event event;
+
+    @Before
+    public void setUp() {
+        event = new Event();
+        event.setCapacity(5);
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static UserList list(String... ids) {
+        ArrayList<User> users = new ArrayList<>();
+        for (String id : ids) {
+            users.add(user(id));
+        }
+        return new UserList(users, 0);
+    }
+
+    @Test
+    public void storedLists_migrateWithOneStatusPerEntrant() {
+        // Firestore calls the stored setters in no particular order
+        event.setStoredWaitingList(new UserList(list("w1", "both").getUsers(), 50));
+        event.setStoredJoinedList(list("both"));
+        event.setStoredCancelledList(list("c1"));
+        event.setStoredJoinLocations(Collections.singletonMap("w1", new JoinLocation(1, 2)));
+
+        assertEquals(Event.Status.WAITING, event.statusOf("w1"));
+        assertEquals(Event.Status.JOINED, event.statusOf("both"));
+        assertEquals(1, event.getWaitingCount());
+        assertEquals(1, event.countOf(Event.Status.CANCELLED));
+        assertEquals(50, event.getWaitingListLimit());
+        assertEquals(1, event.getJoinLocation("w1").getLat(), 0);
+        assertNull(event.getStoredWaitingList());
+    }
+
+    @Test
+    public void membershipFields_completeMigrationOfStoredLists() {
+        event.setStoredWaitingList(list("w1", "w2"));
+        event.transition(Collections.singletonList("w1"), Event.Status.WAITING, Event.Status.INVITED);
+
+        Map<String, Object> fields = event.membershipFields(Collections.singletonList("w1"));
+
+        assertTrue(fields.containsKey("memberships.w1"));
+        assertTrue(fields.containsKey("memberships.w2"));
+        assertTrue(fields.containsKey("waitingList"));
+        assertNull(fields.get("waitingList"));
+        assertTrue(fields.containsKey("joinLocations"));
+    }
+
+    @Test
+    public void storedMemberships_winOverStaleLists() {
+        Map<String, Membership> stored = new HashMap<>();
+        stored.put("m1", new Membership(user("m1"), Event.Status.INVITED, new Date(1000)));
+        event.setStoredWaitingList(list("old"));
+        event.setMemberships(stored);
+        event.setInvitedCount(1);
+
+        assertFalse(event.hasEntrant("old"));
+        assertEquals(Event.Status.INVITED, event.statusOf("m1"));
+        Map<String, Object> fields = event.membershipFields(Collections.singletonList("m1"));
+        assertEquals(Collections.singleton("memberships.m1"), fields.keySet());
+    }
+
+    @Test
+    public void setMemberships_ordersListsByTimestamp() {
+        Map<String, Membership> stored = new HashMap<>();
+        stored.put("late", new Membership(user("late"), Event.Status.WAITING, new Date(3000)));
+        stored.put("early", new Membership(user("early"), Event.Status.WAITING, new Date(1000)));
+        stored.put("middle", new Membership(user("middle"), Event.Status.WAITING, new Date(2000)));
+        event.setMemberships(stored);
+
+        UserList waiting = event.getWaitingList();
+        assertEquals(Arrays.asList("early", "middle", "late"), Arrays.asList(
+                waiting.get(0).getId(), waiting.get(1).getId(), waiting.get(2).getId()));
+    }
+
+    @Test
+    public void countsAndViewsFollowMoves() {
+        event.setWaitingList(list("a", "b", "c"));
+        UserList waiting = event.getWaitingList();
+        assertTrue(event.entrantInList("a", waiting));
+
+        event.moveToCancelled(user("a"));
+
+        assertEquals(2, event.getWaitingCount());
+        assertEquals(1, event.countOf(Event.Status.CANCELLED));
+        assertFalse(event.entrantInList("a", event.getWaitingList()));
+        assertTrue(event.entrantInList("a", event.getCancelledList()));
+    }
+
+    @Test
+    public void removeAll_deletesMembershipField() {
+        event.setWaitingList(list("a"));
+
+        Event.ChangeSet change = event.removeAll(Collections.singletonList("a"), Event.Status.WAITING);
+
+        assertFalse(event.hasEntrant("a"));
+        assertTrue(change.getUpdateFields().containsKey("memberships.a"));
+        assertNull(change.getUpdateFields().get("memberships.a"));
+    }
+
+    @Test
+    public void memberStatuses_mirrorsMembershipFieldsOnly() {
+        event.setWaitingList(list("a", "b"));
+        Map<String, Object> fields = new HashMap<>(
+                event.transition(Collections.singletonList("a"), Event.Status.WAITING, Event.Status.INVITED)
+                        .getUpdateFields());
+        fields.putAll(event.removeAll(Collections.singletonList("b"), Event.Status.WAITING).getUpdateFields());
+
+        Map<String, String> statuses = Event.memberStatuses(fields);
+
+        assertEquals(2, statuses.size());
+        assertEquals("invitedList", statuses.get("a"));
+        assertTrue(statuses.containsKey("b"));
+        assertNull(statuses.get("b"));
+    }
+}
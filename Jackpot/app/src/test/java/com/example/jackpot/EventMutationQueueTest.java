@@ -0,0 +1,132 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tests for coalescing event field updates.
+ */
+public class EventMutationQueueTest {
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final List<String> writtenIds = new ArrayList<>();
+    private final List<Map<String, Object>> writtenFields = new ArrayList<>();
+    private final List<CompletableFuture<Void>> writes = new ArrayList<>();
+    private EventMutationQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new EventMutationQueue((eventId, fields) -> {
+            writtenIds.add(eventId);
+            writtenFields.add(fields);
+            CompletableFuture<Void> write = new CompletableFuture<>();
+            writes.add(write);
+            return write;
+        }, (task, delayMs) -> scheduled.add(task));
+    }
+
+    private void runScheduled() {
+        List<Runnable> tasks = new ArrayList<>(scheduled);
+        scheduled.clear();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+
+    private static Map<String, Object> field(String name, Object value) {
+        return Collections.singletonMap(name, value);
+    }
+
+    @Test
+    public void enqueue_mergesUpdatesInWindowIntoOneWrite() {
+        CompletableFuture<Void> first = queue.enqueue("e1", field("waitingList", "a"));
+        CompletableFuture<Void> second = queue.enqueue("e1", field("invitedList", "b"));
+        CompletableFuture<Void> third = queue.enqueue("e1", field("waitingList", "c"));
+        assertEquals(1, scheduled.size());
+
+        runScheduled();
+        assertEquals(1, writtenFields.size());
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("waitingList", "c");
+        expected.put("invitedList", "b");
+        assertEquals(expected, writtenFields.get(0));
+
+        assertFalse(first.isDone());
+        writes.get(0).complete(null);
+        assertTrue(first.isDone() && second.isDone() && third.isDone());
+        assertFalse(queue.hasPending("e1"));
+    }
+
+    @Test
+    public void enqueue_holdsLaterUpdatesUntilWriteFinishes() {
+        queue.enqueue("e1", field("waitingList", "a"));
+        runScheduled();
+        CompletableFuture<Void> later = queue.enqueue("e1", field("waitingList", "b"));
+        CompletableFuture<Void> latest = queue.enqueue("e1", field("joinedList", "c"));
+
+        // Nothing is sent while the first write is in flight
+        assertTrue(scheduled.isEmpty());
+        writes.get(0).complete(null);
+        runScheduled();
+
+        assertEquals(2, writtenFields.size());
+        assertEquals("b", writtenFields.get(1).get("waitingList"));
+        assertEquals("c", writtenFields.get(1).get("joinedList"));
+        writes.get(1).complete(null);
+        assertTrue(later.isDone() && latest.isDone());
+        assertFalse(queue.hasPending("e1"));
+    }
+
+    @Test
+    public void enqueue_keepsEventsSeparate() {
+        queue.enqueue("e1", field("waitingList", "a"));
+        queue.enqueue("e2", field("waitingList", "b"));
+        runScheduled();
+
+        assertEquals(2, writtenIds.size());
+        assertTrue(writtenIds.contains("e1") && writtenIds.contains("e2"));
+    }
+
+    @Test
+    public void failedWrite_failsItsUpdatesAndContinues() {
+        CompletableFuture<Void> failed = queue.enqueue("e1", field("waitingList", "a"));
+        runScheduled();
+        CompletableFuture<Void> next = queue.enqueue("e1", field("waitingList", "b"));
+        writes.get(0).completeExceptionally(new IllegalStateException("offline"));
+
+        assertTrue(failed.isCompletedExceptionally());
+        runScheduled();
+        writes.get(1).complete(null);
+        assertTrue(next.isDone() && !next.isCompletedExceptionally());
+    }
+
+    @Test
+    public void throwingWriter_failsItsUpdates() {
+        EventMutationQueue throwing = new EventMutationQueue((eventId, fields) -> {
+            throw new IllegalStateException("no connection");
+        }, (task, delayMs) -> scheduled.add(task));
+        CompletableFuture<Void> update = throwing.enqueue("e1", field("waitingList", "a"));
+
+        runScheduled();
+
+        assertTrue(update.isCompletedExceptionally());
+        assertFalse(throwing.hasPending("e1"));
+    }
+
+    @Test
+    public void enqueue_rejectsMissingIdOrFields() {
+        assertThrows(IllegalArgumentException.class, () -> queue.enqueue(null, field("a", 1)));
+        assertThrows(IllegalArgumentException.class, () -> queue.enqueue("e1", new HashMap<>()));
+    }
+}
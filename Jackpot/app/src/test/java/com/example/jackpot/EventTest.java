@@ -7,6 +7,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Random;
 import java.util.UUID;
 
 /**
@@ -74,6 +75,20 @@ public class EventTest {
         }
     }
 
+    @Test
+    public void drawEvent_sameSeedPicksSameEntrants() {
+        event.setCapacity(2);
+        Event copy = new Event();
+        copy.setCapacity(2);
+        copy.setWaitingList(new UserList(new ArrayList<>(event.getWaitingList().getUsers()), 0));
+        copy.setInvitedList(new UserList());
+
+        ArrayList<User> first = event.drawEvent(new Random(42));
+        ArrayList<User> second = copy.drawEvent(new Random(42));
+
+        assertEquals(first, second);
+    }
+
     @Test
     public void drawEvent_waitingListSmallerThanCapacity() {
         event.setCapacity(10);
@@ -85,6 +100,24 @@ public class EventTest {
         assertEquals(5, event.getInvitedList().size());
     }
 
+    @Test
+    public void drawEvent_laterDrawOnlyFillsRemainingSeats() {
+        event.setCapacity(2);
+        // Organizer draws by hand, then the draw scheduled for registration close runs
+        ArrayList<User> manual = event.drawEvent();
+        ArrayList<User> scheduled = event.drawEvent();
+
+        assertEquals(2, manual.size());
+        assertTrue(scheduled.isEmpty());
+        assertEquals(2, event.getInvitedList().size());
+        assertEquals(3, event.getWaitingList().size());
+
+        // A declined invite frees one seat for the next draw
+        event.moveToCancelled(manual.get(0));
+        assertEquals(1, event.drawEvent().size());
+        assertEquals(2, event.getInvitedList().size());
+    }
+
     @Test
     public void drawEvent_zeroCapacityReturnsEmpty() {
         event.setCapacity(0);
@@ -93,10 +126,11 @@ public class EventTest {
         assertEquals(5, event.getWaitingList().size());
     }
 
-    @Test(expected = NullPointerException.class)
-    public void drawEvent_nullWaitingListThrows() {
+    @Test
+    public void drawEvent_clearedWaitingListReturnsEmpty() {
         event.setWaitingList(null);
-        event.drawEvent();
+        assertTrue(event.drawEvent().isEmpty());
+        assertEquals(0, event.getInvitedList().size());
     }
 
     @Test
@@ -110,10 +144,10 @@ public class EventTest {
     @Test
     public void addEntrantWaitingList_removesCancelledDuplicate() {
         Entrant entrant = fakeEntrant("dup");
-        cancelledList.add(entrant);
+        event.moveToCancelled(entrant);
         event.addEntrantWaitingList(entrant);
-        assertTrue(waitingList.contains(entrant));
-        assertFalse(cancelledList.contains(entrant));
+        assertTrue(event.getWaitingList().contains(entrant));
+        assertFalse(event.getCancelledList().contains(entrant));
     }
 
     @Test
@@ -123,10 +157,10 @@ public class EventTest {
         Entrant joined = fakeEntrant("j");
         Entrant cancelled = fakeEntrant("c");
 
-        waitingList.add(waiting);
-        invitedList.add(invited);
-        joinedList.add(joined);
-        cancelledList.add(cancelled);
+        event.moveTo(waiting, Event.Status.WAITING);
+        event.moveTo(invited, Event.Status.INVITED);
+        event.moveTo(joined, Event.Status.JOINED);
+        event.moveTo(cancelled, Event.Status.CANCELLED);
 
         assertTrue(event.hasEntrant("w"));
         assertTrue(event.hasEntrant("i"));
@@ -138,7 +172,7 @@ public class EventTest {
     @Test
     public void joinFromOtherListsBlockedByHasEntrant() {
         Entrant invited = fakeEntrant("block");
-        invitedList.add(invited);
+        event.moveTo(invited, Event.Status.INVITED);
         assertTrue(event.hasEntrant("block"));
         assertThrows(IllegalArgumentException.class, () -> invited.joinWaitingList(event));
     }
@@ -146,11 +180,11 @@ public class EventTest {
     @Test
     public void cancelledEntrantCanRejoinWaitingList() {
         Entrant cancelled = fakeEntrant("cancel-rejoin");
-        cancelledList.add(cancelled);
+        event.moveToCancelled(cancelled);
         // Previously hasEntrant would have blocked; now cancelled can rejoin
         cancelled.joinWaitingList(event);
-        assertTrue(waitingList.contains(cancelled));
-        assertFalse(cancelledList.contains(cancelled));
+        assertTrue(event.getWaitingList().contains(cancelled));
+        assertFalse(event.getCancelledList().contains(cancelled));
     }
 
     @Test(expected = IllegalStateException.class)
@@ -178,7 +212,7 @@ public class EventTest {
     public void invitedWaitingCountsReflectLists() {
         assertEquals(5, event.getWaitingCount());
         assertEquals(0, event.getInvitedCount());
-        invitedList.add(fakeEntrant("invited"));
+        event.moveTo(fakeEntrant("invited"), Event.Status.INVITED);
         assertEquals(1, event.getInvitedCount());
     }
 }
@@ -0,0 +1,162 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for bulk moves between an event's lists.
+ */
+public class EventTransitionTest {
+    private static final int LARGE = 100_000;
+
+    private Event event;
+
+    @Before
+    public void setUp() {
+        event = new Event();
+        event.setCapacity(10);
+        event.setWaitingList(new UserList(0));
+        event.setInvitedList(new UserList(10));
+        event.setJoinedList(new UserList(10));
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static Set<String> ids(UserList list) {
+        Set<String> ids = new HashSet<>();
+        for (User user : list.getUsers()) {
+            ids.add(user.getId());
+        }
+        return ids;
+    }
+
+    private void fillWaiting(int count) {
+        ArrayList<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user("u" + i));
+        }
+        event.setWaitingList(new UserList(users, 0));
+    }
+
+    @Test
+    public void transition_movesOnlyListedEntrantsOnSourceList() {
+        fillWaiting(5);
+        event.moveTo(user("j1"), Event.Status.JOINED);
+
+        Event.ChangeSet change = event.transition(Arrays.asList("u1", "u3", "j1", "missing"),
+                Event.Status.WAITING, Event.Status.INVITED);
+
+        assertEquals(2, change.getMoved().size());
+        assertEquals(new HashSet<>(Arrays.asList("u0", "u2", "u4")), ids(event.getWaitingList()));
+        assertEquals(new HashSet<>(Arrays.asList("u1", "u3")), ids(event.getInvitedList()));
+        assertEquals(new HashSet<>(Collections.singletonList("j1")), ids(event.getJoinedList()));
+        assertEquals(new HashSet<>(Arrays.asList("memberships.u1", "memberships.u3")),
+                change.getUpdateFields().keySet());
+    }
+
+    @Test
+    public void transition_skipsEntrantsAlreadyOnTargetAndRepeatedIds() {
+        fillWaiting(2);
+        event.moveTo(user("i0"), Event.Status.INVITED);
+
+        Event.ChangeSet change = event.inviteAll(Arrays.asList("i0", "u1", "u1"));
+
+        assertEquals(1, change.getMoved().size());
+        assertEquals(2, event.getInvitedList().size());
+        assertEquals(1, event.getWaitingList().size());
+    }
+
+    @Test
+    public void transition_nothingToMoveIsEmpty() {
+        fillWaiting(2);
+        Event.ChangeSet change = event.inviteAll(Collections.singletonList("nobody"));
+
+        assertTrue(change.isEmpty());
+        assertTrue(change.getUpdateFields().isEmpty());
+    }
+
+    @Test
+    public void transition_rejectsSameListOrMissingArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> event.transition(Collections.singletonList("a"), Event.Status.WAITING, Event.Status.WAITING));
+        assertThrows(IllegalArgumentException.class,
+                () -> event.transition(null, Event.Status.WAITING, Event.Status.INVITED));
+        assertThrows(IllegalArgumentException.class,
+                () -> event.transition(Collections.singletonList("a"), null, Event.Status.INVITED));
+    }
+
+    @Test
+    public void cancelAll_pullsFromEveryListAndCreatesCancelledList() {
+        fillWaiting(3);
+        event.moveTo(user("i1"), Event.Status.INVITED);
+        event.moveTo(user("j1"), Event.Status.JOINED);
+
+        Event.ChangeSet change = event.cancelAll(Arrays.asList("u0", "i1", "j1"));
+
+        assertEquals(3, change.getMoved().size());
+        assertEquals(new HashSet<>(Arrays.asList("u0", "i1", "j1")), ids(event.getCancelledList()));
+        assertTrue(event.getInvitedList().isEmpty());
+        assertTrue(event.getJoinedList().isEmpty());
+        assertEquals(3, change.getUpdateFields().size());
+        assertEquals(Event.Status.CANCELLED, event.statusOf("j1"));
+    }
+
+    @Test(timeout = 5000)
+    public void cancelAll_handlesLargeListsInLinearTime() {
+        fillWaiting(LARGE);
+        List<String> half = new ArrayList<>(LARGE / 2);
+        for (int i = 0; i < LARGE; i += 2) {
+            half.add("u" + i);
+        }
+
+        Event.ChangeSet change = event.cancelAll(half);
+
+        assertEquals(LARGE / 2, change.getMoved().size());
+        assertEquals(LARGE / 2, event.getWaitingList().size());
+        assertEquals(LARGE / 2, event.getCancelledList().size());
+        assertFalse(ids(event.getWaitingList()).contains("u0"));
+    }
+
+    @Test(timeout = 5000)
+    public void inviteAll_handlesLargeListsInLinearTime() {
+        fillWaiting(LARGE);
+        List<String> all = new ArrayList<>(LARGE);
+        for (int i = 0; i < LARGE; i++) {
+            all.add("u" + i);
+        }
+
+        Event.ChangeSet change = event.inviteAll(all);
+
+        assertEquals(LARGE, change.getMoved().size());
+        assertEquals(LARGE, event.getInvitedList().size());
+        assertTrue(event.getWaitingList().isEmpty());
+    }
+
+    @Test(timeout = 5000)
+    public void drawEvent_largeWaitingListInvitesCapacity() {
+        fillWaiting(LARGE);
+        event.setCapacity(LARGE / 2);
+
+        ArrayList<User> winners = event.drawEvent();
+
+        assertEquals(LARGE / 2, winners.size());
+        assertEquals(LARGE / 2, ids(event.getInvitedList()).size());
+        assertEquals(LARGE / 2, event.getWaitingList().size());
+    }
+}
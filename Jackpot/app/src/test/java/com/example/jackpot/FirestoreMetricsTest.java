@@ -0,0 +1,93 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for the Firestore operation counters.
+ */
+public class FirestoreMetricsTest {
+    private static final long MS = 1_000_000L;
+
+    private FirestoreMetrics metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new FirestoreMetrics();
+    }
+
+    @Test
+    public void record_accumulatesPerCollection() {
+        metrics.record("events", 20 * MS, 3, 0, 0, 300, 0, false);
+        metrics.record("events", 40 * MS, 1, 0, 1, 100, 50, true);
+        metrics.record("users", 5 * MS, 0, 2, 0, 0, 0, false);
+
+        Map<String, FirestoreMetrics.Stats> snapshot = metrics.snapshot();
+        FirestoreMetrics.Stats events = snapshot.get("events");
+        assertEquals(2, events.getOperations());
+        assertEquals(1, events.getErrors());
+        assertEquals(0.5, events.getErrorRate(), 1e-9);
+        assertEquals(4, events.getDocsRead());
+        assertEquals(1, events.getDocsWritten());
+        assertEquals(400, events.getBytesRead());
+        assertEquals(50, events.getBytesWritten());
+        assertEquals(2, snapshot.get("users").getCachedDocsRead());
+    }
+
+    @Test
+    public void snapshot_isNotChangedByLaterRecords() {
+        metrics.record("events", MS, 1, 0, 0, 0, 0, false);
+        FirestoreMetrics.Stats before = metrics.snapshot().get("events");
+        metrics.record("events", MS, 1, 0, 0, 0, 0, false);
+        assertEquals(1, before.getOperations());
+        assertEquals(2, metrics.snapshot().get("events").getOperations());
+
+        metrics.reset();
+        assertTrue(metrics.snapshot().isEmpty());
+    }
+
+    @Test
+    public void recordListenerUpdate_countsReadsWithoutOperations() {
+        metrics.record("events", 20 * MS, 2, 0, 0, 200, 0, false);
+        metrics.recordListenerUpdate("events", 3, 1, 120);
+
+        FirestoreMetrics.Stats events = metrics.snapshot().get("events");
+        assertEquals(1, events.getOperations());
+        assertEquals(5, events.getDocsRead());
+        assertEquals(1, events.getCachedDocsRead());
+        assertEquals(320, events.getBytesRead());
+        assertEquals(20, events.getMaxLatencyMs());
+    }
+
+    @Test
+    public void latencyPercentile_usesBucketUpperBounds() {
+        for (int i = 0; i < 98; i++) {
+            metrics.record("events", 7 * MS, 1, 0, 0, 0, 0, false);
+        }
+        metrics.record("events", 300 * MS, 1, 0, 0, 0, 0, false);
+        metrics.record("events", 30_000 * MS, 1, 0, 0, 0, 0, false);
+
+        FirestoreMetrics.Stats events = metrics.snapshot().get("events");
+        assertEquals(10, events.getLatencyPercentileMs(50));
+        assertEquals(500, events.getLatencyPercentileMs(99));
+        assertEquals(30_000, events.getLatencyPercentileMs(100));
+    }
+
+    @Test
+    public void estimateDocumentBytes_followsStorageSizeRules() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Swim");          // 5 + 5
+        data.put("capacity", 10L);         // 9 + 8
+        data.put("tags", Arrays.asList("a", "b")); // 5 + 2 + 2
+        long expected = "events/e1".length() + 1 + 10 + 17 + 9 + 32;
+        assertEquals(expected, FirestoreMetrics.estimateDocumentBytes("events/e1", data));
+        assertEquals(0, FirestoreMetrics.estimateDocumentBytes("events/missing", null));
+    }
+}
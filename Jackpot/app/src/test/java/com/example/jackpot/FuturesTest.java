@@ -0,0 +1,80 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests for the future composition helpers.
+ */
+public class FuturesTest {
+
+    @Test
+    public void allOf_collectsResultsInInputOrder() {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        CompletableFuture<List<String>> all = Futures.allOf(Arrays.asList(first, second));
+
+        second.complete("b");
+        assertFalse(all.isDone());
+        first.complete("a");
+        assertEquals(Arrays.asList("a", "b"), all.join());
+    }
+
+    @Test
+    public void allOf_failsWithFirstFailure() {
+        CompletableFuture<String> ok = CompletableFuture.completedFuture("a");
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        IllegalStateException cause = new IllegalStateException("boom");
+        failed.completeExceptionally(cause);
+
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> Futures.allOf(Arrays.asList(ok, failed)).join());
+        assertSame(cause, Futures.unwrap(thrown));
+    }
+
+    @Test
+    public void allOf_cancelPropagatesToPendingInputs() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<List<String>> all = Futures.allOf(Arrays.asList(pending));
+
+        all.cancel(false);
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void cancelledChain_skipsLaterStages() {
+        CompletableFuture<String> read = new CompletableFuture<>();
+        boolean[] ran = {false};
+        CompletableFuture<String> next = read.thenCompose(value -> {
+            ran[0] = true;
+            return CompletableFuture.completedFuture(value);
+        });
+
+        next.cancel(false);
+        read.complete("late");
+        assertFalse(ran[0]);
+    }
+
+    @Test
+    public void withTimeout_failsSlowFutures() {
+        CompletableFuture<String> slow = Futures.withTimeout(new CompletableFuture<>(), 50, TimeUnit.MILLISECONDS);
+        CompletionException thrown = assertThrows(CompletionException.class, slow::join);
+        assertTrue(Futures.unwrap(thrown) instanceof TimeoutException);
+
+        CompletableFuture<String> fast = Futures.withTimeout(new CompletableFuture<>(), 5, TimeUnit.SECONDS);
+        fast.complete("done");
+        assertEquals("done", fast.join());
+    }
+}
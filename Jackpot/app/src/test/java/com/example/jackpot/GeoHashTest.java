@@ -0,0 +1,78 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for geohash encoding and radius covering.
+ */
+public class GeoHashTest {
+
+    @Test
+    public void encode_matchesKnownHashes() {
+        assertEquals("c3x29", GeoHash.encode(53.5461, -113.4938, 5));
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+    }
+
+    @Test
+    public void encode_longerHashExtendsShorterOne() {
+        String full = GeoHash.encode(53.5461, -113.4938, GeoHash.PRECISION);
+        assertEquals(GeoHash.PRECISION, full.length());
+        assertTrue(full.startsWith(GeoHash.encode(53.5461, -113.4938, 4)));
+    }
+
+    @Test
+    public void distanceKm_edmontonToCalgary() {
+        double km = GeoHash.distanceKm(53.5461, -113.4938, 51.0447, -114.0719);
+        assertEquals(281, km, 3);
+    }
+
+    @Test
+    public void coveringPrefixes_containEveryPointInsideRadius() {
+        double lat = 53.5461;
+        double lng = -113.4938;
+        double radiusKm = 25;
+        List<String> prefixes = GeoHash.coveringPrefixes(lat, lng, radiusKm);
+        assertTrue(prefixes.size() <= 9);
+
+        Random random = new Random(32);
+        int checked = 0;
+        while (checked < 2000) {
+            double pLat = lat + (random.nextDouble() - 0.5);
+            double pLng = lng + (random.nextDouble() - 0.5) * 2;
+            if (GeoHash.distanceKm(lat, lng, pLat, pLng) > radiusKm) continue;
+            checked++;
+            String hash = GeoHash.encode(pLat, pLng, GeoHash.PRECISION);
+            boolean covered = false;
+            for (String prefix : prefixes) {
+                if (hash.startsWith(prefix)) {
+                    covered = true;
+                    break;
+                }
+            }
+            assertTrue("uncovered point " + pLat + "," + pLng, covered);
+        }
+    }
+
+    @Test
+    public void coveringPrefixes_wrapAroundDateLine() {
+        List<String> prefixes = GeoHash.coveringPrefixes(0, 179.99, 5);
+        String acrossLine = GeoHash.encode(0, -179.99, GeoHash.PRECISION);
+        boolean covered = false;
+        for (String prefix : prefixes) {
+            covered |= acrossLine.startsWith(prefix);
+        }
+        assertTrue(covered);
+    }
+
+    @Test
+    public void encode_rejectsBadPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.encode(0, 0, 0));
+    }
+}
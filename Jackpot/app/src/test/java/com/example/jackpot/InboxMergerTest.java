@@ -0,0 +1,104 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tests for merging paged, individually sorted sources into one inbox order.
+ */
+public class InboxMergerTest {
+
+    private InboxMerger<Integer> merger;
+
+    @Before
+    public void setUp() {
+        // Newest first, like the inbox (larger = newer)
+        merger = new InboxMerger<>(2, Comparator.reverseOrder());
+    }
+
+    @Test
+    public void drain_waitsForEverySourceBeforeReleasing() {
+        merger.addPage(0, Arrays.asList(9, 5), true);
+
+        assertTrue(merger.drain().isEmpty());
+        assertEquals(1, merger.nextSourceToFetch());
+    }
+
+    @Test
+    public void drain_interleavesByOrder() {
+        merger.addPage(0, Arrays.asList(9, 5, 1), false);
+        merger.addPage(1, Arrays.asList(8, 6, 2), false);
+
+        assertEquals(Arrays.asList(9, 8, 6, 5, 2, 1), merger.drain());
+        assertFalse(merger.hasMore());
+    }
+
+    @Test
+    public void drain_stopsWhenAnOpenSourceRunsDry() {
+        merger.addPage(0, Arrays.asList(9, 5), true);
+        merger.addPage(1, Arrays.asList(8, 7, 6, 4), false);
+
+        // 4 cannot be released until source 0's next page shows nothing newer is left
+        assertEquals(Arrays.asList(9, 8, 7, 6, 5), merger.drain());
+        assertEquals(0, merger.nextSourceToFetch());
+
+        merger.addPage(0, Collections.singletonList(3), false);
+        assertEquals(Arrays.asList(4, 3), merger.drain());
+        assertFalse(merger.hasMore());
+    }
+
+    @Test
+    public void markExhausted_releasesOtherSourceAlone() {
+        merger.markExhausted(1);
+        merger.addPage(0, Arrays.asList(3, 2, 1), false);
+
+        assertEquals(Arrays.asList(3, 2, 1), merger.drain());
+        assertEquals(-1, merger.nextSourceToFetch());
+    }
+
+    @Test
+    public void pagedMerge_matchesFullSort() {
+        List<Integer> personal = new ArrayList<>();
+        List<Integer> broadcasts = new ArrayList<>();
+        for (int i = 1000; i > 0; i--) {
+            if (i % 3 == 0) broadcasts.add(i); else personal.add(i);
+        }
+        List<List<Integer>> sources = Arrays.asList(personal, broadcasts);
+        int[] offsets = new int[2];
+        int pageSize = 20;
+
+        List<Integer> merged = new ArrayList<>();
+        int source;
+        while ((source = merger.nextSourceToFetch()) != -1 || merger.hasMore()) {
+            if (source != -1) {
+                List<Integer> all = sources.get(source);
+                int end = Math.min(offsets[source] + pageSize, all.size());
+                merger.addPage(source, all.subList(offsets[source], end), end < all.size());
+                offsets[source] = end;
+            }
+            merged.addAll(merger.drain());
+        }
+
+        assertEquals(1000, merged.size());
+        for (int i = 0; i < merged.size(); i++) {
+            assertEquals(Integer.valueOf(1000 - i), merged.get(i));
+        }
+    }
+
+    @Test
+    public void constructor_rejectsNoSources() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new InboxMerger<Integer>(0, Comparator.naturalOrder()));
+    }
+}
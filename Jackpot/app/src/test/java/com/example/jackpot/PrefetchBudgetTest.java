@@ -0,0 +1,72 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the prefetch byte budget.
+ */
+public class PrefetchBudgetTest {
+    private PrefetchBudget budget;
+
+    @Before
+    public void setUp() {
+        budget = new PrefetchBudget(1000, 300);
+    }
+
+    @Test
+    public void tryReserve_stopsWhenEstimateNoLongerFits() {
+        assertTrue(budget.tryReserve("a"));
+        assertTrue(budget.tryReserve("b"));
+        assertTrue(budget.tryReserve("c"));
+        assertFalse(budget.tryReserve("d"));
+        assertEquals(900, budget.getUsedBytes());
+        assertEquals(100, budget.getRemainingBytes());
+    }
+
+    @Test
+    public void tryReserve_rejectsDuplicatesAndNull() {
+        assertTrue(budget.tryReserve("a"));
+        assertFalse(budget.tryReserve("a"));
+        assertFalse(budget.tryReserve(null));
+        assertEquals(300, budget.getUsedBytes());
+    }
+
+    @Test
+    public void settle_replacesEstimateWithActualSize() {
+        budget.tryReserve("small");
+        budget.settle("small", 50);
+        assertEquals(50, budget.getUsedBytes());
+
+        budget.tryReserve("large");
+        budget.settle("large", 900);
+        assertEquals(950, budget.getUsedBytes());
+        assertFalse(budget.tryReserve("next"));
+
+        // Unknown URLs are not charged
+        budget.settle("unknown", 500);
+        assertEquals(950, budget.getUsedBytes());
+    }
+
+    @Test
+    public void release_refundsAndAllowsRetry() {
+        budget.tryReserve("a");
+        budget.release("a");
+        assertEquals(0, budget.getUsedBytes());
+        assertTrue(budget.tryReserve("a"));
+
+        budget.release("never-reserved");
+        assertEquals(300, budget.getUsedBytes());
+    }
+
+    @Test
+    public void constructor_rejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new PrefetchBudget(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new PrefetchBudget(10, 0));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for attributing reads to screen visits.
+ */
+public class ScreenReadTrackerTest {
+    private ScreenReadTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new ScreenReadTracker();
+    }
+
+    @Test
+    public void currentVisit_isInnermostOpenScreen() {
+        assertNull(tracker.currentVisit());
+        tracker.onScreenCreated("MainActivity");
+        tracker.onScreenCreated("HomeFragment");
+        assertEquals("HomeFragment", tracker.currentVisit().getScreen());
+
+        tracker.onScreenDestroyed("HomeFragment");
+        assertEquals("MainActivity", tracker.currentVisit().getScreen());
+    }
+
+    @Test
+    public void recordReads_chargesVisitThatIssuedTheRead() {
+        tracker.onScreenCreated("ImageListAdmin");
+        ScreenReadTracker.Visit issuedFrom = tracker.currentVisit();
+        tracker.onScreenDestroyed("ImageListAdmin");
+        tracker.onScreenCreated("SettingsFragment");
+
+        // Completes after the user has navigated away
+        tracker.recordReads(issuedFrom, "users", 3, 0);
+
+        List<String> visits = tracker.describeVisits();
+        assertTrue(visits.get(0).startsWith("SettingsFragment (open): reads=0/"));
+        assertTrue(visits.get(1).startsWith("ImageListAdmin: reads=3/"));
+    }
+
+    @Test
+    public void recordReads_flagsVisitsOverBudget() {
+        tracker.setBudget("ImageListAdmin", 5);
+        tracker.onScreenCreated("ImageListAdmin");
+        ScreenReadTracker.Visit visit = tracker.currentVisit();
+
+        tracker.recordReads(visit, "images", 5, 10);
+        assertFalse(visit.toString().contains("OVER BUDGET"));
+        tracker.recordReads(visit, "users", 1, 0);
+        assertTrue(visit.toString().contains("OVER BUDGET"));
+        assertTrue(visit.toString().contains("{images=5, users=1}"));
+    }
+
+    @Test
+    public void describeVisits_keepsOnlyRecentVisits() {
+        for (int i = 0; i < ScreenReadTracker.RECENT_VISIT_LIMIT + 5; i++) {
+            tracker.onScreenCreated("Screen" + i);
+            tracker.onScreenDestroyed("Screen" + i);
+        }
+        List<String> visits = tracker.describeVisits();
+        assertEquals(ScreenReadTracker.RECENT_VISIT_LIMIT, visits.size());
+        assertTrue(visits.get(0).startsWith("Screen" + (ScreenReadTracker.RECENT_VISIT_LIMIT + 4)));
+
+        tracker.clearRecent();
+        assertTrue(tracker.describeVisits().isEmpty());
+    }
+
+    @Test
+    public void listener_hearsOfOverBudgetAndFinishedVisitsOnce() {
+        List<String> heard = new ArrayList<>();
+        tracker.setListener(new ScreenReadTracker.Listener() {
+            @Override
+            public void onVisitFinished(ScreenReadTracker.Visit visit) {
+                heard.add("finished " + visit.getScreen());
+            }
+
+            @Override
+            public void onBudgetExceeded(ScreenReadTracker.Visit visit) {
+                heard.add("over " + visit.getScreen());
+            }
+        });
+        tracker.setBudget("EventDetailsActivity", 1);
+        tracker.onScreenCreated("EventDetailsActivity");
+        ScreenReadTracker.Visit visit = tracker.currentVisit();
+
+        tracker.recordReads(visit, "events", 2, 0);
+        tracker.recordReads(visit, "users", 2, 0);
+        tracker.onScreenDestroyed("EventDetailsActivity");
+
+        assertEquals(2, heard.size());
+        assertEquals("over EventDetailsActivity", heard.get(0));
+        assertEquals("finished EventDetailsActivity", heard.get(1));
+    }
+}
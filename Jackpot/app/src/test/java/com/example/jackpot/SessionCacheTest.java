@@ -0,0 +1,67 @@
+package com.example.jackpot;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the in-memory handoff cache.
+ */
+public class SessionCacheTest {
+    private SessionCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new SessionCache();
+    }
+
+    private static Event event(String id) {
+        Event event = new Event();
+        event.setEventId(id);
+        return event;
+    }
+
+    @Test
+    public void putEvent_replacesByIdAndIgnoresMissingIds() {
+        Event first = event("e1");
+        Event second = event("e1");
+        cache.putEvent(first);
+        cache.putEvent(second);
+        cache.putEvent(event(null));
+        cache.putEvent(null);
+
+        assertSame(second, cache.getEvent("e1"));
+        assertNull(cache.getEvent(null));
+        assertNull(cache.getEvent("missing"));
+    }
+
+    @Test
+    public void putEvent_dropsLeastRecentlyUsedWhenFull() {
+        for (int i = 0; i < SessionCache.MAX_EVENTS; i++) {
+            cache.putEvent(event("e" + i));
+        }
+        // Reading e0 makes e1 the least recently used
+        assertNotNull(cache.getEvent("e0"));
+        cache.putEvent(event("new"));
+
+        assertNotNull(cache.getEvent("e0"));
+        assertNull(cache.getEvent("e1"));
+        assertNotNull(cache.getEvent("new"));
+    }
+
+    @Test
+    public void clear_dropsEventsAndUsers() {
+        User user = new User();
+        user.setId("u1");
+        cache.putUser(user);
+        cache.putEvent(event("e1"));
+        assertSame(user, cache.getUser("u1"));
+
+        cache.clear();
+        assertNull(cache.getUser("u1"));
+        assertNull(cache.getEvent("e1"));
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.jackpot.ui.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.jackpot.Event;
+import com.example.jackpot.User;
+import com.example.jackpot.UserList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tests for paging through an event's entrant lists.
+ */
+public class EntrantPagerTest {
+    private static final int LARGE = 50_000;
+
+    private final List<Integer> requested = new ArrayList<>();
+    private final List<Runnable> pending = new ArrayList<>();
+    private final List<String> notified = new ArrayList<>();
+
+    private final EntrantPager.Listener listener = new EntrantPager.Listener() {
+        @Override
+        public void onRangeChanged(int start, int count) {
+            notified.add("changed " + start + "+" + count);
+        }
+
+        @Override
+        public void onRangeInserted(int start, int count) {
+            notified.add("inserted " + start + "+" + count);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        requested.clear();
+        pending.clear();
+        notified.clear();
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static List<User> users(int offset, int limit, int size) {
+        List<User> users = new ArrayList<>();
+        for (int i = offset; i < Math.min(size, offset + limit); i++) {
+            users.add(user("u" + i));
+        }
+        return users;
+    }
+
+    // Records each request and answers it straight away
+    private EntrantPager syncPager(int size, int pageSize, int maxPages, boolean placeholders) {
+        EntrantPager pager = new EntrantPager(size, pageSize, maxPages, placeholders,
+                (offset, limit, callback) -> {
+                    requested.add(offset);
+                    callback.accept(users(offset, limit, size));
+                });
+        pager.setListener(listener);
+        return pager;
+    }
+
+    // Records each request and answers it when runPending() is called
+    private EntrantPager asyncPager(int size, int pageSize, boolean placeholders) {
+        EntrantPager pager = new EntrantPager(size, pageSize, 4, placeholders,
+                (offset, limit, callback) -> {
+                    requested.add(offset);
+                    Consumer<List<User>> done = callback;
+                    pending.add(() -> done.accept(users(offset, limit, size)));
+                });
+        pager.setListener(listener);
+        return pager;
+    }
+
+    private void runPending() {
+        List<Runnable> tasks = new ArrayList<>(pending);
+        pending.clear();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+
+    @Test
+    public void placeholders_reportFullSizeAndLoadOnlyTouchedPages() {
+        EntrantPager pager = syncPager(1000, 20, 10, true);
+
+        assertEquals(1000, pager.getItemCount());
+        assertEquals("u0", pager.get(0).getId());
+        assertEquals("u505", pager.get(505).getId());
+
+        assertEquals(2, requested.size());
+        // Delivered while the row was read, so nothing to announce
+        assertTrue(notified.isEmpty());
+    }
+
+    @Test
+    public void get_prefetchesNextPagePastHalfway() {
+        EntrantPager pager = syncPager(100, 10, 10, true);
+
+        pager.get(4);
+        assertEquals(1, requested.size());
+        pager.get(5);
+        assertEquals(2, requested.size());
+        assertEquals(Integer.valueOf(10), requested.get(1));
+    }
+
+    @Test
+    public void asyncPages_readAsPlaceholdersUntilTheyArrive() {
+        EntrantPager pager = asyncPager(100, 10, true);
+
+        assertNull(pager.get(0));
+        pager.get(0);
+        assertEquals(1, requested.size());
+
+        runPending();
+
+        assertEquals("u0", pager.get(0).getId());
+        assertEquals("changed 0+10", notified.get(0));
+    }
+
+    @Test
+    public void withoutPlaceholders_listGrowsAPageAtATime() {
+        EntrantPager pager = asyncPager(25, 10, false);
+        assertEquals(0, pager.getItemCount());
+
+        pager.loadAround(0);
+        runPending();
+        assertEquals(10, pager.getItemCount());
+        assertEquals("inserted 0+10", notified.get(0));
+
+        pager.get(9);
+        runPending();
+        assertEquals(20, pager.getItemCount());
+        pager.get(19);
+        runPending();
+        assertEquals(25, pager.getItemCount());
+        assertEquals("inserted 20+5", notified.get(2));
+    }
+
+    @Test
+    public void oldPagesAreDroppedAndReloaded() {
+        EntrantPager pager = syncPager(100, 10, 2, true);
+
+        pager.get(0);
+        pager.get(30);
+        pager.get(60);
+        int before = requested.size();
+        assertEquals("u0", pager.get(0).getId());
+
+        assertEquals(before + 1, requested.size());
+    }
+
+    @Test
+    public void invalidArgumentsRejected() {
+        EntrantPager pager = syncPager(10, 5, 2, true);
+        assertThrows(IndexOutOfBoundsException.class, () -> pager.get(10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new EntrantPager(10, 0, 2, true, (offset, limit, callback) -> { }));
+        assertThrows(IllegalArgumentException.class,
+                () -> new EntrantPager(10, 5, 2, true, null));
+    }
+
+    @Test(timeout = 5000)
+    public void forStatus_opensLargeWaitingListInOnePage() {
+        Event event = new Event();
+        ArrayList<User> users = new ArrayList<>(LARGE);
+        for (int i = 0; i < LARGE; i++) {
+            users.add(user("u" + i));
+        }
+        event.setWaitingList(new UserList(users, 0));
+
+        EntrantPager pager = EntrantPager.forStatus(event, Event.Status.WAITING);
+
+        assertEquals(LARGE, pager.getItemCount());
+        assertEquals("u0", pager.get(0).getId());
+        assertEquals("u" + (LARGE - 1), pager.get(LARGE - 1).getId());
+    }
+
+    @Test
+    public void forStatus_showsEntrantsKeptOutsideTheEventAfterItsOwn() {
+        Event event = new Event();
+        ArrayList<User> users = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            users.add(user("u" + i));
+        }
+        event.setWaitingList(new UserList(users, 0));
+        List<User> sharded = new ArrayList<>();
+        for (int i = 0; i < 45; i++) {
+            sharded.add(user("s" + i));
+        }
+
+        EntrantPager pager = EntrantPager.forStatus(event, Event.Status.WAITING, sharded);
+
+        assertEquals(105, pager.getItemCount());
+        assertEquals("u59", pager.get(59).getId());
+        // The second page straddles the two lists
+        assertEquals("s0", pager.get(60).getId());
+        assertEquals("s44", pager.get(104).getId());
+    }
+}
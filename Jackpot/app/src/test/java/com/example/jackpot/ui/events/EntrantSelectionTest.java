@@ -0,0 +1,71 @@
+package com.example.jackpot.ui.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for keeping an entrant selection by id.
+ */
+public class EntrantSelectionTest {
+    private static final List<String> IDS = Arrays.asList("a", "b", "c", "d");
+
+    private EntrantSelection selection;
+
+    @Before
+    public void setUp() {
+        selection = new EntrantSelection();
+    }
+
+    @Test
+    public void setSelected_tracksIndividualIds() {
+        selection.setSelected("b", true);
+        selection.setSelected("d", true);
+        selection.setSelected("d", false);
+
+        assertTrue(selection.isSelected("b"));
+        assertFalse(selection.isSelected("d"));
+        assertEquals(1, selection.count(IDS.size()));
+        assertEquals(Collections.singleton("b"), selection.resolve(IDS));
+    }
+
+    @Test
+    public void toggleAll_selectsEverythingThenClears() {
+        selection.setSelected("a", true);
+        selection.toggleAll(IDS.size());
+        assertEquals(4, selection.count(IDS.size()));
+
+        selection.setSelected("c", false);
+        assertFalse(selection.isSelected("c"));
+        assertEquals(Arrays.asList("a", "b", "d"), new ArrayList<>(selection.resolve(IDS)));
+
+        selection.setSelected("c", true);
+        selection.toggleAll(IDS.size());
+        assertEquals(0, selection.count(IDS.size()));
+    }
+
+    @Test
+    public void forget_keepsCountsRightWhenEntrantsLeave() {
+        selection.toggleAll(IDS.size());
+        selection.setSelected("a", false);
+        selection.forget(Collections.singletonList("a"));
+
+        assertEquals(3, selection.count(3));
+    }
+
+    @Test(timeout = 5000)
+    public void toggleAll_onLargeListIsConstantSize() {
+        int size = 50_000;
+        selection.toggleAll(size);
+        assertTrue(selection.isSelected("anyone"));
+        assertEquals(size, selection.count(size));
+    }
+}
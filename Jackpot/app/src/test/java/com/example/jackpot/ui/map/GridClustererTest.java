@@ -0,0 +1,90 @@
+package com.example.jackpot.ui.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for grid clustering of entrant coordinates.
+ */
+public class GridClustererTest {
+
+    @Test
+    public void nearbyPointsMergeAtLowZoomAndSplitAtHighZoom() {
+        // Two neighbourhoods in Edmonton about 5 km apart
+        double[] lats = {53.5461, 53.5462, 53.5001};
+        double[] lons = {-113.4938, -113.4939, -113.4901};
+        GridClusterer clusterer = new GridClusterer(lats, lons, 3, GridClusterer.DEFAULT_CELL_PIXELS);
+
+        GridClusterer.Clusters far = clusterer.cluster(5);
+        assertEquals(1, far.size());
+        assertEquals(3, far.getCount(0));
+
+        GridClusterer.Clusters near = clusterer.cluster(18);
+        assertTrue(near.size() >= 2);
+        assertEquals(3, near.totalPoints());
+    }
+
+    @Test
+    public void clusterCenterIsMeanOfPoints() {
+        double[] lats = {10.0, 10.0002};
+        double[] lons = {20.0, 20.0002};
+        GridClusterer.Clusters clusters =
+                new GridClusterer(lats, lons, 2, GridClusterer.DEFAULT_CELL_PIXELS).cluster(3);
+
+        assertEquals(1, clusters.size());
+        assertEquals(10.0001, clusters.getLat(0), 1e-9);
+        assertEquals(20.0001, clusters.getLon(0), 1e-9);
+        assertEquals(0, clusters.getFirstIndex(0));
+    }
+
+    @Test
+    public void viewportExcludesOutsidePoints() {
+        double[] lats = {53.5, 51.0, 49.0};
+        double[] lons = {-113.5, -114.0, -123.1};
+        GridClusterer clusterer = new GridClusterer(lats, lons, 3, GridClusterer.DEFAULT_CELL_PIXELS);
+
+        // Alberta only
+        GridClusterer.Clusters clusters = clusterer.cluster(12, 60, 49.5, -110, -120);
+        assertEquals(2, clusters.totalPoints());
+    }
+
+    @Test
+    public void boundsCoverAllPoints() {
+        double[] lats = {53.5, 51.0, 49.0};
+        double[] lons = {-113.5, -114.0, -123.1};
+        double[] bounds = new GridClusterer(lats, lons, 3, GridClusterer.DEFAULT_CELL_PIXELS).getBounds();
+
+        assertEquals(53.5, bounds[0], 0);
+        assertEquals(49.0, bounds[1], 0);
+        assertEquals(-113.5, bounds[2], 0);
+        assertEquals(-123.1, bounds[3], 0);
+    }
+
+    @Test
+    public void fiftyThousandPointsKeepEveryPointAndFewClusters() {
+        int n = 50_000;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        Random random = new Random(301);
+        for (int i = 0; i < n; i++) {
+            lats[i] = 53.4 + random.nextDouble() * 0.3;
+            lons[i] = -113.7 + random.nextDouble() * 0.4;
+        }
+        GridClusterer clusterer = new GridClusterer(lats, lons, n, GridClusterer.DEFAULT_CELL_PIXELS);
+
+        GridClusterer.Clusters clusters = clusterer.cluster(11);
+        assertEquals(n, clusters.totalPoints());
+        assertTrue("expected a screen's worth of clusters, got " + clusters.size(), clusters.size() < 200);
+    }
+
+    @Test
+    public void constructor_rejectsShortArrays() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new GridClusterer(new double[1], new double[2], 2, GridClusterer.DEFAULT_CELL_PIXELS));
+    }
+}
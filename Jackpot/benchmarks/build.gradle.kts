@@ -0,0 +1,49 @@
+// JVM-only JMH benchmarks for the Android-free domain classes.
+//
+// Run with:  ./gradlew :benchmarks:jmh
+// Results:   benchmarks/build/results/jmh/results.json
+// Narrow a run with e.g. -Pjmh.includes=DrawBenchmark
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Compile the domain classes straight from the app module so the numbers always describe
+// the shipped code. The few Android/Firebase types they touch (Log, Timestamp, GeoPoint and
+// the Exclude/PropertyName annotations) come from the JVM stand-ins in src/main/java.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "android/util/**",
+                "com/google/firebase/**",
+                "com/example/jackpot/CsvWriter.java",
+                "com/example/jackpot/Device.java",
+                "com/example/jackpot/Entrant.java",
+                "com/example/jackpot/Event.java",
+                "com/example/jackpot/JoinLocation.java",
+                "com/example/jackpot/Membership.java",
+                "com/example/jackpot/User.java",
+                "com/example/jackpot/UserList.java",
+                "com/example/jackpot/ui/image/Image.java"
+            )
+        }
+    }
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    timeOnIteration.set("2s")
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
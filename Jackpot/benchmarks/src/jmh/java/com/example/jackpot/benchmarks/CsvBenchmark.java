@@ -0,0 +1,79 @@
+package com.example.jackpot.benchmarks;
+
+import com.example.jackpot.CsvWriter;
+import com.example.jackpot.Event;
+import com.example.jackpot.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV export of attendee lists: value escaping, formatting in memory, and writing to a file
+ * the way CSVExporter does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CsvBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int attendees;
+
+    private ArrayList<User> users;
+    private Event event;
+    private File file;
+
+    @Setup
+    public void createAttendees() throws IOException {
+        users = Fixtures.entrants(attendees);
+        event = Fixtures.eventWithWaitingList(new ArrayList<>(), 0);
+        event.setName("Benchmark, \"Quoted\" Event");
+        file = File.createTempFile("attendees", ".csv");
+    }
+
+    @TearDown
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Benchmark
+    public String escapePlain() {
+        return CsvWriter.escapeCsvValue("entrant42@example.com");
+    }
+
+    @Benchmark
+    public String escapeQuoted() {
+        return CsvWriter.escapeCsvValue("Smith, \"Jo\"\nEdmonton");
+    }
+
+    @Benchmark
+    public String writeToString() throws IOException {
+        StringWriter writer = new StringWriter();
+        CsvWriter.writeAttendees(writer, event, users);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public long writeToFile() throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            CsvWriter.writeAttendees(writer, event, users);
+        }
+        return file.length();
+    }
+}
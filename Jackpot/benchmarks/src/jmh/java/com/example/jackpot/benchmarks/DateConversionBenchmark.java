@@ -0,0 +1,86 @@
+package com.example.jackpot.benchmarks;
+
+import com.example.jackpot.Event;
+import com.google.firebase.Timestamp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event date conversion (Event.setDate, which runs convertToDate) for every accepted input.
+ * String inputs are listed in the order convertToDate tries its formats, so later
+ * formats also pay for the failed attempts before them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateConversionBenchmark {
+
+    @Param({
+            "Jan 5, 2026",
+            "2026-01-05T10:15:30.000Z",
+            "2026-01-05T10:15:30",
+            "2026-01-05 10:15:30",
+            "2026-01-05",
+            "01/05/2026",
+            "not a date"
+    })
+    public String dateString;
+
+    private final Event event = new Event();
+    private Date date;
+    private Timestamp timestamp;
+    private Map<String, Object> timestampMap;
+    private Long epochMillis;
+
+    @Setup
+    public void createInputs() {
+        date = new Date(1767607200000L);
+        timestamp = new Timestamp(date);
+        timestampMap = new HashMap<>();
+        timestampMap.put("seconds", timestamp.getSeconds());
+        timestampMap.put("nanoseconds", timestamp.getNanoseconds());
+        epochMillis = date.getTime();
+    }
+
+    @Benchmark
+    public Date fromString() {
+        event.setDate(dateString);
+        return event.getDate();
+    }
+
+    @Benchmark
+    public Date fromDate() {
+        event.setDate(date);
+        return event.getDate();
+    }
+
+    @Benchmark
+    public Date fromTimestamp() {
+        event.setDate(timestamp);
+        return event.getDate();
+    }
+
+    @Benchmark
+    public Date fromTimestampMap() {
+        event.setDate(timestampMap);
+        return event.getDate();
+    }
+
+    @Benchmark
+    public Date fromEpochMillis() {
+        event.setDate(epochMillis);
+        return event.getDate();
+    }
+}
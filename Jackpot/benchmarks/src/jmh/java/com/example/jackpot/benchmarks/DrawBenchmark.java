@@ -0,0 +1,57 @@
+package com.example.jackpot.benchmarks;
+
+import com.example.jackpot.Event;
+import com.example.jackpot.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lottery draws over waiting lists of different sizes, inviting a tenth of the entrants.
+ * A draw empties part of the list, so each measurement is a single draw from a fresh copy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class DrawBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entrants;
+
+    private ArrayList<User> waiting;
+    private Event event;
+
+    @Setup(Level.Trial)
+    public void createEntrants() {
+        waiting = Fixtures.entrants(entrants);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetEvent() {
+        event = Fixtures.eventWithWaitingList(waiting, entrants / 10);
+    }
+
+    @Benchmark
+    public ArrayList<User> drawEvent() {
+        return event.drawEvent();
+    }
+
+    @Benchmark
+    public ArrayList<User> drawFromWaiting() {
+        return event.drawFromWaiting(entrants / 10);
+    }
+}
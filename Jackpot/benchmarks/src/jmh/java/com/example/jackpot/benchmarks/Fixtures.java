@@ -0,0 +1,57 @@
+package com.example.jackpot.benchmarks;
+
+import com.example.jackpot.Device;
+import com.example.jackpot.Entrant;
+import com.example.jackpot.Event;
+import com.example.jackpot.User;
+import com.example.jackpot.UserList;
+import com.google.firebase.firestore.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+/**
+ * Builds events and entrants for the benchmarks.
+ */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    /**
+     * Creates entrants with stable ids "entrant-0" ... "entrant-(count-1)".
+     * @param count Number of entrants.
+     * @return The entrants.
+     */
+    static ArrayList<User> entrants(int count) {
+        ArrayList<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(entrant(i));
+        }
+        return users;
+    }
+
+    /**
+     * Creates one entrant.
+     * @param index Index used for the id, name and email.
+     * @return The entrant.
+     */
+    static Entrant entrant(int index) {
+        return new Entrant("entrant-" + index, "Entrant " + index, User.Role.ENTRANT,
+                "entrant" + index + "@example.com", "780-555-" + String.format("%04d", index % 10000),
+                "", "", "", new Device(), new GeoPoint(53.5 + index * 1e-6, -113.5));
+    }
+
+    /**
+     * Creates an event whose waiting list holds a copy of the given users.
+     * Lists are unlimited so joins never hit capacity.
+     * @param waiting Users to put on the waiting list.
+     * @param capacity Event capacity (number drawn).
+     * @return The event.
+     */
+    static Event eventWithWaitingList(ArrayList<User> waiting, int capacity) {
+        return new Event("event-1", "org-1", "Benchmark Event", "Description", "Criteria",
+                new UserList(new ArrayList<>(waiting), 0), new UserList(0), new UserList(0), new UserList(0),
+                "Edmonton, AB", new Date(), 53.5461, -113.4938, 0.0, capacity,
+                new Date(), new Date(), "", "", false, "Party");
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.jackpot.benchmarks;
+
+import com.example.jackpot.Entrant;
+import com.example.jackpot.User;
+import com.example.jackpot.UserList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding one user to a list that already holds the given number of users.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserListBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private ArrayList<User> users;
+    private Entrant newcomer;
+    private UserList list;
+
+    @Setup(Level.Trial)
+    public void createUsers() {
+        users = Fixtures.entrants(size);
+        newcomer = Fixtures.entrant(size);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetList() {
+        list = new UserList(new ArrayList<>(users), 0);
+    }
+
+    @Benchmark
+    public UserList add() {
+        list.add(newcomer);
+        return list;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.jackpot.benchmarks;
+
+import com.example.jackpot.Entrant;
+import com.example.jackpot.Event;
+import com.example.jackpot.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Joining a waiting list and checking membership as the lists grow.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaitingListBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entrants;
+
+    private ArrayList<User> waiting;
+    private Entrant newcomer;
+    private Event joinEvent;
+    private Event lookupEvent;
+    private String lastId;
+
+    @Setup(Level.Trial)
+    public void createEntrants() {
+        waiting = Fixtures.entrants(entrants);
+        newcomer = Fixtures.entrant(entrants);
+        lookupEvent = Fixtures.eventWithWaitingList(waiting, 10);
+        lastId = waiting.get(entrants - 1).getId();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetJoinEvent() {
+        joinEvent = Fixtures.eventWithWaitingList(waiting, 10);
+    }
+
+    @Benchmark
+    public Event addEntrantWaitingList() {
+        joinEvent.addEntrantWaitingList(newcomer);
+        return joinEvent;
+    }
+
+    /** Worst case: the entrant is last in the list. */
+    @Benchmark
+    public boolean entrantInListLast() {
+        return lookupEvent.entrantInList(lastId, lookupEvent.getWaitingList());
+    }
+
+    /** Miss: scans the whole list. */
+    @Benchmark
+    public boolean entrantInListMissing() {
+        return lookupEvent.entrantInList("not-an-entrant", lookupEvent.getWaitingList());
+    }
+}
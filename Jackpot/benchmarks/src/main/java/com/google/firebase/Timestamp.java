@@ -0,0 +1,42 @@
+package com.google.firebase;
+
+import java.util.Date;
+
+/**
+ * JVM stand-in for the Firebase Timestamp, covering the members the domain classes use.
+ */
+public class Timestamp implements Comparable<Timestamp> {
+    private final long seconds;
+    private final int nanoseconds;
+
+    public Timestamp(long seconds, int nanoseconds) {
+        this.seconds = seconds;
+        this.nanoseconds = nanoseconds;
+    }
+
+    public Timestamp(Date date) {
+        this(Math.floorDiv(date.getTime(), 1000L), (int) Math.floorMod(date.getTime(), 1000L) * 1_000_000);
+    }
+
+    public static Timestamp now() {
+        return new Timestamp(new Date());
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public int getNanoseconds() {
+        return nanoseconds;
+    }
+
+    public Date toDate() {
+        return new Date(seconds * 1000 + nanoseconds / 1_000_000);
+    }
+
+    @Override
+    public int compareTo(Timestamp other) {
+        int bySeconds = Long.compare(seconds, other.seconds);
+        return bySeconds != 0 ? bySeconds : Integer.compare(nanoseconds, other.nanoseconds);
+    }
+}
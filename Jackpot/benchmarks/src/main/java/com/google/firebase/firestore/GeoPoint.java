@@ -0,0 +1,22 @@
+package com.google.firebase.firestore;
+
+/**
+ * JVM stand-in for the Firestore GeoPoint, covering the members the domain classes use.
+ */
+public class GeoPoint {
+    private final double latitude;
+    private final double longitude;
+
+    public GeoPoint(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+}
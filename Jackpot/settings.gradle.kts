@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "Jackpot"
 include(":app")
+include(":benchmarks")